@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.time.Instant;
 
 /**
  * Docker Container Resource Object
@@ -130,6 +131,19 @@ public interface IDockerContainer {
 	 * @throws DockerManagerException
 	 */
 	public String retrieveStdErr() throws DockerManagerException;
+
+	/**
+	 * Stream the STDOUT and STDERR of the Docker Container a line at a time, rather than
+	 * retrieving the full contents.  The lines from STDOUT and STDERR are separated and
+	 * timestamped by the docker engine.
+	 * 
+	 * @param follow - keep the stream open for new output until the container stops or the stream is closed
+	 * @param since - only return the lines written at or after this time, or null for all
+	 * @param until - only return the lines written before this time, or null for all
+	 * @return a {@link IDockerLogStream} that must be closed
+	 * @throws DockerManagerException
+	 */
+	public IDockerLogStream streamLogs(boolean follow, Instant since, Instant until) throws DockerManagerException;
 	
 	/**
 	 * Checks with the docker engine to find the running state of this container.
@@ -157,6 +171,18 @@ public interface IDockerContainer {
 	 */
 	public void storeFile(String absolutePath, InputStream file) throws DockerManagerException;
 
+	/**
+	 * Stores a file of a known length onto the container, streaming it rather than relying on
+	 * the available bytes of the input stream. Path must be fully qualified including the name
+	 * of the file on the container.
+	 * 
+	 * @param absolutePath
+	 * @param file
+	 * @param length - the number of bytes to be read from the file
+	 * @throws DockerManagerException
+	 */
+	public void storeFile(String absolutePath, InputStream file, long length) throws DockerManagerException;
+
 	/**
 	 * Retreievs a InputStream of a file on the container.
 	 * 
@@ -0,0 +1,30 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.docker;
+
+import java.time.Instant;
+
+/**
+ * A line of output from a Docker Container, read from a {@link IDockerLogStream}
+ */
+public interface IDockerLogLine {
+
+	/**
+	 * @return true if the line was written to STDERR, false if written to STDOUT
+	 */
+	public boolean isStdErr();
+
+	/**
+	 * @return the time the docker engine recorded the line, or null if not known
+	 */
+	public Instant getTimestamp();
+
+	/**
+	 * @return the text of the line, without the timestamp or line terminator
+	 */
+	public String getText();
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.docker;
+
+import java.io.Closeable;
+import java.time.Instant;
+
+/**
+ * A stream of the STDOUT and STDERR of a Docker Container, read a line at a time so the
+ * whole log is not held in memory.
+ * <p>
+ * Obtained from {@link IDockerContainer#streamLogs(boolean, Instant, Instant)}. The stream
+ * must be closed when no longer required, which ends a followed stream.
+ */
+public interface IDockerLogStream extends Closeable {
+
+	/**
+	 * Read the next line of the log, waiting for it if the log is being followed
+	 *
+	 * @return the next line, or null if the end of the log has been reached
+	 * @throws DockerManagerException
+	 */
+	public IDockerLogLine readLine() throws DockerManagerException;
+
+	/**
+	 * The timestamp of the last line read, which can be used as the since time of a new stream
+	 * to carry on from this one
+	 *
+	 * @return the timestamp, or null if no lines have been read
+	 */
+	public Instant getLastTimestamp();
+
+}
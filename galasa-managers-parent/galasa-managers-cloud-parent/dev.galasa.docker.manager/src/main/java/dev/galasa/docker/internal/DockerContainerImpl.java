@@ -5,19 +5,17 @@
  */
 package dev.galasa.docker.internal;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -41,6 +39,7 @@ import dev.galasa.docker.IDockerContainer;
 import dev.galasa.docker.IDockerContainerConfig;
 import dev.galasa.docker.IDockerExec;
 import dev.galasa.docker.IDockerImage;
+import dev.galasa.docker.IDockerLogStream;
 import dev.galasa.docker.IDockerVolume;
 import dev.galasa.docker.internal.properties.DockerLeaveRunning;
 import dev.galasa.framework.spi.DynamicStatusStoreException;
@@ -56,6 +55,11 @@ public class DockerContainerImpl implements IDockerContainer {
 
     private static final String CONTAINER_NAME_PREFIX = "GALASA_";
 
+    private static final long   READY_TIMEOUT         = 60_000;
+    private static final long   READY_POLL_INTERVAL   = 250;
+    private static final int    ARCHIVE_PIPE_SIZE     = 64 * 1024;
+    private static final long   ARCHIVE_WRITER_TIMEOUT = 30_000;
+
     private IFramework framework;
     private DockerManagerImpl dockerManager;
     private String tag;
@@ -273,7 +277,7 @@ public class DockerContainerImpl implements IDockerContainer {
             logger.debug("Starting Docker container: " + tag);
             dockerEngine.startContainer(containerID);
             logger.info("Started Docker container: " + tag);
-            Thread.sleep(2000);
+            waitForContainerReady();
             alreadyUp = true;
         } catch (Exception e) {
             throw new DockerManagerException("Failed to start Docker container: " + tag, e);
@@ -283,6 +287,53 @@ public class DockerContainerImpl implements IDockerContainer {
 
     }
 
+    /**
+     * Waits for the started container to be running, and healthy if the image defines a health check,
+     * checking the state on the docker engine rather than waiting a fixed time.
+     * 
+     * A container that has already exited, or is not ready in time, is logged and left for the test to deal with.
+     * 
+     * @throws DockerManagerException
+     * @throws InterruptedException
+     */
+    private void waitForContainerReady() throws DockerManagerException, InterruptedException {
+        long expire = System.currentTimeMillis() + READY_TIMEOUT;
+        String status = null;
+        while (System.currentTimeMillis() < expire) {
+            JsonObject containerInfo = dockerEngine.getContainer(containerID);
+            if (containerInfo == null) {
+                throw new DockerManagerException("Docker container '" + tag + "' no longer exists");
+            }
+
+            JsonObject state = containerInfo.getAsJsonObject("State");
+            status = state.get("Status").getAsString();
+            if (!state.get("Running").getAsBoolean()) {
+                if (!"created".equals(status)) {
+                    logger.warn("Docker container '" + tag + "' is not running, status '" + status + "'");
+                    return;
+                }
+            } else {
+                JsonObject health = state.getAsJsonObject("Health");
+                if (health == null) {
+                    return;
+                }
+
+                status = health.get("Status").getAsString();
+                if ("healthy".equals(status)) {
+                    logger.debug("Docker container '" + tag + "' is healthy");
+                    return;
+                }
+                if ("unhealthy".equals(status)) {
+                    logger.warn("Docker container '" + tag + "' is running but unhealthy");
+                    return;
+                }
+            }
+
+            Thread.sleep(READY_POLL_INTERVAL);
+        }
+        logger.warn("Docker container '" + tag + "' was not ready after " + (READY_TIMEOUT / 1000) + " seconds, status '" + status + "'");
+    }
+
     /**
      * Issues the "docker stop" command
      */
@@ -488,6 +539,41 @@ public class DockerContainerImpl implements IDockerContainer {
         return dockerEngine.getLog("/containers/" + containerID + "/logs?stderr=true&timestamps=true");
     }
 
+    /**
+     * Streams the stdOut and stdErr from the container, optionally following new output
+     * 
+     * @throws DockerManagerException
+     */
+    @Override
+    public IDockerLogStream streamLogs(boolean follow, Instant since, Instant until) throws DockerManagerException {
+        JsonObject containerInfo = dockerEngine.getContainer(containerID);
+        if (containerInfo == null) {
+            throw new DockerManagerException("Docker container '" + tag + "' does not exist");
+        }
+        JsonElement tty = containerInfo.getAsJsonObject("Config").get("Tty");
+        boolean multiplexed = (tty == null || !tty.getAsBoolean());
+
+        StringBuilder path = new StringBuilder("/containers/" + containerID + "/logs?stdout=true&stderr=true&timestamps=true");
+        if (follow) {
+            path.append("&follow=true");
+        }
+        if (since != null) {
+            path.append("&since=" + toDockerTime(since));
+        }
+        if (until != null) {
+            path.append("&until=" + toDockerTime(until));
+        }
+
+        return new DockerLogStreamImpl(dockerEngine.getLogStream(path.toString()), multiplexed);
+    }
+
+    /**
+     * The docker engine accepts times as seconds since the epoch with a fraction
+     */
+    private String toDockerTime(Instant time) {
+        return String.format("%d.%09d", time.getEpochSecond(), time.getNano());
+    }
+
     /**
      * Polls the docker engine for information about a container to see if running.
      * 
@@ -683,21 +769,55 @@ public class DockerContainerImpl implements IDockerContainer {
      */
     @Override
     public void storeFile(String absolutePath, InputStream file) throws DockerManagerException {
+        try {
+            storeFile(absolutePath, file, file.available());
+        } catch (IOException e) {
+            throw new DockerManagerException("Unable to determine the size of the file to store", e);
+        }
+    }
+
+    /**
+     * Allows a file of a known length to be stored on a running docker container. The file is
+     * archived as it is sent, through a pipe, so it is neither held in memory nor written to disk.
+     * 
+     * @param absolutePath
+     * @param file
+     * @param length
+     */
+    @Override
+    public void storeFile(String absolutePath, InputStream file, long length) throws DockerManagerException {
         if(!absolutePath.startsWith("/")) {
             throw new DockerManagerException("Please specify the absolute path of the location on the container, including file name");
         }
         Path locPath = Paths.get(absolutePath);
-        File tar = compressToTar(file, locPath.getFileName().toString());
 
-        try{
-        
-        InputStream is = new FileInputStream(tar);
-        dockerEngine.sendArchiveFile(this, is,locPath.getParent().toString()+"/");
-        tar.delete();
-        } catch (FileNotFoundException e) {
-            logger.error("Failed to find compressed file", e);
-            tar.delete();
-            throw new DockerManagerException("Failed to create tar file.");
+        PipedInputStream tar = new PipedInputStream(ARCHIVE_PIPE_SIZE);
+        ArchiveWriter writer;
+        try {
+            writer = new ArchiveWriter(new PipedOutputStream(tar), file, locPath.getFileName().toString(), length);
+        } catch (IOException e) {
+            throw new DockerManagerException("Failed to create the archive pipe", e);
+        }
+        writer.start();
+
+        try {
+            dockerEngine.sendArchiveFile(this, tar, locPath.getParent().toString()+"/");
+        } finally {
+            // If the request ended without reading all of the archive, this stops the writer
+            IOUtils.closeQuietly(tar);
+            try {
+                writer.join(ARCHIVE_WRITER_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (writer.isAlive()) {
+            writer.interrupt();
+            throw new DockerManagerException("Timed out waiting for the file " + absolutePath + " to be archived");
+        }
+        if (writer.failure != null) {
+            throw new DockerManagerException("Failed to archive the file " + absolutePath, writer.failure);
         }
     }
 
@@ -719,65 +839,46 @@ public class DockerContainerImpl implements IDockerContainer {
      */
     @Override
     public String retrieveFileAsString(String path) throws DockerManagerException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-		String output = "";
-        InputStream in = dockerEngine.getArchiveFile(this, path);
-
-        try {
-            IOUtils.copy(in, bos);
-            output = bos.toString();
-            bos.close();
+        try (InputStream in = dockerEngine.getArchiveFile(this, path)) {
+            return IOUtils.toString(in, Charset.defaultCharset());
         } catch (IOException e) {
-            throw new DockerManagerException();
+            throw new DockerManagerException("Unable to read the file " + path + " from the Docker container", e);
         }
-        
-        return output;
     }
 
     /**
-     * Takes a input stream from a file and compresses to a tar.gz, used for the docker engine API 
-     *  to send archive files.
-     * @param file
-     * @param fileName
-     * @return
-     * @throws DockerManagerException
+     * Writes a file into a tar.gz archive on its own thread, to be read from the other end of the
+     * pipe as the docker engine API request body
      */
-    private File compressToTar(InputStream file, String fileName) throws DockerManagerException {
-        File targetFile = new File("output.tar.gz");
-        BufferedInputStream bIn = new BufferedInputStream(file);
-        FileOutputStream out = null;
-        TarArchiveOutputStream taos = null;
-        try {
-            out = new FileOutputStream(targetFile);
-
-            taos = new TarArchiveOutputStream(new GZIPOutputStream(new BufferedOutputStream(out)));
-            TarArchiveEntry aEntry = new TarArchiveEntry(fileName);
-            aEntry.setSize(file.available());
-            taos.putArchiveEntry(aEntry);
-            
-            int count;
-            byte data[] = new byte[2048];
-            while((count = bIn.read(data)) != -1) {
-                taos.write(data, 0, count);
-            }
-            taos.closeArchiveEntry();
-            
-            taos.flush();
-            taos.close();
-            bIn.close();
-            out.close();
-        } catch (IOException e) {
-            logger.error("IO error, failed to create tar", e);
-            throw new DockerManagerException(e);
-        } finally {
-            try {
-                out.close();
-                taos.close();
+    private static class ArchiveWriter extends Thread {
+        private final PipedOutputStream pipe;
+        private final InputStream       file;
+        private final String            fileName;
+        private final long              length;
+
+        private volatile IOException    failure;
+
+        private ArchiveWriter(PipedOutputStream pipe, InputStream file, String fileName, long length) {
+            super("Docker archive writer " + fileName);
+            setDaemon(true);
+            this.pipe = pipe;
+            this.file = file;
+            this.fileName = fileName;
+            this.length = length;
+        }
+
+        @Override
+        public void run() {
+            try (TarArchiveOutputStream taos = new TarArchiveOutputStream(new GZIPOutputStream(new BufferedOutputStream(pipe)))) {
+                TarArchiveEntry aEntry = new TarArchiveEntry(fileName);
+                aEntry.setSize(length);
+                taos.putArchiveEntry(aEntry);
+                IOUtils.copyLarge(file, taos, 0, length);
+                taos.closeArchiveEntry();
             } catch (IOException e) {
-                throw new DockerManagerException(e);
+                logger.error("IO error, failed to create tar", e);
+                failure = e;
             }
-            
         }
-        return targetFile;
     }
-}
\ No newline at end of file
+}
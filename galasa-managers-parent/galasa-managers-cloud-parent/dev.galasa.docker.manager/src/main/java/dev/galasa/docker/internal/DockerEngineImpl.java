@@ -11,6 +11,11 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 import javax.validation.constraints.NotNull;
 
@@ -52,6 +57,8 @@ public class DockerEngineImpl implements IDockerEngine {
 	private String dockerVersion;
 	private String apiVersion;
 
+	private final ConcurrentHashMap<String, CompletableFuture<String>> imagePulls = new ConcurrentHashMap<>();
+
 	private static final Log logger = LogFactory.getLog(DockerEngine.class);
 
 	/**
@@ -203,6 +210,33 @@ public class DockerEngineImpl implements IDockerEngine {
 		}
 	}
 
+	/**
+	 * Request a docker container log to be streamed, leaving the caller to read and close the response
+	 * 
+	 * @param path
+	 * @return CloseableHttpResponse
+	 * @throws DockerManagerException
+	 */
+	public CloseableHttpResponse getLogStream(String path) throws DockerManagerException {
+		CloseableHttpResponse response;
+		try {
+			response = dockerEngineClient.getFile(path);
+		} catch (HttpClientException e) {
+			throw new DockerManagerException("Get Log failed to Docker engine", e);
+		}
+
+		int statusCode = response.getStatusLine().getStatusCode();
+		if (statusCode == HttpStatus.SC_OK) {
+			return response;
+		}
+
+		closeResponse(response);
+		if (statusCode == HttpStatus.SC_NOT_FOUND) {
+			throw new DockerNotFoundException("Docker API log returned 'not found': " + path);
+		}
+		throw new DockerManagerException("Log Get failed to Docker engine - " + response.getStatusLine().toString());
+	}
+
 	/**
 	 * Pull docker image from registries
 	 * 
@@ -215,9 +249,48 @@ public class DockerEngineImpl implements IDockerEngine {
 	}
 
 	public String pullImage(@NotNull String fullName, String registryToken) throws DockerManagerException {
+		// The registry token is only sent on this request, as the client is shared by pulls from other registries
+		Map<String, String> headers = new HashMap<>();
+		headers.put("X-Registry-Auth", registryToken);
+		return postString("/images/create?fromImage=" + fullName, "", headers);
+	}
 
-		dockerEngineClient.addCommonHeader("X-Registry-Auth", registryToken);
-		return pullImage(fullName);
+	/**
+	 * Pull an image, sharing a pull of the same image that is already in progress. Containers
+	 * that are provisioned in parallel with the same image wait for the same pull rather than
+	 * pulling it again. A pull is forgotten once it completes, so a later request pulls the
+	 * image again and picks up a tag that has moved, such as latest.
+	 * 
+	 * @param fullName
+	 * @param registryToken - null if the registry does not need authentication
+	 * @return String response of the pull
+	 * @throws DockerManagerException
+	 */
+	public String pullImageOnce(@NotNull String fullName, String registryToken) throws DockerManagerException {
+		CompletableFuture<String> pull = new CompletableFuture<>();
+		CompletableFuture<String> existingPull = imagePulls.putIfAbsent(fullName, pull);
+		if (existingPull == null) {
+			try {
+				String response = (registryToken == null) ? pullImage(fullName) : pullImage(fullName, registryToken);
+				pull.complete(response);
+				return response;
+			} catch (DockerManagerException | RuntimeException e) {
+				pull.completeExceptionally(e);
+				throw e;
+			} finally {
+				imagePulls.remove(fullName, pull);
+			}
+		}
+
+		logger.debug("Waiting for the pull of image " + fullName + " already in progress");
+		try {
+			return existingPull.get();
+		} catch (ExecutionException e) {
+			throw new DockerManagerException("Failed to pull image " + fullName, e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DockerManagerException("Interrupted waiting for the pull of image " + fullName, e);
+		}
 	}
 
 	public byte[] buildImage(String imageName, Path dockerfile) throws DockerManagerException, IOException {
@@ -420,7 +493,6 @@ public class DockerEngineImpl implements IDockerEngine {
 			logger.error("Delete failed to Docker engine - " + resp);
 			throw new DockerManagerException("Delete failed to Docker engine - " + resp);
 		} catch (Exception e) {
-			dockerEngineClient.close();
 			throw new DockerManagerException("Delete failed to Docker engine", e);
 		}
 	}
@@ -493,9 +565,23 @@ public class DockerEngineImpl implements IDockerEngine {
 	 * @throws DockerManagerException
 	 */
 	private String postString(String path, String data) throws DockerManagerException {
+		return postString(path, data, null);
+	}
+
+	/**
+	 * Performs a HTTP POST to the docker engine to a specified path with a text
+	 * body and additional headers for this request only.
+	 * 
+	 * @param path
+	 * @param data
+	 * @param headers - can be null
+	 * @return
+	 * @throws DockerManagerException
+	 */
+	private String postString(String path, String data, Map<String, String> headers) throws DockerManagerException {
 		try {
 			logger.debug("Posting: " + data + "to the endpoint: " + path);
-			HttpClientResponse<String> response = dockerEngineClient.postText(path, data);
+			HttpClientResponse<String> response = dockerEngineClient.postText(path, data, headers);
 			String resp = response.getContent();
 
 			switch (response.getStatusCode()) {
@@ -511,7 +597,6 @@ public class DockerEngineImpl implements IDockerEngine {
 			logger.error("Post failed to docker engine - " + resp);
 			throw new DockerManagerException("Post failed to Docker engine - " + resp);
 		} catch (Exception e) {
-			dockerEngineClient.close();
 			throw new DockerManagerException("Post failed to Docker engine", e);
 		}
 	}
@@ -521,11 +606,25 @@ public class DockerEngineImpl implements IDockerEngine {
 	 * @param container
 	 * @param file
 	 * @param location
+	 * @throws DockerManagerException
 	 */
-	public void sendArchiveFile(DockerContainerImpl container, InputStream file, String location) {
+	public void sendArchiveFile(DockerContainerImpl container, InputStream file, String location) throws DockerManagerException {
 		String path = "/containers/" + container.getContainerId() + "/archive?path=" + location;
 
-		dockerEngineClient.putFile(path, file);
+		HttpClientResponse<String> response;
+		try {
+			response = dockerEngineClient.putTarFile(path, file);
+		} catch (HttpClientException e) {
+			throw new DockerManagerException("Archive Put failed to Docker engine", e);
+		}
+
+		switch (response.getStatusCode()) {
+		case HttpStatus.SC_OK:
+			return;
+		case HttpStatus.SC_NOT_FOUND:
+			throw new DockerNotFoundException("Docker API archive returned 'not found': " + path);
+		}
+		throw new DockerManagerException("Archive Put failed to Docker engine - " + response.getStatusLine() + "\n" + response.getContent());
 	}
 
 	/**
@@ -539,22 +638,46 @@ public class DockerEngineImpl implements IDockerEngine {
 	public InputStream getArchiveFile(DockerContainerImpl container, String filePath) throws DockerManagerException {
 		String path = "/containers/" + container.getContainerId() + "/archive?path=" + filePath;
 
+		CloseableHttpResponse response;
+		try {
+			response = dockerEngineClient.getFile(path);
+		} catch (HttpClientException e) {
+			logger.error("Failed to read returned output", e);
+			throw new DockerManagerException("Could not find entry in returned archive file");
+		}
+
+		int statusCode = response.getStatusLine().getStatusCode();
+		if (statusCode != HttpStatus.SC_OK) {
+			closeResponse(response);
+			if (statusCode == HttpStatus.SC_NOT_FOUND) {
+				throw new DockerNotFoundException("Docker API archive returned 'not found': " + path);
+			}
+			throw new DockerManagerException("Archive Get failed to Docker engine - " + response.getStatusLine().toString());
+		}
+
 		try {
-			CloseableHttpResponse response = dockerEngineClient.getFile(path);
 			InputStream in = response.getEntity().getContent();
 			
 			TarArchiveInputStream tais = new TarArchiveInputStream(in);
 			ArchiveEntry ae = tais.getNextEntry();
 			if (ae == null) {
-				tais.close();
-				in.close();
+				closeResponse(response);
 				throw new DockerManagerException("Could not find entry in returned archive file");
 			}
 
 			return tais;		
-		} catch (HttpClientException |IOException e) {
+		} catch (IOException e) {
+			closeResponse(response);
 			logger.error("Failed to read returned output", e);
 			throw new DockerManagerException("Could not find entry in returned archive file");
 		}
 	}
+
+	private void closeResponse(CloseableHttpResponse response) {
+		try {
+			response.close();
+		} catch (IOException e) {
+			logger.debug("Failed to close the response", e);
+		}
+	}
 }
\ No newline at end of file
@@ -12,10 +12,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import dev.galasa.ManagerException;
 import dev.galasa.docker.DockerContainer;
 import dev.galasa.docker.DockerManagerException;
 import dev.galasa.docker.DockerProvisionException;
@@ -34,6 +39,8 @@ import dev.galasa.framework.spi.IFramework;
  *   
  */
 public class DockerEnvironment implements IDockerEnvironment {
+    private static final int MAX_PARALLEL_CONTAINERS = 8;
+
     private IFramework framework;
     private DockerManagerImpl dockerManager;
     private IDynamicStatusStoreService dss;
@@ -127,11 +134,89 @@ public class DockerEnvironment implements IDockerEnvironment {
         // dockerEnginesChecked = true;
         // }
 
-        for (DockerContainerImpl container : getContainers()) {
-            container.checkContainer();
+        forEachContainer(getContainers(), DockerContainerImpl::checkContainer);
+    }
+
+    /**
+     * Starts the docker containers in parallel. Containers using the same image on an engine
+     * share a single pull of the image.
+     * 
+     * @param containers
+     * @throws DockerProvisionException
+     */
+    @Override
+    public void startDockerContainers(Collection<DockerContainerImpl> containers) throws DockerProvisionException {
+        forEachContainer(containers, DockerContainerImpl::start);
+    }
+
+    /**
+     * Runs the action against each of the containers in parallel, waiting for them all to finish
+     * before reporting the first failure.
+     */
+    private void forEachContainer(Collection<DockerContainerImpl> containers, ContainerAction action)
+            throws DockerProvisionException {
+        if (containers.isEmpty()) {
+            return;
+        }
+        if (containers.size() == 1) {
+            runContainerAction(containers.iterator().next(), action);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(containers.size(), MAX_PARALLEL_CONTAINERS), runnable -> {
+            Thread thread = new Thread(runnable, "Docker container provisioning");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> provisions = new ArrayList<>();
+            for (DockerContainerImpl container : containers) {
+                provisions.add(executor.submit(() -> {
+                    runContainerAction(container, action);
+                    return null;
+                }));
+            }
+
+            DockerProvisionException failure = null;
+            for (Future<?> provision : provisions) {
+                try {
+                    provision.get();
+                } catch (ExecutionException e) {
+                    DockerProvisionException cause = (e.getCause() instanceof DockerProvisionException)
+                            ? (DockerProvisionException) e.getCause()
+                            : new DockerProvisionException("Failed to provision Docker container", e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DockerProvisionException("Interrupted provisioning the Docker containers", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runContainerAction(DockerContainerImpl container, ContainerAction action) throws DockerProvisionException {
+        try {
+            action.run(container);
+        } catch (DockerProvisionException e) {
+            throw e;
+        } catch (ManagerException | RuntimeException e) {
+            throw new DockerProvisionException("Failed to provision Docker container: " + container.getContainerTag(), e);
         }
     }
 
+    private interface ContainerAction {
+        void run(DockerContainerImpl container) throws ManagerException;
+    }
+
     private void checkDockerEngines() throws DockerProvisionException {
         for (String id : enginesByTag.keySet()) {
             enginesByTag.get(id).checkEngine();
@@ -130,7 +130,7 @@ public class DockerImageImpl implements IDockerImage {
     }
 
     /**
-     * Pulls the image onto the docker engine.
+     * Pulls the image onto the docker engine, shared with any other containers using the same image on the engine.
      * 
      * @throws DockerManagerException
      */
@@ -145,11 +145,7 @@ public class DockerImageImpl implements IDockerImage {
             return;
         }
 
-        if(authRequired) {
-            pull = dockerEngine.pullImage(this.fullName, this.authToken);
-        } else {
-            pull = dockerEngine.pullImage(this.fullName);
-        }
+        pull = dockerEngine.pullImageOnce(this.fullName, authRequired ? this.authToken : null);
         if (pull == null) {
             throw new DockerManagerException("Docker daemon did not respond to pull request");
         }
@@ -0,0 +1,214 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.docker.internal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+import dev.galasa.docker.DockerManagerException;
+import dev.galasa.docker.IDockerLogLine;
+import dev.galasa.docker.IDockerLogStream;
+
+/**
+ * Reads the lines of a docker container log as they are streamed from the docker engine.
+ *
+ * Containers without a TTY have STDOUT and STDERR multiplexed into frames, each with an 8 byte header
+ * of the stream type and the length of the frame. Containers with a TTY have a single raw stream.
+ * The logs are requested with timestamps, which are removed from the front of each line.
+ */
+public class DockerLogStreamImpl implements IDockerLogStream {
+
+    private static final int STREAM_STDERR = 2;
+
+    private final CloseableHttpResponse response;
+    private final DataInputStream       in;
+    private final boolean               multiplexed;
+
+    private final ArrayDeque<IDockerLogLine> pendingLines = new ArrayDeque<>();
+    private final ByteArrayOutputStream      rawLine      = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream      stdErrLine   = new ByteArrayOutputStream();
+
+    private Instant          lastTimestamp;
+    private volatile boolean ended;
+    private volatile boolean closed;
+
+    /**
+     * @param response - the response of the logs request, which is closed with this stream
+     * @param multiplexed - false if the container has a TTY
+     * @throws DockerManagerException
+     */
+    public DockerLogStreamImpl(CloseableHttpResponse response, boolean multiplexed) throws DockerManagerException {
+        this.response = response;
+        this.multiplexed = multiplexed;
+        try {
+            this.in = new DataInputStream(new BufferedInputStream(response.getEntity().getContent()));
+        } catch (IOException e) {
+            throw new DockerManagerException("Unable to read the Docker container log", e);
+        }
+    }
+
+    @Override
+    public synchronized IDockerLogLine readLine() throws DockerManagerException {
+        try {
+            while (pendingLines.isEmpty() && !ended) {
+                if (multiplexed) {
+                    readFrame();
+                } else {
+                    readRawLine();
+                }
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                throw new DockerManagerException("Unable to read the Docker container log", e);
+            }
+            // Closed by another thread while reading, so there are no more lines
+            ended = true;
+        }
+
+        IDockerLogLine line = pendingLines.poll();
+        if (line != null && line.getTimestamp() != null) {
+            lastTimestamp = line.getTimestamp();
+        }
+        return line;
+    }
+
+    @Override
+    public synchronized Instant getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Closes the response rather than only the content, as closing the content of a followed log
+     * would wait for the container to end. A log read to the end leaves the connection to be reused.
+     *
+     * Not synchronized, so that a thread following the log can be stopped by closing the stream from
+     * another thread, the read in progress ends and readLine returns null.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (ended) {
+            in.close();
+        }
+        response.close();
+    }
+
+    /**
+     * Reads a frame, the lines of each stream are kept until they are complete, as a line can be
+     * split across frames
+     */
+    private void readFrame() throws IOException {
+        int streamType = in.read();
+        if (streamType < 0) {
+            ended = true;
+            addPartialLine(false, rawLine);
+            addPartialLine(true, stdErrLine);
+            return;
+        }
+
+        byte[] header = new byte[7];
+        in.readFully(header);
+        int length = ((header[3] & 0xff) << 24) | ((header[4] & 0xff) << 16) | ((header[5] & 0xff) << 8) | (header[6] & 0xff);
+
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+
+        boolean stdErr = streamType == STREAM_STDERR;
+        ByteArrayOutputStream line = stdErr ? stdErrLine : rawLine;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (frame[i] == '\n') {
+                line.write(frame, start, i - start);
+                addLine(stdErr, new String(line.toByteArray(), StandardCharsets.UTF_8));
+                line.reset();
+                start = i + 1;
+            }
+        }
+        line.write(frame, start, length - start);
+    }
+
+    private void addPartialLine(boolean stdErr, ByteArrayOutputStream line) {
+        if (line.size() > 0) {
+            addLine(stdErr, new String(line.toByteArray(), StandardCharsets.UTF_8));
+            line.reset();
+        }
+    }
+
+    private void readRawLine() throws IOException {
+        rawLine.reset();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                ended = true;
+                if (rawLine.size() == 0) {
+                    return;
+                }
+                break;
+            }
+            rawLine.write(b);
+        }
+        addLine(false, new String(rawLine.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private void addLine(boolean stdErr, String text) {
+        if (text.endsWith("\r")) {
+            text = text.substring(0, text.length() - 1);
+        }
+
+        Instant timestamp = null;
+        int space = text.indexOf(' ');
+        if (space > 0) {
+            try {
+                timestamp = Instant.parse(text.substring(0, space));
+                text = text.substring(space + 1);
+            } catch (DateTimeParseException e) {
+                // Not timestamped, keep the whole line
+            }
+        }
+
+        pendingLines.add(new DockerLogLine(stdErr, timestamp, text));
+    }
+
+    private static class DockerLogLine implements IDockerLogLine {
+        private final boolean stdErr;
+        private final Instant timestamp;
+        private final String  text;
+
+        private DockerLogLine(boolean stdErr, Instant timestamp, String text) {
+            this.stdErr = stdErr;
+            this.timestamp = timestamp;
+            this.text = text;
+        }
+
+        @Override
+        public boolean isStdErr() {
+            return stdErr;
+        }
+
+        @Override
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+    }
+
+}
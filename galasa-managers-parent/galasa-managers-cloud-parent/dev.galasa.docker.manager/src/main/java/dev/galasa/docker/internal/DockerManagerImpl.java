@@ -65,6 +65,7 @@ public class DockerManagerImpl extends AbstractManager implements IDockerManager
     private IDockerEnvironment                  dockerEnvironment;
     private List<DockerRegistryImpl>            registries = new ArrayList<DockerRegistryImpl>();
     private boolean                             required = false;
+    private List<DockerContainerImpl>           containersToStart = new ArrayList<>();
 
     /**
      * Initialies the DockerManager, adding the requirement of the HttpManager
@@ -146,10 +147,20 @@ public class DockerManagerImpl extends AbstractManager implements IDockerManager
     @GenerateAnnotatedField(annotation = DockerContainer.class)
     public IDockerContainer generateDockerContainer(Field field, List<Annotation> annotations) throws DockerManagerException {
         DockerContainer annotationContainer = field.getAnnotation(DockerContainer.class);
-        return this.provisionContainer(annotationContainer.dockerContainerTag(),
+        DockerContainerImpl container;
+        try {
+            // Started with the other annotated containers at the end of provision generate
+            container = dockerEnvironment.provisionDockerContainer(annotationContainer.dockerContainerTag(),
                                         annotationContainer.image(),
-                                        annotationContainer.start(),
-                                        annotationContainer.dockerEngineTag()); 
+                                        false,
+                                        annotationContainer.dockerEngineTag());
+        } catch (DockerProvisionException e) {
+            throw new DockerManagerException("Failed to provision Docker container tag: "+ annotationContainer.dockerContainerTag(), e);
+        }
+        if (annotationContainer.start() && !containersToStart.contains(container)) {
+            containersToStart.add(container);
+        }
+        return container;
     }
 
     /**
@@ -233,6 +244,8 @@ public class DockerManagerImpl extends AbstractManager implements IDockerManager
         registerDockerRegistires();
         logger.info("Finding all Docker related annotations");
         generateDockerFields();
+        logger.info("Starting Docker containers");
+        dockerEnvironment.startDockerContainers(containersToStart);
     }
 
     /**
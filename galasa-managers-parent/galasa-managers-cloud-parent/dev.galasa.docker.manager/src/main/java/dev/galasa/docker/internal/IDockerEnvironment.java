@@ -21,6 +21,14 @@ public interface IDockerEnvironment {
 	 */
 	public void build(List<Class<?>> testClasses) throws DockerProvisionException;
 
+	/**
+	 * Start the docker containers in parallel, waiting for them all to be ready.
+	 * 
+	 * @param containers
+	 * @throws DockerProvisionException
+	 */
+	public void startDockerContainers(Collection<DockerContainerImpl> containers) throws DockerProvisionException;
+
 	/**
 	 * Clean up the docker environment, discard all containers in the instance.
 	 * 
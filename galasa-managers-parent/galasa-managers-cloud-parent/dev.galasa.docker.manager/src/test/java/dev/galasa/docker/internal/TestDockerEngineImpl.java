@@ -0,0 +1,264 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.docker.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.HttpStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.docker.DockerManagerException;
+import dev.galasa.docker.internal.properties.DockerPropertiesSingleton;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IFramework;
+import dev.galasa.http.HttpClientException;
+import dev.galasa.http.HttpClientResponse;
+import dev.galasa.http.IHttpClient;
+import dev.galasa.http.spi.IHttpManagerSpi;
+
+public class TestDockerEngineImpl {
+
+    private static final String PULLED = "{\"status\":\"Status: Downloaded newer image for registry/bob:latest\"}";
+
+    private IFramework frameworkMock;
+    private DockerManagerImpl dockerManagerMock;
+    private IDynamicStatusStoreService dssMock;
+    private IHttpClient clientMock;
+
+    private final AtomicInteger pulls = new AtomicInteger();
+
+    @Before
+    public void init() throws Exception {
+        IConfigurationPropertyStoreService cps = mock(IConfigurationPropertyStoreService.class);
+        when(cps.getProperty(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            switch (invocation.getArgument(0) + "." + invocation.getArgument(1)) {
+                case "dse.engine.DEFAULT":
+                    return "ENGINE1";
+                case "engine.hostname":
+                    return "http://localhost";
+                case "engine.port":
+                    return "2375";
+                default:
+                    return null;
+            }
+        });
+        new DockerPropertiesSingleton().activate();
+        DockerPropertiesSingleton.setCps(cps);
+
+        dssMock = mock(IDynamicStatusStoreService.class);
+        when(dssMock.get(anyString())).thenReturn("U1");
+        frameworkMock = mock(IFramework.class);
+        when(frameworkMock.getDynamicStatusStoreService(any())).thenReturn(dssMock);
+        when(frameworkMock.getTestRunName()).thenReturn("U1");
+
+        clientMock = mock(IHttpClient.class);
+        IHttpManagerSpi httpManagerMock = mock(IHttpManagerSpi.class);
+        when(httpManagerMock.newHttpClient()).thenReturn(clientMock);
+        dockerManagerMock = mock(DockerManagerImpl.class);
+        when(dockerManagerMock.getHttpManager()).thenReturn(httpManagerMock);
+
+        // The pull is slow, so the containers provisioned in parallel all want the image at the same time
+        when(clientMock.postText(startsWith("/images/create"), anyString(), any())).thenAnswer(invocation -> {
+            pulls.incrementAndGet();
+            Thread.sleep(200);
+            return response(HttpStatus.SC_OK, PULLED);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> HttpClientResponse<T> response(int statusCode, T content) {
+        HttpClientResponse<T> response = mock(HttpClientResponse.class);
+        when(response.getStatusCode()).thenReturn(statusCode);
+        when(response.getStatusLine()).thenReturn(String.valueOf(statusCode));
+        when(response.getContent()).thenReturn(content);
+        return response;
+    }
+
+    private DockerEngineImpl createEngine() throws Exception {
+        return new DockerEngineImpl(frameworkMock, dockerManagerMock, "DEFAULT", dssMock);
+    }
+
+    private <T> List<T> runTogether(List<Callable<T>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void pullImageOncePullsEachImageOnce() throws Exception {
+        DockerEngineImpl engine = createEngine();
+
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(() -> engine.pullImageOnce("registry/bob:latest", null));
+        }
+        List<String> responses = runTogether(tasks);
+
+        assertThat(pulls.get()).as("Number of pulls of the image").isEqualTo(1);
+        assertThat(responses).as("Responses to the pulls").containsOnly(PULLED).hasSize(5);
+    }
+
+    @Test
+    public void pullImageOncePullsAgainOnceThePullHasCompleted() throws Exception {
+        DockerEngineImpl engine = createEngine();
+
+        engine.pullImageOnce("registry/bob:latest", null);
+        engine.pullImageOnce("registry/bob:latest", null);
+
+        assertThat(pulls.get()).as("Number of pulls of a tag that may have moved").isEqualTo(2);
+    }
+
+    @Test
+    public void pullImageSendsTheRegistryTokenOnlyOnThePull() throws Exception {
+        DockerEngineImpl engine = createEngine();
+
+        engine.pullImage("registry/bob:latest", "token1");
+        engine.pullImage("other/fred:latest");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, String>> headers = ArgumentCaptor.forClass(Map.class);
+        verify(clientMock).postText(eq("/images/create?fromImage=registry/bob:latest"), eq(""), headers.capture());
+        assertThat(headers.getValue()).as("Headers of the authenticated pull").containsEntry("X-Registry-Auth", "token1");
+        verify(clientMock).postText(eq("/images/create?fromImage=other/fred:latest"), eq(""), isNull());
+        verify(clientMock, never()).addCommonHeader(anyString(), anyString());
+    }
+
+    @Test
+    public void containersStartedInParallelShareThePull() throws Exception {
+        DockerEngineImpl engine = createEngine();
+
+        DockerRegistryImpl registry = mock(DockerRegistryImpl.class);
+        when(registry.doYouHave(any())).thenReturn(true);
+        when(registry.getHost()).thenReturn("registry");
+        when(registry.getPrefix()).thenReturn("");
+        when(registry.getAuthToken()).thenReturn("token1");
+        when(dockerManagerMock.getRegistries()).thenReturn(Arrays.asList(registry));
+
+        // No containers are defined until they are created, then they are running with no ports
+        AtomicInteger created = new AtomicInteger();
+        when(clientMock.getJson(startsWith("/containers/GALASA_"))).thenAnswer(invocation -> response(HttpStatus.SC_NOT_FOUND, null));
+        when(clientMock.postJson(startsWith("/containers/create"), any(JsonObject.class))).thenAnswer(invocation -> {
+            JsonObject container = new JsonObject();
+            container.addProperty("Id", "id" + created.incrementAndGet());
+            return response(HttpStatus.SC_CREATED, container);
+        });
+        when(clientMock.getJson(startsWith("/containers/id"))).thenAnswer(invocation -> {
+            JsonObject state = new JsonObject();
+            state.addProperty("Status", "running");
+            state.addProperty("Running", true);
+            JsonObject networkSettings = new JsonObject();
+            networkSettings.add("Ports", new JsonObject());
+            JsonObject container = new JsonObject();
+            container.add("State", state);
+            container.add("NetworkSettings", networkSettings);
+            return response(HttpStatus.SC_OK, container);
+        });
+        when(clientMock.postText(startsWith("/containers/id"), anyString(), any())).thenAnswer(invocation -> response(HttpStatus.SC_NO_CONTENT, null));
+
+        List<DockerContainerImpl> containersToStart = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            DockerSlotImpl slot = mock(DockerSlotImpl.class);
+            when(slot.getSlotName()).thenReturn("SLOT" + i);
+            DockerImageImpl image = new DockerImageImpl(frameworkMock, dockerManagerMock, engine, "bob:latest");
+            containersToStart.add(new DockerContainerImpl(frameworkMock, dockerManagerMock, "CONTAINER" + i, engine, image, false, slot));
+        }
+
+        new DockerEnvironment(frameworkMock, dockerManagerMock).startDockerContainers(containersToStart);
+
+        assertThat(pulls.get()).as("Number of pulls of the shared image").isEqualTo(1);
+        assertThat(created.get()).as("Number of containers created").isEqualTo(4);
+        verify(clientMock, times(4)).postText(startsWith("/containers/id"), eq(""), any());
+        verify(clientMock, never()).addCommonHeader(anyString(), anyString());
+    }
+
+    private DockerContainerImpl createContainer(DockerEngineImpl engine) throws Exception {
+        DockerSlotImpl slot = mock(DockerSlotImpl.class);
+        when(slot.getSlotName()).thenReturn("SLOT1");
+        DockerImageImpl image = new DockerImageImpl(frameworkMock, dockerManagerMock, engine, "bob:latest");
+        return new DockerContainerImpl(frameworkMock, dockerManagerMock, "CONTAINER1", engine, image, false, slot);
+    }
+
+    private byte[] randomFile() {
+        // Random, so the archive is larger than the pipe to the request
+        byte[] file = new byte[1024 * 1024];
+        new Random(1).nextBytes(file);
+        return file;
+    }
+
+    @Test
+    public void storeFileStreamsTheArchive() throws Exception {
+        DockerContainerImpl container = createContainer(createEngine());
+        AtomicInteger archiveSize = new AtomicInteger();
+        when(clientMock.putTarFile(anyString(), any(InputStream.class))).thenAnswer(invocation -> {
+            try (InputStream archive = invocation.getArgument(1)) {
+                archiveSize.set(IOUtils.toByteArray(archive).length);
+            }
+            return response(HttpStatus.SC_OK, "");
+        });
+
+        byte[] file = randomFile();
+        container.storeFile("/tmp/file", new ByteArrayInputStream(file), file.length);
+
+        assertThat(archiveSize.get()).as("Size of the archive sent").isGreaterThan(file.length);
+    }
+
+    @Test
+    public void storeFileReportsAFailedUpload() throws Exception {
+        DockerContainerImpl container = createContainer(createEngine());
+        // The request reads the start of the archive then fails, leaving the rest of the archive unread
+        when(clientMock.putTarFile(anyString(), any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream archive = invocation.getArgument(1);
+            archive.read(new byte[100]);
+            throw new HttpClientException("Connection reset");
+        });
+
+        byte[] file = randomFile();
+        long start = System.currentTimeMillis();
+        assertThatThrownBy(() -> container.storeFile("/tmp/file", new ByteArrayInputStream(file), file.length))
+                .as("Failure of the upload")
+                .isInstanceOf(DockerManagerException.class)
+                .hasMessageContaining("Archive Put failed");
+        assertThat(System.currentTimeMillis() - start).as("Time to report the failure").isLessThan(10_000);
+    }
+
+}
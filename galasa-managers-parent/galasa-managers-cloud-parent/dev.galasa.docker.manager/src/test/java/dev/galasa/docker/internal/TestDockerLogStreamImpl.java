@@ -0,0 +1,202 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.docker.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.junit.Test;
+
+import dev.galasa.docker.IDockerLogLine;
+
+public class TestDockerLogStreamImpl {
+
+    private static final int STDOUT = 1;
+    private static final int STDERR = 2;
+
+    private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+    private void frame(int streamType, String text) {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        frame(streamType, data);
+    }
+
+    private void frame(int streamType, byte[] data) {
+        int length = data.length;
+        log.write(streamType);
+        log.write(0);
+        log.write(0);
+        log.write(0);
+        log.write(length >>> 24);
+        log.write(length >>> 16);
+        log.write(length >>> 8);
+        log.write(length);
+        log.write(data, 0, length);
+    }
+
+    private CloseableHttpResponse response(InputStream content) throws IOException {
+        HttpEntity entity = mock(HttpEntity.class);
+        when(entity.getContent()).thenReturn(content);
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getEntity()).thenReturn(entity);
+        return response;
+    }
+
+    private List<IDockerLogLine> readAll(DockerLogStreamImpl stream) throws Exception {
+        List<IDockerLogLine> lines = new ArrayList<>();
+        IDockerLogLine line;
+        while ((line = stream.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns at most a few bytes on each read, as the network does
+     */
+    private static class TrickleInputStream extends ByteArrayInputStream {
+        private TrickleInputStream(byte[] data) {
+            super(data);
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 3));
+        }
+    }
+
+    @Test
+    public void framesAreSeparatedIntoStdOutAndStdErr() throws Exception {
+        frame(STDOUT, "out one\nout two\n");
+        frame(STDERR, "err one\n");
+        frame(STDOUT, "out three\r\n");
+
+        DockerLogStreamImpl stream = new DockerLogStreamImpl(response(new ByteArrayInputStream(log.toByteArray())), true);
+        List<IDockerLogLine> lines = readAll(stream);
+
+        assertThat(lines).extracting(IDockerLogLine::getText).as("Text of the lines").containsExactly("out one", "out two", "err one", "out three");
+        assertThat(lines).extracting(IDockerLogLine::isStdErr).as("Streams of the lines").containsExactly(false, false, true, false);
+    }
+
+    @Test
+    public void framesSplitAcrossReadsAreReassembled() throws Exception {
+        frame(STDOUT, "first line\n");
+        frame(STDERR, "second line\n");
+
+        DockerLogStreamImpl stream = new DockerLogStreamImpl(response(new TrickleInputStream(log.toByteArray())), true);
+        List<IDockerLogLine> lines = readAll(stream);
+
+        assertThat(lines).extracting(IDockerLogLine::getText).as("Text of the lines").containsExactly("first line", "second line");
+        assertThat(lines).extracting(IDockerLogLine::isStdErr).as("Streams of the lines").containsExactly(false, true);
+    }
+
+    @Test
+    public void linesSplitAcrossFramesAreJoined() throws Exception {
+        byte[] text = "café au lait\n".getBytes(StandardCharsets.UTF_8);
+        // Split the line in the middle of the two byte character, with a line of the other stream between the parts
+        byte[] first = new byte[4];
+        byte[] second = new byte[text.length - 4];
+        System.arraycopy(text, 0, first, 0, first.length);
+        System.arraycopy(text, first.length, second, 0, second.length);
+        frame(STDOUT, first);
+        frame(STDERR, "error\n");
+        frame(STDOUT, second);
+        frame(STDOUT, "no line end");
+
+        DockerLogStreamImpl stream = new DockerLogStreamImpl(response(new ByteArrayInputStream(log.toByteArray())), true);
+        List<IDockerLogLine> lines = readAll(stream);
+
+        assertThat(lines).extracting(IDockerLogLine::getText).as("Text of the lines").containsExactly("error", "café au lait", "no line end");
+    }
+
+    @Test
+    public void timestampsAreRemovedFromTheLines() throws Exception {
+        frame(STDOUT, "2024-03-01T10:15:30.123456789Z started\n2024-03-01T10:15:31Z running with spaces\nnot timestamped\n");
+
+        DockerLogStreamImpl stream = new DockerLogStreamImpl(response(new ByteArrayInputStream(log.toByteArray())), true);
+
+        IDockerLogLine line = stream.readLine();
+        assertThat(line.getText()).as("Text of the first line").isEqualTo("started");
+        assertThat(line.getTimestamp()).as("Timestamp of the first line").isEqualTo(Instant.parse("2024-03-01T10:15:30.123456789Z"));
+
+        line = stream.readLine();
+        assertThat(line.getText()).as("Text of the second line").isEqualTo("running with spaces");
+        assertThat(stream.getLastTimestamp()).as("Last timestamp").isEqualTo(Instant.parse("2024-03-01T10:15:31Z"));
+
+        line = stream.readLine();
+        assertThat(line.getText()).as("Text of the line without a timestamp").isEqualTo("not timestamped");
+        assertThat(line.getTimestamp()).as("Timestamp of the line without a timestamp").isNull();
+        assertThat(stream.getLastTimestamp()).as("Last timestamp after a line without one").isEqualTo(Instant.parse("2024-03-01T10:15:31Z"));
+
+        assertThat(stream.readLine()).as("End of the log").isNull();
+    }
+
+    @Test
+    public void rawStreamIsReadByLine() throws Exception {
+        byte[] data = "2024-03-01T10:15:30Z one\r\ntwo\nthree".getBytes(StandardCharsets.UTF_8);
+
+        DockerLogStreamImpl stream = new DockerLogStreamImpl(response(new TrickleInputStream(data)), false);
+        List<IDockerLogLine> lines = readAll(stream);
+
+        assertThat(lines).extracting(IDockerLogLine::getText).as("Text of the lines").containsExactly("one", "two", "three");
+        assertThat(lines).extracting(IDockerLogLine::isStdErr).as("Streams of the lines").containsOnly(false);
+    }
+
+    @Test
+    public void closeFromAnotherThreadStopsAFollowedLog() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        CountDownLatch reading = new CountDownLatch(1);
+        // Blocks waiting for more of the log until the response is closed, as a followed log does
+        InputStream followed = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Connection closed");
+            }
+        };
+        CloseableHttpResponse response = response(followed);
+        doAnswer(invocation -> {
+            closed.countDown();
+            return null;
+        }).when(response).close();
+
+        DockerLogStreamImpl stream = new DockerLogStreamImpl(response, true);
+        CompletableFuture<IDockerLogLine> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.readLine();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThat(reading.await(10, TimeUnit.SECONDS)).as("The follower started reading").isTrue();
+
+        stream.close();
+
+        assertThat(follower.get(10, TimeUnit.SECONDS)).as("The line read after the stream is closed").isNull();
+    }
+
+}
@@ -45,6 +45,15 @@ public interface IKubernetesNamespace {
      * @throws KubernetesManagerException if there are problems saving the entire configuration to storedartifacts
      */
     public void saveNamespaceConfiguration(String storedArtifactPath) throws KubernetesManagerException;
+    /**
+     * Save all the supported resources to stored artifacts, along with pod logs.  The logs of containers that have 
+     * restarted can also be saved, which is slower so is only done on request.
+     * 
+     * @param storedArtifactPath The path in stored artifacts to save the configuration in.  If null, will default.
+     * @param previousLogs true to also save the logs of the previous instance of restarted containers
+     * @throws KubernetesManagerException if there are problems saving the entire configuration to storedartifacts
+     */
+    public void saveNamespaceConfiguration(String storedArtifactPath, boolean previousLogs) throws KubernetesManagerException;
 
 
     /**
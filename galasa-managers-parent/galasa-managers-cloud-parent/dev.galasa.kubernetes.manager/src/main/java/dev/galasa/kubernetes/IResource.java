@@ -45,4 +45,15 @@ public interface IResource {
      */
     public void refresh() throws KubernetesManagerException;
 
+    /**
+     * Wait for the resource to be ready.  Deployments and StatefulSets are ready when all their replicas are
+     * available, PersistentVolumeClaims when bound and LoadBalancer Services when they have an ingress.  Other
+     * resources are ready once created.
+     * 
+     * @param timeoutSeconds How long to wait for the resource
+     * @return true if the resource is ready, false if it was not ready in time
+     * @throws KubernetesManagerException If there is a comms problem to the Kubernetes Cluster
+     */
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException;
+
 }
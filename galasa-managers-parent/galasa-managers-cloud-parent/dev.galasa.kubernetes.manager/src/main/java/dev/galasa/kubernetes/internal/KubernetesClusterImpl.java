@@ -57,6 +57,7 @@ public class KubernetesClusterImpl {
     private final IFramework                 framework;
     
     private ApiClient                        apiClient;
+    private ApiClient                        watchApiClient;
 
     public KubernetesClusterImpl(String clusterId, IDynamicStatusStoreService dss, IFramework framework) {
         this.clusterId = clusterId;     
@@ -185,6 +186,29 @@ public class KubernetesClusterImpl {
             return this.apiClient;
         }
         
+        this.apiClient = createApiClient();
+        return this.apiClient;
+    }
+
+    /**
+     * Create an APIClient for watching resources on the Cluster.  Watches are held open until the server ends them,
+     * so unlike the normal client there is no read timeout.
+     * 
+     * @return An APIClient.  never null
+     * @throws KubernetesManagerException - If there is a problem with authentication or communication
+     */
+    @NotNull
+    public synchronized ApiClient getWatchApi() throws KubernetesManagerException {
+        if (this.watchApiClient != null) {
+            return this.watchApiClient;
+        }
+
+        this.watchApiClient = createApiClient();
+        this.watchApiClient.setReadTimeout(0);
+        return this.watchApiClient;
+    }
+
+    private ApiClient createApiClient() throws KubernetesManagerException {
         URL url = KubernetesUrl.get(this);
         boolean validateCertificate = KubernetesValidateCertificate.get(this);
         String credentialsId = KubernetesCredentials.get(this);
@@ -207,12 +231,12 @@ public class KubernetesClusterImpl {
         
         
         try {
-            this.apiClient = Config.fromToken(url.toString(), new String(((ICredentialsToken)credentials).getToken()), validateCertificate);
+            ApiClient newApiClient = Config.fromToken(url.toString(), new String(((ICredentialsToken)credentials).getToken()), validateCertificate);
             //TODO do, raise issue because Quantity is not being serialized properly
-            applyNewGson(this.apiClient);
-            this.apiClient.setDebugging(false);
+            applyNewGson(newApiClient);
+            newApiClient.setDebugging(false);
             
-            return this.apiClient;
+            return newApiClient;
         } catch(Exception e) {
             throw new KubernetesManagerException("Unable the initialise the Kubernetes API Client", e);
         }
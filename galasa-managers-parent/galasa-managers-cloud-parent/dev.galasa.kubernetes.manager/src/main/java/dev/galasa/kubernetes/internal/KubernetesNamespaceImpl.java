@@ -6,14 +6,21 @@
 package dev.galasa.kubernetes.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -21,6 +28,7 @@ import javax.validation.constraints.NotNull;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.yaml.snakeyaml.DumperOptions;
 
 import com.google.protobuf.Message;
 
@@ -34,6 +42,9 @@ import dev.galasa.framework.spi.IRun;
 import dev.galasa.kubernetes.IKubernetesNamespace;
 import dev.galasa.kubernetes.IResource;
 import dev.galasa.kubernetes.KubernetesManagerException;
+import dev.galasa.kubernetes.internal.properties.KubernetesSaveLogLimitBytes;
+import dev.galasa.kubernetes.internal.properties.KubernetesSaveLogTailLines;
+import dev.galasa.kubernetes.internal.properties.KubernetesSaveThreads;
 import dev.galasa.kubernetes.internal.properties.KubernetesStorageClass;
 import dev.galasa.kubernetes.internal.resources.ConfigMapImpl;
 import dev.galasa.kubernetes.internal.resources.DeploymentImpl;
@@ -46,11 +57,13 @@ import io.kubernetes.client.ProtoClient;
 import io.kubernetes.client.ProtoClient.ObjectOrStatus;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.JSON;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
 import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1ConfigMap;
 import io.kubernetes.client.openapi.models.V1ConfigMapList;
 import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
 import io.kubernetes.client.openapi.models.V1DeleteOptions;
 import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.openapi.models.V1DeploymentList;
@@ -61,7 +74,7 @@ import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimList;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimSpec;
 import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1PodList;
-import io.kubernetes.client.openapi.models.V1ReplicaSetList;
+import io.kubernetes.client.openapi.models.V1ReplicaSet;
 import io.kubernetes.client.openapi.models.V1Secret;
 import io.kubernetes.client.openapi.models.V1SecretList;
 import io.kubernetes.client.openapi.models.V1Service;
@@ -71,6 +84,8 @@ import io.kubernetes.client.openapi.models.V1StatefulSetList;
 import io.kubernetes.client.openapi.models.V1StatefulSetSpec;
 import io.kubernetes.client.proto.V1.Namespace;
 import io.kubernetes.client.util.Yaml;
+import okhttp3.Call;
+import okhttp3.Response;
 
 /**
  * The Kubernetes Namespace implementation.
@@ -94,6 +109,8 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
     private final String                     runName;
     private final String                     tag;
 
+    private KubernetesNamespaceWatcher       watcher;
+
     public KubernetesNamespaceImpl(KubernetesClusterImpl cluster, String namespaceId, String tag, IFramework framework, IDynamicStatusStoreService dss) {
         this.cluster     = cluster;
         this.namespaceId = namespaceId;
@@ -117,6 +134,24 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
         return this.cluster;
     }
 
+    /**
+     * @return The watcher that caches the resources of this namespace, started on first use
+     * @throws KubernetesManagerException If there is a problem creating the API client
+     */
+    public synchronized KubernetesNamespaceWatcher getWatcher() throws KubernetesManagerException {
+        if (this.watcher == null) {
+            this.watcher = new KubernetesNamespaceWatcher(this.cluster.getWatchApi(), this.namespaceId, getFullId());
+        }
+        return this.watcher;
+    }
+
+    private synchronized void stopWatcher() {
+        if (this.watcher != null) {
+            this.watcher.stop();
+            this.watcher = null;
+        }
+    }
+
     /**
      * Initialise the namespace by creating a ConfigMap with the runname.  This is to ensure 
      * that the namespace was clean and not in use.
@@ -160,8 +195,12 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
      * @throws KubernetesManagerException Any problem with teh cluster or DSS
      */
     public void discard(String runName) throws KubernetesManagerException {
-        if (cleanNamespace()) {
-            clearSlot(runName);
+        try {
+            if (cleanNamespace()) {
+                clearSlot(runName);
+            }
+        } finally {
+            stopWatcher();
         }
     }
 
@@ -215,6 +254,10 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
         ProtoClient pc = new ProtoClient(this.cluster.getApi());
 
         try {
+            //*** Start watching the resources that take time to go, so the caches are ready once they have been deleted
+            KubernetesNamespaceWatcher namespaceWatcher = getWatcher();
+            namespaceWatcher.watch(V1Pod.class, V1ReplicaSet.class, V1PersistentVolumeClaim.class);
+
             //*** Delete all configmaps that exist in the namespace
             V1ConfigMapList configMapList = coreApi.listNamespacedConfigMap(this.namespaceId, null, null, null, null, null, null, null, null, null, null);
 
@@ -305,33 +348,15 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
             logger.info("Waiting for all ReplicaSets, Pods and PersistentVolumeClaims to be deleted");
 
             long timeoutSeconds = 60;
-            long checkSeconds = 10;
 
             if (this.framework.getTestRun() != null && this.framework.getTestRun().isLocal()) {
                 timeoutSeconds = 30;
             }
 
-            Instant timeout = Instant.now().plusSeconds(timeoutSeconds); //  Allow a maximum of 30 seconds then leave the Resource Management to clean up
-            Instant check = Instant.now().plusSeconds(checkSeconds);
-
-            while(timeout.isAfter(Instant.now())) {
-                V1PodList podList = coreApi.listNamespacedPod(namespaceId, null, null, null, null, null, null, null, null, null, null);
-                V1ReplicaSetList replicaSetList = appsApi.listNamespacedReplicaSet(this.namespaceId, null, null, null, null, null, null, null, null, null, null);
-                pvcList = coreApi.listNamespacedPersistentVolumeClaim(this.namespaceId, null, null, null, null, null, null, null, null, null, null);
-
-                if (podList.getItems().isEmpty() 
-                        && replicaSetList.getItems().isEmpty()
-                        && pvcList.getItems().isEmpty()) {
-                    logger.info("All resources discarded in namespace " + getFullId());
-                    return true;
-                }
-
-                if (check.isBefore(Instant.now())) {
-                    logger.debug("Still waiting");
-                    check = Instant.now().plusSeconds(checkSeconds);
-                }
-
-                Thread.sleep(1000);
+            //  Allow a maximum of 60 seconds (30 locally) then leave the Resource Management to clean up
+            if (namespaceWatcher.waitForNoResources(timeoutSeconds, V1Pod.class, V1ReplicaSet.class, V1PersistentVolumeClaim.class)) {
+                logger.info("All resources discarded in namespace " + getFullId());
+                return true;
             }
 
             logger.warn("Failed to discard namespace, leaving to the next Resource Management cycle");
@@ -567,6 +592,11 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
 
     @Override
     public void saveNamespaceConfiguration(String storedArtifactPath) throws KubernetesManagerException {
+        saveNamespaceConfiguration(storedArtifactPath, false);
+    }
+
+    @Override
+    public void saveNamespaceConfiguration(String storedArtifactPath, boolean previousLogs) throws KubernetesManagerException {
         logger.info("Saving Kubernetes Namespace" + getFullId() + " configuration");
         if (storedArtifactPath == null || storedArtifactPath.trim().isEmpty()) {
             storedArtifactPath = "/kubernetes/" + getFullId();
@@ -584,12 +614,24 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
         CoreV1Api coreApi = new CoreV1Api(this.cluster.getApi());
         AppsV1Api appsApi = new AppsV1Api(this.cluster.getApi());
 
-        saveNamespaceConfigMap(coreApi, directory);
-        saveNamespacePersistentVolumeClaim(coreApi, directory);
-        saveNamespaceSecret(coreApi, directory);
-        saveNamespaceService(coreApi, directory);
-        saveNamespaceDeployment(appsApi, coreApi, directory);
-        saveNamespaceStatefulSet(appsApi, coreApi, directory);
+        NamespaceSave save = new NamespaceSave(directory, 
+                KubernetesSaveThreads.get(this.cluster), 
+                KubernetesSaveLogTailLines.get(this.cluster), 
+                KubernetesSaveLogLimitBytes.get(this.cluster), 
+                previousLogs);
+        try {
+            //*** Each kind is listed and saved in parallel, the pods of deployments and statefulsets queue their container logs on the same pool
+            save.submit(() -> saveNamespaceConfigMap(coreApi, directory));
+            save.submit(() -> saveNamespacePersistentVolumeClaim(coreApi, directory));
+            save.submit(() -> saveNamespaceSecret(coreApi, directory));
+            save.submit(() -> saveNamespaceService(coreApi, directory));
+            save.submit(() -> saveNamespaceDeployment(appsApi, coreApi, save));
+            save.submit(() -> saveNamespaceStatefulSet(appsApi, coreApi, save));
+
+            save.waitForAll();
+        } finally {
+            save.shutdown();
+        }
 
         logger.info("Saved Kubernetes Namespace" + getFullId() + " configuration to " + directory);
     }
@@ -651,39 +693,40 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
         }
     }
 
-    private void saveNamespaceDeployment(AppsV1Api appsApi, CoreV1Api coreApi, Path directory) {
+    private void saveNamespaceDeployment(AppsV1Api appsApi, CoreV1Api coreApi, NamespaceSave save) {
         try {
             V1DeploymentList deploymentList = appsApi.listNamespacedDeployment(this.namespaceId, null, null, null, null, null, null, null, null, null, null);
 
             for(V1Deployment deployment : deploymentList.getItems()) {
-                saveNamespaceFile(directory, deployment, "deployment_", deployment.getMetadata());
+                saveNamespaceFile(save.directory, deployment, "deployment_", deployment.getMetadata());
 
 
-                saveNamespacePods(coreApi, directory, deployment.getSpec().getSelector(), "deployment_" + deployment.getMetadata().getName() + "_pod_");
+                saveNamespacePods(coreApi, save, deployment.getSpec().getSelector(), "deployment_" + deployment.getMetadata().getName() + "_pod_");
             }
         } catch(ApiException | IOException | KubernetesManagerException e) {
             logger.error("Failed to save the Deployment configuration",e);
         }
     }
 
-    private void saveNamespacePods(CoreV1Api coreApi, Path directory, V1LabelSelector labelSelector, String prefix) throws KubernetesManagerException, ApiException, IOException {
+    private void saveNamespacePods(CoreV1Api coreApi, NamespaceSave save, V1LabelSelector labelSelector, String prefix) throws KubernetesManagerException, ApiException, IOException {
         String convertedLabelSelector = Utility.convertLabelSelector(labelSelector);
 
         V1PodList pods = coreApi.listNamespacedPod(this.namespaceId, null, null, null, null, convertedLabelSelector, null, null, null, null, null);
         for(V1Pod pod : pods.getItems()) {
             String name = pod.getMetadata().getName();
 
-            saveNamespaceFile(directory, pod, prefix, pod.getMetadata());
+            saveNamespaceFile(save.directory, pod, prefix, pod.getMetadata());
 
             if (pod.getSpec() != null && pod.getSpec().getContainers() != null) {
                 if (pod.getSpec().getContainers().size() == 1) {
-                    if (pod.getSpec().getContainers().get(0).getName() != null) {
-                        saveNamespaceContainer(coreApi, directory, name, pod.getSpec().getContainers().get(0).getName(), prefix + name);
+                    String container = pod.getSpec().getContainers().get(0).getName();
+                    if (container != null) {
+                        saveNamespaceContainer(coreApi, save, pod, container, prefix + name);
                     }
                 } else {
                     for(V1Container container : pod.getSpec().getContainers()) {
                         if (container.getName() != null) {
-                            saveNamespaceContainer(coreApi, directory, name, container.getName(), prefix + name + "_container_" + container.getName());
+                            saveNamespaceContainer(coreApi, save, pod, container.getName(), prefix + name + "_container_" + container.getName());
                         }      
                     }
                 }
@@ -691,30 +734,63 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
         }
     }
 
-    private void saveNamespaceContainer(CoreV1Api coreApi, Path directory, String pod, String container, String filename) {
-        Path path = directory.resolve(filename + ".log");
+    private void saveNamespaceContainer(CoreV1Api coreApi, NamespaceSave save, V1Pod pod, String container, String filename) {
+        String podName = pod.getMetadata().getName();
+
+        save.submit(() -> saveNamespaceContainerLog(coreApi, save, podName, container, false, filename + ".log"));
+
+        //*** The previous container log is only asked for when requested and the container has restarted, as it is slow to fail when there is none
+        if (save.previousLogs && hasRestarted(pod, container)) {
+            save.submit(() -> saveNamespaceContainerLog(coreApi, save, podName, container, true, filename + "_previous.log"));
+        }
+    }
+
+    private boolean hasRestarted(V1Pod pod, String container) {
+        if (pod.getStatus() == null || pod.getStatus().getContainerStatuses() == null) {
+            return false;
+        }
+
+        for(V1ContainerStatus status : pod.getStatus().getContainerStatuses()) {
+            if (container.equals(status.getName()) && status.getRestartCount() != null && status.getRestartCount() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stream the log straight into the stored artifacts rather than reading it into a String first
+     */
+    private void saveNamespaceContainerLog(CoreV1Api coreApi, NamespaceSave save, String pod, String container, boolean previous, String filename) {
+        Path path = save.directory.resolve(filename);
 
         try {
-            String log = coreApi.readNamespacedPodLog(pod, this.namespaceId, container, null, null, null, null, null, null, null, null);
-            if (log != null) {
-                Files.write(path, log.getBytes(), StandardOpenOption.CREATE, new SetContentType(ResultArchiveStoreContentType.TEXT));
+            Call call = coreApi.readNamespacedPodLogCall(pod, this.namespaceId, container, null, null, save.limitBytes, null, previous ? Boolean.TRUE : null, null, save.tailLines, null, null);
+            try (Response response = call.execute()) {
+                if (!response.isSuccessful() || response.body() == null) {
+                    return; //*** Ignore containers that have not started or have no previous log
+                }
+
+                try (InputStream in = response.body().byteStream();
+                        OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, new SetContentType(ResultArchiveStoreContentType.TEXT))) {
+                    in.transferTo(out);
+                }
             }
-            //*** Removed the previous container log as it was far too slow.  will have to add code to do it specifically if requested
         } catch(ApiException e) {
         } catch (IOException e) {
             logger.error("Problem saving container log " + filename, e);
         }
     }
 
-    private void saveNamespaceStatefulSet(AppsV1Api appsApi, CoreV1Api coreApi, Path directory) {
+    private void saveNamespaceStatefulSet(AppsV1Api appsApi, CoreV1Api coreApi, NamespaceSave save) {
         try {
             V1StatefulSetList statefulsetList = appsApi.listNamespacedStatefulSet(this.namespaceId, null, null, null, null, null, null, null, null, null, null);
 
             for(V1StatefulSet statefulset : statefulsetList.getItems()) {
-                saveNamespaceFile(directory, statefulset, "statefulset_", statefulset.getMetadata());
+                saveNamespaceFile(save.directory, statefulset, "statefulset_", statefulset.getMetadata());
 
 
-                saveNamespacePods(coreApi, directory, statefulset.getSpec().getSelector(), "statefulset_" + statefulset.getMetadata().getName() + "_pod_");
+                saveNamespacePods(coreApi, save, statefulset.getSpec().getSelector(), "statefulset_" + statefulset.getMetadata().getName() + "_pod_");
             }
         } catch(ApiException | IOException | KubernetesManagerException e) {
             logger.error("Failed to save the Deployment configuration",e);
@@ -724,10 +800,22 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
     private void saveNamespaceFile(Path directory, Object resource, String prefix, V1ObjectMeta metadata) throws IOException {
         String name = prefix + metadata.getName();
         Path path = directory.resolve(name);
-        String yaml = Yaml.dump(resource);
+        String yaml = dumpYaml(resource);
         Files.write(path, yaml.getBytes(), StandardOpenOption.CREATE, new SetContentType(ResultArchiveStoreContentType.TEXT));
     }
 
+    /**
+     * Dump the resource as yaml from its json form.  The Yaml utility of the kubernetes client is built for an
+     * older snakeyaml than the one this manager uses, so it cannot dump resources.
+     */
+    private static String dumpYaml(Object resource) {
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+
+        Object tree = new org.yaml.snakeyaml.Yaml().load(new JSON().serialize(resource));
+        return new org.yaml.snakeyaml.Yaml(options).dump(tree);
+    }
+
     /**
      * Load all the allocated namespaces from the shared environment
      * 
@@ -780,5 +868,51 @@ public class KubernetesNamespaceImpl implements IKubernetesNamespace {
         return this.tag;
     }
 
+    /**
+     * The state of a save of the namespace configuration, with the bounded pool the resource kinds and 
+     * container logs are saved on.  Work can be queued by running work, so waitForAll carries on until nothing is left.
+     */
+    private class NamespaceSave {
+        private final Path                    directory;
+        private final Integer                 tailLines;
+        private final Integer                 limitBytes;
+        private final boolean                 previousLogs;
+        private final ExecutorService         executor;
+        private final Queue<Future<?>>        futures = new ConcurrentLinkedQueue<>();
+
+        private NamespaceSave(Path directory, int threads, int tailLines, int limitBytes, boolean previousLogs) {
+            this.directory    = directory;
+            this.tailLines    = tailLines > 0 ? tailLines : null;
+            this.limitBytes   = limitBytes > 0 ? limitBytes : null;
+            this.previousLogs = previousLogs;
+            this.executor     = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+                Thread thread = new Thread(runnable, "Kubernetes save " + getFullId());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        private void submit(Runnable task) {
+            this.futures.add(this.executor.submit(task));
+        }
+
+        private void waitForAll() throws KubernetesManagerException {
+            Future<?> future;
+            while((future = this.futures.poll()) != null) {
+                try {
+                    future.get();
+                } catch(ExecutionException e) {
+                    logger.error("Problem saving the namespace configuration", e.getCause());
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new KubernetesManagerException("Interrupted saving the namespace configuration for " + getFullId(), e);
+                }
+            }
+        }
+
+        private void shutdown() {
+            this.executor.shutdownNow();
+        }
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,301 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+import javax.validation.constraints.NotNull;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.kubernetes.KubernetesManagerException;
+import io.kubernetes.client.common.KubernetesListObject;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.informer.ResourceEventHandler;
+import io.kubernetes.client.informer.SharedIndexInformer;
+import io.kubernetes.client.informer.SharedInformerFactory;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentList;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimList;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.openapi.models.V1ReplicaSet;
+import io.kubernetes.client.openapi.models.V1ReplicaSetList;
+import io.kubernetes.client.openapi.models.V1Service;
+import io.kubernetes.client.openapi.models.V1ServiceList;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetList;
+import io.kubernetes.client.util.CallGenerator;
+
+/**
+ * Keeps a local cache of the resources in a namespace, so that the manager can wait for resources
+ * to become ready or be deleted without repeatedly listing them on the cluster.
+ *
+ * An informer is started for each kind of resource the first time it is needed.  It lists the resources
+ * once and then watches for changes from that resourceVersion, listing again only if the watch falls too far behind.
+ * Waiting is done with futures that are checked against the cache whenever a resource of that kind changes.
+ *
+ *
+ *
+ */
+public class KubernetesNamespaceWatcher {
+
+    private final static Log                           logger = LogFactory.getLog(KubernetesNamespaceWatcher.class);
+
+    private static final long                          SYNC_CHECK_MILLIS = 100;
+
+    private final String                               namespaceId;
+    private final String                               fullId;
+    private final CoreV1Api                            coreApi;
+    private final AppsV1Api                            appsApi;
+    private final SharedInformerFactory                factory;
+    private final ExecutorService                      executor;
+
+    private final Map<Class<?>, SharedIndexInformer<?>> informers = new HashMap<>();
+    private final List<Waiter<?>>                      waiters   = new CopyOnWriteArrayList<>();
+
+    private volatile boolean                           stopped;
+
+    public KubernetesNamespaceWatcher(ApiClient watchApiClient, String namespaceId, String fullId) {
+        this.namespaceId = namespaceId;
+        this.fullId      = fullId;
+        this.coreApi     = new CoreV1Api(watchApiClient);
+        this.appsApi     = new AppsV1Api(watchApiClient);
+        this.factory     = new SharedInformerFactory(watchApiClient);
+        this.executor    = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Kubernetes watch " + fullId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start watching the kinds of resources, so the caches are ready by the time they are needed
+     *
+     * @param kinds The resource classes, eg V1Pod
+     * @throws KubernetesManagerException If the kind is not supported or the watcher has been stopped
+     */
+    public void watch(Class<?>... kinds) throws KubernetesManagerException {
+        for (Class<?> kind : kinds) {
+            getInformer(kind.asSubclass(KubernetesObject.class));
+        }
+    }
+
+    /**
+     * Wait for a named resource to meet a condition, such as being ready
+     *
+     * @param kind The resource class, eg V1Deployment
+     * @param name The name of the resource
+     * @param condition The condition the resource must meet
+     * @param timeoutSeconds How long to wait
+     * @return true if the condition was met, false if timed out
+     * @throws KubernetesManagerException If there is a problem with the watch or the wait is interrupted
+     */
+    public <T extends KubernetesObject> boolean waitForResource(@NotNull Class<T> kind, @NotNull String name, @NotNull Predicate<T> condition, long timeoutSeconds) throws KubernetesManagerException {
+        Instant expire = Instant.now().plusSeconds(timeoutSeconds);
+        return waitFor(kind, resources -> {
+            for (T resource : resources) {
+                if (resource.getMetadata() != null && name.equals(resource.getMetadata().getName())) {
+                    return condition.test(resource);
+                }
+            }
+            return false;
+        }, expire);
+    }
+
+    /**
+     * Wait for all the resources of the kinds to have been deleted from the namespace
+     *
+     * @param timeoutSeconds How long to wait for all the kinds
+     * @param kinds The resource classes, eg V1Pod
+     * @return true if all were deleted, false if timed out
+     * @throws KubernetesManagerException If there is a problem with the watch or the wait is interrupted
+     */
+    public boolean waitForNoResources(long timeoutSeconds, Class<?>... kinds) throws KubernetesManagerException {
+        Instant expire = Instant.now().plusSeconds(timeoutSeconds);
+        watch(kinds);
+        for (Class<?> kind : kinds) {
+            if (!waitFor(kind.asSubclass(KubernetesObject.class), List::isEmpty, expire)) {
+                logger.debug("Still waiting for all " + kind.getSimpleName() + " to be deleted in namespace " + this.fullId);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stop all the watches, this watcher cannot be used again
+     */
+    public synchronized void stop() {
+        this.stopped = true;
+        for (SharedIndexInformer<?> informer : this.informers.values()) {
+            informer.stop();
+        }
+        this.informers.clear();
+        this.executor.shutdownNow();
+
+        for (Waiter<?> waiter : this.waiters) {
+            waiter.future.cancel(false);
+        }
+    }
+
+    private <T extends KubernetesObject> boolean waitFor(Class<T> kind, Predicate<List<T>> condition, Instant expire) throws KubernetesManagerException {
+        SharedIndexInformer<T> informer = getInformer(kind);
+
+        try {
+            //*** The cache is not complete until the informer has listed the resources
+            while (!informer.hasSynced()) {
+                if (this.stopped) {
+                    throw new KubernetesManagerException("The watcher for namespace " + this.fullId + " has been stopped");
+                }
+                if (Instant.now().isAfter(expire)) {
+                    return false;
+                }
+                Thread.sleep(SYNC_CHECK_MILLIS);
+            }
+
+            Waiter<T> waiter = new Waiter<>(kind, informer, condition);
+            this.waiters.add(waiter);
+            try {
+                //*** Stopped before the waiter was added, so stop() will not have cancelled it
+                if (this.stopped) {
+                    waiter.future.cancel(false);
+                }
+                waiter.check();
+
+                long remaining = Math.max(0, expire.toEpochMilli() - System.currentTimeMillis());
+                waiter.future.get(remaining, TimeUnit.MILLISECONDS);
+                return true;
+            } finally {
+                this.waiters.remove(waiter);
+            }
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KubernetesManagerException("Interrupted waiting for " + kind.getSimpleName() + " in namespace " + this.fullId, e);
+        } catch (ExecutionException | RuntimeException e) {
+            throw new KubernetesManagerException("Problem waiting for " + kind.getSimpleName() + " in namespace " + this.fullId, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized <T extends KubernetesObject> SharedIndexInformer<T> getInformer(Class<T> kind) throws KubernetesManagerException {
+        if (this.stopped) {
+            throw new KubernetesManagerException("The watcher for namespace " + this.fullId + " has been stopped");
+        }
+
+        SharedIndexInformer<T> informer = (SharedIndexInformer<T>) this.informers.get(kind);
+        if (informer != null) {
+            return informer;
+        }
+
+        if (kind == V1Pod.class) {
+            informer = (SharedIndexInformer<T>) createInformer(V1Pod.class, V1PodList.class, params ->
+                coreApi.listNamespacedPodCall(namespaceId, null, null, null, null, null, null, params.resourceVersion, null, params.timeoutSeconds, params.watch, null));
+        } else if (kind == V1ReplicaSet.class) {
+            informer = (SharedIndexInformer<T>) createInformer(V1ReplicaSet.class, V1ReplicaSetList.class, params ->
+                appsApi.listNamespacedReplicaSetCall(namespaceId, null, null, null, null, null, null, params.resourceVersion, null, params.timeoutSeconds, params.watch, null));
+        } else if (kind == V1PersistentVolumeClaim.class) {
+            informer = (SharedIndexInformer<T>) createInformer(V1PersistentVolumeClaim.class, V1PersistentVolumeClaimList.class, params ->
+                coreApi.listNamespacedPersistentVolumeClaimCall(namespaceId, null, null, null, null, null, null, params.resourceVersion, null, params.timeoutSeconds, params.watch, null));
+        } else if (kind == V1Deployment.class) {
+            informer = (SharedIndexInformer<T>) createInformer(V1Deployment.class, V1DeploymentList.class, params ->
+                appsApi.listNamespacedDeploymentCall(namespaceId, null, null, null, null, null, null, params.resourceVersion, null, params.timeoutSeconds, params.watch, null));
+        } else if (kind == V1StatefulSet.class) {
+            informer = (SharedIndexInformer<T>) createInformer(V1StatefulSet.class, V1StatefulSetList.class, params ->
+                appsApi.listNamespacedStatefulSetCall(namespaceId, null, null, null, null, null, null, params.resourceVersion, null, params.timeoutSeconds, params.watch, null));
+        } else if (kind == V1Service.class) {
+            informer = (SharedIndexInformer<T>) createInformer(V1Service.class, V1ServiceList.class, params ->
+                coreApi.listNamespacedServiceCall(namespaceId, null, null, null, null, null, null, params.resourceVersion, null, params.timeoutSeconds, params.watch, null));
+        } else {
+            throw new KubernetesManagerException("The Kubernetes Manager does not at present watch resource type " + kind.getSimpleName());
+        }
+
+        this.informers.put(kind, informer);
+        this.executor.execute(informer::run);
+        logger.trace("Watching " + kind.getSimpleName() + " in namespace " + this.fullId);
+
+        return informer;
+    }
+
+    private <T extends KubernetesObject, L extends KubernetesListObject> SharedIndexInformer<T> createInformer(Class<T> kind, Class<L> listKind, CallGenerator callGenerator) {
+        SharedIndexInformer<T> informer = this.factory.sharedIndexInformerFor(callGenerator, kind, listKind);
+
+        informer.addEventHandler(new ResourceEventHandler<T>() {
+            @Override
+            public void onAdd(T resource) {
+                checkWaiters(kind);
+            }
+
+            @Override
+            public void onUpdate(T oldResource, T newResource) {
+                checkWaiters(kind);
+            }
+
+            @Override
+            public void onDelete(T resource, boolean deletedFinalStateUnknown) {
+                checkWaiters(kind);
+            }
+        });
+
+        return informer;
+    }
+
+    private void checkWaiters(Class<?> kind) {
+        for (Waiter<?> waiter : this.waiters) {
+            if (waiter.kind == kind) {
+                waiter.check();
+            }
+        }
+    }
+
+    /**
+     * A future that is completed when the cached resources of a kind meet the condition
+     */
+    private static class Waiter<T extends KubernetesObject> {
+        private final Class<T>                  kind;
+        private final SharedIndexInformer<T>    informer;
+        private final Predicate<List<T>>        condition;
+        private final CompletableFuture<Void>   future = new CompletableFuture<>();
+
+        private Waiter(Class<T> kind, SharedIndexInformer<T> informer, Predicate<List<T>> condition) {
+            this.kind      = kind;
+            this.informer  = informer;
+            this.condition = condition;
+        }
+
+        private void check() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                if (condition.test(informer.getIndexer().list())) {
+                    future.complete(null);
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.kubernetes.KubernetesManagerException;
+import dev.galasa.kubernetes.internal.KubernetesClusterImpl;
+
+
+/**
+ * Save Namespace Log Limit Bytes CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name kubernetes.cluster.[XXXX.]save.log.limit.bytes
+ * 
+ * @galasa.description The maximum number of bytes of each container log to save when the namespace configuration is saved
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default Defaults to 0, no limit, if not provided
+ * 
+ * @galasa.valid_values Integer value.  A value <1 does not limit the log.
+ * 
+ * @galasa.examples 
+ * <code>kubernetes.cluster.K8S.save.log.limit.bytes=10485760</code>
+ * 
+ */
+public class KubernetesSaveLogLimitBytes extends CpsProperties {
+
+    public static int get(KubernetesClusterImpl cluster) throws KubernetesManagerException {
+        return getIntWithDefault(KubernetesPropertiesSingleton.cps(), 0, "cluster", "save.log.limit.bytes", cluster.getId()) ;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.kubernetes.KubernetesManagerException;
+import dev.galasa.kubernetes.internal.KubernetesClusterImpl;
+
+
+/**
+ * Save Namespace Log Tail Lines CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name kubernetes.cluster.[XXXX.]save.log.tail.lines
+ * 
+ * @galasa.description The number of lines from the end of each container log to save when the namespace configuration is saved
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default Defaults to 0, the whole log, if not provided
+ * 
+ * @galasa.valid_values Integer value.  A value <1 saves the whole log.
+ * 
+ * @galasa.examples 
+ * <code>kubernetes.cluster.K8S.save.log.tail.lines=1000</code>
+ * 
+ */
+public class KubernetesSaveLogTailLines extends CpsProperties {
+
+    public static int get(KubernetesClusterImpl cluster) throws KubernetesManagerException {
+        return getIntWithDefault(KubernetesPropertiesSingleton.cps(), 0, "cluster", "save.log.tail.lines", cluster.getId()) ;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.kubernetes.KubernetesManagerException;
+import dev.galasa.kubernetes.internal.KubernetesClusterImpl;
+
+
+/**
+ * Save Namespace Threads CPS Property
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name kubernetes.cluster.[XXXX.]save.threads
+ * 
+ * @galasa.description The number of resource kinds and container logs that are saved to the stored artifacts at the same time when the namespace configuration is saved
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default Defaults to 8 if not provided
+ * 
+ * @galasa.valid_values Integer value.  A value <1 saves one at a time.
+ * 
+ * @galasa.examples 
+ * <code>kubernetes.cluster.K8S.save.threads=16</code>
+ * 
+ */
+public class KubernetesSaveThreads extends CpsProperties {
+
+    public static int get(KubernetesClusterImpl cluster) throws KubernetesManagerException {
+        return getIntWithDefault(KubernetesPropertiesSingleton.cps(), 8, "cluster", "save.threads", cluster.getId()) ;
+    }
+}
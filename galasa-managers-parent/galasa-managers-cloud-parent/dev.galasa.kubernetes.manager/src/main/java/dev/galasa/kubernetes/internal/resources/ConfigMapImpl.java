@@ -45,4 +45,10 @@ public class ConfigMapImpl implements IConfigMap {
        throw new UnsupportedOperationException("Not developed yet"); //TODO
     }
 
+    @Override
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException {
+        //*** Ready as soon as it has been created
+        return true;
+    }
+
 }
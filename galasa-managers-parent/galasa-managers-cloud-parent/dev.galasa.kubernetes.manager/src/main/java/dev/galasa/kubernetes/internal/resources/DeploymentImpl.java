@@ -12,6 +12,7 @@ import dev.galasa.kubernetes.IPodLog;
 import dev.galasa.kubernetes.KubernetesManagerException;
 import dev.galasa.kubernetes.internal.KubernetesNamespaceImpl;
 import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
 import io.kubernetes.client.util.Yaml;
 
 /**
@@ -50,6 +51,32 @@ public class DeploymentImpl extends ReplicaSetHolder implements IDeployment {
        throw new UnsupportedOperationException("Not developed yet"); //TODO
     }
 
+    @Override
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException {
+        return this.namespace.getWatcher().waitForResource(V1Deployment.class, getName(), DeploymentImpl::isReady, timeoutSeconds);
+    }
+
+    /**
+     * A Deployment is ready when the latest spec has been rolled out to all the replicas and they are available
+     */
+    static boolean isReady(V1Deployment deployment) {
+        V1DeploymentStatus status = deployment.getStatus();
+        if (status == null || status.getObservedGeneration() == null || deployment.getMetadata().getGeneration() == null
+                || status.getObservedGeneration() < deployment.getMetadata().getGeneration()) {
+            return false;
+        }
+
+        int replicas = 1;
+        if (deployment.getSpec() != null && deployment.getSpec().getReplicas() != null) {
+            replicas = deployment.getSpec().getReplicas();
+        }
+
+        //*** Counts of zero are left out of the status
+        int updatedReplicas = status.getUpdatedReplicas() == null ? 0 : status.getUpdatedReplicas();
+        int availableReplicas = status.getAvailableReplicas() == null ? 0 : status.getAvailableReplicas();
+        return updatedReplicas >= replicas && availableReplicas >= replicas;
+    }
+
     @Override
     public List<IPodLog> getPodLogs(String container) throws KubernetesManagerException {
         if (deployment.getSpec() == null || deployment.getSpec().getSelector() == null) {
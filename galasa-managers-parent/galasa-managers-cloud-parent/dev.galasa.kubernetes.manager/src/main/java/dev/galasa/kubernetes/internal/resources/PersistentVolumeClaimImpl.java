@@ -19,10 +19,12 @@ import io.kubernetes.client.util.Yaml;
  */
 public class PersistentVolumeClaimImpl implements IPersistentVolumeClaim {
     
+    private final KubernetesNamespaceImpl namespace;
     private final V1PersistentVolumeClaim pvc;
 
     public PersistentVolumeClaimImpl(KubernetesNamespaceImpl namespace, V1PersistentVolumeClaim pvc) {
-        this.pvc = pvc;
+        this.namespace = namespace;
+        this.pvc       = pvc;
     }
 
     @Override
@@ -44,4 +46,16 @@ public class PersistentVolumeClaimImpl implements IPersistentVolumeClaim {
     public void refresh() throws KubernetesManagerException {
        throw new UnsupportedOperationException("Not developed yet"); //TODO
     }
+
+    @Override
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException {
+        return this.namespace.getWatcher().waitForResource(V1PersistentVolumeClaim.class, getName(), PersistentVolumeClaimImpl::isReady, timeoutSeconds);
+    }
+
+    /**
+     * A PersistentVolumeClaim is ready when it has been bound to a volume
+     */
+    static boolean isReady(V1PersistentVolumeClaim claim) {
+        return claim.getStatus() != null && "Bound".equals(claim.getStatus().getPhase());
+    }
 }
@@ -45,4 +45,10 @@ public class SecretImpl implements ISecret {
        throw new UnsupportedOperationException("Not developed yet"); //TODO
     }
 
+    @Override
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException {
+        //*** Ready as soon as it has been created
+        return true;
+    }
+
 }
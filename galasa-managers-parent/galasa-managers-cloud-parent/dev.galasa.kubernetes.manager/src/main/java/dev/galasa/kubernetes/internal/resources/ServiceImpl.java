@@ -52,6 +52,29 @@ public class ServiceImpl implements IService {
        throw new UnsupportedOperationException("Not developed yet"); //TODO
     }
 
+    @Override
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException {
+        if (isReady(this.service)) {
+            return true;
+        }
+
+        return this.namespace.getWatcher().waitForResource(V1Service.class, getName(), ServiceImpl::isReady, timeoutSeconds);
+    }
+
+    /**
+     * Only LoadBalancer services have to wait for something external to be provisioned, they are ready
+     * once the load balancer has an ingress
+     */
+    static boolean isReady(V1Service service) {
+        if (service.getSpec() == null || !"LoadBalancer".equals(service.getSpec().getType())) {
+            return true;
+        }
+
+        return service.getStatus() != null && service.getStatus().getLoadBalancer() != null
+                && service.getStatus().getLoadBalancer().getIngress() != null
+                && !service.getStatus().getLoadBalancer().getIngress().isEmpty();
+    }
+
     @Override
     @NotNull
     public InetSocketAddress getSocketAddressForPort(int port) throws KubernetesManagerException {
@@ -13,6 +13,7 @@ import dev.galasa.kubernetes.KubernetesManagerException;
 import dev.galasa.kubernetes.internal.KubernetesNamespaceImpl;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
 import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetStatus;
 import io.kubernetes.client.util.Yaml;
 
 /**
@@ -59,6 +60,31 @@ public class StatefulSetImpl extends ReplicaSetHolder implements IStatefulSet {
        }
     }
 
+    @Override
+    public boolean waitForReady(long timeoutSeconds) throws KubernetesManagerException {
+        return this.namespace.getWatcher().waitForResource(V1StatefulSet.class, getName(), StatefulSetImpl::isReady, timeoutSeconds);
+    }
+
+    /**
+     * A StatefulSet is ready when the latest spec has been observed and all the replicas are ready
+     */
+    static boolean isReady(V1StatefulSet statefulSet) {
+        V1StatefulSetStatus status = statefulSet.getStatus();
+        if (status == null || status.getObservedGeneration() == null || statefulSet.getMetadata().getGeneration() == null
+                || status.getObservedGeneration() < statefulSet.getMetadata().getGeneration()) {
+            return false;
+        }
+
+        int replicas = 1;
+        if (statefulSet.getSpec() != null && statefulSet.getSpec().getReplicas() != null) {
+            replicas = statefulSet.getSpec().getReplicas();
+        }
+
+        //*** Counts of zero are left out of the status
+        int readyReplicas = status.getReadyReplicas() == null ? 0 : status.getReadyReplicas();
+        return readyReplicas >= replicas;
+    }
+
     @Override
     public List<IPodLog> getPodLogs(String container) throws KubernetesManagerException {
         if (statefulSet.getSpec() == null || statefulSet.getSpec().getSelector() == null) {
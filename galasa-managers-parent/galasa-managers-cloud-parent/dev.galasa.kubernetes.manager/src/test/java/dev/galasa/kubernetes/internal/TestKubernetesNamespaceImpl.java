@@ -0,0 +1,283 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.framework.internal.ras.directory.DirectoryRASFileSystemProvider;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IDynamicStatusStoreService;
+import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.IResultArchiveStore;
+import dev.galasa.kubernetes.internal.properties.KubernetesPropertiesSingleton;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1LabelSelector;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodSpec;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+import io.kubernetes.client.openapi.models.V1Secret;
+import io.kubernetes.client.openapi.models.V1Service;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetSpec;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+public class TestKubernetesNamespaceImpl {
+
+    private static final MediaType JSON_TYPE = MediaType.get("application/json");
+    private static final MediaType TEXT_TYPE = MediaType.get("text/plain");
+
+    private final ApiClient apiClient = new ApiClient().setHttpClient(new OkHttpClient.Builder()
+            .readTimeout(0, TimeUnit.MILLISECONDS)
+            .addInterceptor(chain -> respond(chain.request()))
+            .build());
+    private final JSON json = apiClient.getJSON();
+
+    // The resources listed by each path, and the pods listed by each label selector
+    private final Map<String, List<Object>> resources = new ConcurrentHashMap<>();
+    private final Map<String, List<V1Pod>> pods = new ConcurrentHashMap<>();
+    private final List<HttpUrl> logRequests = Collections.synchronizedList(new ArrayList<>());
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    private Path rasDirectory;
+    private Path storedArtifactsRoot;
+
+    private KubernetesNamespaceImpl namespace;
+
+    @Before
+    public void setUp() throws Exception {
+        IConfigurationPropertyStoreService cps = mock(IConfigurationPropertyStoreService.class);
+        when(cps.getProperty(anyString(), anyString(), any())).thenAnswer(invocation -> properties.get(invocation.getArgument(1)));
+        new KubernetesPropertiesSingleton().activate();
+        KubernetesPropertiesSingleton.setCps(cps);
+
+        rasDirectory = Files.createTempDirectory("ras");
+        Files.createDirectory(rasDirectory.resolve("artifacts"));
+        storedArtifactsRoot = new DirectoryRASFileSystemProvider(rasDirectory) {}.getActualFileSystem().getPath("/");
+        IResultArchiveStore ras = mock(IResultArchiveStore.class);
+        when(ras.getStoredArtifactsRoot()).thenReturn(storedArtifactsRoot);
+        IFramework framework = mock(IFramework.class);
+        when(framework.getTestRunName()).thenReturn("RUN1");
+        when(framework.getResultArchiveStore()).thenReturn(ras);
+
+        KubernetesClusterImpl cluster = mock(KubernetesClusterImpl.class);
+        when(cluster.getId()).thenReturn("cluster1");
+        when(cluster.getApi()).thenReturn(apiClient);
+
+        namespace = new KubernetesNamespaceImpl(cluster, "ns1", "TAG1", framework, mock(IDynamicStatusStoreService.class));
+
+        addResources();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(rasDirectory)) {
+            paths.sorted(Collections.reverseOrder()).map(Path::toFile).forEach(java.io.File::delete);
+        }
+    }
+
+    /**
+     * A deployment with a pod that has restarted, and a statefulset with a pod of two containers that have not
+     */
+    private void addResources() {
+        add("configmaps", new V1ConfigMap().metadata(metadata("config1")));
+        add("persistentvolumeclaims", new V1PersistentVolumeClaim().metadata(metadata("claim1")));
+        add("secrets", new V1Secret().metadata(metadata("secret1")));
+        add("secrets", new V1Secret().metadata(metadata("token1").putAnnotationsItem("kubernetes.io/service-account.name", "default")));
+        add("services", new V1Service().metadata(metadata("service1")));
+        add("deployments", new V1Deployment().metadata(metadata("web"))
+                .spec(new V1DeploymentSpec().selector(new V1LabelSelector().putMatchLabelsItem("app", "web"))));
+        add("statefulsets", new V1StatefulSet().metadata(metadata("db"))
+                .spec(new V1StatefulSetSpec().selector(new V1LabelSelector().putMatchLabelsItem("app", "db"))));
+
+        pods.put("app=web", Arrays.asList(pod("web-1", 2, "app")));
+        pods.put("app=db", Arrays.asList(pod("db-0", 0, "main", "sidecar")));
+    }
+
+    private void add(String plural, Object resource) {
+        resources.computeIfAbsent(plural, key -> Collections.synchronizedList(new ArrayList<>())).add(resource);
+    }
+
+    private V1ObjectMeta metadata(String name) {
+        return new V1ObjectMeta().name(name).namespace("ns1");
+    }
+
+    private V1Pod pod(String name, int restartCount, String... containers) {
+        V1PodSpec spec = new V1PodSpec();
+        V1PodStatus status = new V1PodStatus();
+        for (String container : containers) {
+            spec.addContainersItem(new V1Container().name(container));
+            status.addContainerStatusesItem(new V1ContainerStatus().name(container).restartCount(restartCount));
+        }
+        return new V1Pod().metadata(metadata(name)).spec(spec).status(status);
+    }
+
+    /**
+     * Answers the list and log calls made by the save, in place of the cluster
+     */
+    private Response respond(Request request) {
+        List<String> path = request.url().pathSegments();
+        String body;
+        MediaType type = JSON_TYPE;
+        if ("log".equals(path.get(path.size() - 1))) {
+            logRequests.add(request.url());
+            String pod = path.get(path.size() - 2);
+            String container = request.url().queryParameter("container");
+            body = "log of " + pod + "/" + container + ("true".equals(request.url().queryParameter("previous")) ? " before the restart" : "");
+            type = TEXT_TYPE;
+        } else {
+            Assert.assertEquals("Calls should be for the namespace being saved", "ns1", path.get(path.size() - 2));
+            String plural = path.get(path.size() - 1);
+            List<?> items = "pods".equals(plural)
+                    ? pods.getOrDefault(request.url().queryParameter("labelSelector"), Collections.emptyList())
+                    : resources.getOrDefault(plural, Collections.emptyList());
+            body = "{\"metadata\":{},\"items\":[" + items.stream().map(json::serialize).collect(Collectors.joining(",")) + "]}";
+        }
+
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(body, type))
+                .build();
+    }
+
+    private Path savedDirectory() {
+        return storedArtifactsRoot.resolve("kubernetes/cluster1/ns1");
+    }
+
+    private Set<String> savedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(savedDirectory())) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    private String saved(String filename) throws IOException {
+        return new String(Files.readAllBytes(savedDirectory().resolve(filename)), StandardCharsets.UTF_8);
+    }
+
+    private HttpUrl logRequest(String pod, String container, boolean previous) {
+        for (HttpUrl url : new ArrayList<>(logRequests)) {
+            if (url.pathSegments().contains(pod) && container.equals(url.queryParameter("container"))
+                    && previous == "true".equals(url.queryParameter("previous"))) {
+                return url;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testSaveWritesEveryResourceAndContainerLog() throws Exception {
+        namespace.saveNamespaceConfiguration();
+
+        Assert.assertEquals("Unexpected files saved", new TreeSet<>(Arrays.asList(
+                "configmap_config1",
+                "pvc_claim1",
+                "secret_secret1",
+                "service_service1",
+                "deployment_web",
+                "deployment_web_pod_web-1",
+                "deployment_web_pod_web-1.log",
+                "statefulset_db",
+                "statefulset_db_pod_db-0",
+                "statefulset_db_pod_db-0_container_main.log",
+                "statefulset_db_pod_db-0_container_sidecar.log")), savedFiles());
+
+        Assert.assertTrue("The resource should be saved as yaml", saved("deployment_web").contains("name: web"));
+        Assert.assertEquals("The log should be streamed into the file", "log of web-1/app", saved("deployment_web_pod_web-1.log"));
+        Assert.assertEquals("The log of each container should be saved", "log of db-0/sidecar", saved("statefulset_db_pod_db-0_container_sidecar.log"));
+
+        Assert.assertEquals("Only the current logs should be requested", 3, logRequests.size());
+        HttpUrl request = logRequest("web-1", "app", false);
+        Assert.assertNull("The whole log should be requested by default", request.queryParameter("tailLines"));
+        Assert.assertNull("The log should not be limited by default", request.queryParameter("limitBytes"));
+    }
+
+    @Test
+    public void testLogTailAndLimitArePassedToTheLogRequests() throws Exception {
+        properties.put("save.log.tail.lines", "500");
+        properties.put("save.log.limit.bytes", "65536");
+
+        namespace.saveNamespaceConfiguration();
+
+        for (HttpUrl request : logRequests) {
+            Assert.assertEquals("The tail lines should be passed to " + request, "500", request.queryParameter("tailLines"));
+            Assert.assertEquals("The limit should be passed to " + request, "65536", request.queryParameter("limitBytes"));
+        }
+        Assert.assertEquals("Each container log should be requested", 3, logRequests.size());
+    }
+
+    @Test
+    public void testPreviousLogsAreOnlySavedForRestartedContainers() throws Exception {
+        namespace.saveNamespaceConfiguration("saved", true);
+
+        Assert.assertNotNull("The previous log of the restarted container should be requested", logRequest("web-1", "app", true));
+        Assert.assertNull("The previous log should not be requested for containers that have not restarted", logRequest("db-0", "main", true));
+        Assert.assertNull("The previous log should not be requested for containers that have not restarted", logRequest("db-0", "sidecar", true));
+        Assert.assertEquals("Unexpected log requests", 4, logRequests.size());
+
+        Path directory = storedArtifactsRoot.resolve("saved");
+        Assert.assertEquals("The previous log should be saved alongside the current log", "log of web-1/app before the restart",
+                new String(Files.readAllBytes(directory.resolve("deployment_web_pod_web-1_previous.log")), StandardCharsets.UTF_8));
+        Assert.assertEquals("The current log should still be saved", "log of web-1/app",
+                new String(Files.readAllBytes(directory.resolve("deployment_web_pod_web-1.log")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLogsQueuedByTheListsCompleteOnASingleThread() throws Exception {
+        // The lists queue the logs on the same pool, so the save must not wait on a pool thread for them
+        properties.put("save.threads", "1");
+        for (int i = 0; i < 20; i++) {
+            add("configmaps", new V1ConfigMap().metadata(metadata("config" + (i + 2))));
+        }
+
+        namespace.saveNamespaceConfiguration();
+
+        Assert.assertEquals("Every log should be saved", 3, logRequests.size());
+        Assert.assertEquals("Every resource and log should be saved", 31, savedFiles().size());
+    }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dev.galasa.kubernetes.KubernetesManagerException;
+import io.kubernetes.client.common.KubernetesObject;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.JSON;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+import io.kubernetes.client.openapi.models.V1ReplicaSet;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+
+public class TestKubernetesNamespaceWatcher {
+
+    private static final MediaType JSON_TYPE = MediaType.get("application/json");
+
+    private final ApiClient apiClient = new ApiClient().setHttpClient(new OkHttpClient.Builder()
+            .readTimeout(0, TimeUnit.MILLISECONDS)
+            .addInterceptor(chain -> respond(chain.request()))
+            .build());
+    private final JSON json = apiClient.getJSON();
+
+    private final Map<String, ResourceList> resources = new ConcurrentHashMap<>();
+
+    private KubernetesNamespaceWatcher watcher;
+
+    @Before
+    public void setUp() {
+        watcher = new KubernetesNamespaceWatcher(apiClient, "ns1", "cluster1/ns1");
+    }
+
+    @After
+    public void tearDown() {
+        watcher.stop();
+    }
+
+    /**
+     * The resources of a kind on the fake cluster, and the streams of the watches on them
+     */
+    private static class ResourceList {
+        private final List<KubernetesObject>  items   = new CopyOnWriteArrayList<>();
+        private final BlockingQueue<EventStream> watches = new LinkedBlockingQueue<>();
+        private final AtomicInteger           lists   = new AtomicInteger();
+    }
+
+    private ResourceList resources(String plural) {
+        return resources.computeIfAbsent(plural, key -> new ResourceList());
+    }
+
+    /**
+     * Answers the list and watch calls generated by the watcher, in place of the cluster
+     */
+    private Response respond(Request request) {
+        List<String> path = request.url().pathSegments();
+        Assert.assertEquals("Calls should be for the namespace being watched", "ns1", path.get(path.size() - 2));
+        ResourceList list = resources(path.get(path.size() - 1));
+
+        BufferedSource body;
+        if ("true".equals(request.url().queryParameter("watch"))) {
+            EventStream events = new EventStream();
+            list.watches.add(events);
+            body = Okio.buffer(Okio.source(events));
+        } else {
+            list.lists.incrementAndGet();
+            String items = list.items.stream().map(json::serialize).collect(Collectors.joining(","));
+            body = new Buffer().writeUtf8("{\"metadata\":{\"resourceVersion\":\"1\"},\"items\":[" + items + "]}");
+        }
+
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(body, JSON_TYPE, -1))
+                .build();
+    }
+
+    /**
+     * The body of a watch, which blocks waiting for events until the watch is closed
+     */
+    private class EventStream extends InputStream {
+        private final BlockingQueue<byte[]> events = new LinkedBlockingQueue<>();
+        private byte[]                      event  = new byte[0];
+        private int                         offset;
+        private volatile boolean            closed;
+
+        private void send(String type, KubernetesObject resource) {
+            String line = "{\"type\":\"" + type + "\",\"object\":" + json.serialize(resource) + "}\n";
+            events.add(line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (offset >= event.length) {
+                if (closed) {
+                    return -1;
+                }
+                try {
+                    byte[] next = events.poll(100, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        event = next;
+                        offset = 0;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            int length = Math.min(len, event.length - offset);
+            System.arraycopy(event, offset, b, off, length);
+            offset += length;
+            return length;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private V1Pod pod(String name, String resourceVersion, String phase) {
+        return new V1Pod()
+                .metadata(new V1ObjectMeta().name(name).namespace("ns1").resourceVersion(resourceVersion))
+                .status(new V1PodStatus().phase(phase));
+    }
+
+    private <T> CompletableFuture<T> inBackground(WatcherCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (KubernetesManagerException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private interface WatcherCall<T> {
+        T call() throws KubernetesManagerException;
+    }
+
+    @Test
+    public void testWaitForNoResourcesCompletesWhenTheWatchSeesTheDeletes() throws Exception {
+        resources("pods").items.add(pod("pod1", "1", "Running"));
+        resources("pods").items.add(pod("pod2", "1", "Running"));
+
+        CompletableFuture<Boolean> deleted = inBackground(() -> watcher.waitForNoResources(30, V1Pod.class, V1ReplicaSet.class, V1PersistentVolumeClaim.class));
+
+        EventStream podEvents = resources("pods").watches.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull("The pods should be watched", podEvents);
+        podEvents.send("DELETED", pod("pod1", "2", "Running"));
+        Thread.sleep(200);
+        Assert.assertFalse("The wait should continue while a pod remains", deleted.isDone());
+
+        podEvents.send("DELETED", pod("pod2", "3", "Running"));
+
+        Assert.assertTrue("All the resources should have been deleted", deleted.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals("The pods should only be listed once", 1, resources("pods").lists.get());
+        Assert.assertEquals("The replica sets should only be listed once", 1, resources("replicasets").lists.get());
+        Assert.assertEquals("The claims should only be listed once", 1, resources("persistentvolumeclaims").lists.get());
+    }
+
+    @Test
+    public void testWaitForNoResourcesTimesOutWhenResourcesRemain() throws Exception {
+        resources("pods").items.add(pod("pod1", "1", "Terminating"));
+
+        Assert.assertFalse("The wait should time out with a pod remaining", watcher.waitForNoResources(1, V1Pod.class));
+    }
+
+    @Test
+    public void testWaitForNoResourcesCompletesForAnEmptyNamespace() throws Exception {
+        Assert.assertTrue("An empty namespace should have no resources", watcher.waitForNoResources(10, V1Pod.class, V1PersistentVolumeClaim.class));
+    }
+
+    @Test
+    public void testWaitForResourceCompletesWhenTheResourceIsModified() throws Exception {
+        resources("pods").items.add(pod("pod1", "1", "Pending"));
+
+        CompletableFuture<Boolean> running = inBackground(() -> watcher.waitForResource(V1Pod.class, "pod1",
+                pod -> "Running".equals(pod.getStatus().getPhase()), 30));
+
+        EventStream podEvents = resources("pods").watches.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull("The pods should be watched", podEvents);
+        podEvents.send("ADDED", pod("pod2", "2", "Running"));
+        Thread.sleep(200);
+        Assert.assertFalse("Another pod running should not complete the wait", running.isDone());
+
+        podEvents.send("MODIFIED", pod("pod1", "3", "Running"));
+
+        Assert.assertTrue("The pod should be running", running.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStopEndsTheWaits() throws Exception {
+        resources("pods").items.add(pod("pod1", "1", "Running"));
+
+        CompletableFuture<Boolean> deleted = inBackground(() -> watcher.waitForNoResources(30, V1Pod.class));
+        Assert.assertNotNull("The pods should be watched", resources("pods").watches.poll(10, TimeUnit.SECONDS));
+
+        watcher.stop();
+
+        try {
+            deleted.get(10, TimeUnit.SECONDS);
+            Assert.fail("The wait should fail once the watcher is stopped");
+        } catch (ExecutionException e) {
+            Assert.assertTrue("The wait should fail with a manager exception", e.getCause().getCause() instanceof KubernetesManagerException);
+        }
+
+        try {
+            watcher.watch(V1Pod.class);
+            Assert.fail("A stopped watcher should not be used again");
+        } catch (KubernetesManagerException e) {
+            Assert.assertEquals("The watcher for namespace cluster1/ns1 has been stopped", e.getMessage());
+        }
+    }
+
+}
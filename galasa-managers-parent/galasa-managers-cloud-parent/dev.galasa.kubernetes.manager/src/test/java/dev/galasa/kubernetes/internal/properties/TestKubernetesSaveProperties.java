@@ -0,0 +1,106 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal.properties;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.kubernetes.KubernetesManagerException;
+import dev.galasa.kubernetes.internal.KubernetesClusterImpl;
+
+/**
+ * The properties that control how the namespace configuration is saved
+ */
+@RunWith(Parameterized.class)
+public class TestKubernetesSaveProperties {
+
+    private interface Property {
+        int get(KubernetesClusterImpl cluster) throws KubernetesManagerException;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> properties() {
+        return Arrays.asList(new Object[][] {
+            { "save.threads", 8, (Property) KubernetesSaveThreads::get },
+            { "save.log.tail.lines", 0, (Property) KubernetesSaveLogTailLines::get },
+            { "save.log.limit.bytes", 0, (Property) KubernetesSaveLogLimitBytes::get },
+        });
+    }
+
+    private final String   name;
+    private final int      defaultValue;
+    private final Property property;
+
+    private IConfigurationPropertyStoreService cpsMock;
+
+    private KubernetesClusterImpl cluster;
+
+    public TestKubernetesSaveProperties(String name, int defaultValue, Property property) {
+        this.name = name;
+        this.defaultValue = defaultValue;
+        this.property = property;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        cpsMock = mock(IConfigurationPropertyStoreService.class);
+        new KubernetesPropertiesSingleton().activate();
+        KubernetesPropertiesSingleton.setCps(cpsMock);
+
+        cluster = mock(KubernetesClusterImpl.class);
+        when(cluster.getId()).thenReturn("K8S");
+    }
+
+    private void setProperty(String value) throws Exception {
+        // The cluster id is the infix, the CPS falls back to kubernetes.cluster.<name> if it is not set for the cluster
+        when(cpsMock.getProperty(anyString(), anyString(), any())).thenAnswer(invocation -> {
+            if ("cluster".equals(invocation.getArgument(0)) && name.equals(invocation.getArgument(1))
+                    && "K8S".equals(invocation.getArgument(2))) {
+                return value;
+            }
+            return null;
+        });
+    }
+
+    @Test
+    public void testDefault() throws Exception {
+        setProperty(null);
+        Assert.assertEquals("Unexpected default", defaultValue, property.get(cluster));
+    }
+
+    @Test
+    public void testValid() throws Exception {
+        setProperty(" 16 ");
+        Assert.assertEquals("The value for the cluster should be trimmed", 16, property.get(cluster));
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+        setProperty("lots");
+        Assert.assertEquals("An invalid value should return the default", defaultValue, property.get(cluster));
+    }
+
+    @Test
+    public void testCpsException() throws Exception {
+        when(cpsMock.getProperty(anyString(), anyString(), any())).thenThrow(new ConfigurationPropertyStoreException("CPS failed"));
+        Assert.assertEquals("A CPS problem should return the default", defaultValue, property.get(cluster));
+    }
+
+}
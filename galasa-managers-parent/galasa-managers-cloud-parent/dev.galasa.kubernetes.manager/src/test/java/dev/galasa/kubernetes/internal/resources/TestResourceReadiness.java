@@ -0,0 +1,114 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.kubernetes.internal.resources;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1DeploymentSpec;
+import io.kubernetes.client.openapi.models.V1DeploymentStatus;
+import io.kubernetes.client.openapi.models.V1LoadBalancerIngress;
+import io.kubernetes.client.openapi.models.V1LoadBalancerStatus;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
+import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimStatus;
+import io.kubernetes.client.openapi.models.V1Service;
+import io.kubernetes.client.openapi.models.V1ServiceSpec;
+import io.kubernetes.client.openapi.models.V1ServiceStatus;
+import io.kubernetes.client.openapi.models.V1StatefulSet;
+import io.kubernetes.client.openapi.models.V1StatefulSetSpec;
+import io.kubernetes.client.openapi.models.V1StatefulSetStatus;
+
+public class TestResourceReadiness {
+
+    private V1Deployment deployment(long generation, Integer replicas, V1DeploymentStatus status) {
+        return new V1Deployment()
+                .metadata(new V1ObjectMeta().name("deployment1").generation(generation))
+                .spec(new V1DeploymentSpec().replicas(replicas))
+                .status(status);
+    }
+
+    private V1StatefulSet statefulSet(long generation, Integer replicas, V1StatefulSetStatus status) {
+        return new V1StatefulSet()
+                .metadata(new V1ObjectMeta().name("statefulset1").generation(generation))
+                .spec(new V1StatefulSetSpec().replicas(replicas))
+                .status(status);
+    }
+
+    private V1Service service(String type, V1LoadBalancerStatus loadBalancer) {
+        return new V1Service()
+                .metadata(new V1ObjectMeta().name("service1"))
+                .spec(new V1ServiceSpec().type(type))
+                .status(new V1ServiceStatus().loadBalancer(loadBalancer));
+    }
+
+    @Test
+    public void testDeploymentReadyWhenAllReplicasUpdatedAndAvailable() {
+        Assert.assertTrue("All replicas updated and available",
+                DeploymentImpl.isReady(deployment(2, 3, new V1DeploymentStatus().observedGeneration(2L).updatedReplicas(3).availableReplicas(3))));
+        Assert.assertFalse("Not all replicas available",
+                DeploymentImpl.isReady(deployment(2, 3, new V1DeploymentStatus().observedGeneration(2L).updatedReplicas(3).availableReplicas(2))));
+        Assert.assertFalse("Not all replicas updated",
+                DeploymentImpl.isReady(deployment(2, 3, new V1DeploymentStatus().observedGeneration(2L).updatedReplicas(1).availableReplicas(3))));
+    }
+
+    @Test
+    public void testDeploymentNotReadyUntilLatestGenerationObserved() {
+        Assert.assertFalse("Older generation observed",
+                DeploymentImpl.isReady(deployment(2, 1, new V1DeploymentStatus().observedGeneration(1L).updatedReplicas(1).availableReplicas(1))));
+        Assert.assertFalse("No generation observed",
+                DeploymentImpl.isReady(deployment(2, 1, new V1DeploymentStatus().updatedReplicas(1).availableReplicas(1))));
+        Assert.assertFalse("No status", DeploymentImpl.isReady(deployment(2, 1, null)));
+    }
+
+    @Test
+    public void testDeploymentReplicaCountsDefault() {
+        Assert.assertTrue("One replica by default",
+                DeploymentImpl.isReady(deployment(1, null, new V1DeploymentStatus().observedGeneration(1L).updatedReplicas(1).availableReplicas(1))));
+        Assert.assertFalse("Missing counts are zero",
+                DeploymentImpl.isReady(deployment(1, null, new V1DeploymentStatus().observedGeneration(1L))));
+        Assert.assertTrue("Scaled to zero",
+                DeploymentImpl.isReady(deployment(1, 0, new V1DeploymentStatus().observedGeneration(1L))));
+    }
+
+    @Test
+    public void testStatefulSetReadyWhenAllReplicasReady() {
+        Assert.assertTrue("All replicas ready",
+                StatefulSetImpl.isReady(statefulSet(3, 2, new V1StatefulSetStatus().replicas(2).observedGeneration(3L).readyReplicas(2))));
+        Assert.assertFalse("Not all replicas ready",
+                StatefulSetImpl.isReady(statefulSet(3, 2, new V1StatefulSetStatus().replicas(2).observedGeneration(3L).readyReplicas(1))));
+        Assert.assertFalse("Missing ready count is zero",
+                StatefulSetImpl.isReady(statefulSet(3, null, new V1StatefulSetStatus().replicas(1).observedGeneration(3L))));
+        Assert.assertFalse("Older generation observed",
+                StatefulSetImpl.isReady(statefulSet(3, 2, new V1StatefulSetStatus().replicas(2).observedGeneration(2L).readyReplicas(2))));
+        Assert.assertFalse("No status", StatefulSetImpl.isReady(statefulSet(3, 2, null)));
+    }
+
+    @Test
+    public void testPersistentVolumeClaimReadyWhenBound() {
+        Assert.assertTrue("Bound claim",
+                PersistentVolumeClaimImpl.isReady(new V1PersistentVolumeClaim().status(new V1PersistentVolumeClaimStatus().phase("Bound"))));
+        Assert.assertFalse("Pending claim",
+                PersistentVolumeClaimImpl.isReady(new V1PersistentVolumeClaim().status(new V1PersistentVolumeClaimStatus().phase("Pending"))));
+        Assert.assertFalse("No status", PersistentVolumeClaimImpl.isReady(new V1PersistentVolumeClaim()));
+    }
+
+    @Test
+    public void testServiceReadyWhenLoadBalancerHasIngress() {
+        Assert.assertTrue("NodePort services do not wait", ServiceImpl.isReady(service("NodePort", null)));
+        Assert.assertTrue("Services without a spec do not wait", ServiceImpl.isReady(new V1Service()));
+        Assert.assertTrue("Load balancer with an ingress",
+                ServiceImpl.isReady(service("LoadBalancer", new V1LoadBalancerStatus().ingress(Arrays.asList(new V1LoadBalancerIngress().ip("10.0.0.1"))))));
+        Assert.assertFalse("Load balancer without an ingress",
+                ServiceImpl.isReady(service("LoadBalancer", new V1LoadBalancerStatus().ingress(new ArrayList<>()))));
+        Assert.assertFalse("Load balancer not yet provisioned", ServiceImpl.isReady(service("LoadBalancer", null)));
+    }
+
+}
@@ -5,10 +5,15 @@
  */
 package dev.galasa.http;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -16,6 +21,7 @@ import javax.xml.parsers.ParserConfigurationException;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
@@ -26,12 +32,16 @@ import org.xml.sax.SAXException;
 
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 
 import dev.galasa.framework.spi.utils.GalasaGson;
+import dev.galasa.http.internal.JaxbContextCache;
 /**
  * Parametrisable representation of a response to an HTTP request. The parameter
  * describes the content type of the response. Use the static methods to create
@@ -49,6 +59,8 @@ public class HttpClientResponse<T> {
     private T                         content;
     private final Map<String, String> headers = new HashMap<>();
 
+    private CloseableHttpResponse     streamedResponse;
+
     private HttpClientResponse() {
     }
 
@@ -170,7 +182,7 @@ public class HttpClientResponse<T> {
             boolean contentOnBadResponse) throws HttpClientException {
 
         HttpClientResponse<byte[]> response = new HttpClientResponse<>();
-        try {
+        try (httpResponse) {
 
             response.populateGenericValues(httpResponse);
             if (httpResponse.getEntity() != null) {
@@ -181,8 +193,6 @@ public class HttpClientResponse<T> {
                     EntityUtils.consume(httpResponse.getEntity());
                 }
             }
-
-            httpResponse.close();
         } catch (IOException e) {
             throw new HttpClientException("Unable to extract response body to byte array", e);
         }
@@ -190,6 +200,109 @@ public class HttpClientResponse<T> {
         return response;
     }
 
+    /**
+     * Create an {@link HttpClientResponse} with an {@link InputStream} content type
+     * from an {@link HttpResponse}. The content is read directly from the 
+     * connection rather than being buffered in memory, so {@link #close()} must be
+     * called once the content has been read to release the connection. Closing
+     * the response before the content has been fully read discards the connection
+     * rather than returning it to the pool.
+     * 
+     * @param httpResponse
+     * @return - {@link HttpClientResponse} with an {@link InputStream} content type
+     * @throws HttpClientException
+     */
+    public static HttpClientResponse<InputStream> streamResponse(CloseableHttpResponse httpResponse)
+            throws HttpClientException {
+
+        HttpClientResponse<InputStream> response = new HttpClientResponse<>();
+        response.populateGenericValues(httpResponse);
+        response.streamedResponse = httpResponse;
+
+        try {
+            HttpEntity entity = httpResponse.getEntity();
+            if (entity != null) {
+                response.setContent(entity.getContent());
+            } else {
+                response.setContent(new ByteArrayInputStream(new byte[0]));
+            }
+        } catch (IOException e) {
+            response.close();
+            throw new HttpClientException("Unable to open response body stream", e);
+        }
+
+        return response;
+    }
+
+    /**
+     * Parse the elements of a JSON array from a streamed response one at a time,
+     * without reading the whole body into memory. The array can either be the
+     * top level of the body, or a member of the top level object. The response is
+     * closed once the array has been read.
+     * 
+     * @param arrayName - the name of the array member in the top level object, or null if the body is an array
+     * @param consumer - called with each element of the array in turn
+     * @throws HttpClientException
+     */
+    public void forEachJsonArrayElement(String arrayName, Consumer<JsonElement> consumer) throws HttpClientException {
+        if (!(content instanceof InputStream)) {
+            throw new HttpClientException("The response content is not a stream");
+        }
+
+        Charset charset = StandardCharsets.UTF_8;
+        org.apache.http.entity.ContentType entityContentType = org.apache.http.entity.ContentType.get(streamedResponse.getEntity());
+        if (entityContentType != null && entityContentType.getCharset() != null) {
+            charset = entityContentType.getCharset();
+        }
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader((InputStream) content, charset))) {
+            if (arrayName != null) {
+                if (!findArrayMember(reader, arrayName)) {
+                    return;
+                }
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                consumer.accept(JsonParser.parseReader(reader));
+            }
+            reader.endArray();
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new HttpClientException("Unable to parse JSON array from response body", e);
+        } finally {
+            close();
+        }
+    }
+
+    private static boolean findArrayMember(JsonReader reader, String arrayName) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals(arrayName) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    /**
+     * Release the connection underlying a response created by 
+     * {@link #streamResponse(CloseableHttpResponse)}. Has no effect on responses
+     * whose content has already been read into memory.
+     */
+    public void close() {
+        if (streamedResponse == null) {
+            return;
+        }
+
+        try {
+            streamedResponse.close();
+        } catch (IOException e) {
+            // Nothing can be done if the connection cannot be closed cleanly
+        }
+        streamedResponse = null;
+    }
+
     /**
      * Create an {@link HttpClientResponse} with a {@link String} content type from
      * an {@link HttpResponse}.
@@ -218,7 +331,7 @@ public class HttpClientResponse<T> {
             boolean contentOnBadResponse) throws HttpClientException {
 
         HttpClientResponse<String> response = new HttpClientResponse<>();
-        try {
+        try (httpResponse) {
 
             response.populateGenericValues(httpResponse);
 
@@ -230,8 +343,6 @@ public class HttpClientResponse<T> {
                     EntityUtils.consume(httpResponse.getEntity());
                 }
             }
-
-            httpResponse.close();
         } catch (IOException e) {
             throw new HttpClientException("Unable to extract response body to string", e);
         }
@@ -267,7 +378,8 @@ public class HttpClientResponse<T> {
             boolean contentOnBadResponse) throws HttpClientException {
 
         HttpClientResponse<JsonObject> response = new HttpClientResponse<>();
-        try {
+        // The response is closed even if the content cannot be parsed, so the connection is released
+        try (httpResponse) {
             response.populateGenericValues(httpResponse);
 
             if (httpResponse.getEntity() != null) {
@@ -294,8 +406,6 @@ public class HttpClientResponse<T> {
                     EntityUtils.consume(httpResponse.getEntity());
                 }
             }
-
-            httpResponse.close();
         } catch (IOException e) {
             throw new HttpClientException("Unable to extract response body to JSON object", e);
         }
@@ -331,7 +441,7 @@ public class HttpClientResponse<T> {
             boolean contentOnBadResponse) throws HttpClientException {
 
         HttpClientResponse<Document> response = new HttpClientResponse<>();
-        try {
+        try (httpResponse) {
             response.populateGenericValues(httpResponse);
 
             if (httpResponse.getEntity() != null) {
@@ -345,8 +455,6 @@ public class HttpClientResponse<T> {
                     EntityUtils.consume(httpResponse.getEntity());
                 }
             }
-
-            httpResponse.close();
         } catch (IOException e) {
             throw new HttpClientException("Unable to extract response body to XML document", e);
         } catch (SAXException e) {
@@ -391,21 +499,18 @@ public class HttpClientResponse<T> {
             boolean contentOnBadResponse, Class<?>... responseTypes) throws HttpClientException {
 
         HttpClientResponse<Object> response = new HttpClientResponse<>();
-        try {
+        try (httpResponse) {
 
             response.populateGenericValues(httpResponse);
 
             if (httpResponse.getEntity() != null) {
                 if (response.getStatusCode() == HttpStatus.SC_OK || contentOnBadResponse) {
-                    JAXBContext context = JAXBContext.newInstance(responseTypes);
-                    Object data = context.createUnmarshaller().unmarshal(httpResponse.getEntity().getContent());
+                    Object data = JaxbContextCache.getUnmarshaller(responseTypes).unmarshal(httpResponse.getEntity().getContent());
                     response.setContent(data);
                 } else {
                     EntityUtils.consume(httpResponse.getEntity());
                 }
             }
-
-            httpResponse.close();
         } catch (IOException | JAXBException e) {
             throw new HttpClientException("Unable to extract response body to JSON object", e);
         }
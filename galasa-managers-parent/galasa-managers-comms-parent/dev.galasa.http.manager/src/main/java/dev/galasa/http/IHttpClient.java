@@ -10,6 +10,7 @@ import java.net.URI;
 import java.security.KeyStore;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
@@ -131,6 +132,19 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> getJson(String url) throws HttpClientException;
 
+    /**
+     * Issue an HTTP GET to the provided URL with additional request headers, receiving a
+     * com.google.gson.JsonObject in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param headers
+     * @return - {@link HttpClientResponse} with a com.google.gson.JsonObject content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<JsonObject> getJson(String url, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP POST to the provided URL, sending the provided
      * com.google.gson.JsonObject and receiving a com.google.gson.JsonObject in the response.
@@ -142,6 +156,20 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> postJson(String url, JsonObject json) throws HttpClientException;
 
+    /**
+     * Issue an HTTP POST to the provided URL with additional request headers, sending the provided
+     * com.google.gson.JsonObject and receiving a com.google.gson.JsonObject in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param json
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<JsonObject> postJson(String url, JsonObject json, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP PATCH to the provided URL, sending the provided
      * com.google.gson.JsonObject and receiving a com.google.gson.JsonObject in the response.
@@ -165,6 +193,20 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> putJson(String url, JsonObject json) throws HttpClientException;
 
+    /**
+     * Issue an HTTP PUT to the provided URL with additional request headers, sending the provided
+     * com.google.gson.JsonObject and receiving a com.google.gson.JsonObject in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param json
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<JsonObject> putJson(String url, JsonObject json, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP DELETE to the provided URL, receiving a com.google.gson.JsonObject in
      * the response.
@@ -175,6 +217,19 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> deleteJson(String url) throws HttpClientException;
 
+    /**
+     * Issue an HTTP DELETE to the provided URL with additional request headers, receiving a
+     * com.google.gson.JsonObject in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<JsonObject> deleteJson(String url, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP DELETE to the provided URL, receiving a com.google.gson.JsonObject in
      * the response.
@@ -186,6 +241,70 @@ public interface IHttpClient {
      */
     HttpClientResponse<JsonObject> deleteJson(String url, JsonObject json) throws HttpClientException;
 
+    /**
+     * Asynchronously issue an HTTP GET to the provided URL, receiving a 
+     * com.google.gson.JsonObject in the response. The number of requests in 
+     * flight to a single host is bounded by the per route connection limit of 
+     * this client
+     * 
+     * @param url
+     * @return - a future completed with the {@link HttpClientResponse}, or 
+     * exceptionally with an {@link HttpClientException}
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> getJsonAsync(String url);
+
+    /**
+     * Asynchronously issue an HTTP POST to the provided URL, sending the provided
+     * com.google.gson.JsonObject and receiving a com.google.gson.JsonObject in the response.
+     * 
+     * @param url
+     * @param json
+     * @return - a future completed with the {@link HttpClientResponse}, or 
+     * exceptionally with an {@link HttpClientException}
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> postJsonAsync(String url, JsonObject json);
+
+    /**
+     * Asynchronously issue an HTTP PUT to the provided URL, sending the provided
+     * com.google.gson.JsonObject and receiving a com.google.gson.JsonObject in the response.
+     * 
+     * @param url
+     * @param json
+     * @return - a future completed with the {@link HttpClientResponse}, or 
+     * exceptionally with an {@link HttpClientException}
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> putJsonAsync(String url, JsonObject json);
+
+    /**
+     * Asynchronously issue an HTTP DELETE to the provided URL, receiving a 
+     * com.google.gson.JsonObject in the response.
+     * 
+     * @param url
+     * @return - a future completed with the {@link HttpClientResponse}, or 
+     * exceptionally with an {@link HttpClientException}
+     */
+    CompletableFuture<HttpClientResponse<JsonObject>> deleteJsonAsync(String url);
+
+    /**
+     * Asynchronously issue an HTTP GET to the provided URL, receiving a 
+     * {@link String} in the response.
+     * 
+     * @param url
+     * @return - a future completed with the {@link HttpClientResponse}, or 
+     * exceptionally with an {@link HttpClientException}
+     */
+    CompletableFuture<HttpClientResponse<String>> getTextAsync(String url);
+
+    /**
+     * Asynchronously issue an HTTP GET to the provided URL, receiving a 
+     * {@link byte[]} in the response.
+     * 
+     * @param url
+     * @return - a future completed with the {@link HttpClientResponse}, or 
+     * exceptionally with an {@link HttpClientException}
+     */
+    CompletableFuture<HttpClientResponse<byte[]>> getBinaryAsync(String url);
+
     /**
      * Issue an HTTP GET to the provided URL, receiving a {@link String} in the
      * response.
@@ -196,6 +315,19 @@ public interface IHttpClient {
      */
     HttpClientResponse<String> getText(String url) throws HttpClientException;
 
+    /**
+     * Issue an HTTP GET to the provided URL with additional request headers, receiving a
+     * {@link String} in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> getText(String url, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP POST to the provided URL, sending the provided {@link String}
      * and receiving a {@link String} in the response.
@@ -207,6 +339,20 @@ public interface IHttpClient {
      */
     HttpClientResponse<String> postText(String url, String text) throws HttpClientException;
 
+    /**
+     * Issue an HTTP POST to the provided URL with additional request headers, sending the provided
+     * {@link String} and receiving a {@link String} in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param text
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> postText(String url, String text, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP PUT to the provided URL, sending the provided {@link String}
      * and receiving a {@link String} in the response.
@@ -218,6 +364,20 @@ public interface IHttpClient {
      */
     HttpClientResponse<String> putText(String url, String text) throws HttpClientException;
 
+    /**
+     * Issue an HTTP PUT to the provided URL with additional request headers, sending the provided
+     * {@link String} and receiving a {@link String} in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param text
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> putText(String url, String text, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP DELETE to the provided URL, receiving a {@link String} in the
      * response.
@@ -239,6 +399,20 @@ public interface IHttpClient {
      */
     HttpClientResponse<byte[]> putBinary(String url, byte[] binary) throws HttpClientException;
 
+    /**
+     * Issue an HTTP PUT to the provided URL with additional request headers, sending the provided
+     * {@link byte[]} and receiving a {@link byte[]} in the response.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param url
+     * @param binary
+     * @param headers
+     * @return - {@link HttpClientResponse}
+     * @throws HttpClientException
+     */
+    HttpClientResponse<byte[]> putBinary(String url, byte[] binary, Map<String, String> headers) throws HttpClientException;
+
     /**
      * Issue an HTTP GET to the provided URL, sending the provided
      * {@link byte[]} and receiving a {@link byte[]} in the response.
@@ -272,12 +446,37 @@ public interface IHttpClient {
      */
     HttpClientResponse<byte[]> deleteBinary(String url, byte[] binary) throws HttpClientException;
 
+    /**
+     * Issue an HTTP GET to the provided URL, receiving an {@link InputStream} in
+     * the response. The body is streamed from the connection rather than being 
+     * buffered in memory, so {@link HttpClientResponse#close()} must be called 
+     * once it has been read to release the connection
+     * 
+     * @param url
+     * @param acceptTypes
+     * @return - {@link HttpClientResponse} with an {@link InputStream} content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<InputStream> getStream(String url, ContentType... acceptTypes) throws HttpClientException;
+
     /**
      * Download a file from a specified location to a specified destination on local host.
      * 
      * @param path = URL path
      */
     CloseableHttpResponse getFile(String path) throws HttpClientException;
+
+    /**
+     * Download a file from a specified location with additional request headers.
+     * The headers are only sent on this request, so the client can be shared by
+     * threads sending different headers.
+     * 
+     * @param path
+     * @param headers
+     * @return - the response
+     * @throws HttpClientException
+     */
+    CloseableHttpResponse getFile(String path, Map<String, String> headers) throws HttpClientException;
     
     /**
      * Download a file from a specified location to a specified destination on local host.
@@ -295,6 +494,17 @@ public interface IHttpClient {
      */
     void putFile(String path, InputStream file);
 
+    /**
+     * Send a compressed (tar) file from a local location to a specified destination on a host,
+     * reporting any failure to send it. The file is closed once it has been sent or the request has failed.
+     * 
+     * @param path - URL path
+     * @param file
+     * @return - {@link HttpClientResponse} with a {@link String} content type
+     * @throws HttpClientException
+     */
+    HttpClientResponse<String> putTarFile(String path, InputStream file) throws HttpClientException;
+
     /**
      * Execute an {@link HttpClientRequest} returning a JAXB object available
      * through the returned {@link HttpClientResponse}. In order to unmarshal the
@@ -357,12 +567,41 @@ public interface IHttpClient {
     void addOkResponseCode(int responseCode);
 
     /**
-     * Build the client
+     * Build the client. The underlying client and its connection pool are reused 
+     * until the configuration of this client changes
      * 
      * @return the built client
      */
     IHttpClient build();
 
+    /**
+     * Set the connection pool limits used by this client
+     * 
+     * @param maxTotal - the maximum number of pooled connections across all hosts
+     * @param maxPerRoute - the maximum number of pooled connections to a single host
+     * @return the updated client
+     */
+    IHttpClient setConnectionPoolLimits(int maxTotal, int maxPerRoute);
+
+    /**
+     * Set the number of seconds a pooled connection may remain idle before it is 
+     * evicted, 0 disables idle eviction
+     * 
+     * @param idleSeconds
+     * @return the updated client
+     */
+    IHttpClient setIdleConnectionTimeout(int idleSeconds);
+
+    /**
+     * Set the maximum number of seconds a connection is kept alive for reuse, a 
+     * shorter keep alive sent by the server is always honoured. 0 uses the keep 
+     * alive sent by the server
+     * 
+     * @param keepAliveSeconds
+     * @return the updated client
+     */
+    IHttpClient setKeepAlive(int keepAliveSeconds);
+
     /**
      * close the underlying HTTPClient
      */
@@ -17,13 +17,23 @@ import java.net.URLDecoder;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.SecureRandom;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,6 +63,11 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.entity.ByteArrayEntity;
@@ -62,7 +77,9 @@ import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.AbstractHttpMessage;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
@@ -75,7 +92,6 @@ import dev.galasa.http.ContentType;
 import dev.galasa.http.HttpClientException;
 import dev.galasa.http.HttpClientResponse;
 import dev.galasa.http.IHttpClient;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.annotation.XmlType;
 
@@ -86,7 +102,7 @@ public class HttpClientImpl implements IHttpClient {
     private CloseableHttpClient httpClient;
     protected URI               host                 = null;
 
-    private final List<Header>  commonHeaders        = new ArrayList<>();
+    private final List<Header>  commonHeaders        = new CopyOnWriteArrayList<>();
 
     private final int           timeout;
 
@@ -94,13 +110,23 @@ public class HttpClientImpl implements IHttpClient {
     private SSLContext          sslContext;
     private HostnameVerifier    hostnameVerifier     = NoopHostnameVerifier.INSTANCE;
     private CredentialsProvider credentialsProvider  = new BasicCredentialsProvider();
-    private HttpClientContext   httpContext          = null;
+    private volatile AuthCache  authCache            = null;
     private Set<Integer>        okResponseCodes      = new HashSet<>();
 
     private Log                 logger;
 
     private SSLTLSContextNameSelector nameSelector = new SSLTLSContextNameSelector();
 
+    private int                 maxTotalConnections      = 20;
+    private int                 maxConnectionsPerRoute   = 10;
+    private int                 idleConnectionTimeout    = 30;
+    private int                 keepAlive                = 60;
+
+    private volatile boolean    configurationChanged     = true;
+
+    private ExecutorService     asyncExecutor;
+    private final Map<String, AsyncHostQueue> asyncHostQueues = new ConcurrentHashMap<>();
+
     public HttpClientImpl(int timeout, Log log) {
         this.timeout = timeout;
         this.logger = log;
@@ -155,27 +181,45 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<JsonObject> getJson(String url) throws HttpClientException {
+        return getJson(url, null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> getJson(String url, Map<String, String> headers) throws HttpClientException {
         HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON });
+        addRequestHeaders(request, headers);
         return executeJsonRequest(request);
     }
 
     @Override
     public HttpClientResponse<JsonObject> putJson(String url, JsonObject json) throws HttpClientException {
+        return putJson(url, json, null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> putJson(String url, JsonObject json, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON }, ContentType.APPLICATION_JSON);
         request.setJSONBody(json);
+        addRequestHeaders(request, headers);
 
         return executeJsonRequest(request);
     }
 
     @Override
     public HttpClientResponse<JsonObject> postJson(String url, JsonObject json) throws HttpClientException {
+        return postJson(url, json, null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> postJson(String url, JsonObject json, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPostRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON }, ContentType.APPLICATION_JSON);
         request.setJSONBody(json);
+        addRequestHeaders(request, headers);
 
         return executeJsonRequest(request);
     }
@@ -192,9 +236,15 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<JsonObject> deleteJson(String url) throws HttpClientException {
+        return deleteJson(url, (Map<String, String>) null);
+    }
+
+    @Override
+    public HttpClientResponse<JsonObject> deleteJson(String url, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newDeleteRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.APPLICATION_JSON });
+        addRequestHeaders(request, headers);
 
         return executeJsonRequest(request);
     }
@@ -217,9 +267,15 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<String> getText(String url) throws HttpClientException {
+        return getText(url, null);
+    }
+
+    @Override
+    public HttpClientResponse<String> getText(String url, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.TEXT_PLAIN });
+        addRequestHeaders(request, headers);
 
         return executeTextRequest(request);
     }
@@ -266,20 +322,32 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<String> putText(String url, String text) throws HttpClientException {
+        return putText(url, text, null);
+    }
+
+    @Override
+    public HttpClientResponse<String> putText(String url, String text, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.TEXT_PLAIN }, ContentType.TEXT_PLAIN);
         request.setBody(text);
+        addRequestHeaders(request, headers);
 
         return executeTextRequest(request);
     }
 
     @Override
     public HttpClientResponse<String> postText(String url, String text) throws HttpClientException {
+        return postText(url, text, null);
+    }
+
+    @Override
+    public HttpClientResponse<String> postText(String url, String text, Map<String, String> headers) throws HttpClientException {
 
         HttpClientRequest request = HttpClientRequest.newPostRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.TEXT_PLAIN }, ContentType.TEXT_PLAIN);
         request.setBody(text);
+        addRequestHeaders(request, headers);
 
         return executeTextRequest(request);
     }
@@ -301,9 +369,15 @@ public class HttpClientImpl implements IHttpClient {
 
     @Override
     public HttpClientResponse<byte[]> putBinary(String url, byte[] binary) throws HttpClientException {       
+        return putBinary(url, binary, null);
+    }
+
+    @Override
+    public HttpClientResponse<byte[]> putBinary(String url, byte[] binary, Map<String, String> headers) throws HttpClientException {       
         HttpClientRequest request = HttpClientRequest.newPutRequest(buildUri(url, null).toString(),
                 new ContentType[] { ContentType.TEXT_PLAIN }, ContentType.TEXT_PLAIN);
         request.setBody(binary);
+        addRequestHeaders(request, headers);
         return executeByteRequest(request);
     }
 
@@ -336,6 +410,177 @@ public class HttpClientImpl implements IHttpClient {
         return HttpClientResponse.byteResponse(execute(request.buildRequest()));
     }
 
+    @Override
+    public HttpClientResponse<InputStream> getStream(String url, ContentType... acceptTypes) throws HttpClientException {
+        if (acceptTypes.length == 0) {
+            acceptTypes = new ContentType[] { ContentType.APPLICATION_OCTET_STREAM };
+        }
+        HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(url, null).toString(), acceptTypes);
+        return HttpClientResponse.streamResponse(execute(request.buildRequest()));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> getJsonAsync(String url) {
+        return executeAsync(url, uri -> executeJsonRequest(HttpClientRequest.newGetRequest(uri,
+                new ContentType[] { ContentType.APPLICATION_JSON })));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> postJsonAsync(String url, JsonObject json) {
+        return executeAsync(url, uri -> {
+            HttpClientRequest request = HttpClientRequest.newPostRequest(uri,
+                    new ContentType[] { ContentType.APPLICATION_JSON }, ContentType.APPLICATION_JSON);
+            request.setJSONBody(json);
+            return executeJsonRequest(request);
+        });
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> putJsonAsync(String url, JsonObject json) {
+        return executeAsync(url, uri -> {
+            HttpClientRequest request = HttpClientRequest.newPutRequest(uri,
+                    new ContentType[] { ContentType.APPLICATION_JSON }, ContentType.APPLICATION_JSON);
+            request.setJSONBody(json);
+            return executeJsonRequest(request);
+        });
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<JsonObject>> deleteJsonAsync(String url) {
+        return executeAsync(url, uri -> executeJsonRequest(HttpClientRequest.newDeleteRequest(uri,
+                new ContentType[] { ContentType.APPLICATION_JSON })));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<String>> getTextAsync(String url) {
+        return executeAsync(url, uri -> executeTextRequest(HttpClientRequest.newGetRequest(uri,
+                new ContentType[] { ContentType.TEXT_PLAIN })));
+    }
+
+    @Override
+    public CompletableFuture<HttpClientResponse<byte[]>> getBinaryAsync(String url) {
+        return executeAsync(url, uri -> executeByteRequest(HttpClientRequest.newGetRequest(uri,
+                new ContentType[] { ContentType.APPLICATION_OCTET_STREAM })));
+    }
+
+    /**
+     * A request to be run on the async executor, the uri is resolved when the request is submitted
+     */
+    private interface AsyncRequest<T> {
+        HttpClientResponse<T> execute(String uri) throws HttpClientException;
+    }
+
+    private <T> CompletableFuture<HttpClientResponse<T>> executeAsync(String url, AsyncRequest<T> request) {
+        CompletableFuture<HttpClientResponse<T>> future = new CompletableFuture<>();
+
+        URI uri;
+        try {
+            uri = buildUri(url, null);
+        } catch (HttpClientException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        AsyncHostQueue hostQueue = asyncHostQueues.computeIfAbsent(uri.getHost() + ":" + uri.getPort(),
+                key -> new AsyncHostQueue(maxConnectionsPerRoute));
+        hostQueue.submit(new AsyncTask<>(uri.toString(), request, future));
+
+        return future;
+    }
+
+    /**
+     * An async request and the future it completes
+     */
+    private static class AsyncTask<T> implements Runnable {
+        private final String                                   uri;
+        private final AsyncRequest<T>                          request;
+        private final CompletableFuture<HttpClientResponse<T>> future;
+
+        private AsyncTask(String uri, AsyncRequest<T> request, CompletableFuture<HttpClientResponse<T>> future) {
+            this.uri = uri;
+            this.request = request;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(request.execute(uri));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void reject(Exception e) {
+            future.completeExceptionally(new HttpClientException("Galasa HTTP Client async request rejected", e));
+        }
+    }
+
+    /**
+     * The async requests to one host.  No more than the connections per route are given to the executor at a time,
+     * the rest wait here until one completes, so that a busy host does not hold the executor threads
+     * needed by the requests to other hosts.
+     */
+    private class AsyncHostQueue {
+        private final int                  limit;
+        private final Queue<AsyncTask<?>>  pending = new ArrayDeque<>();
+        private int                        running;
+
+        private AsyncHostQueue(int limit) {
+            this.limit = limit;
+        }
+
+        private void submit(AsyncTask<?> task) {
+            synchronized (this) {
+                if (running >= limit) {
+                    pending.add(task);
+                    return;
+                }
+                running++;
+            }
+            dispatch(task);
+        }
+
+        private void dispatch(AsyncTask<?> task) {
+            try {
+                getAsyncExecutor().execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        next();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                task.reject(e);
+                next();
+            }
+        }
+
+        private void next() {
+            AsyncTask<?> task;
+            synchronized (this) {
+                task = pending.poll();
+                if (task == null) {
+                    running--;
+                    return;
+                }
+            }
+            dispatch(task);
+        }
+    }
+
+    private synchronized ExecutorService getAsyncExecutor() {
+        if (asyncExecutor == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            asyncExecutor = Executors.newFixedThreadPool(maxTotalConnections, runnable -> {
+                Thread thread = new Thread(runnable, "galasa-http-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return asyncExecutor;
+    }
+
 
 
     @Override
@@ -350,10 +595,26 @@ public class HttpClientImpl implements IHttpClient {
         BasicScheme basicAuth = new BasicScheme();
         authCache.put(new HttpHost(host.getHost(), host.getPort(), host.getScheme()), basicAuth);
 
-        // Add AuthCache to the execution context
-        httpContext = HttpClientContext.create();
-        httpContext.setCredentialsProvider(credentialsProvider);
-        httpContext.setAuthCache(authCache);
+        // The AuthCache is added to the execution context of each request
+        this.authCache = authCache;
+    }
+
+    /**
+     * Create the execution context for a request. Each request has its own context, as a context is not
+     * safe to share between requests running at the same time
+     * 
+     * @return the context, or null if the default context is to be used
+     */
+    private HttpClientContext createContext() {
+        AuthCache cache = this.authCache;
+        if (cache == null) {
+            return null;
+        }
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(credentialsProvider);
+        context.setAuthCache(cache);
+        return context;
     }
 
     /**
@@ -431,6 +692,7 @@ public class HttpClientImpl implements IHttpClient {
     public IHttpClient setSSLContext(SSLContext sslContext) {
 
         this.sslContext = sslContext;
+        this.configurationChanged = true;
 
         return this;
     }
@@ -445,6 +707,7 @@ public class HttpClientImpl implements IHttpClient {
     public IHttpClient setHostnameVerifier(HostnameVerifier hostnameVerifier) {
 
         this.hostnameVerifier = hostnameVerifier;
+        this.configurationChanged = true;
 
         return this;
     }
@@ -457,6 +720,7 @@ public class HttpClientImpl implements IHttpClient {
     public IHttpClient setNoopHostnameVerifier() {
 
         this.hostnameVerifier = NoopHostnameVerifier.INSTANCE;
+        this.configurationChanged = true;
 
         return this;
     }
@@ -511,33 +775,121 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     /**
-     * Build the client
+     * Set the connection pool limits used by this client
+     * 
+     * @param maxTotal
+     * @param maxPerRoute
+     * @return the updated client
+     */
+    public IHttpClient setConnectionPoolLimits(int maxTotal, int maxPerRoute) {
+        this.maxTotalConnections = maxTotal;
+        this.maxConnectionsPerRoute = maxPerRoute;
+        this.configurationChanged = true;
+        this.asyncHostQueues.clear();
+        return this;
+    }
+
+    /**
+     * Set the number of seconds a pooled connection may remain idle before it is evicted
+     * 
+     * @param idleSeconds
+     * @return the updated client
+     */
+    public IHttpClient setIdleConnectionTimeout(int idleSeconds) {
+        this.idleConnectionTimeout = idleSeconds;
+        this.configurationChanged = true;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of seconds a connection is kept alive for reuse
+     * 
+     * @param keepAliveSeconds
+     * @return the updated client
+     */
+    public IHttpClient setKeepAlive(int keepAliveSeconds) {
+        this.keepAlive = keepAliveSeconds;
+        this.configurationChanged = true;
+        return this;
+    }
+
+    /**
+     * Build the client. The client and its connection pool are only rebuilt if 
+     * the configuration has changed since the last build, so that connections 
+     * are reused across requests
      * 
      * @return the built client
      */
-    public IHttpClient build() {
+    public synchronized IHttpClient build() {
+        if (httpClient != null && !configurationChanged) {
+            return this;
+        }
+
+        // Any connections pooled by the old client were set up with the old configuration
+        closeHttpClient();
+
     	RequestConfig.Builder requestBuilder = RequestConfig.custom();
     	HttpClientBuilder builder = HttpClientBuilder.create();
     	builder.setDefaultCookieStore(cookieStore);
     	requestBuilder.setCookieSpec(CookieSpecs.STANDARD);
         builder.setDefaultCredentialsProvider(credentialsProvider);
-        builder.setDefaultHeaders(commonHeaders);
 
         if (timeout > 0) {
             requestBuilder.setConnectTimeout(timeout)
                           .setConnectionRequestTimeout(timeout).setSocketTimeout(timeout);
         }
 
-        if (sslContext != null) {
-            SSLConnectionSocketFactory csf = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
-            builder.setSSLSocketFactory(csf);
+        builder.setConnectionManager(buildConnectionManager());
+        builder.evictExpiredConnections();
+        if (idleConnectionTimeout > 0) {
+            builder.evictIdleConnections(idleConnectionTimeout, TimeUnit.SECONDS);
         }
+        if (keepAlive > 0) {
+            builder.setKeepAliveStrategy(buildKeepAliveStrategy());
+        }
+
         builder.setDefaultRequestConfig(requestBuilder.build());
         httpClient = builder.build();
+        configurationChanged = false;
 
         return this;
     }
 
+    private synchronized CloseableHttpClient getHttpClient() {
+        build();
+        return httpClient;
+    }
+
+    private PoolingHttpClientConnectionManager buildConnectionManager() {
+        SSLConnectionSocketFactory csf;
+        if (sslContext != null) {
+            csf = new SSLConnectionSocketFactory(sslContext, hostnameVerifier);
+        } else {
+            csf = SSLConnectionSocketFactory.getSocketFactory();
+        }
+
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", csf)
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(maxTotalConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        return connectionManager;
+    }
+
+    private ConnectionKeepAliveStrategy buildKeepAliveStrategy() {
+        final long maxKeepAlive = TimeUnit.SECONDS.toMillis(keepAlive);
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (serverKeepAlive > 0 && serverKeepAlive < maxKeepAlive) {
+                return serverKeepAlive;
+            }
+            return maxKeepAlive;
+        };
+    }
+
     private void addHeaders(AbstractHttpMessage message, ContentType contentType, ContentType[] acceptTypes) {
 
         if (contentType != null) {
@@ -572,8 +924,8 @@ public class HttpClientImpl implements IHttpClient {
         while (true) {
             CloseableHttpResponse response = null;
             try {
-                this.build();
-                response = httpClient.execute(request, httpContext);
+                addCommonHeaders(request);
+                response = getHttpClient().execute(request, createContext());
                 StatusLine status = response.getStatusLine();
                 if (status.getStatusCode() != HttpStatus.SC_OK
                         && status.getStatusCode() != HttpStatus.SC_CREATED
@@ -697,8 +1049,7 @@ public class HttpClientImpl implements IHttpClient {
 
         try {
             if (jaxbClasses != null && jaxbClasses.length > 0) {
-                JAXBContext ctx = JAXBContext.newInstance(jaxbClasses);
-                return ctx.createUnmarshaller().unmarshal(new ByteArrayInputStream(content));
+                return JaxbContextCache.getUnmarshaller(jaxbClasses).unmarshal(new ByteArrayInputStream(content));
             }
         } catch (JAXBException e) {
             throw new HttpClientException("Issue unmarshalling response", e);
@@ -716,9 +1067,8 @@ public class HttpClientImpl implements IHttpClient {
 
         if (object.getClass().isAnnotationPresent(XmlType.class) && jaxbClasses != null && jaxbClasses.length > 0) {
             try {
-                JAXBContext ctx = JAXBContext.newInstance(jaxbClasses);
                 ByteArrayOutputStream os = new ByteArrayOutputStream();
-                ctx.createMarshaller().marshal(object, os);
+                JaxbContextCache.getMarshaller(jaxbClasses).marshal(object, os);
 
                 return os.toByteArray();
             } catch (JAXBException e) {
@@ -768,9 +1118,14 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     public CloseableHttpResponse getFile(String path) throws HttpClientException {
+        return getFile(path, (Map<String, String>) null);
+    }
+
+    public CloseableHttpResponse getFile(String path, Map<String, String> headers) throws HttpClientException {
         try{
             HttpClientRequest request = HttpClientRequest.newGetRequest(buildUri(path, null).toString(),
                     new ContentType[] { ContentType.APPLICATION_OCTET_STREAM, ContentType.APPLICATION_X_TAR });
+            addRequestHeaders(request, headers);
 
             return execute(request.buildRequest());
         } catch (HttpClientException e) {
@@ -793,17 +1148,23 @@ public class HttpClientImpl implements IHttpClient {
 
     public void putFile(String path, InputStream file) {    
         try {
-            BufferedInputStream in = new BufferedInputStream(file);
-            CloseableHttpResponse response = putStream(path, null, ContentType.APPLICATION_X_TAR, in, new ContentType[] {
-                    ContentType.APPLICATION_XML, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN }, null, false);
-            in.close();
-            response.close();
-            file.close();
-        } catch (HttpClientException | IOException e) {
+            putTarFile(path, file);
+        } catch (HttpClientException e) {
             logger.error("Failed to stream file.", e);
         }
     }
 
+    @Override
+    public HttpClientResponse<String> putTarFile(String path, InputStream file) throws HttpClientException {
+        // The file is closed even if the request fails, so a thread writing it through a pipe is not left blocked
+        try (BufferedInputStream in = new BufferedInputStream(file)) {
+            return HttpClientResponse.textResponse(putStream(path, null, ContentType.APPLICATION_X_TAR, in, new ContentType[] {
+                    ContentType.APPLICATION_XML, ContentType.APPLICATION_JSON, ContentType.TEXT_PLAIN }, null, false), true);
+        } catch (IOException e) {
+            throw new HttpClientException("Failed to close the streamed file", e);
+        }
+    }
+
     public CloseableHttpResponse putStream(String path, Map<String, String> queryParams, ContentType contentType, Object data,
             ContentType[] acceptTypes, Class<?>[] jaxbClasses, boolean retry) throws HttpClientException {
 
@@ -819,7 +1180,7 @@ public class HttpClientImpl implements IHttpClient {
                 entity = new InputStreamEntity((InputStream) data);
                 put.setEntity(entity);
                 addHeaders(put, contentType, acceptTypes);
-                return httpClient.execute(put, context);
+                return getHttpClient().execute(put, context);
             } catch (IOException e) {
                 logger.error("IO error with input stream", e);
                 throw new HttpClientException(e);
@@ -830,14 +1191,8 @@ public class HttpClientImpl implements IHttpClient {
     }
 
     @Override
-    public void addCommonHeader(String name, String value) {
-        List<Header> toRemove = new ArrayList<>();
-        commonHeaders.forEach(header -> {
-            if (header.getName().equals(name)) {
-                toRemove.add(header);
-            }
-        });
-        commonHeaders.removeAll(toRemove);
+    public synchronized void addCommonHeader(String name, String value) {
+        commonHeaders.removeIf(header -> header.getName().equals(name));
         commonHeaders.add(new BasicHeader(name, value));
     }
 
@@ -856,17 +1211,43 @@ public class HttpClientImpl implements IHttpClient {
         return HttpClientResponse.textResponse(execute(request.buildRequest()));
     }
 
+    private void addRequestHeaders(HttpClientRequest request, Map<String, String> headers) {
+        if (headers == null) {
+            return;
+        }
+        for (Entry<String, String> header : headers.entrySet()) {
+            request.addHeader(header.getKey(), header.getValue());
+        }
+    }
+
+    private void addCommonHeaders(HttpUriRequest request) {
+        for (Header header : commonHeaders) {
+            if (!request.containsHeader(header.getName())) {
+                request.addHeader(header);
+            }
+        }
+    }
+
     private CloseableHttpResponse execute(HttpUriRequest request) throws HttpClientException {
-        this.build();
+        addCommonHeaders(request);
         try {
-            return httpClient.execute(request, httpContext);
+            return getHttpClient().execute(request, createContext());
         } catch (IOException e) {
             throw new HttpClientException("Error executing http request", e);
         }
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
+        if (this.asyncExecutor != null) {
+            this.asyncExecutor.shutdown();
+            this.asyncExecutor = null;
+        }
+
+        closeHttpClient();
+    }
+
+    private synchronized void closeHttpClient() {
         if (this.httpClient == null) {
             return;
         }
@@ -875,7 +1256,7 @@ public class HttpClientImpl implements IHttpClient {
             httpClient.close();
         } catch (IOException e) {
         }
-
+        httpClient = null;
     }
 
 }
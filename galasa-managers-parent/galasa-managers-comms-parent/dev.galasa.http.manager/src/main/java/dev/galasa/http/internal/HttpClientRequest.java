@@ -34,7 +34,6 @@ import com.google.gson.JsonObject;
 import dev.galasa.http.ContentType;
 import dev.galasa.http.HttpDelete;
 import dev.galasa.http.HttpClientException;
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 
 /**
@@ -227,8 +226,7 @@ public class HttpClientRequest {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
         try {
-            JAXBContext context = JAXBContext.newInstance(jaxbObject.getClass());
-            context.createMarshaller().marshal(jaxbObject, baos);
+            JaxbContextCache.getMarshaller(jaxbObject.getClass()).marshal(jaxbObject, baos);
         } catch (JAXBException e) {
             throw new IllegalArgumentException("Body is an instance of " + jaxbObject.getClass().getSimpleName()
                     + " which appears not to be a valid JAXB class", e);
@@ -19,19 +19,29 @@ import org.osgi.service.component.annotations.Component;
 import dev.galasa.ManagerException;
 import dev.galasa.framework.spi.AbstractManager;
 import dev.galasa.framework.spi.AnnotatedField;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
 import dev.galasa.framework.spi.GenerateAnnotatedField;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.IManager;
 import dev.galasa.framework.spi.ResourceUnavailableException;
 import dev.galasa.framework.spi.language.GalasaTest;
 import dev.galasa.http.HttpClient;
+import dev.galasa.http.HttpClientException;
 import dev.galasa.http.IHttpClient;
+import dev.galasa.http.internal.properties.ConnectionIdleTimeout;
+import dev.galasa.http.internal.properties.ConnectionKeepAlive;
+import dev.galasa.http.internal.properties.ConnectionPoolMaxPerRoute;
+import dev.galasa.http.internal.properties.ConnectionPoolMaxTotal;
+import dev.galasa.http.internal.properties.HttpPropertiesSingleton;
 import dev.galasa.http.spi.IHttpManagerSpi;
 
 @Component(service = { IManager.class })
 public class HttpManagerImpl extends AbstractManager implements IHttpManagerSpi {
 
     private static final Log  logger              = LogFactory.getLog(HttpManagerImpl.class);
+
+    protected static final String NAMESPACE = "http";
+
     private List<IHttpClient> instantiatedClients = new ArrayList<>();
 
     @GenerateAnnotatedField(annotation = HttpClient.class)
@@ -55,6 +65,11 @@ public class HttpManagerImpl extends AbstractManager implements IHttpManagerSpi
     public void initialise(@NotNull IFramework framework, @NotNull List<IManager> allManagers,
             @NotNull List<IManager> activeManagers, @NotNull GalasaTest galasaTest) throws ManagerException {
         super.initialise(framework, allManagers, activeManagers, galasaTest);
+        try {
+            HttpPropertiesSingleton.setCps(framework.getConfigurationPropertyService(NAMESPACE));
+        } catch (ConfigurationPropertyStoreException e) {
+            throw new HttpClientException("Unable to request framework services", e);
+        }
 
         if(galasaTest.isJava()) {
             List<AnnotatedField> ourFields = findAnnotatedFields(HttpManagerField.class);
@@ -76,17 +91,26 @@ public class HttpManagerImpl extends AbstractManager implements IHttpManagerSpi
 
     @Override
     public @NotNull IHttpClient newHttpClient() {
-        IHttpClient client = new HttpClientImpl(180000, logger);
-        instantiatedClients.add(client);
-        return client;
+        return newHttpClient(180000);
     }
     
     @Override
     public @NotNull IHttpClient newHttpClient(int timeout) {
         IHttpClient client = new HttpClientImpl(timeout, logger);
+        setConnectionPoolProperties(client);
         instantiatedClients.add(client);
         return client;
     }
+
+    private void setConnectionPoolProperties(IHttpClient client) {
+        try {
+            client.setConnectionPoolLimits(ConnectionPoolMaxTotal.get(), ConnectionPoolMaxPerRoute.get());
+            client.setIdleConnectionTimeout(ConnectionIdleTimeout.get());
+            client.setKeepAlive(ConnectionKeepAlive.get());
+        } catch (HttpClientException e) {
+            logger.warn("Unable to retrieve the HTTP connection pool properties, using the defaults", e);
+        }
+    }
     
     @Override
     public boolean doYouSupportSharedEnvironments() {
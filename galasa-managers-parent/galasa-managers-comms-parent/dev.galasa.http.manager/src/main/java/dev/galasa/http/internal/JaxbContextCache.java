@@ -0,0 +1,115 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * A bounded cache of {@link JAXBContext}s keyed by the set of classes they were
+ * created for. Creating a {@link JAXBContext} is expensive, so contexts are
+ * shared by all HTTP clients, and the least recently used context is dropped
+ * when the cache is full. Marshallers and unmarshallers are not thread safe,
+ * so one of each is kept per thread for each cached context.
+ */
+public class JaxbContextCache {
+
+    private static final int MAX_CONTEXTS = 64;
+
+    private static final Map<Set<Class<?>>, CachedContext> contexts = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Set<Class<?>>, CachedContext> eldest) {
+            return size() > MAX_CONTEXTS;
+        }
+    };
+
+    /**
+     * Creates the contexts, replaced by the unit tests
+     */
+    interface ContextFactory {
+        JAXBContext newInstance(Class<?>... classes) throws JAXBException;
+    }
+
+    static ContextFactory contextFactory = JAXBContext::newInstance;
+
+    private JaxbContextCache() {
+    }
+
+    public static JAXBContext getContext(Class<?>... classes) throws JAXBException {
+        return getCachedContext(classes).context;
+    }
+
+    public static Marshaller getMarshaller(Class<?>... classes) throws JAXBException {
+        CachedContext cached = getCachedContext(classes);
+        Marshaller marshaller = cached.marshallers.get();
+        if (marshaller == null) {
+            marshaller = cached.context.createMarshaller();
+            cached.marshallers.set(marshaller);
+        }
+        return marshaller;
+    }
+
+    public static Unmarshaller getUnmarshaller(Class<?>... classes) throws JAXBException {
+        CachedContext cached = getCachedContext(classes);
+        Unmarshaller unmarshaller = cached.unmarshallers.get();
+        if (unmarshaller == null) {
+            unmarshaller = cached.context.createUnmarshaller();
+            cached.unmarshallers.set(unmarshaller);
+        }
+        return unmarshaller;
+    }
+
+    private static CachedContext getCachedContext(Class<?>... classes) throws JAXBException {
+        Set<Class<?>> key = new HashSet<>(Arrays.asList(classes));
+
+        synchronized (contexts) {
+            CachedContext cached = contexts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Created outside the lock as it is slow, two threads may race to create the same context, which is harmless
+        CachedContext cached = new CachedContext(contextFactory.newInstance(classes));
+        synchronized (contexts) {
+            contexts.put(key, cached);
+        }
+        return cached;
+    }
+
+    static int size() {
+        synchronized (contexts) {
+            return contexts.size();
+        }
+    }
+
+    static void clear() {
+        synchronized (contexts) {
+            contexts.clear();
+        }
+    }
+
+    private static class CachedContext {
+        private final JAXBContext               context;
+        private final ThreadLocal<Marshaller>   marshallers   = new ThreadLocal<>();
+        private final ThreadLocal<Unmarshaller> unmarshallers = new ThreadLocal<>();
+
+        private CachedContext(JAXBContext context) {
+            this.context = context;
+        }
+    }
+
+}
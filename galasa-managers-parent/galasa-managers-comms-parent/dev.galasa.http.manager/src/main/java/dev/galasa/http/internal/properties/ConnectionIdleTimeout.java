@@ -0,0 +1,36 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP client idle connection timeout
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.connection.idle.timeout
+ * 
+ * @galasa.description The number of seconds a pooled connection may remain idle before it is evicted and closed
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 30
+ * 
+ * @galasa.valid_values numerical value in seconds, 0 disables idle eviction
+ * 
+ * @galasa.examples 
+ * <code>http.connection.idle.timeout=60</code>
+ *
+ */
+public class ConnectionIdleTimeout extends CpsProperties {
+
+    public static int get() throws HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 30, "connection", "idle.timeout");
+    }
+
+}
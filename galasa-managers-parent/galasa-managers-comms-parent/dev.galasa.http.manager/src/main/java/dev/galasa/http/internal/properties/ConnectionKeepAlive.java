@@ -0,0 +1,37 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP client connection keep alive
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.connection.keepalive
+ * 
+ * @galasa.description The maximum number of seconds a connection is kept alive for reuse. 
+ * A shorter keep alive sent by the server in the Keep-Alive header is always honoured
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 60
+ * 
+ * @galasa.valid_values numerical value in seconds, 0 uses the keep alive sent by the server
+ * 
+ * @galasa.examples 
+ * <code>http.connection.keepalive=120</code>
+ *
+ */
+public class ConnectionKeepAlive extends CpsProperties {
+
+    public static int get() throws HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 60, "connection", "keepalive");
+    }
+
+}
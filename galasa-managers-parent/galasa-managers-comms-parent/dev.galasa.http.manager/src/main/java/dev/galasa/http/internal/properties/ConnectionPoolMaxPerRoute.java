@@ -0,0 +1,36 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP client connection pool maximum connections per host
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.connection.pool.max.per.route
+ * 
+ * @galasa.description The maximum number of pooled connections an HTTP client will hold open to a single host
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 10
+ * 
+ * @galasa.valid_values numerical value > 0
+ * 
+ * @galasa.examples 
+ * <code>http.connection.pool.max.per.route=20</code>
+ *
+ */
+public class ConnectionPoolMaxPerRoute extends CpsProperties {
+
+    public static int get() throws HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 10, "connection", "pool.max.per.route");
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.http.HttpClientException;
+
+/**
+ * HTTP client connection pool maximum total connections
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name http.connection.pool.max.total
+ * 
+ * @galasa.description The maximum number of pooled connections an HTTP client will hold open across all hosts
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 20
+ * 
+ * @galasa.valid_values numerical value > 0
+ * 
+ * @galasa.examples 
+ * <code>http.connection.pool.max.total=50</code>
+ *
+ */
+public class ConnectionPoolMaxTotal extends CpsProperties {
+
+    public static int get() throws HttpClientException {
+        return getIntWithDefault(HttpPropertiesSingleton.cps(), 20, "connection", "pool.max.total");
+    }
+
+}
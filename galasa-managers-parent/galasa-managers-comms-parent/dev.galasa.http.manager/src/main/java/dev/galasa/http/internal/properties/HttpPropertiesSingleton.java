@@ -0,0 +1,51 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal.properties;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.http.HttpClientException;
+
+@Component(service=HttpPropertiesSingleton.class, immediate=true)
+public class HttpPropertiesSingleton {
+    
+    private static HttpPropertiesSingleton singletonInstance;
+    private static void setInstance(HttpPropertiesSingleton instance) {
+        singletonInstance = instance;
+    }
+    
+    private IConfigurationPropertyStoreService cps;
+    
+    @Activate
+    public void activate() {
+        setInstance(this);
+    }
+    
+    @Deactivate
+    public void deacivate() {
+        setInstance(null);
+    }
+    
+    public static IConfigurationPropertyStoreService cps() throws HttpClientException {
+        if (singletonInstance != null) {
+            return singletonInstance.cps;
+        }
+        
+        throw new HttpClientException("Attempt to access manager CPS before it has been initialised");
+    }
+    
+    public static void setCps(IConfigurationPropertyStoreService cps) throws HttpClientException {
+        if (singletonInstance != null) {
+            singletonInstance.cps = cps;
+            return;
+        }
+        
+        throw new HttpClientException("Attempt to set manager CPS before instance created");
+    }
+}
@@ -0,0 +1,10 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+/**
+ * HTTP Manager - CPS Properties
+ *
+ */
+package dev.galasa.http.internal.properties;
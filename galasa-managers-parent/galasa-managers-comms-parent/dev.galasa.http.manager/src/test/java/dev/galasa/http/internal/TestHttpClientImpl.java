@@ -0,0 +1,406 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.http.HttpClientException;
+import dev.galasa.http.HttpClientResponse;
+
+public class TestHttpClientImpl {
+
+    private CloseableHttpClient getUnderlyingClient(HttpClientImpl client) throws Exception {
+        Field field = HttpClientImpl.class.getDeclaredField("httpClient");
+        field.setAccessible(true);
+        return (CloseableHttpClient) field.get(client);
+    }
+
+    @Test
+    public void testBuildReusesClientWhenConfigurationUnchanged() throws Exception {
+        HttpClientImpl client = new HttpClientImpl(1000, LogFactory.getLog(TestHttpClientImpl.class));
+        client.setURI(new URI("https://localhost:443"));
+        client.build();
+        CloseableHttpClient first = getUnderlyingClient(client);
+
+        client.build();
+        client.addCommonHeader("Name", "Value");
+        client.setAuthorisation("user", "password");
+        client.build();
+
+        Assert.assertSame("The pooled client should be reused", first, getUnderlyingClient(client));
+        client.close();
+    }
+
+    @Test
+    public void testBuildRecreatesClientWhenConfigurationChanged() throws Exception {
+        HttpClientImpl client = new HttpClientImpl(1000, LogFactory.getLog(TestHttpClientImpl.class));
+        client.build();
+        CloseableHttpClient first = getUnderlyingClient(client);
+
+        client.setConnectionPoolLimits(5, 5);
+        client.build();
+
+        Assert.assertNotSame("The client should be rebuilt after a configuration change", first, getUnderlyingClient(client));
+        client.close();
+    }
+
+    @Test
+    public void testCloseReleasesClient() throws Exception {
+        HttpClientImpl client = new HttpClientImpl(1000, LogFactory.getLog(TestHttpClientImpl.class));
+        client.build();
+        client.close();
+
+        Assert.assertNull("The client should be released on close", getUnderlyingClient(client));
+    }
+
+    private HttpServer startServer(String path, String body) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(path, exchange -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    @Test
+    public void testGetJsonAsyncCompletesAllRequests() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = ("{\"path\":\"" + exchange.getRequestURI().getPath() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        HttpClientImpl client = new HttpClientImpl(5000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+            client.setConnectionPoolLimits(4, 2);
+
+            List<CompletableFuture<HttpClientResponse<JsonObject>>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(client.getJsonAsync("/request" + i));
+            }
+
+            for (int i = 0; i < 10; i++) {
+                HttpClientResponse<JsonObject> response = futures.get(i).get();
+                Assert.assertEquals("Unexpected status code", 200, response.getStatusCode());
+                Assert.assertEquals("Unexpected content", "/request" + i, response.getContent().get("path").getAsString());
+            }
+        } finally {
+            client.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testAsyncRequestsWithAuthCacheAuthenticateEveryRequest() throws Exception {
+        String expected = "Basic " + Base64.getEncoder().encodeToString("user:password".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger unauthorised = new AtomicInteger();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(10);
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            if (!expected.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                unauthorised.incrementAndGet();
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"test\"");
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"path\":\"" + exchange.getRequestURI().getPath() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        HttpClientImpl client = new HttpClientImpl(5000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+            client.setAuthorisation("user", "password");
+
+            List<CompletableFuture<HttpClientResponse<JsonObject>>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(client.getJsonAsync("/request" + i));
+            }
+
+            for (int i = 0; i < 100; i++) {
+                HttpClientResponse<JsonObject> response = futures.get(i).get();
+                Assert.assertEquals("Unexpected status code", 200, response.getStatusCode());
+                Assert.assertEquals("Unexpected content", "/request" + i, response.getContent().get("path").getAsString());
+            }
+            Assert.assertEquals("The credentials should be sent pre-emptively on every request", 0, unauthorised.get());
+        } finally {
+            client.close();
+            server.stop(0);
+            serverThreads.shutdown();
+        }
+    }
+
+    @Test
+    public void testBusyHostDoesNotBlockAsyncRequestsToOtherHosts() throws Exception {
+        CountDownLatch released = new CountDownLatch(1);
+        HttpServer busyServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(10);
+        busyServer.setExecutor(serverThreads);
+        busyServer.createContext("/", exchange -> {
+            try {
+                released.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"path\":\"" + exchange.getRequestURI().getPath() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        busyServer.start();
+        HttpServer otherServer = startServer("/other", "{\"path\":\"/other\"}");
+
+        HttpClientImpl client = new HttpClientImpl(15000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setConnectionPoolLimits(4, 2);
+
+            // More requests to the busy host than there are executor threads
+            client.setURI(new URI("http://localhost:" + busyServer.getAddress().getPort()));
+            List<CompletableFuture<HttpClientResponse<JsonObject>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(client.getJsonAsync("/request" + i));
+            }
+
+            client.setURI(new URI("http://localhost:" + otherServer.getAddress().getPort()));
+            HttpClientResponse<JsonObject> other = client.getJsonAsync("/other").get(5, TimeUnit.SECONDS);
+            Assert.assertEquals("Unexpected content from the other host", "/other", other.getContent().get("path").getAsString());
+            Assert.assertTrue("The busy host requests should still be waiting", futures.stream().noneMatch(CompletableFuture::isDone));
+
+            released.countDown();
+            for (int i = 0; i < 8; i++) {
+                HttpClientResponse<JsonObject> response = futures.get(i).get(10, TimeUnit.SECONDS);
+                Assert.assertEquals("The request should go to the host it was submitted for", "/request" + i, response.getContent().get("path").getAsString());
+            }
+        } finally {
+            released.countDown();
+            client.close();
+            busyServer.stop(0);
+            otherServer.stop(0);
+            serverThreads.shutdown();
+        }
+    }
+
+    /**
+     * Send requests with the same headers in step with another thread, so the requests of the two threads interleave
+     */
+    private List<JsonObject> sendInStep(HttpClientImpl client, Map<String, String> headers, CyclicBarrier inStep) throws Exception {
+        List<JsonObject> received = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            inStep.await(10, TimeUnit.SECONDS);
+            received.add(client.getJson("/headers", headers).getContent());
+        }
+        return received;
+    }
+
+    @Test
+    public void testInterleavedRequestsOnlySendTheirOwnHeaders() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverThreads);
+        server.createContext("/headers", exchange -> {
+            JsonObject headers = new JsonObject();
+            for (String name : new String[] { "X-Common", "X-Request", "X-Only-A" }) {
+                List<String> values = exchange.getRequestHeaders().get(name);
+                if (values != null) {
+                    headers.addProperty(name, String.join(",", values));
+                }
+            }
+            byte[] body = headers.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        HttpClientImpl client = new HttpClientImpl(5000, LogFactory.getLog(TestHttpClientImpl.class));
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+            client.addCommonHeader("X-Common", "default");
+
+            Map<String, String> headersA = new HashMap<>();
+            headersA.put("X-Request", "a");
+            headersA.put("X-Only-A", "yes");
+            Map<String, String> headersB = new HashMap<>();
+            headersB.put("X-Request", "b");
+            headersB.put("X-Common", "b");
+
+            CyclicBarrier inStep = new CyclicBarrier(2);
+            Future<List<JsonObject>> receivedA = threads.submit(() -> sendInStep(client, headersA, inStep));
+            Future<List<JsonObject>> receivedB = threads.submit(() -> sendInStep(client, headersB, inStep));
+
+            for (JsonObject headers : receivedA.get(10, TimeUnit.SECONDS)) {
+                Assert.assertEquals("The first thread should only send its own and the default headers",
+                        "{\"X-Common\":\"default\",\"X-Request\":\"a\",\"X-Only-A\":\"yes\"}", headers.toString());
+            }
+            for (JsonObject headers : receivedB.get(10, TimeUnit.SECONDS)) {
+                Assert.assertEquals("The second thread should only send its own headers, overriding the default",
+                        "{\"X-Common\":\"b\",\"X-Request\":\"b\"}", headers.toString());
+            }
+
+            Assert.assertEquals("The default headers should not be changed by the requests",
+                    "{\"X-Common\":\"default\"}", client.getJson("/headers").getContent().toString());
+        } finally {
+            threads.shutdown();
+            client.close();
+            server.stop(0);
+            serverThreads.shutdown();
+        }
+    }
+
+    @Test
+    public void testAsyncRequestFailsFutureOnBadUrl() throws Exception {
+        HttpClientImpl client = new HttpClientImpl(1000, LogFactory.getLog(TestHttpClientImpl.class));
+        client.setURI(new URI("http://localhost:80"));
+
+        CompletableFuture<HttpClientResponse<String>> future = client.getTextAsync("/path?a=1=2");
+
+        ExecutionException e = Assert.assertThrows(ExecutionException.class, () -> future.get());
+        Assert.assertTrue("Expected an HttpClientException", e.getCause() instanceof HttpClientException);
+        client.close();
+    }
+
+    @Test
+    public void testGetStreamReadsBody() throws Exception {
+        HttpServer server = startServer("/file", "file content");
+
+        HttpClientImpl client = new HttpClientImpl(5000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+
+            HttpClientResponse<InputStream> response = client.getStream("/file");
+            String content = new String(response.getContent().readAllBytes(), StandardCharsets.UTF_8);
+            response.close();
+
+            Assert.assertEquals("Unexpected status code", 200, response.getStatusCode());
+            Assert.assertEquals("Unexpected content", "file content", content);
+        } finally {
+            client.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testForEachJsonArrayElementReadsNamedArray() throws Exception {
+        HttpServer server = startServer("/list", "{\"returnedRows\":2,\"items\":[{\"name\":\"A\"},{\"name\":\"B\"}],\"after\":true}");
+
+        HttpClientImpl client = new HttpClientImpl(5000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+
+            List<String> names = new ArrayList<>();
+            client.getStream("/list").forEachJsonArrayElement("items", 
+                    (JsonElement element) -> names.add(element.getAsJsonObject().get("name").getAsString()));
+
+            Assert.assertEquals("Unexpected array elements", List.of("A", "B"), names);
+        } finally {
+            client.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testForEachJsonArrayElementReadsTopLevelArray() throws Exception {
+        HttpServer server = startServer("/list", "[1,2,3]");
+
+        HttpClientImpl client = new HttpClientImpl(5000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+
+            List<Integer> values = new ArrayList<>();
+            client.getStream("/list").forEachJsonArrayElement(null, element -> values.add(element.getAsInt()));
+
+            Assert.assertEquals("Unexpected array elements", List.of(1, 2, 3), values);
+        } finally {
+            client.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testFailedParsesReleaseConnections() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String body;
+            if (path.equals("/good")) {
+                body = "{\"ok\":true}";
+            } else if (path.equals("/badxml")) {
+                // Large enough that the body is not all read before the parse fails
+                body = "<<" + "x".repeat(100000);
+            } else {
+                body = "{\"ok\":";
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        HttpClientImpl client = new HttpClientImpl(2000, LogFactory.getLog(TestHttpClientImpl.class));
+        try {
+            client.setURI(new URI("http://localhost:" + server.getAddress().getPort()));
+
+            // More failures than the connections allowed for the route, a leaked connection would time out the last request
+            for (int i = 0; i < 15; i++) {
+                Assert.assertThrows(JsonSyntaxException.class, () -> client.getJson("/bad"));
+            }
+            for (int i = 0; i < 15; i++) {
+                Assert.assertThrows(HttpClientException.class, () -> client.getJaxb("/badxml", TestHttpClientImpl.class));
+            }
+
+            HttpClientResponse<JsonObject> response = client.getJson("/good");
+            Assert.assertEquals("Unexpected status code", 200, response.getStatusCode());
+            Assert.assertTrue("Unexpected content", response.getContent().get("ok").getAsBoolean());
+        } finally {
+            client.close();
+            server.stop(0);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.http.internal;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import jakarta.xml.bind.JAXBContext;
+
+public class TestJaxbContextCache {
+
+    private static final Class<?>[] CLASSES = { String.class, Integer.class, Long.class, Short.class, Byte.class,
+            Double.class, Float.class, Boolean.class, Character.class, Object.class, Number.class, List.class };
+
+    private JaxbContextCache.ContextFactory originalFactory;
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        originalFactory = JaxbContextCache.contextFactory;
+        JaxbContextCache.contextFactory = classes -> {
+            created.incrementAndGet();
+            return mock(JAXBContext.class);
+        };
+        JaxbContextCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        JaxbContextCache.contextFactory = originalFactory;
+        JaxbContextCache.clear();
+    }
+
+    /**
+     * Different sets of two classes, enough to fill the cache
+     */
+    private List<Class<?>[]> classPairs() {
+        List<Class<?>[]> pairs = new ArrayList<>();
+        for (int i = 0; i < CLASSES.length; i++) {
+            for (int j = i + 1; j < CLASSES.length; j++) {
+                pairs.add(new Class<?>[] { CLASSES[i], CLASSES[j] });
+            }
+        }
+        return pairs;
+    }
+
+    @Test
+    public void testHitReturnsSameContext() throws Exception {
+        JAXBContext first = JaxbContextCache.getContext(String.class);
+        JAXBContext second = JaxbContextCache.getContext(String.class);
+
+        Assert.assertSame("The cached context should be returned", first, second);
+        Assert.assertEquals("The context should only be created once", 1, created.get());
+    }
+
+    @Test
+    public void testKeyIsTheSetOfClasses() throws Exception {
+        JAXBContext first = JaxbContextCache.getContext(String.class, Integer.class);
+
+        Assert.assertSame("The order of the classes should not matter", first, JaxbContextCache.getContext(Integer.class, String.class));
+        Assert.assertSame("Repeated classes should not matter", first, JaxbContextCache.getContext(String.class, Integer.class, String.class));
+        Assert.assertNotSame("Different classes should have a different context", first, JaxbContextCache.getContext(String.class));
+        Assert.assertEquals("Unexpected number of contexts created", 2, created.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedContextIsEvicted() throws Exception {
+        List<Class<?>[]> pairs = classPairs();
+        Assert.assertTrue("Not enough class sets for the test", pairs.size() > 64);
+
+        JAXBContext oldest = JaxbContextCache.getContext(pairs.get(0));
+        JAXBContext second = JaxbContextCache.getContext(pairs.get(1));
+        for (int i = 2; i < 64; i++) {
+            JaxbContextCache.getContext(pairs.get(i));
+        }
+        Assert.assertEquals("The cache should be full", 64, JaxbContextCache.size());
+
+        // Use the oldest, so the second becomes the least recently used
+        Assert.assertSame("The oldest context should still be cached", oldest, JaxbContextCache.getContext(pairs.get(0)));
+
+        JaxbContextCache.getContext(pairs.get(64));
+        Assert.assertEquals("The cache should not grow past the limit", 64, JaxbContextCache.size());
+
+        Assert.assertSame("The recently used context should be kept", oldest, JaxbContextCache.getContext(pairs.get(0)));
+        Assert.assertNotSame("The least recently used context should have been evicted", second, JaxbContextCache.getContext(pairs.get(1)));
+    }
+
+}
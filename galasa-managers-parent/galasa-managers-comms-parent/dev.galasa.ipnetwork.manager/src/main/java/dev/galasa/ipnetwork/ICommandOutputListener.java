@@ -0,0 +1,22 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork;
+
+/**
+ * Receives the output of a command a line at a time as it arrives, see
+ * {@link ICommandShell#issueCommand(String, long, ICommandOutputListener)}
+ */
+public interface ICommandOutputListener {
+
+    /**
+     * Called for each line of output from the command, called on a thread of the command shell
+     * so should not wait for long
+     *
+     * @param line - the line, without the line terminator
+     */
+    public void outputLine(String line);
+
+}
@@ -44,6 +44,19 @@ public interface ICommandShell {
      */
     public String issueCommand(String command, boolean newShell, long timeout) throws IpNetworkManagerException;
 
+    /**
+     * Issue a command using SSH, passing each line of output to the listener as it arrives.
+     * Useful for long running commands where the output is wanted before the command ends
+     *
+     * @param command  - command to issue
+     * @param timeout  - time (in milliseconds) to wait with no new output appearing
+     *                 before timing out
+     * @param listener - receives each line of output
+     * @return the output of the command (stdout and stderr)
+     * @throws SSHException
+     */
+    public String issueCommand(String command, long timeout, ICommandOutputListener listener) throws IpNetworkManagerException;
+
 //	public void changeUser(String userid, String password);
 
     public void connect() throws IpNetworkManagerException;
@@ -0,0 +1,235 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.ipnetwork.ICommandOutputListener;
+import dev.galasa.ipnetwork.SSHException;
+
+/**
+ * Reads the output of an SSH channel as it arrives.
+ *
+ * Each stream of the channel is read by a thread that blocks until there is data, decodes it with a decoder
+ * kept for the stream and adds it to the output, so the thread waiting for the output is woken as soon as
+ * there is something to look at rather than polling.  Complete lines can also be passed to a listener.
+ *
+ * The timeouts are the time to wait with no new output appearing.
+ *
+ *
+ *
+ */
+public class SSHOutputReader {
+
+    private static final Log             logger      = LogFactory.getLog(SSHOutputReader.class);
+
+    private static final int             BUFFER_SIZE = 8192;
+
+    private static final ExecutorService readerThreads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "GalasaSSHClient output reader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Charset                charset;
+    private final ICommandOutputListener listener;
+
+    private final StringBuilder          output      = new StringBuilder();
+    private long                         lastOutput  = System.currentTimeMillis();
+    private int                          openStreams;
+
+    /**
+     * @param charset - the charset of the output
+     * @param listener - receives each line of output, can be null
+     */
+    public SSHOutputReader(Charset charset, ICommandOutputListener listener) {
+        this.charset = charset;
+        this.listener = listener;
+    }
+
+    /**
+     * Start reading the streams, they are read until they end
+     *
+     * @param streams - the output streams of the channel
+     */
+    public synchronized void start(InputStream... streams) {
+        for (InputStream stream : streams) {
+            this.openStreams++;
+            readerThreads.execute(new StreamReader(stream));
+        }
+    }
+
+    /**
+     * Wait for all the streams to end, which is when the command has completed
+     *
+     * @param timeoutInMillis - time to wait with no new output appearing
+     * @return all the output
+     * @throws SSHException if timed out or interrupted
+     */
+    public synchronized String waitForEnd(long timeoutInMillis) throws SSHException {
+        while (this.openStreams > 0) {
+            waitForOutput(timeoutInMillis);
+        }
+
+        return this.output.toString();
+    }
+
+    /**
+     * Wait for the output so far to match the pattern
+     *
+     * @param pattern - the pattern to find in the output
+     * @param timeoutInMillis - time to wait with no new output appearing
+     * @return the matcher that found the pattern
+     * @throws SSHException if timed out, interrupted or the streams ended without a match
+     */
+    public synchronized Matcher waitForMatch(Pattern pattern, long timeoutInMillis) throws SSHException {
+        while (true) {
+            Matcher matcher = pattern.matcher(this.output);
+            if (matcher.find()) {
+                return matcher;
+            }
+
+            if (this.openStreams == 0) {
+                throw new SSHException("The ssh channel ended before the response was received. Response so far: " + this.output);
+            }
+
+            waitForOutput(timeoutInMillis);
+        }
+    }
+
+    /**
+     * Discard the output so far, so the next wait only looks at new output
+     */
+    public synchronized void clear() {
+        this.output.setLength(0);
+    }
+
+    private void waitForOutput(long timeoutInMillis) throws SSHException {
+        long remaining = this.lastOutput + timeoutInMillis - System.currentTimeMillis();
+        if (remaining <= 0) {
+            throw new SSHException("Timed out waiting for response from ssh. Response so far: " + this.output);
+        }
+
+        try {
+            wait(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSHException("Interrupted while trying to retrieve output", e);
+        }
+    }
+
+    private synchronized void append(CharBuffer chars) {
+        this.output.append(chars);
+        this.lastOutput = System.currentTimeMillis();
+        notifyAll();
+    }
+
+    private synchronized void streamEnded() {
+        this.openStreams--;
+        notifyAll();
+    }
+
+    private void outputLine(String line) {
+        try {
+            this.listener.outputLine(line);
+        } catch (RuntimeException e) {
+            logger.warn("The ssh output listener failed", e);
+        }
+    }
+
+    private class StreamReader implements Runnable {
+
+        private final InputStream    stream;
+        private final CharsetDecoder decoder;
+        private final StringBuilder  partialLine = new StringBuilder();
+
+        private StreamReader(InputStream stream) {
+            this.stream = stream;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        @Override
+        public void run() {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer bytes = ByteBuffer.wrap(buffer);
+            CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+            try {
+                int read;
+                while ((read = stream.read(buffer, bytes.position(), buffer.length - bytes.position())) >= 0) {
+                    bytes.limit(bytes.position() + read);
+                    bytes.position(0);
+                    decode(bytes, chars, false);
+
+                    // Keep any incomplete character for the next read
+                    bytes.compact();
+                }
+
+                bytes.flip();
+                decode(bytes, chars, true);
+                decoder.flush(chars);
+                deliver(chars);
+            } catch (IOException e) {
+                // The stream is broken when the channel has been disconnected
+                logger.trace("The ssh output stream has ended", e);
+            } finally {
+                if (listener != null && partialLine.length() > 0) {
+                    outputLine(partialLine.toString());
+                }
+                streamEnded();
+            }
+        }
+
+        private void decode(ByteBuffer bytes, CharBuffer chars, boolean endOfInput) {
+            while (decoder.decode(bytes, chars, endOfInput).isOverflow()) {
+                deliver(chars);
+            }
+            deliver(chars);
+        }
+
+        private void deliver(CharBuffer chars) {
+            chars.flip();
+            if (chars.hasRemaining()) {
+                if (listener != null) {
+                    passLines(chars.duplicate());
+                }
+                append(chars);
+            }
+            chars.clear();
+        }
+
+        private void passLines(CharBuffer chars) {
+            while (chars.hasRemaining()) {
+                char c = chars.get();
+                if (c == '\n') {
+                    int length = partialLine.length();
+                    if (length > 0 && partialLine.charAt(length - 1) == '\r') {
+                        partialLine.setLength(length - 1);
+                    }
+                    outputLine(partialLine.toString());
+                    partialLine.setLength(0);
+                } else {
+                    partialLine.append(c);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ICredentials;
+import dev.galasa.ICredentialsUsernamePassword;
+import dev.galasa.ICredentialsUsernameToken;
+import dev.galasa.ipnetwork.SSHAuthFailException;
+import dev.galasa.ipnetwork.SSHException;
+
+/**
+ * A pool of SSH sessions to a host for one set of credentials, shared by all the SSH clients of that host and credentials.
+ *
+ * SSH allows many channels to be open on a session at the same time, so each command is issued on its own channel
+ * of a shared session rather than waiting for the commands before it.  The server limits the channels on a session
+ * (MaxSessions on OpenSSH, default 10), so when the server refuses a channel the limit of that session is lowered and
+ * another session is used.  When all the sessions are full, opening a channel waits for one to be freed.
+ *
+ * Sessions with no open channels, other than channels kept idle for reuse, are disconnected once they have been
+ * idle for a while.
+ *
+ *
+ *
+ */
+public class SSHSessionPool {
+
+    private static final Log                         logger                  = LogFactory.getLog(SSHSessionPool.class);
+
+    private static final int                         MAX_CHANNELS_PER_SESSION = 10;
+    private static final int                         MAX_SESSIONS            = 4;
+    private static final int                         CONNECT_RETRIES         = 5;
+    private static final int                         CHANNEL_OPEN_ATTEMPTS   = 5;
+
+    // SSH_MSG_CHANNEL_OPEN_FAILURE reason codes sent when the server will not allow more channels on a session
+    private static final int                         SSH_OPEN_ADMINISTRATIVELY_PROHIBITED = 1;
+    private static final int                         SSH_OPEN_RESOURCE_SHORTAGE           = 4;
+
+    // Some commands we run download the isolated build zip which takes ages...
+    // Timeout increased from 60secs to 120secs to allow the download to complete.
+    private static final long                        IDLE_TIMEOUT            = 120000;
+
+    private static final Map<String, SSHSessionPool> pools                   = new HashMap<>();
+    private static IdleSessionThread                 idleSessionThread;
+
+    private final String                             hostname;
+    private final int                                port;
+    private final String                             userid;
+    private final String                             password;
+
+    private final JSch                               sshClient;
+    private final List<PooledSession>                sessions                = new ArrayList<>();
+    private int                                      connecting;
+
+    SSHSessionPool(String hostname, int port, String userid, String password, byte[] token) throws JSchException {
+        this.hostname = hostname;
+        this.port = port;
+        this.userid = userid;
+        this.password = password;
+
+        this.sshClient = new JSch();
+        if (token != null) {
+            this.sshClient.addIdentity(this.userid, token, null, null);
+        }
+    }
+
+    /**
+     * Get the pool of sessions for the host and credentials, creating it if this is the first use
+     *
+     * @param hostname - the host to connect to
+     * @param port - the ssh port
+     * @param credentials - username and password or token credentials
+     * @return the shared pool
+     * @throws SSHException if the credentials are not supported
+     */
+    public static synchronized SSHSessionPool getPool(String hostname, int port, ICredentials credentials) throws SSHException {
+        String userid;
+        String password = null;
+        byte[] token = null;
+        String secretDigest;
+        if (credentials instanceof ICredentialsUsernamePassword) {
+            ICredentialsUsernamePassword creds = (ICredentialsUsernamePassword) credentials;
+            userid = creds.getUsername();
+            password = creds.getPassword();
+            secretDigest = DigestUtils.sha256Hex(password == null ? "" : password);
+        } else if (credentials instanceof ICredentialsUsernameToken) {
+            ICredentialsUsernameToken creds = (ICredentialsUsernameToken) credentials;
+            userid = creds.getUsername();
+            token = creds.getToken();
+            secretDigest = DigestUtils.sha256Hex(token);
+        } else {
+            throw new SSHException("Unsupported credentials type - " + (credentials == null ? "null" : credentials.getClass().getName()));
+        }
+
+        // The secret is part of the key so changed credentials are not given a session authenticated with the old ones
+        String key = hostname + ":" + port + ":" + userid + ":" + secretDigest;
+        SSHSessionPool pool = pools.get(key);
+        if (pool == null) {
+            try {
+                pool = new SSHSessionPool(hostname, port, userid, password, token);
+            } catch (JSchException e) {
+                throw new SSHException("Problem adding credentials to SSH", e);
+            }
+            pools.put(key, pool);
+        }
+
+        if (idleSessionThread == null) {
+            idleSessionThread = new IdleSessionThread();
+            idleSessionThread.start();
+        }
+
+        return pool;
+    }
+
+    public String getHostname() {
+        return this.hostname;
+    }
+
+    /**
+     * Make sure there is a connected session in the pool
+     *
+     * @throws SSHException if unable to connect to the host
+     */
+    public void connect() throws SSHException {
+        synchronized (this) {
+            while (true) {
+                removeDisconnectedSessions();
+                if (!this.sessions.isEmpty()) {
+                    return;
+                }
+                if (this.connecting == 0) {
+                    this.connecting++;
+                    break;
+                }
+
+                // Another thread is connecting the first session, wait to see if it works
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SSHException("Interrupted waiting for the SSH connection to '" + hostname + ":" + port + "'", e);
+                }
+            }
+        }
+
+        createSession(0);
+    }
+
+    /**
+     * Open a channel on a session with room for it.  If the server refuses the channel it is set up again and
+     * opened on another session.
+     *
+     * @param type - the channel type, eg exec, shell or sftp
+     * @param setup - sets up the channel before it is connected, may be called more than once
+     * @param timeoutInMillis - how long to wait for a session to have room for the channel
+     * @return the lease of the connected channel, which must be closed to free the channel
+     * @throws SSHException if the channel could not be opened
+     */
+    public Lease openChannel(String type, ChannelSetup setup, long timeoutInMillis) throws SSHException {
+        long expire = System.currentTimeMillis() + timeoutInMillis;
+
+        JSchException lastException = null;
+        for (int attempt = 0; attempt < CHANNEL_OPEN_ATTEMPTS; attempt++) {
+            PooledSession pooledSession = acquire(expire);
+            Channel channel = null;
+            try {
+                channel = pooledSession.session.openChannel(type);
+                if (setup != null) {
+                    setup.setup(channel);
+                }
+                channel.connect();
+
+                return new Lease(pooledSession, channel);
+            } catch (JSchException e) {
+                boolean refused = isChannelRefused(e, channel);
+                release(pooledSession, channel);
+                lastException = e;
+
+                if (refused && pooledSession.session.isConnected()) {
+                    channelRefused(pooledSession);
+                }
+                logger.trace("Unable to open a " + type + " channel to '" + hostname + ":" + port + "', will retry", e);
+            } catch (IOException e) {
+                release(pooledSession, channel);
+                throw new SSHException("Unable to set up the " + type + " channel to '" + hostname + ":" + port + "'", e);
+            }
+        }
+
+        throw new SSHException("Unable to open a " + type + " channel to '" + hostname + ":" + port + "'", lastException);
+    }
+
+    /**
+     * Disconnect the sessions that have no open channels other than idle ones
+     */
+    public synchronized void disconnectIdleSessions() {
+        disconnectIdleSessions(Long.MAX_VALUE);
+    }
+
+    synchronized void disconnectIdleSessions(long lastUsedBefore) {
+        Iterator<PooledSession> it = this.sessions.iterator();
+        while (it.hasNext()) {
+            PooledSession pooledSession = it.next();
+            if (pooledSession.activeChannels == pooledSession.idleLeases.size() && pooledSession.lastUsed < lastUsedBefore) {
+                closeIdleLeases(pooledSession);
+                pooledSession.session.disconnect();
+                it.remove();
+                logger.trace("SSH Client disconnected from '" + hostname + ":" + port + "'");
+            }
+        }
+    }
+
+    /**
+     * Reserve room for a channel on the first session with room, so sessions are filled before more are connected.
+     * A new session is reserved under the lock and connected outside it, so the other sessions can be used while it connects.
+     */
+    private PooledSession acquire(long expire) throws SSHException {
+        synchronized (this) {
+            while (true) {
+                removeDisconnectedSessions();
+
+                for (PooledSession pooledSession : this.sessions) {
+                    if (pooledSession.activeChannels < pooledSession.maxChannels) {
+                        pooledSession.activeChannels++;
+                        pooledSession.lastUsed = System.currentTimeMillis();
+                        return pooledSession;
+                    }
+                }
+
+                if (this.sessions.size() + this.connecting < MAX_SESSIONS) {
+                    this.connecting++;
+                    break;
+                }
+
+                long wait = expire - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new SSHException("Timed out waiting for a free SSH channel to '" + hostname + ":" + port + "'");
+                }
+
+                try {
+                    wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SSHException("Interrupted waiting for a free SSH channel", e);
+                }
+            }
+        }
+
+        return createSession(1);
+    }
+
+    private void release(PooledSession pooledSession, Channel channel) {
+        if (channel != null) {
+            channel.disconnect();
+        }
+
+        synchronized (this) {
+            pooledSession.activeChannels--;
+            pooledSession.lastUsed = System.currentTimeMillis();
+            notifyAll();
+        }
+    }
+
+    /**
+     * The server sends an open failure with one of these reason codes when the session has no room for the channel,
+     * other failures such as a timeout do not say anything about the limit of the session
+     */
+    private static boolean isChannelRefused(JSchException e, Channel channel) {
+        if (channel == null || !"channel is not opened.".equals(e.getMessage())) {
+            return false;
+        }
+        int reasonCode = channel.getExitStatus();
+        return reasonCode == SSH_OPEN_ADMINISTRATIVELY_PROHIBITED || reasonCode == SSH_OPEN_RESOURCE_SHORTAGE;
+    }
+
+    /**
+     * The server has refused a channel on a connected session, so it has reached the server limit
+     */
+    private synchronized void channelRefused(PooledSession pooledSession) {
+        if (pooledSession.activeChannels == 0) {
+            // Not even one channel is allowed, so the session is of no use
+            pooledSession.session.disconnect();
+            this.sessions.remove(pooledSession);
+            return;
+        }
+
+        if (pooledSession.activeChannels < pooledSession.maxChannels) {
+            logger.debug("SSH server '" + hostname + ":" + port + "' allows " + pooledSession.activeChannels + " channels per session");
+            pooledSession.maxChannels = pooledSession.activeChannels;
+        }
+    }
+
+    private synchronized void removeDisconnectedSessions() {
+        Iterator<PooledSession> it = this.sessions.iterator();
+        while (it.hasNext()) {
+            PooledSession pooledSession = it.next();
+            if (!pooledSession.session.isConnected() && pooledSession.activeChannels == pooledSession.idleLeases.size()) {
+                closeIdleLeases(pooledSession);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The idle channels are disconnected with their session, their holders see they are no longer connected when they resume them
+     */
+    private synchronized void closeIdleLeases(PooledSession pooledSession) {
+        for (Lease lease : pooledSession.idleLeases) {
+            lease.closed = true;
+            lease.channel.disconnect();
+        }
+        pooledSession.idleLeases.clear();
+    }
+
+    /**
+     * Connect the session reserved by incrementing connecting, then add it to the pool with the channels already reserved on it
+     */
+    private PooledSession createSession(int activeChannels) throws SSHException {
+        PooledSession pooledSession = null;
+        try {
+            pooledSession = new PooledSession(connectSession(CONNECT_RETRIES));
+            pooledSession.activeChannels = activeChannels;
+            return pooledSession;
+        } finally {
+            synchronized (this) {
+                this.connecting--;
+                if (pooledSession != null) {
+                    this.sessions.add(pooledSession);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Create the session to be connected to the target system
+     */
+    Session newSession() throws JSchException {
+        Session session = sshClient.getSession(this.userid, hostname, port);
+        session.setIdentityRepository(sshClient.getIdentityRepository());
+        if (this.password != null) {
+            session.setPassword(this.password);
+        }
+        session.setConfig("StrictHostKeyChecking", "no");
+        return session;
+    }
+
+    /**
+     * Connect a new session to the target system
+     *
+     * @throws SSHException
+     */
+    private Session connectSession(int retry) throws SSHException {
+        Session session = null;
+        try {
+
+            try {
+                session = newSession();
+                session.connect();
+
+                // Slight delay to allow the connection to stabilise
+                try {
+                    Thread.sleep(200); // NOSONAR - Sleep is sufficent
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SSHException("Interrupted trying to authenticate using SSH", e);
+                }
+
+                logger.trace("SSH Client connected to '" + hostname + ":" + port);
+
+                return session;
+            } catch (Exception e) {
+                if ("Auth fail".equals(e.getMessage())) {
+                    throw new SSHAuthFailException(e);
+                }
+
+                if (retry > 0) {
+                    logger.trace("Exception caught during SSH connection, will retry.", e);
+                    if (session != null && session.isConnected()) {
+                        session.disconnect();
+                    }
+                    Thread.sleep(5000); // NOSONAR - Sleep is sufficent
+                    return connectSession(retry - 1);
+                } else {
+                    throw e;
+                }
+            }
+        } catch (SSHException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SSHException("Interrupted while trying to retrieve output", e);
+        } catch (Exception e) {
+            throw new SSHException("Unrecognised exception in connection", e);
+        }
+    }
+
+    /**
+     * Sets up a channel before it is connected, such as the command or pty of the channel and obtaining its streams
+     */
+    public interface ChannelSetup {
+        void setup(Channel channel) throws IOException, JSchException;
+    }
+
+    /**
+     * A connected channel on a pooled session. Closing the lease disconnects the channel and frees the room on the session.
+     */
+    public class Lease implements AutoCloseable {
+
+        private final PooledSession pooledSession;
+        private final Channel       channel;
+        private boolean             closed;
+
+        private Lease(PooledSession pooledSession, Channel channel) {
+            this.pooledSession = pooledSession;
+            this.channel = channel;
+        }
+
+        public Channel getChannel() {
+            return this.channel;
+        }
+
+        /**
+         * Keep the channel open for reuse without it being in use, so the session can still be disconnected once
+         * it has been idle for a while.  The channel is disconnected with the session.
+         */
+        public void idle() {
+            synchronized (SSHSessionPool.this) {
+                if (!this.closed && !this.pooledSession.idleLeases.contains(this)) {
+                    this.pooledSession.idleLeases.add(this);
+                    this.pooledSession.lastUsed = System.currentTimeMillis();
+                }
+            }
+        }
+
+        /**
+         * Use an idle channel again
+         *
+         * @return false if the channel was disconnected while idle, the lease must then be closed
+         */
+        public boolean resume() {
+            synchronized (SSHSessionPool.this) {
+                this.pooledSession.idleLeases.remove(this);
+                this.pooledSession.lastUsed = System.currentTimeMillis();
+                return !this.closed && this.channel.isConnected();
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (SSHSessionPool.this) {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                this.pooledSession.idleLeases.remove(this);
+            }
+            release(this.pooledSession, this.channel);
+        }
+    }
+
+    private static class PooledSession {
+        private final Session     session;
+        private final List<Lease> idleLeases  = new ArrayList<>();
+        private int               maxChannels = MAX_CHANNELS_PER_SESSION;
+        private int               activeChannels;
+        private long              lastUsed    = System.currentTimeMillis();
+
+        private PooledSession(Session session) {
+            this.session = session;
+        }
+    }
+
+    /**
+     * Frees the sessions that have not been used for a while
+     */
+    private static class IdleSessionThread extends Thread {
+
+        public IdleSessionThread() {
+            this.setDaemon(true);
+            this.setName("GalasaSSHClient timeout thread");
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                ArrayList<SSHSessionPool> currentPools;
+                synchronized (SSHSessionPool.class) {
+                    currentPools = new ArrayList<>(pools.values());
+                }
+
+                long lastUsedBefore = System.currentTimeMillis() - IDLE_TIMEOUT;
+                for (SSHSessionPool pool : currentPools) {
+                    pool.disconnectIdleSessions(lastUsedBefore);
+                }
+
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+}
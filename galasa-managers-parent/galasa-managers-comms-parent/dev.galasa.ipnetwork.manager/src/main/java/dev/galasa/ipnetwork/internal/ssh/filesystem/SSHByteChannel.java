@@ -10,6 +10,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
@@ -23,47 +25,62 @@ import com.jcraft.jsch.SftpException;
 import dev.galasa.ipnetwork.SSHException;
 
 /**
- * Dummy Byte Channel for a null Result Archive Store
+ * Byte Channel for a file on the SSH FileSystem
+ *
+ * Reads are streamed from the position with a number of read requests outstanding at once, so the
+ * round trips to the server overlap.  Moving the position restarts the stream at the new position, so
+ * the end of a file, such as a log being tailed, can be read without reading the rest.  Moving forward
+ * a short way skips over the bytes on the open stream instead, as they have probably been requested already.
+ *
+ * Writes can only be made at the end of the file, as SFTP streams do not support writing at an offset.
+ *
  *
- *  
  *
  */
 public class SSHByteChannel implements SeekableByteChannel {
 
+    private static final int    BUFFER_SIZE = 32768;
+    private static final long   MAX_SKIP    = 262144;
+
     private long                size     = 0;
     private long                position = 0;
+    private long                skip     = 0;
 
     private final SSHFileSystem fileSystem;
     private final Path          path;
+    private final boolean       write;
 
     private final ChannelSftp   channel;
+    private boolean             open     = true;
+
+    private InputStream         inputStream;
+    private OutputStream        outputStream;
 
-    private final InputStream   inputStream;
-    private final OutputStream  outputStream;
+    private byte[]              buffer;
 
     public SSHByteChannel(Path path, Set<? extends OpenOption> options, SSHFileSystem fileSystem) throws SSHException {
         this.fileSystem = fileSystem;
         this.path = path.toAbsolutePath();
 
-        this.channel = this.fileSystem.getFileChannel();
+        this.write = options.contains(StandardOpenOption.WRITE) || options.contains(StandardOpenOption.APPEND);
 
-        boolean write = options.contains(StandardOpenOption.WRITE);
+        this.channel = this.fileSystem.getFileChannel();
 
         try {
             if (write) {
-                inputStream = null;
-
-                outputStream = this.channel.put(this.path.toString());
+                if (options.contains(StandardOpenOption.APPEND)) {
+                    this.size = getRemoteSize();
+                    this.position = this.size;
+                    outputStream = this.channel.put(this.path.toString(), ChannelSftp.APPEND);
+                } else {
+                    outputStream = this.channel.put(this.path.toString());
+                }
             } else {
-                outputStream = null;
-
-                // Check the file exists and get the size
-                SftpATTRS attrs = this.channel.lstat(this.path.toString());
-                this.size = attrs.getSize();
-
-                inputStream = this.channel.get(this.path.toString());
+                // Check the file exists and get the size, the stream is opened on the first read
+                this.size = getRemoteSize();
             }
         } catch (SftpException e) {
+            this.fileSystem.releaseFileChannel(this.channel);
             throw new SSHException("Unable to open SSH file " + this.path, e);
         }
     }
@@ -75,7 +92,7 @@ public class SSHByteChannel implements SeekableByteChannel {
      */
     @Override
     public boolean isOpen() {
-        return this.channel.isConnected();
+        return this.open && this.channel.isConnected();
     }
 
     /*
@@ -85,13 +102,16 @@ public class SSHByteChannel implements SeekableByteChannel {
      */
     @Override
     public void close() throws IOException {
-        if (inputStream != null) {
-            inputStream.close();
+        if (!this.open) {
+            return;
         }
-        if (outputStream != null) {
-            outputStream.close();
+        this.open = false;
+
+        try {
+            closeStreams();
+        } finally {
+            this.fileSystem.releaseFileChannel(this.channel);
         }
-        this.channel.disconnect();
     }
 
     /*
@@ -104,31 +124,48 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
+        if (this.write) {
+            throw new NonReadableChannelException();
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+
+        if (this.inputStream == null) {
+            try {
+                this.inputStream = this.channel.get(this.path.toString(), null, this.position);
+            } catch (SftpException e) {
+                throw new IOException("Unable to read SSH file " + this.path, e);
+            }
+        }
+
+        if (!skipToPosition()) {
+            return -1;
+        }
+
+        int len;
+        if (dst.hasArray()) {
+            // Read straight into the buffer
+            len = this.inputStream.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+            if (len > 0) {
+                dst.position(dst.position() + len);
+            }
+        } else {
+            byte[] data = getBuffer();
+            len = this.inputStream.read(data, 0, Math.min(data.length, dst.remaining()));
+            if (len > 0) {
+                dst.put(data, 0, len);
+            }
+        }
 
-        
-        byte[] data = new byte[dst.remaining()];
-        int len = this.inputStream.read(data);
         if (len < 0) {
             return len;
         }
-        
-        dst.put(data, 0, len);
-        
+
         position = position + len;
-        
-        
-        
-//        int count = 0;
-//        byte[] buffer = new byte[1];
-//        for (int i = 0; i < dst.remaining(); i++) {
-//            int len = this.inputStream.read(buffer);
-//            if (len < 1) {
-//                break;
-//            }
-//            dst.put(buffer, 0, len);
-//            count = count + len;
-//            position = position + len;
-//        }
+        if (position > size) {
+            size = position;
+        }
 
         return len;
     }
@@ -143,26 +180,36 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
+        if (!this.write) {
+            throw new NonWritableChannelException();
+        }
+
+        if (this.outputStream == null) {
+            try {
+                this.outputStream = this.channel.put(this.path.toString(), ChannelSftp.APPEND);
+            } catch (SftpException e) {
+                throw new IOException("Unable to write SSH file " + this.path, e);
+            }
+        }
 
         int len = src.remaining();
-        byte[] data = new byte[len];
-        src.get(data, 0, len);
-        
-        outputStream.write(data, 0, len);
+        if (src.hasArray()) {
+            // Write straight from the buffer
+            outputStream.write(src.array(), src.arrayOffset() + src.position(), len);
+            src.position(src.position() + len);
+        } else {
+            byte[] data = getBuffer();
+            while (src.hasRemaining()) {
+                int chunk = Math.min(data.length, src.remaining());
+                src.get(data, 0, chunk);
+                outputStream.write(data, 0, chunk);
+            }
+        }
+
         size = size + len;
         position = position + len;
-        
+
         return len;
-        
-//        int count = 0;
-//        while (src.remaining() > 0) { // TODO there has got be a more efficient way of doing this
-//            outputStream.write(lsrc.get());
-//            count++;
-//            size++;
-//            position++;
-//        }
-//
-//        return count;
     }
 
     /*
@@ -185,7 +232,27 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
-        throw new UnsupportedOperationException("need to write");
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("The position must not be negative");
+        }
+        if (newPosition == this.position) {
+            return this;
+        }
+
+        if (this.write) {
+            if (newPosition != this.size) {
+                throw new IOException("SSH files can only be written at the end of the file");
+            }
+        } else if (this.inputStream != null && newPosition > this.position && this.skip + newPosition - this.position <= MAX_SKIP) {
+            // The bytes up to the new position are skipped on the next read
+            this.skip += newPosition - this.position;
+        } else {
+            // The read stream is restarted from the new position on the next read
+            closeStreams();
+        }
+
+        this.position = newPosition;
+        return this;
     }
 
     /*
@@ -211,7 +278,82 @@ public class SSHByteChannel implements SeekableByteChannel {
         if (!isOpen()) {
             throw new ClosedChannelException();
         }
-        throw new UnsupportedOperationException("need to write");
+        if (!this.write) {
+            throw new NonWritableChannelException();
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("The size must not be negative");
+        }
+
+        if (size < this.size) {
+            // Flush what has been written before changing the size of the file
+            closeStreams();
+
+            try {
+                // The other attributes are set back to their current values with the new size
+                SftpATTRS attrs = this.channel.lstat(this.path.toString());
+                attrs.setSIZE(size);
+                this.channel.setStat(this.path.toString(), attrs);
+            } catch (SftpException e) {
+                throw new IOException("Unable to truncate SSH file " + this.path, e);
+            }
+            this.size = size;
+        }
+
+        if (this.position > size) {
+            this.position = size;
+        }
+        return this;
+    }
+
+    private long getRemoteSize() throws SftpException {
+        SftpATTRS attrs = this.channel.lstat(this.path.toString());
+        return attrs.getSize();
+    }
+
+    /**
+     * Read past the bytes the read stream is behind the position
+     *
+     * @return false if the end of the file was reached first
+     */
+    private boolean skipToPosition() throws IOException {
+        while (this.skip > 0) {
+            long skipped = this.inputStream.skip(this.skip);
+            if (skipped <= 0) {
+                // Nothing skipped does not mean the end of the file has been reached, a read will say
+                if (this.inputStream.read() < 0) {
+                    return false;
+                }
+                skipped = 1;
+            }
+            this.skip -= skipped;
+        }
+        return true;
+    }
+
+    private byte[] getBuffer() {
+        if (this.buffer == null) {
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+        return this.buffer;
+    }
+
+    private void closeStreams() throws IOException {
+        try {
+            if (this.inputStream != null) {
+                this.inputStream.close();
+            }
+        } finally {
+            this.inputStream = null;
+            this.skip = 0;
+            try {
+                if (this.outputStream != null) {
+                    this.outputStream.close();
+                }
+            } finally {
+                this.outputStream = null;
+            }
+        }
     }
 
 }
@@ -46,7 +46,7 @@ public class SSHDirectoryStream implements DirectoryStream<Path> {
             throw new IOException("Unable to get directory listing", e);
         } finally {
             if (channel != null) {
-                channel.disconnect();
+                fileSystem.releaseFileChannel(channel);
             }
         }
 
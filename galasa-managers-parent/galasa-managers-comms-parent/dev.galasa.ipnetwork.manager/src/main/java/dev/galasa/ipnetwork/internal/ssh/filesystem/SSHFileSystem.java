@@ -13,167 +13,120 @@ import java.nio.file.PathMatcher;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelSftp;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 
 import dev.galasa.ICredentials;
-import dev.galasa.ICredentialsUsernamePassword;
-import dev.galasa.ICredentialsUsernameToken;
 import dev.galasa.ipnetwork.SSHException;
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
 
 public class SSHFileSystem extends FileSystem {
 
     private final Log                   logger = LogFactory.getLog(SSHFileSystemProvider.class);
 
-    private final String                hostname;
-    private final int                   port;
-    private final String                userid;
-    private final String                password;
+    // SFTP channels kept open for reuse, each one counts against the channels the server allows on a session
+    private static final int            MAX_IDLE_FILE_CHANNELS = 4;
+    private static final long           FILE_CHANNEL_TIMEOUT   = 60000;
 
-    private JSch                        sshClient;
-    private Session                     session;
+    // The number of read requests a channel sends before waiting for the first reply
+    private static final int            BULK_REQUESTS          = 64;
+
+    private final SSHSessionPool        sessionPool;
+
+    private final ArrayDeque<ChannelSftp>                   idleFileChannels  = new ArrayDeque<>();
+    private final Map<ChannelSftp, SSHSessionPool.Lease>    fileChannelLeases = new HashMap<>();
 
     private final SSHFileStore          fileStore;
     private final SSHFileSystemProvider fileSystemProvider;
 
     public SSHFileSystem(String hostname, int port, ICredentials credentials) throws SSHException {
+        this(hostname, SSHSessionPool.getPool(hostname, port, credentials));
+    }
 
-        this.hostname = hostname;
-        this.port = port;
-
+    SSHFileSystem(String hostname, SSHSessionPool sessionPool) {
         this.fileStore = new SSHFileStore("sshfilestore-" + hostname);
         this.fileSystemProvider = new SSHFileSystemProvider(this);
 
-        this.sshClient = new JSch();
-        this.session = null;
-
-        try {
-            if (credentials instanceof ICredentialsUsernamePassword) {
-                ICredentialsUsernamePassword creds = (ICredentialsUsernamePassword) credentials;
-                this.userid = creds.getUsername();
-                this.password = creds.getPassword();
-            } else if (credentials instanceof ICredentialsUsernameToken) {
-                ICredentialsUsernameToken creds = (ICredentialsUsernameToken) credentials;
-                this.userid = creds.getUsername();
-                this.password = null;
-                this.sshClient.addIdentity(this.userid, creds.getToken(), null, null);
-            } else {
-                throw new SSHException("Unsupported credentials type - " + credentials.getClass().getName());
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (JSchException e) {
-            throw new SSHException("Problem adding credentials to SSH", e);
-        }
-
+        this.sessionPool = sessionPool;
     }
 
     public void connect() throws SSHException {
-        connect(5);
+        this.sessionPool.connect();
     }
 
     /**
-     * Connect to the target system
-     * 
-     * @throws SSHException
+     * Get an sftp channel, reusing an idle one if there is one.  The channel must be given back 
+     * with {@link #releaseFileChannel(ChannelSftp)} rather than disconnected.
      */
-    private synchronized void connect(int retry) throws SSHException {
-        // Do nothing if already connected
-        if (session != null && session.isConnected()) {
-            return;
+    protected ChannelSftp getFileChannel() throws SSHException {
+        synchronized (this) {
+            ChannelSftp channel;
+            while ((channel = this.idleFileChannels.poll()) != null) {
+                if (this.fileChannelLeases.get(channel).resume()) {
+                    return channel;
+                }
+                this.fileChannelLeases.remove(channel).close();
+            }
         }
 
+        // Opened without holding the lock as it may wait for room on a session
+        SSHSessionPool.Lease lease = this.sessionPool.openChannel("sftp", null, FILE_CHANNEL_TIMEOUT);
+        ChannelSftp channel = (ChannelSftp) lease.getChannel();
         try {
-
-            try {
-                session = sshClient.getSession(this.userid, hostname, port);
-                session.setIdentityRepository(sshClient.getIdentityRepository());
-                if (this.password != null) {
-                    session.setPassword(this.password);
-                }
-                session.setConfig("StrictHostKeyChecking", "no");
-
-                session.connect();
-
-                // Slight delay to allow the connection to stabilise
-                try {
-                    Thread.sleep(200); // NOSONAR - Sleep is sufficent
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SSHException("Interrupted trying to authenticate using SSH", e);
-                }
-
-                logger.trace("SSH Client connected to '" + hostname + ":" + port);
-
-            } catch (Exception e) {
-                if (retry > 0) {
-                    logger.trace("Exception caught during SSH connection, will retry.", e);
-                    if (session != null && session.isConnected()) {
-                        session.disconnect();
-                        session = null;
-                    }
-                    Thread.sleep(5000); // NOSONAR - Sleep is sufficient
-                    connect(retry - 1);
-                } else {
-                    throw e;
-                }
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SSHException("Interrupted while trying to retrieve output", e);
-        } catch (Exception e) {
-            throw new SSHException("Unrecognised exception in connection", e);
+            channel.setBulkRequests(BULK_REQUESTS);
+        } catch (JSchException e) {
+            lease.close();
+            throw new SSHException("Unable to open a sftp channel to the server", e);
         }
 
-        return;
+        synchronized (this) {
+            this.fileChannelLeases.put(channel, lease);
+        }
+        return channel;
     }
 
-    protected ChannelSftp getFileChannel() throws SSHException {
-        connect();
-
-        try {
-            Channel channel = session.openChannel("sftp");
-            channel.connect();
+    /**
+     * Give back a channel from {@link #getFileChannel()}, it is kept for reuse if still connected.  An idle channel
+     * does not keep its session connected, it is disconnected with the session once the session has been idle for a while.
+     */
+    protected synchronized void releaseFileChannel(ChannelSftp channel) {
+        SSHSessionPool.Lease lease = this.fileChannelLeases.get(channel);
+        if (lease == null) {
+            return;
+        }
 
-            return (ChannelSftp) channel;
-        } catch (Exception e) {
-            throw new SSHException("Unable to open a sftp channel to the server", e);
+        if (channel.isConnected() && this.idleFileChannels.size() < MAX_IDLE_FILE_CHANNELS) {
+            lease.idle();
+            this.idleFileChannels.push(channel);
+        } else {
+            this.fileChannelLeases.remove(channel);
+            lease.close();
         }
     }
 
     /**
-     * Disconnect the client
+     * Disconnect the client, closing the idle sftp channels and the sessions to the host that are no longer in use
      * 
      * @throws IOException
      */
     public synchronized void disconnect() throws SSHException {
-        if (session == null) {
-            return;
+        ChannelSftp channel;
+        while ((channel = this.idleFileChannels.poll()) != null) {
+            this.fileChannelLeases.remove(channel).close();
         }
-        synchronized (sshClient) {
-
-            if (!session.isConnected()) {
-                session = null;
-                return;
-            }
 
-            session.disconnect();
-            logger.trace("SSH Client disconnected");
-
-            session = null;
-        }
+        this.sessionPool.disconnectIdleSessions();
+        logger.trace("SSH Client disconnected");
         return;
     }
 
@@ -76,7 +76,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
                         throw new IOException("Unable to check for read via SFTP", e);
                     } finally {
                         if (channel != null) {
-                            channel.disconnect();
+                            fileSystem.releaseFileChannel(channel);
                         }
                     }
                     break;
@@ -107,7 +107,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
             throw new IOException("Unable to create directory via SFTP", e);
         } finally {
             if (channel != null) {
-                channel.disconnect();
+                fileSystem.releaseFileChannel(channel);
             }
         }
     }
@@ -149,7 +149,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
             throw new IOException("Unable to delete via SFTP for path " + path, e);
         } finally {
             if (channel != null) {
-                channel.disconnect();
+                fileSystem.releaseFileChannel(channel);
             }
         }
     }
@@ -208,7 +208,7 @@ public class SSHFileSystemProvider extends FileSystemProvider {
             throw new IOException("Unable to move file via SFTP", e);
         } finally {
             if (channel != null) {
-                channel.disconnect();
+                fileSystem.releaseFileChannel(channel);
             }
         }
     }
@@ -8,14 +8,7 @@ package dev.galasa.ipnetwork.spi;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.Calendar;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.nio.charset.Charset;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,16 +18,13 @@ import org.apache.commons.logging.LogFactory;
 import com.jcraft.jsch.Channel;
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.ChannelShell;
-import com.jcraft.jsch.JSch;
-import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 
 import dev.galasa.ICredentials;
-import dev.galasa.ICredentialsUsernamePassword;
-import dev.galasa.ICredentialsUsernameToken;
+import dev.galasa.ipnetwork.ICommandOutputListener;
 import dev.galasa.ipnetwork.ICommandShell;
-import dev.galasa.ipnetwork.SSHAuthFailException;
 import dev.galasa.ipnetwork.SSHException;
+import dev.galasa.ipnetwork.internal.ssh.SSHOutputReader;
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
 
 /**
  * SSH client for Galasa
@@ -46,20 +36,14 @@ public class SSHClient implements ICommandShell {
 
     private final Log           logger        = LogFactory.getLog(SSHClient.class);
 
-    private KeepAliveThread     keepAliveThread;
-
     private final long          defaultTimeout;
 
     private final String        hostname;
-    private final int           port;
-    private final String        userid;
-    private final String        password;
 
-    private JSch                sshClient;
-    private Session             session;
+    private final SSHSessionPool sessionPool;
+    private SSHSessionPool.Lease shellLease   = null;
     private Channel             channel       = null;
-
-    private long                lastCommandTimestamp;
+    private SSHOutputReader     shellReader   = null;
 
     private boolean             logShellResults;
     
@@ -70,34 +54,16 @@ public class SSHClient implements ICommandShell {
     // Default value: Linux command
     private String changePromptCommand = "PS1=" + specialPrompt;
 
+    /**
+     * Sessions are shared with the other SSH clients for the same host and credentials, 
+     * each command is issued on its own channel so commands from different threads can run at the same time
+     */
     public SSHClient(String hostname, int port, ICredentials credentials, long defaultTimeoutInMillis) throws SSHException {
 
         this.hostname = hostname;
-        this.port = port;
         this.defaultTimeout = defaultTimeoutInMillis;
 
-        this.sshClient = new JSch();
-        this.session = null;
-
-        try {
-            if (credentials instanceof ICredentialsUsernamePassword) {
-                ICredentialsUsernamePassword creds = (ICredentialsUsernamePassword) credentials;
-                this.userid = creds.getUsername();
-                this.password = creds.getPassword();
-            } else if (credentials instanceof ICredentialsUsernameToken) {
-                ICredentialsUsernameToken creds = (ICredentialsUsernameToken) credentials;
-                this.userid = creds.getUsername();
-                this.password = null;
-                this.sshClient.addIdentity(this.userid, creds.getToken(), null, null);
-            } else {
-                throw new SSHException("Unsupported credentials type - " + credentials.getClass().getName());
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (JSchException e) {
-            throw new SSHException("Problem adding credentials to SSH", e);
-        }
-
+        this.sessionPool = SSHSessionPool.getPool(hostname, port, credentials);
     }
 
     /**
@@ -153,43 +119,37 @@ public class SSHClient implements ICommandShell {
      * @throws SSHException
      */
     @Override
-    public synchronized String issueCommand(String command, boolean newShell, long timeoutInMillis) throws SSHException {
+    public String issueCommand(String command, boolean newShell, long timeoutInMillis) throws SSHException {
+        return issueCommand(command, timeoutInMillis, null);
+    }
+
+    /**
+     * Issue a command using SSH, passing each line of output to the listener as it arrives
+     * 
+     * @param command - command to issue
+     * @param timeoutInMillis - time (in milliseconds) to wait with no new output appearing
+     *                before timing out
+     * @param listener - receives each line of output, can be null
+     * @return the output of the command (stdout and stderr)
+     * @throws SSHException
+     */
+    @Override
+    public String issueCommand(String command, long timeoutInMillis, ICommandOutputListener listener) throws SSHException {
 
         // Connect if we are not already connected
         connect();
-        try {
-            synchronized (sshClient) {
-                // SessionChannelClient session = null;
-                // if (session == null || session.)
-                try {
-
-                    logger.trace("Issuing '" + command + "'");
-                    lastCommandTimestamp = System.currentTimeMillis();
-
-                    // Issue the desired command and retrieve the response to a
-                    // string
-                    String response = retrieveOutput(command, timeoutInMillis);
-
-                    if (logShellResults) {
-                        logger.trace("Received '" + response);
-                    }
-                    lastCommandTimestamp = System.currentTimeMillis();
-
-                    return response;
-                } catch (SSHException e) {
-                    throw e;
-                } catch (IOException e) {
-                    throw new SSHException("Error whilst issuing command to ssh '" + command + "'", e);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SSHException("Interrupted while trying to retrieve output", e);
-                } catch (ExecutionException e) {
-                    throw new SSHException("Execution error while trying to retrieve output", e);
-                }
-            }
-        } finally {
-            // disconnect();
+
+        logger.trace("Issuing '" + command + "'");
+
+        // Issue the desired command and retrieve the response to a
+        // string
+        String response = retrieveOutput(command, timeoutInMillis, listener);
+
+        if (logShellResults) {
+            logger.trace("Received '" + response);
         }
+
+        return response;
     }
 
     /**
@@ -263,111 +223,45 @@ public class SSHClient implements ICommandShell {
             if (channel == null || channel.isClosed() || newShell) {
                 if (channel != null && !channel.isClosed()) {
                     logger.trace("Closing old shell session");
-                    channel.disconnect();
                 }
+                closeShell();
                 logger.trace("Opening new shell session to ssh");
-                channel = session.openChannel("shell");
-                ((ChannelShell) channel).setPty(true);
-                ((ChannelShell) channel).setPtyType("ansi", 2048, 24, 0, 0);
-                channel.connect();
-                Thread.sleep(5000); // NOSONAR - Sleep is sufficent
+                InputStream[] shellOutput = new InputStream[1];
+                shellLease = sessionPool.openChannel("shell", shellChannel -> {
+                    ((ChannelShell) shellChannel).setPty(true);
+                    ((ChannelShell) shellChannel).setPtyType("ansi", 2048, 24, 0, 0);
+                    shellOutput[0] = shellChannel.getInputStream();
+                }, timeoutInMillis);
+                channel = shellLease.getChannel();
+                shellReader = new SSHOutputReader(Charset.defaultCharset(), null);
+                shellReader.start(shellOutput[0]);
             }
 
-            lastCommandTimestamp = System.currentTimeMillis();
-            // Set a special prompt so we can easily identify responses to our commands
+            // Set a special prompt so we can easily identify responses to our commands.
+            // This waits for the echo of the command and the new prompt, so a new shell is ready once it has been set
             logger.trace("Setting special prompt '" + specialPrompt + "'");
-            retrieveOutputFromShell(channel, changePromptCommand, timeoutInMillis);
-            Thread.sleep(500); // NOSONAR - Sleep is sufficent
+            retrieveOutputFromShell(changePromptCommand, timeoutInMillis);
 
             // Issue the desired command and retrieve the response to a string
-            lastCommandTimestamp = System.currentTimeMillis();
-            String response = retrieveOutputFromShell(channel, command, timeoutInMillis);
-            lastCommandTimestamp = System.currentTimeMillis();
+            String response = retrieveOutputFromShell(command, timeoutInMillis);
             
             return response;
 
         } catch (IOException e) {
             throw new SSHException("Error whilst issuing command to ssh '" + command + "'", e);
-        } catch (JSchException e) {
-            throw new SSHException(e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SSHException("Interrupted while trying to retrieve output", e);
-        } catch (ExecutionException e) {
-            throw new SSHException("Execution error while trying to retrieve output", e);
         } finally {
             // disconnect();
         }
     }
 
-    @Override
-    public void connect() throws SSHException {
-        connect(5);
-    }
-
     /**
-     * Connect to the target system
+     * Connect to the target system, if there is not already a session to it
      * 
      * @throws SSHException
      */
-    private synchronized void connect(int retry) throws SSHException {
-        // Do nothing if already connected
-        if (session != null && session.isConnected()) {
-            return;
-        }
-
-        try {
-
-            try {
-                session = sshClient.getSession(this.userid, hostname, port);
-                session.setIdentityRepository(sshClient.getIdentityRepository());
-                if (this.password != null) {
-                    session.setPassword(this.password);
-                }
-                session.setConfig("StrictHostKeyChecking", "no");
-
-                session.connect();
-
-                // Slight delay to allow the connection to stabilise
-                try {
-                    Thread.sleep(200); // NOSONAR - Sleep is sufficent
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new SSHException("Interrupted trying to authenticate using SSH", e);
-                }
-
-                logger.trace("SSH Client connected to '" + hostname + ":" + port);
-
-                this.keepAliveThread = new KeepAliveThread(session);
-                this.keepAliveThread.start();
-
-            } catch (Exception e) {
-                if ("Auth fail".equals(e.getMessage())) {
-                    throw new SSHAuthFailException(e);
-                }
-
-                if (retry > 0) {
-                    logger.trace("Exception caught during SSH connection, will retry.", e);
-                    if (session != null && session.isConnected()) {
-                        session.disconnect();
-                        session = null;
-                    }
-                    Thread.sleep(5000); // NOSONAR - Sleep is sufficent
-                    connect(retry - 1);
-                } else {
-                    throw e;
-                }
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new SSHException("Interrupted while trying to retrieve output", e);
-        } catch (Exception e) {
-            throw new SSHException("Unrecognised exception in connection", e);
-        }
-
-        return;
+    @Override
+    public void connect() throws SSHException {
+        sessionPool.connect();
     }
 
     @Override
@@ -375,111 +269,65 @@ public class SSHClient implements ICommandShell {
     }
 
     /**
-     * Disconnect the client
+     * Disconnect the client. The shell channel is closed and the sessions to the host
+     * that are not being used by other clients are disconnected
      * 
      * @throws IOException
      */
     @Override
     public synchronized void disconnect() throws SSHException {
-        if (session == null) {
-            return;
-        }
-        synchronized (sshClient) {
-
-            if (!session.isConnected()) {
-                session = null;
-                return;
-            }
-
-            session.disconnect();
-            logger.trace("SSH Client disconnected");
+        closeShell();
+        sessionPool.disconnectIdleSessions();
+        logger.trace("SSH Client disconnected");
+        return;
+    }
 
-            session = null;
+    private synchronized void closeShell() {
+        if (shellLease != null) {
+            shellLease.close();
+            shellLease = null;
         }
-        return;
+        channel = null;
+        shellReader = null;
     }
 
     /**
-     * Retrieve all output from the shell, returning only that which is found
-     * between the command issued and the next occurrence of the special prompt we
-     * defined in {@link #issueCommand(String)}
+     * Retrieve all output of the command, reading it as it arrives until the 
+     * channel ends
      *
      * @param command
      * @param timeoutInMillis
+     * @param listener
      * @return
-     * @throws IOException
-     * @throws InterruptedException
-     * @throws ExecutionException
      * @throws SSHException
      */
-    private String retrieveOutput(String command, long timeoutInMillis)
-            throws IOException, InterruptedException, ExecutionException, SSHException {
+    private String retrieveOutput(String command, long timeoutInMillis, ICommandOutputListener listener) throws SSHException {
+
+        if (listener != null && this.removeAnsiEscapeCodes) {
+            listener = new AnsiRemovingListener(listener);
+        }
 
-        StringBuilder sb = new StringBuilder();
-        ChannelExec channel = null;
+        String output;
+        ExecChannelSetup setup = new ExecChannelSetup(command);
+        SSHSessionPool.Lease lease = sessionPool.openChannel("exec", setup, timeoutInMillis);
         try {
-            channel = (ChannelExec) session.openChannel("exec");
-            channel.setPty(true);
-            channel.setPtyType("ansi", 2048, 24, 0, 0);
-            channel.setInputStream(null);
-            channel.setErrStream(null);
-            channel.setCommand(command);
-            InputStream is = channel.getInputStream();
-            InputStream err = channel.getErrStream();
-            channel.connect();
-
-            long whenTimeout = Calendar.getInstance().getTimeInMillis() + timeoutInMillis;
-
-            byte[] tmp = new byte[1024];
-            while (true) {
-                if (whenTimeout <= Calendar.getInstance().getTimeInMillis()) {
-                    throw new SSHException("Read of command timed out, response so far:-\n" + sb.toString());
-                }
-                while (is.available() > 0) {
-                    int i = is.read(tmp);
-
-                    if (i < 0) {
-                        break;
-                    }
-                    String data = new String(tmp, 0, i);
-                    sb.append(data);
-                }
-                while (err.available() > 0) {
-                    int i = err.read(tmp);
-
-                    if (i < 0) {
-                        break;
-                    }
-                    String data = new String(tmp, 0, i);
-                    sb.append(data);
-                }
-                if (channel.isClosed()) {
-                    if (is.available() > 0)
-                        continue;
-                    if (err.available() > 0)
-                        continue;
-                    break;
-                }
-                try {
-                    Thread.sleep(100);
-                } catch (Exception ee) {
-                }
-            }
-        } catch (SSHException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new SSHException("Error reading exec output", e);
+            SSHOutputReader reader = new SSHOutputReader(Charset.defaultCharset(), listener);
+            reader.start(setup.in, setup.err);
+
+            output = reader.waitForEnd(timeoutInMillis);
         } finally {
-            if (channel != null) {
-                channel.disconnect();
-            }
+            lease.close();
         }
         
         if (this.removeAnsiEscapeCodes) {
-            return new String(removeAnsiEscapeCodes(sb.toString().getBytes()));
+            try {
+                return new String(removeAnsiEscapeCodes(output.getBytes()));
+            } catch (IOException e) {
+                throw new SSHException("Error reading exec output", e);
+            }
         }
 
-        return sb.toString();
+        return output;
 
     }
 
@@ -492,22 +340,16 @@ public class SSHClient implements ICommandShell {
      * between the command issued and the next occurrence of the special prompt we
      * defined in {@link #issueCommandToShell(String)}
      *
-     * @param channel
      * @param command
      * @param timeoutInMillis
      * @return
      * @throws IOException
-     * @throws InterruptedException
-     * @throws ExecutionException
      * @throws SSHException
      */
-    private String retrieveOutputFromShell(Channel channel, String command, long timeoutInMillis)
-            throws IOException, InterruptedException, ExecutionException, SSHException {
+    private String retrieveOutputFromShell(String command, long timeoutInMillis) throws IOException, SSHException {
 
-        // Get the input stream from the current session
-        final InputStream in = channel.getInputStream();
         OutputStream os = channel.getOutputStream();
-        in.skip(in.available()); // NOSONAR - Dont care what is on the buffer to start with
+        shellReader.clear(); // Dont care what is on the buffer to start with
 
         // Remove any unwanted trailing end-of-line characters
         command = command.trim();
@@ -523,106 +365,61 @@ public class SSHClient implements ICommandShell {
         logger.trace("Submitting command to host '" + hostname + "':\n'" + command + "'");
         os.write((command + " \r\n").getBytes());
         os.flush();
-        Thread.sleep(500);
-
-        // Create a string builder to build the response, and a buffer in to which to
-        // read
-        // from the input stream
-        StringBuilder responseBuilder = new StringBuilder();
-        final byte buffer[] = new byte[5000];
-
-        // Create an executor and a callable which will allow us to read continuously
-        // from
-        // the input stream with a timeoutInMillis
-        ExecutorService executor = Executors.newFixedThreadPool(2);
-        Callable<Integer> reader = new Callable<Integer>() {
-
-            /**
-             * Return the number of bytes ready to be read from the buffer
-             */
-            @Override
-            public Integer call() throws Exception {
-                return in.read(buffer);
-            }
-        };
 
-        // Retrieve the output
-        while (true) {
+        // Wait for the output to match <command>...<prompt>, which is the complete
+        // response
+        Matcher responseMatcher = shellReader.waitForMatch(responsePattern, timeoutInMillis);
+        String response = responseMatcher.group(1);
+        logger.trace("Retrieved response from host '" + hostname + "':\n'" + response + "'");
+        return response;
+    }
 
-            // Submit our callable and wait for it to tell us how many bytes to read
-            Future<Integer> future = executor.submit(reader);
-            int read = 0;
-            try {
-                read = future.get(timeoutInMillis, TimeUnit.MILLISECONDS);
-            } catch (TimeoutException e) {
-                executor.shutdown();
-                throw new SSHException("Timed out waiting for response from ssh. Response so far: " + responseBuilder);
-            }
+    /**
+     * Sets up an exec channel, getting the streams before the channel is connected so no output is missed
+     */
+    private static class ExecChannelSetup implements SSHSessionPool.ChannelSetup {
 
-            // Append the new output to our response
-            responseBuilder.append(new String(buffer, 0, read));
-
-            // If the output matches <command>...<prompt> then we have found the complete
-            // response
-            Matcher responseMatcher = responsePattern.matcher(responseBuilder.toString());
-            if (responseMatcher.find()) {
-                executor.shutdown();
-                String response = responseMatcher.group(1);
-                logger.trace("Retrieved response from host '" + hostname + "':\n'" + response + "'");
-                return response;
-            }
-        }
-    }
+        private final String command;
+        private InputStream  in;
+        private InputStream  err;
 
-    private class KeepAliveThread extends Thread {
-
-        private final Session monitorSession;
-
-        // Some commands we run download the isolated build zip which takes ages...
-        // Timeout increased from 60secs to 120secs to allow the download to complete.
-        private long          idleTimeout = 120000;
-
-        public KeepAliveThread(Session session) {
-            this.monitorSession = session;
-            this.setDaemon(true);
-            this.setName("GalasaSSHClient timeout thread");
-
-            // if (configurationProperties != null) {
-            // String idleTimeoutString =
-            // configurationProperties.getProperty("core.ssh.idle.timeout", "60000");
-            // try {
-            // idleTimeout = Long.parseLong(idleTimeoutString);
-            // } catch(Exception e) {
-            // logger.error("Invalid ssh idle timeout '" + idleTimeoutString + "'",e);
-            // }
-            //
-            // }
+        private ExecChannelSetup(String command) {
+            this.command = command;
         }
 
         @Override
-        public void run() {
-
-            lastCommandTimestamp = System.currentTimeMillis();
+        public void setup(Channel channel) throws IOException {
+            ChannelExec execChannel = (ChannelExec) channel;
+            execChannel.setPty(true);
+            execChannel.setPtyType("ansi", 2048, 24, 0, 0);
+            execChannel.setInputStream(null);
+            execChannel.setErrStream(null);
+            execChannel.setCommand(command);
+            this.in = execChannel.getInputStream();
+            this.err = execChannel.getErrStream();
+        }
+    }
 
-            while (this.monitorSession.isConnected()) {
+    /**
+     * Removes the ANSI escape codes from each line before passing it on
+     */
+    private class AnsiRemovingListener implements ICommandOutputListener {
 
-                synchronized (SSHClient.this) {
+        private final ICommandOutputListener listener;
 
-                    long timeout = System.currentTimeMillis() - idleTimeout;
-                    if (timeout >= lastCommandTimestamp) {
-                        logger.debug("SSH Client unused after " + idleTimeout + " milliseconds, freeing session");
-                        this.monitorSession.disconnect();
-                    }
-                }
+        private AnsiRemovingListener(ICommandOutputListener listener) {
+            this.listener = listener;
+        }
 
-                try {
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    return;
-                }
+        @Override
+        public void outputLine(String line) {
+            try {
+                line = new String(removeAnsiEscapeCodes(line.getBytes()));
+            } catch (IOException e) {
+                logger.trace("Unable to remove the ANSI escape codes from '" + line + "'", e);
             }
+            listener.outputLine(line);
         }
-
     }
 
     @Override
@@ -0,0 +1,195 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.ipnetwork.SSHException;
+
+public class TestSSHOutputReader {
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+
+    /**
+     * A channel stream that returns each chunk of bytes it is given on a separate read, as the network does,
+     * and ends when it is closed
+     */
+    private static class ChunkedInputStream extends InputStream {
+        private static final byte[]         END    = new byte[0];
+        private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+
+        private void send(byte[] chunk) {
+            chunks.add(chunk);
+        }
+
+        private void end() {
+            chunks.add(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                byte[] chunk = chunks.take();
+                if (chunk == END) {
+                    chunks.add(END);
+                    return -1;
+                }
+                Assert.assertTrue("The reader should have room for the chunk", chunk.length <= len);
+                System.arraycopy(chunk, 0, b, off, chunk.length);
+                return chunk.length;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private byte[] bytes(String text, Charset charset) {
+        return text.getBytes(charset);
+    }
+
+    private byte[] part(byte[] bytes, int from, int to) {
+        byte[] part = new byte[to - from];
+        System.arraycopy(bytes, from, part, 0, part.length);
+        return part;
+    }
+
+    @Test
+    public void testOutputIsDecodedWithTheCharset() throws Exception {
+        Charset ibm1047 = Charset.forName("IBM1047");
+        SSHOutputReader reader = new SSHOutputReader(ibm1047, lines::add);
+        reader.start(new ByteArrayInputStream(bytes("HELLO WORLD\nSECOND LINE\n", ibm1047)));
+
+        Assert.assertEquals("The output should be decoded with the charset", "HELLO WORLD\nSECOND LINE\n", reader.waitForEnd(10000));
+        Assert.assertEquals("Unexpected lines", List.of("HELLO WORLD", "SECOND LINE"), lines);
+    }
+
+    @Test
+    public void testCharactersSplitAcrossReadsAreDecoded() throws Exception {
+        byte[] text = bytes("café €10 😀\r\n", StandardCharsets.UTF_8);
+        ChunkedInputStream stream = new ChunkedInputStream();
+        SSHOutputReader reader = new SSHOutputReader(StandardCharsets.UTF_8, lines::add);
+        reader.start(stream);
+
+        // Every character after the first few is split, one byte on each read
+        stream.send(part(text, 0, 3));
+        for (int i = 3; i < text.length; i++) {
+            stream.send(part(text, i, i + 1));
+        }
+        stream.end();
+
+        Assert.assertEquals("The split characters should be decoded", "café €10 😀\r\n", reader.waitForEnd(10000));
+        Assert.assertEquals("Unexpected lines", List.of("café €10 😀"), lines);
+    }
+
+    @Test
+    public void testIncompleteCharacterAtEndOfStreamIsReplaced() throws Exception {
+        byte[] euro = bytes("€", StandardCharsets.UTF_8);
+        ChunkedInputStream stream = new ChunkedInputStream();
+        SSHOutputReader reader = new SSHOutputReader(StandardCharsets.UTF_8, lines::add);
+        reader.start(stream);
+
+        stream.send(bytes("price ", StandardCharsets.UTF_8));
+        stream.send(part(euro, 0, 2));
+        stream.end();
+
+        Assert.assertEquals("The incomplete character should be replaced", "price �", reader.waitForEnd(10000));
+        Assert.assertEquals("The last line should be passed on without a line end", List.of("price �"), lines);
+    }
+
+    @Test
+    public void testWaitForMatchSeesOutputAsItArrives() throws Exception {
+        ChunkedInputStream stream = new ChunkedInputStream();
+        SSHOutputReader reader = new SSHOutputReader(StandardCharsets.UTF_8, null);
+        reader.start(stream);
+
+        stream.send(bytes("echo hi\r\nhi\r\n", StandardCharsets.UTF_8));
+        stream.send(bytes("PROMPT>", StandardCharsets.UTF_8));
+
+        Matcher matcher = reader.waitForMatch(Pattern.compile("echo hi[\\r\\n]*(.*)PROMPT>", Pattern.DOTALL), 10000);
+        Assert.assertEquals("Unexpected response", "hi\r\n", matcher.group(1));
+
+        reader.clear();
+        stream.send(bytes("next", StandardCharsets.UTF_8));
+        Assert.assertEquals("Only the output after the clear should be matched", "next",
+                reader.waitForMatch(Pattern.compile("n.*"), 10000).group());
+        stream.end();
+    }
+
+    @Test
+    public void testWaitForMatchFailsWhenTheStreamEnds() throws Exception {
+        ChunkedInputStream stream = new ChunkedInputStream();
+        SSHOutputReader reader = new SSHOutputReader(StandardCharsets.UTF_8, null);
+        reader.start(stream);
+
+        stream.send(bytes("partial", StandardCharsets.UTF_8));
+        stream.end();
+
+        SSHException e = Assert.assertThrows(SSHException.class, () -> reader.waitForMatch(Pattern.compile("PROMPT>"), 10000));
+        Assert.assertEquals("The ssh channel ended before the response was received. Response so far: partial", e.getMessage());
+    }
+
+    @Test
+    public void testWaitForEndWaitsForAllTheStreams() throws Exception {
+        ChunkedInputStream out = new ChunkedInputStream();
+        ChunkedInputStream err = new ChunkedInputStream();
+        SSHOutputReader reader = new SSHOutputReader(StandardCharsets.UTF_8, lines::add);
+        reader.start(out, err);
+
+        out.send(bytes("out\n", StandardCharsets.UTF_8));
+        out.end();
+        err.send(bytes("err\n", StandardCharsets.UTF_8));
+        Assert.assertTrue("The error output should arrive", waitForLines(2));
+        err.end();
+
+        String output = reader.waitForEnd(10000);
+        Assert.assertTrue("The output should include both streams", output.contains("out\n") && output.contains("err\n"));
+    }
+
+    @Test
+    public void testWaitForEndTimesOutWithNoNewOutput() throws Exception {
+        ChunkedInputStream stream = new ChunkedInputStream();
+        SSHOutputReader reader = new SSHOutputReader(StandardCharsets.UTF_8, null);
+        reader.start(stream);
+
+        stream.send(bytes("started", StandardCharsets.UTF_8));
+
+        SSHException e = Assert.assertThrows(SSHException.class, () -> reader.waitForEnd(200));
+        Assert.assertEquals("Timed out waiting for response from ssh. Response so far: started", e.getMessage());
+        stream.end();
+    }
+
+    private boolean waitForLines(int count) throws InterruptedException {
+        long expire = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (lines.size() < count) {
+            if (System.currentTimeMillis() > expire) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+}
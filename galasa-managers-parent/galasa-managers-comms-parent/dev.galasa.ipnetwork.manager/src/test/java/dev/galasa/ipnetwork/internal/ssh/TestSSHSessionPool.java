@@ -0,0 +1,299 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork.internal.ssh;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import dev.galasa.ipnetwork.SSHException;
+
+public class TestSSHSessionPool {
+
+    private static final int SSH_OPEN_ADMINISTRATIVELY_PROHIBITED = 1;
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    // How many channels each new session allows before the server refuses them
+    private volatile int serverMaxChannels = 10;
+
+    private volatile CountDownLatch connectReleased;
+
+    private TestPool pool;
+
+    /**
+     * A pool that connects mocked sessions instead of connecting to a server
+     */
+    private class TestPool extends SSHSessionPool {
+        private TestPool() throws JSchException {
+            super("host1", 22, "user1", "password1", null);
+        }
+
+        @Override
+        Session newSession() throws JSchException {
+            Session session = mockSession(serverMaxChannels);
+            synchronized (sessions) {
+                sessions.add(session);
+            }
+            return session;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new TestPool();
+    }
+
+    private Session mockSession(int maxChannels) throws JSchException {
+        Session session = mock(Session.class);
+        AtomicBoolean connected = new AtomicBoolean();
+        AtomicInteger openChannels = new AtomicInteger();
+
+        doAnswer(invocation -> {
+            CountDownLatch released = connectReleased;
+            if (released != null) {
+                released.await(10, TimeUnit.SECONDS);
+            }
+            connected.set(true);
+            return null;
+        }).when(session).connect();
+        doAnswer(invocation -> {
+            connected.set(false);
+            return null;
+        }).when(session).disconnect();
+        when(session.isConnected()).thenAnswer(invocation -> connected.get());
+
+        when(session.openChannel(anyString())).thenAnswer(invocation -> {
+            Channel channel = mock(Channel.class);
+            AtomicInteger exitStatus = new AtomicInteger(-1);
+            when(channel.getExitStatus()).thenAnswer(getExitStatus -> exitStatus.get());
+            doAnswer(connect -> {
+                if (openChannels.get() >= maxChannels) {
+                    // As JSch reports the SSH_MSG_CHANNEL_OPEN_FAILURE from the server
+                    exitStatus.set(SSH_OPEN_ADMINISTRATIVELY_PROHIBITED);
+                    throw new JSchException("channel is not opened.");
+                }
+                openChannels.incrementAndGet();
+                return null;
+            }).when(channel).connect();
+            doAnswer(disconnect -> {
+                openChannels.decrementAndGet();
+                return null;
+            }).when(channel).disconnect();
+            return channel;
+        });
+        return session;
+    }
+
+    private int sessionsCreated() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    private List<SSHSessionPool.Lease> openChannels(int count) throws SSHException {
+        List<SSHSessionPool.Lease> leases = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            leases.add(pool.openChannel("exec", null, 1000));
+        }
+        return leases;
+    }
+
+    @Test
+    public void testChannelsShareASessionUpToTheLimit() throws Exception {
+        List<SSHSessionPool.Lease> leases = openChannels(10);
+        Assert.assertEquals("Ten channels should share one session", 1, sessionsCreated());
+
+        leases.add(pool.openChannel("exec", null, 1000));
+        Assert.assertEquals("The eleventh channel should need another session", 2, sessionsCreated());
+
+        leases.get(0).close();
+        pool.openChannel("exec", null, 1000);
+        Assert.assertEquals("A released channel should be reused before connecting more sessions", 2, sessionsCreated());
+    }
+
+    @Test
+    public void testRefusedChannelLowersTheSessionLimit() throws Exception {
+        serverMaxChannels = 3;
+
+        openChannels(6);
+
+        Assert.assertEquals("Each session should be limited to the channels the server allows", 2, sessionsCreated());
+        verify(sessions.get(0), never()).disconnect();
+    }
+
+    @Test
+    public void testOtherChannelFailuresDoNotLowerTheSessionLimit() throws Exception {
+        Session session = mockSession(10);
+        AtomicInteger failures = new AtomicInteger();
+        Channel timedOut = mock(Channel.class);
+        when(timedOut.getExitStatus()).thenReturn(-1);
+        doThrow(new JSchException("channel is not opened.")).when(timedOut).connect();
+        when(session.openChannel(anyString())).thenAnswer(invocation -> {
+            if (failures.getAndIncrement() == 2) {
+                return timedOut;
+            }
+            return mock(Channel.class);
+        });
+        pool = new TestPool() {
+            @Override
+            Session newSession() throws JSchException {
+                synchronized (sessions) {
+                    sessions.add(session);
+                }
+                return session;
+            }
+        };
+
+        // The third channel times out without a reason code and is retried on the same session
+        openChannels(10);
+
+        Assert.assertEquals("A channel that failed without being refused should not lower the limit", 1, sessionsCreated());
+        verify(timedOut).disconnect();
+    }
+
+    @Test
+    public void testOpenWaitsForAChannelToBeReleased() throws Exception {
+        List<SSHSessionPool.Lease> leases = openChannels(40);
+        Assert.assertEquals("The pool should be full", 4, sessionsCreated());
+
+        CompletableFuture<SSHSessionPool.Lease> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.openChannel("exec", null, 10000);
+            } catch (SSHException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        Assert.assertFalse("The open should wait while the pool is full", waiting.isDone());
+
+        leases.get(5).close();
+
+        Assert.assertNotNull("The open should use the released channel", waiting.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals("No more sessions should be connected", 4, sessionsCreated());
+    }
+
+    @Test
+    public void testOpenTimesOutWhenNoChannelIsReleased() throws Exception {
+        openChannels(40);
+
+        SSHException e = Assert.assertThrows(SSHException.class, () -> pool.openChannel("exec", null, 200));
+        Assert.assertEquals("Timed out waiting for a free SSH channel to 'host1:22'", e.getMessage());
+    }
+
+    @Test
+    public void testSessionsAreConnectedOutsideTheLock() throws Exception {
+        List<SSHSessionPool.Lease> leases = openChannels(10);
+
+        // The next channel needs a new session, which takes a while to connect
+        connectReleased = new CountDownLatch(1);
+        CompletableFuture<SSHSessionPool.Lease> connecting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.openChannel("exec", null, 10000);
+            } catch (SSHException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(200);
+        Assert.assertFalse("The new session should still be connecting", connecting.isDone());
+
+        // The connected session can still be used while the other connects
+        CompletableFuture<SSHSessionPool.Lease> reuse = CompletableFuture.supplyAsync(() -> {
+            leases.get(0).close();
+            try {
+                return pool.openChannel("exec", null, 10000);
+            } catch (SSHException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Assert.assertNotNull("A channel should be released and opened while a session connects", reuse.get(5, TimeUnit.SECONDS));
+
+        connectReleased.countDown();
+        Assert.assertNotNull("The channel should be opened on the new session", connecting.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals("Two sessions should have been connected", 2, sessionsCreated());
+    }
+
+    @Test
+    public void testIdleSessionsAreDisconnected() throws Exception {
+        List<SSHSessionPool.Lease> leases = openChannels(11);
+        Session first = sessions.get(0);
+        Session second = sessions.get(1);
+
+        leases.get(10).close();
+        pool.disconnectIdleSessions(System.currentTimeMillis() + 1000);
+
+        verify(second).disconnect();
+        verify(first, never()).disconnect();
+
+        // Only used before the time, so kept until it has been idle for long enough
+        for (int i = 0; i < 10; i++) {
+            leases.get(i).close();
+        }
+        pool.disconnectIdleSessions(System.currentTimeMillis() - 60000);
+        verify(first, never()).disconnect();
+
+        pool.disconnectIdleSessions(System.currentTimeMillis() + 1000);
+        verify(first).disconnect();
+
+        pool.openChannel("exec", null, 1000);
+        Assert.assertEquals("A new session should be connected once the idle ones are gone", 3, sessionsCreated());
+    }
+
+    @Test
+    public void testSessionsWithOnlyIdleChannelsAreDisconnected() throws Exception {
+        List<SSHSessionPool.Lease> leases = openChannels(2);
+        Session session = sessions.get(0);
+
+        leases.get(0).idle();
+        pool.disconnectIdleSessions(System.currentTimeMillis() + 1000);
+        verify(session, never()).disconnect();
+
+        leases.get(1).idle();
+        pool.disconnectIdleSessions(System.currentTimeMillis() + 1000);
+        verify(session).disconnect();
+        verify(leases.get(0).getChannel()).disconnect();
+        verify(leases.get(1).getChannel()).disconnect();
+
+        Assert.assertFalse("A channel disconnected while idle should not be resumed", leases.get(0).resume());
+        leases.get(0).close();
+
+        pool.openChannel("exec", null, 1000);
+        Assert.assertEquals("A new session should be connected for the next channel", 2, sessionsCreated());
+    }
+
+    @Test
+    public void testResumedChannelKeepsTheSessionConnected() throws Exception {
+        SSHSessionPool.Lease lease = pool.openChannel("exec", null, 1000);
+        when(lease.getChannel().isConnected()).thenReturn(true);
+
+        lease.idle();
+        Assert.assertTrue("The idle channel should be resumed", lease.resume());
+        pool.disconnectIdleSessions(System.currentTimeMillis() + 1000);
+
+        verify(sessions.get(0), never()).disconnect();
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork.internal.ssh.filesystem;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
+
+public class TestSSHByteChannel {
+
+    private static final String FILE = "/u/user1/file.txt";
+
+    private ChannelSftp   channelMock;
+    private SftpATTRS     attrsMock;
+    private SSHFileSystem fileSystem;
+
+    private byte[]        content;
+
+    @Before
+    public void setUp() throws Exception {
+        channelMock = mock(ChannelSftp.class);
+        when(channelMock.isConnected()).thenReturn(true);
+
+        attrsMock = mock(SftpATTRS.class);
+        when(channelMock.lstat(FILE)).thenReturn(attrsMock);
+        setContent(new byte[1024 * 1024]);
+
+        // Each stream is of the content from the offset asked for
+        when(channelMock.get(eq(FILE), isNull(), anyLong())).thenAnswer(invocation -> {
+            int offset = (int) Math.min((long) invocation.getArgument(2), content.length);
+            return new ByteArrayInputStream(content, offset, content.length - offset);
+        });
+
+        SSHSessionPool.Lease lease = mock(SSHSessionPool.Lease.class);
+        when(lease.getChannel()).thenReturn(channelMock);
+        SSHSessionPool sessionPool = mock(SSHSessionPool.class);
+        when(sessionPool.openChannel(anyString(), any(), anyLong())).thenReturn(lease);
+
+        fileSystem = new SSHFileSystem("host1", sessionPool);
+    }
+
+    private void setContent(byte[] content) {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        this.content = content;
+        when(attrsMock.getSize()).thenReturn((long) content.length);
+    }
+
+    private SSHByteChannel open(StandardOpenOption... options) throws Exception {
+        return new SSHByteChannel(fileSystem.getPath(FILE), EnumSet.of(options[0], options), fileSystem);
+    }
+
+    private byte[] read(SSHByteChannel byteChannel, int length) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (byteChannel.read(buffer) < 0) {
+                break;
+            }
+        }
+        byte[] data = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(data);
+        return data;
+    }
+
+    private byte[] expected(int offset, int length) {
+        byte[] data = new byte[length];
+        System.arraycopy(content, offset, data, 0, length);
+        return data;
+    }
+
+    @Test
+    public void testReadAdvancesThePosition() throws Exception {
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.READ)) {
+            Assert.assertEquals("Unexpected size", content.length, byteChannel.size());
+
+            Assert.assertArrayEquals("Unexpected start of the file", expected(0, 100), read(byteChannel, 100));
+            Assert.assertEquals("Unexpected position after the read", 100, byteChannel.position());
+
+            Assert.assertArrayEquals("Unexpected next bytes", expected(100, 50), read(byteChannel, 50));
+            Assert.assertEquals("Unexpected position after the second read", 150, byteChannel.position());
+        }
+        verify(channelMock, times(1)).get(eq(FILE), isNull(), anyLong());
+    }
+
+    @Test
+    public void testShortSeekForwardSkipsOnTheOpenStream() throws Exception {
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.READ)) {
+            read(byteChannel, 10);
+
+            byteChannel.position(5000);
+            Assert.assertEquals("Unexpected position after the seek", 5000, byteChannel.position());
+            byteChannel.position(6000);
+
+            Assert.assertArrayEquals("The bytes should be read from the new position", expected(6000, 20), read(byteChannel, 20));
+            Assert.assertEquals("Unexpected position after the read", 6020, byteChannel.position());
+        }
+        verify(channelMock, times(1)).get(eq(FILE), isNull(), anyLong());
+    }
+
+    @Test
+    public void testSeekBackwardOrFarForwardRestartsTheStream() throws Exception {
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.READ)) {
+            read(byteChannel, 1000);
+
+            byteChannel.position(200);
+            Assert.assertArrayEquals("The bytes should be read from the earlier position", expected(200, 10), read(byteChannel, 10));
+            verify(channelMock).get(FILE, null, 200L);
+
+            byteChannel.position(900000);
+            Assert.assertArrayEquals("The bytes should be read from the later position", expected(900000, 10), read(byteChannel, 10));
+            verify(channelMock).get(FILE, null, 900000L);
+        }
+    }
+
+    @Test
+    public void testSkipPastTheEndOfTheFile() throws Exception {
+        setContent(new byte[100]);
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.READ)) {
+            read(byteChannel, 10);
+
+            byteChannel.position(150);
+
+            Assert.assertEquals("There should be nothing to read past the end", -1, byteChannel.read(ByteBuffer.allocate(10)));
+            Assert.assertEquals("The position should not move past the end", 150, byteChannel.position());
+        }
+    }
+
+    @Test
+    public void testReadIntoADirectBuffer() throws Exception {
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+            Assert.assertEquals("Unexpected length read", 64, byteChannel.read(buffer));
+
+            byte[] data = new byte[64];
+            buffer.flip();
+            buffer.get(data);
+            Assert.assertArrayEquals("Unexpected bytes read", expected(0, 64), data);
+        }
+    }
+
+    @Test
+    public void testTruncateSetsTheSizeOfTheFile() throws Exception {
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        when(channelMock.put(FILE)).thenReturn(written);
+
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.WRITE)) {
+            byteChannel.write(ByteBuffer.wrap("0123456789".getBytes(StandardCharsets.UTF_8)));
+            Assert.assertEquals("Unexpected size after the write", 10, byteChannel.size());
+
+            byteChannel.truncate(20);
+            verify(channelMock, never()).setStat(anyString(), any());
+            Assert.assertEquals("A larger size should not change the file", 10, byteChannel.size());
+
+            byteChannel.truncate(4);
+            verify(attrsMock).setSIZE(4);
+            verify(channelMock).setStat(FILE, attrsMock);
+            Assert.assertEquals("Unexpected size after the truncate", 4, byteChannel.size());
+            Assert.assertEquals("The position should move back to the end", 4, byteChannel.position());
+        }
+        Assert.assertEquals("The written bytes should be sent before the truncate", "0123456789", written.toString("UTF-8"));
+    }
+
+    @Test
+    public void testWritesOnlyAtTheEndOfTheFile() throws Exception {
+        when(channelMock.put(FILE, ChannelSftp.APPEND)).thenReturn(new ByteArrayOutputStream());
+        when(attrsMock.getSize()).thenReturn(30L);
+
+        try (SSHByteChannel byteChannel = open(StandardOpenOption.APPEND)) {
+            Assert.assertEquals("An append should start at the end of the file", 30, byteChannel.position());
+            byteChannel.position(30);
+
+            Assert.assertThrows("The position should not move away from the end", IOException.class, () -> byteChannel.position(10));
+        }
+    }
+
+}
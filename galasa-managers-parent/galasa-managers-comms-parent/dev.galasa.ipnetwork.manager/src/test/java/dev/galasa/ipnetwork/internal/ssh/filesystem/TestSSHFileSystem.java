@@ -0,0 +1,104 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.ipnetwork.internal.ssh.filesystem;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jcraft.jsch.ChannelSftp;
+
+import dev.galasa.ipnetwork.internal.ssh.SSHSessionPool;
+
+public class TestSSHFileSystem {
+
+    private SSHSessionPool             sessionPool;
+    private final List<SSHSessionPool.Lease> leases = new ArrayList<>();
+
+    private SSHFileSystem              fileSystem;
+
+    @Before
+    public void setUp() throws Exception {
+        sessionPool = mock(SSHSessionPool.class);
+        when(sessionPool.openChannel(anyString(), any(), anyLong())).thenAnswer(invocation -> {
+            ChannelSftp channel = mock(ChannelSftp.class);
+            when(channel.isConnected()).thenReturn(true);
+            SSHSessionPool.Lease lease = mock(SSHSessionPool.Lease.class);
+            when(lease.getChannel()).thenReturn(channel);
+            when(lease.resume()).thenReturn(true);
+            leases.add(lease);
+            return lease;
+        });
+
+        fileSystem = new SSHFileSystem("host1", sessionPool);
+    }
+
+    @Test
+    public void testReleasedChannelIsReused() throws Exception {
+        ChannelSftp first = fileSystem.getFileChannel();
+        fileSystem.releaseFileChannel(first);
+
+        verify(leases.get(0)).idle();
+        verify(leases.get(0), never()).close();
+
+        ChannelSftp second = fileSystem.getFileChannel();
+
+        Assert.assertSame("The idle channel should be reused", first, second);
+        verify(leases.get(0)).resume();
+        verify(sessionPool, times(1)).openChannel(anyString(), any(), anyLong());
+    }
+
+    @Test
+    public void testChannelDisconnectedWhileIdleIsReplaced() throws Exception {
+        ChannelSftp first = fileSystem.getFileChannel();
+        fileSystem.releaseFileChannel(first);
+
+        // The session was idle for long enough to be disconnected along with the idle channel
+        when(leases.get(0).resume()).thenReturn(false);
+
+        ChannelSftp second = fileSystem.getFileChannel();
+
+        Assert.assertNotSame("A new channel should be opened", first, second);
+        verify(leases.get(0)).close();
+        verify(sessionPool, times(2)).openChannel(anyString(), any(), anyLong());
+    }
+
+    @Test
+    public void testOnlySomeChannelsAreKeptIdle() throws Exception {
+        List<ChannelSftp> channels = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            channels.add(fileSystem.getFileChannel());
+        }
+        for (ChannelSftp channel : channels) {
+            fileSystem.releaseFileChannel(channel);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            verify(leases.get(i)).idle();
+        }
+        verify(leases.get(4)).close();
+        verify(leases.get(5)).close();
+
+        fileSystem.disconnect();
+        for (int i = 0; i < 4; i++) {
+            verify(leases.get(i)).close();
+        }
+        verify(sessionPool).disconnectIdleSessions();
+    }
+
+}
@@ -55,7 +55,39 @@ public interface ITextScannable {
      * @throws TextScanException If there is an error fetching the inputstream or it is not an inputstream
      */
 	public InputStream getScannableInputStream() throws TextScanException;
-    
+
+    /**
+     * Can the inputstream scannable report its length and be read from an offset without the text before the
+     * offset being fetched. If so, checkpoints are taken from the length and scans since a checkpoint only read
+     * the text after it.
+     *
+     * @return true if {@link #getScannableLength()} and {@link #getScannableInputStream(long)} are supported
+     */
+	default boolean isScannableSeekable() {
+		return false;
+	}
+
+    /**
+     * Fetch the current length of the inputstream scannable, in bytes
+     *
+     * @return The latest length
+     * @throws TextScanException If there is an error fetching the length or the scannable is not seekable
+     */
+	default long getScannableLength() throws TextScanException {
+		throw new TextScanException("Scannable '" + getScannableName() + "' is not seekable");
+	}
+
+    /**
+     * Fetch an InputStream for the scannable that starts at an offset
+     *
+     * @param offset the number of bytes to start after
+     * @return The latest inputstream, starting at the offset
+     * @throws TextScanException If there is an error fetching the inputstream or the scannable is not seekable
+     */
+	default InputStream getScannableInputStream(long offset) throws TextScanException {
+		throw new TextScanException("Scannable '" + getScannableName() + "' is not seekable");
+	}
+
     /**
      * Fetch the latest scannable text
      * 
@@ -91,8 +91,8 @@ public interface ITextScanner {
      * Search an InputStream for regex patterns.  It will search initially search for any occurrence of the failPattern before searching for the searchPattern.
      * The search will find at least "count" number of searchPatterns in the text.
      * <br>
-     * NOTE: unlike the scannable/string scans, this method will scan the text on a line by line basis, using a BufferedReader, to prevent the JVM Heap from being exceeded.
-     * therefore you will not be able to use multiline patterns
+     * NOTE: unlike the scannable/string scans, this method will scan the text a block of lines at a time, to prevent the JVM Heap from being exceeded.
+     * therefore multiline patterns can only match text spanning up to 10 lines
      * 
      * @param inputStream The inputStream  to be searched
      * @param searchPattern The regex to search for
@@ -185,8 +185,8 @@ public interface ITextScanner {
      * Search an InputStream for regex patterns.  It will search initially search for any occurrence of the failPattern before searching for the searchPattern.
      * The search will find at least "count" number of searchPatterns in the text.
      * <br>
-     * NOTE: unlike the scannable/string scans, this method will scan the text on a line by line basis, using a BufferedReader, to prevent the JVM Heap from being exceeded.
-     * therefore you will not be able to use multiline patterns.
+     * NOTE: unlike the scannable/string scans, this method will scan the text a block of lines at a time, to prevent the JVM Heap from being exceeded.
+     * therefore multiline patterns can only match text spanning up to 10 lines.
      * <br>Useful for returning the actual value of the searchPattern or failPattern.
      * 
      * @param inputStream the inputStream being searched
@@ -0,0 +1,292 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.textscan.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scans an InputStream for search text, and optionally fail text, in a single pass.
+ * <p>
+ * The stream is read in blocks of whole lines. Each block is searched together with the last {@value #WINDOW_LINES}
+ * lines of the previous block, so a match may span up to that many lines, and a match found again in those lines is
+ * only counted once. Line terminators are normalised to a newline, as they were when the stream was read line by line.
+ */
+class InputStreamScanner {
+
+	/** The number of lines of the previous block that are searched again with the next block */
+	static final int WINDOW_LINES = 10;
+
+	static final int BLOCK_SIZE = 64 * 1024;
+
+	private final TextFinder searchFinder;
+	private final TextFinder failFinder;
+
+	/** The absolute start positions of the search matches counted in the lines that will be searched again */
+	private final Set<Long> countedStarts = new HashSet<>();
+
+	private int found;
+	private String lastMatch;
+	private String failMatch;
+
+	InputStreamScanner(TextFinder searchFinder, TextFinder failFinder) {
+		this.searchFinder = searchFinder;
+		this.failFinder = failFinder;
+	}
+
+	/**
+	 * Scan the stream until the fail text is found, the requested occurrence of the search text is found or the end of
+	 * the stream is reached. The stream is closed
+	 * @param inputStream the stream to scan
+	 * @param occurrence the occurrence of the search text to stop at, or 0 to count all occurrences
+	 * @throws IOException
+	 */
+	void scan(InputStream inputStream, int occurrence) throws IOException {
+		StringBuilder buffer = new StringBuilder(BLOCK_SIZE * 2);
+		long bufferStart = 0;
+		int searched = 0;
+		boolean afterCarriageReturn = false;
+		char[] chars = new char[BLOCK_SIZE];
+
+		try (Reader reader = new InputStreamReader(inputStream)) {
+			int read;
+			while ((read = reader.read(chars)) != -1) {
+				afterCarriageReturn = appendNormalised(buffer, chars, read, afterCarriageReturn);
+				if (buffer.length() - searched < BLOCK_SIZE) {
+					continue;
+				}
+				int end = buffer.lastIndexOf("\n") + 1;
+				if (end <= searched) {
+					// A very long line, keep reading until it ends
+					continue;
+				}
+				if (searchBlock(buffer, bufferStart, end, occurrence)) {
+					return;
+				}
+				int windowStart = windowStart(buffer, end);
+				buffer.delete(0, windowStart);
+				bufferStart += windowStart;
+				searched = end - windowStart;
+				long windowStartPosition = bufferStart;
+				this.countedStarts.removeIf(start -> start < windowStartPosition);
+			}
+		}
+
+		if (buffer.length() > searched) {
+			if (buffer.charAt(buffer.length() - 1) != '\n') {
+				buffer.append('\n');
+			}
+			searchBlock(buffer, bufferStart, buffer.length(), occurrence);
+		}
+	}
+
+	/**
+	 * @return the number of occurrences of the search text found
+	 */
+	int getFound() {
+		return this.found;
+	}
+
+	/**
+	 * @return the text of the last occurrence of the search text found, or null if none were found
+	 */
+	String getLastMatch() {
+		return this.lastMatch;
+	}
+
+	/**
+	 * @return the fail text found, or null if it was not found
+	 */
+	String getFailMatch() {
+		return this.failMatch;
+	}
+
+	/**
+	 * Search the buffer up to the end of the last complete line. As when the stream was read a line at a time, fail text
+	 * takes precedence over search text that ends on the same line
+	 * @return true if the scan is complete
+	 */
+	private boolean searchBlock(StringBuilder buffer, long bufferStart, int end, int occurrence) {
+		String blockFailMatch = null;
+		int failLineStart = Integer.MAX_VALUE;
+		if (this.failFinder != null) {
+			this.failFinder.reset(buffer, end);
+			if (this.failFinder.find()) {
+				blockFailMatch = this.failFinder.group();
+				failLineStart = lineStart(buffer, lastCharacter(this.failFinder));
+			}
+		}
+
+		this.searchFinder.reset(buffer, end);
+		while (this.searchFinder.find()) {
+			if (lastCharacter(this.searchFinder) >= failLineStart) {
+				break;
+			}
+			if (this.countedStarts.add(bufferStart + this.searchFinder.start())) {
+				this.found++;
+				this.lastMatch = this.searchFinder.group();
+				if (occurrence > 0 && this.found >= occurrence) {
+					return true;
+				}
+			}
+		}
+		this.failMatch = blockFailMatch;
+		return blockFailMatch != null;
+	}
+
+	private static boolean appendNormalised(StringBuilder buffer, char[] chars, int length, boolean afterCarriageReturn) {
+		int from = 0;
+		for (int i = 0; i < length; i++) {
+			char c = chars[i];
+			if (c == '\r') {
+				buffer.append(chars, from, i - from).append('\n');
+				from = i + 1;
+				afterCarriageReturn = true;
+			} else {
+				if (c == '\n' && afterCarriageReturn) {
+					from = i + 1;
+				}
+				afterCarriageReturn = false;
+			}
+		}
+		buffer.append(chars, from, length - from);
+		return afterCarriageReturn;
+	}
+
+	/**
+	 * Find the start of the last {@value #WINDOW_LINES} lines before the end of the searched text
+	 */
+	private static int windowStart(StringBuilder buffer, int end) {
+		int position = end - 1;
+		for (int lines = 0; lines < WINDOW_LINES && position > 0; lines++) {
+			position = buffer.lastIndexOf("\n", position - 1);
+		}
+		return position < 0 ? 0 : position + 1;
+	}
+
+	private static int lineStart(StringBuilder buffer, int position) {
+		return position == 0 ? 0 : buffer.lastIndexOf("\n", position - 1) + 1;
+	}
+
+	private static int lastCharacter(TextFinder finder) {
+		return Math.max(finder.start(), finder.end() - 1);
+	}
+
+	/**
+	 * Finds occurrences of a regex, or of literal text without the cost of a regex, in a text up to an end position
+	 */
+	abstract static class TextFinder {
+
+		abstract void reset(CharSequence text, int end);
+
+		abstract boolean find();
+
+		abstract int start();
+
+		abstract int end();
+
+		abstract String group();
+
+		static TextFinder forPattern(Pattern pattern) {
+			return new PatternFinder(pattern);
+		}
+
+		static TextFinder forLiteral(String literal) {
+			return new LiteralFinder(literal);
+		}
+	}
+
+	private static class PatternFinder extends TextFinder {
+		private final Pattern pattern;
+		private Matcher matcher;
+
+		private PatternFinder(Pattern pattern) {
+			this.pattern = pattern;
+		}
+
+		@Override
+		void reset(CharSequence text, int end) {
+			this.matcher = this.pattern.matcher(text).region(0, end);
+		}
+
+		@Override
+		boolean find() {
+			return this.matcher.find();
+		}
+
+		@Override
+		int start() {
+			return this.matcher.start();
+		}
+
+		@Override
+		int end() {
+			return this.matcher.end();
+		}
+
+		@Override
+		String group() {
+			return this.matcher.group();
+		}
+	}
+
+	private static class LiteralFinder extends TextFinder {
+		private final String literal;
+		private StringBuilder text;
+		private int end;
+		private int next;
+		private int start = -1;
+
+		private LiteralFinder(String literal) {
+			this.literal = literal;
+		}
+
+		@Override
+		void reset(CharSequence text, int end) {
+			this.text = text instanceof StringBuilder ? (StringBuilder) text : new StringBuilder(text);
+			this.end = end;
+			this.next = 0;
+			this.start = -1;
+		}
+
+		@Override
+		boolean find() {
+			if (this.next > this.end) {
+				return false;
+			}
+			int index = this.text.indexOf(this.literal, this.next);
+			if (index < 0 || index + this.literal.length() > this.end) {
+				this.next = this.end + 1;
+				return false;
+			}
+			this.start = index;
+			// Matches do not overlap, as with a regex. An empty literal matches at every position
+			this.next = index + Math.max(this.literal.length(), 1);
+			return true;
+		}
+
+		@Override
+		int start() {
+			return this.start;
+		}
+
+		@Override
+		int end() {
+			return this.start + this.literal.length();
+		}
+
+		@Override
+		String group() {
+			return this.literal;
+		}
+	}
+}
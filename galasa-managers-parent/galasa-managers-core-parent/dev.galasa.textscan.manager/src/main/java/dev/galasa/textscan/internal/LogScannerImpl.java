@@ -6,6 +6,7 @@
 package dev.galasa.textscan.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
@@ -61,8 +62,14 @@ public class LogScannerImpl implements ILogScanner {
     	checkScannableNoNull();
     	if (this.scannable.isScannableInputStream()) {
     		try {
-				byte[] bytes = IOUtils.toByteArray(this.scannable.getScannableInputStream());
-				this.checkpoint = bytes.length;
+    			if (this.scannable.isScannableSeekable()) {
+    				this.checkpoint = this.scannable.getScannableLength();
+    			} else {
+    				// Count the bytes rather than holding the whole log in memory
+    				try (InputStream inputStream = this.scannable.getScannableInputStream()) {
+    					this.checkpoint = IOUtils.consume(inputStream);
+    				}
+    			}
 			} catch (IOException e) {
 	    		throw new TextScanException("Unable to checkpoint scannable '" + this.scannableName + QUOTE, e);
 			}
@@ -97,8 +104,7 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			this.textScanner.scan(this.scannable.getScannableInputStream(), searchPattern, failPattern, count);
+    			this.textScanner.scan(inputStreamSinceCheckpoint(), searchPattern, failPattern, count);
     		} else if (this.scannable.isScannableString()) {
     			this.textScanner.scan(this.scannable.getScannableString().substring((int) this.checkpoint), searchPattern, failPattern, count);
     		} else {
@@ -121,8 +127,7 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			this.textScanner.scan(this.scannable.getScannableInputStream(), searchString, failString, count);
+    			this.textScanner.scan(inputStreamSinceCheckpoint(), searchString, failString, count);
     		} else if (this.scannable.isScannableString()) {
     			this.textScanner.scan(this.scannable.getScannableString().substring((int) this.checkpoint), searchString, failString, count);
     		} else {
@@ -145,8 +150,7 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			return this.textScanner.scanForMatch(this.scannable.getScannableInputStream(), searchPattern, failPattern, occurrance);
+    			return this.textScanner.scanForMatch(inputStreamSinceCheckpoint(), searchPattern, failPattern, occurrance);
     		} else if (this.scannable.isScannableString()) {
     			return this.textScanner.scanForMatch(this.scannable.getScannableString().substring((int) this.checkpoint), searchPattern, failPattern, occurrance);
     		} else {
@@ -166,8 +170,7 @@ public class LogScannerImpl implements ILogScanner {
     	checkIsCheckpointed();
     	try {
     		if (this.scannable.isScannableInputStream()) {
-    			skipToCheckpoint();
-    			return this.textScanner.scanForMatch(this.scannable.getScannableInputStream(), searchString, failString, occurrance);
+    			return this.textScanner.scanForMatch(inputStreamSinceCheckpoint(), searchString, failString, occurrance);
     		} else if (this.scannable.isScannableString()) {
     			return this.textScanner.scanForMatch(this.scannable.getScannableString().substring((int) this.checkpoint), searchString, failString, occurrance);
     		} else {
@@ -287,18 +290,29 @@ public class LogScannerImpl implements ILogScanner {
 		}
 	}
 
-	protected void skipToCheckpoint() throws TextScanException {
+	/**
+	 * Get an InputStream of the text since the checkpoint. A seekable scannable is read from the checkpoint,
+	 * otherwise the latest InputStream is fetched and the text before the checkpoint is skipped
+	 */
+	protected InputStream inputStreamSinceCheckpoint() throws TextScanException {
 		if (getCheckpoint() == -1) {
 			logger.warn("Log '" + this.scannableName + "' has not been checkpointed");
-			return;
+			return this.scannable.getScannableInputStream();
+		}
+		if (this.scannable.isScannableSeekable()) {
+			return this.scannable.getScannableInputStream(this.checkpoint);
 		}
+		InputStream inputStream = null;
 		try {
 			this.scannable.updateScannable();
-			long skipped = this.scannable.getScannableInputStream().skip(this.checkpoint);
+			inputStream = this.scannable.getScannableInputStream();
+			long skipped = IOUtils.skip(inputStream, this.checkpoint);
 			if (skipped != this.checkpoint) {
 				throw new IOException("Failed to skip " + checkpoint + " bytes. Actual bytes skipped " + skipped);
 			}
+			return inputStream;
 		} catch (IOException e) {
+			IOUtils.closeQuietly(inputStream);
 			throw new TextScanException("Unable to skip to checkpoint of scannable '" + this.scannableName + QUOTE, e);
 		}
 	}
@@ -5,12 +5,8 @@
  */
 package dev.galasa.textscan.internal;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -20,6 +16,7 @@ import dev.galasa.textscan.ITextScanner;
 import dev.galasa.textscan.IncorrectOccurrencesException;
 import dev.galasa.textscan.MissingTextException;
 import dev.galasa.textscan.TextScanException;
+import dev.galasa.textscan.internal.InputStreamScanner.TextFinder;
 
 public class TextScannerImpl implements ITextScanner {	
 
@@ -110,71 +107,19 @@ public class TextScannerImpl implements ITextScanner {
 
 	@Override
 	public ITextScanner scan(InputStream inputStream, Pattern searchPattern, Pattern failPattern, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
-
-		if (count < 1) {
-			throw new TextScanException(MSG_INVALID_COUNT);
-		}
-
-		ArrayList<Integer> foundPatternStartPositions = new ArrayList<>();
-		LinkedList<String> buffer = new LinkedList<>();
-
-		int offset = 0;
-
-		try (BufferedReader reader = new BufferedReader (new InputStreamReader(inputStream))){
-			String line = "";
-			while ((line = reader.readLine()) != null) {
-				buffer.add(line);
-				if (buffer.size() > 10) {
-					offset = offset + buffer.remove(0).length() + 1;
-				}
-
-				// Build a String from the current buffer
-				StringBuilder sb = new StringBuilder();
-				for (String queueLine : buffer) {
-					sb.append(queueLine);
-					sb.append("\n");
-				}
-
-				String currentBuffer = sb.toString();
-
-				if (failPattern != null && failPattern.matcher(currentBuffer).find()) {
-					throw new FailTextFoundException(String.format(MSG_FAIL_FOUND, PATTERN, failPattern));
-				}
-
-				Matcher m = searchPattern.matcher(currentBuffer);
-				while (m.find()) {
-
-					int stp = m.start() + offset;
-					if (!foundPatternStartPositions.contains(stp)) {
-						foundPatternStartPositions.add(stp);
-
-					}
-				}
-			}
-			if (foundPatternStartPositions.size() >= count) {
-				return this;
-			}
-		} catch (IOException e) {
-			throw new TextScanException("Problem in InputStream scan", e);
-		}
-
-		if(foundPatternStartPositions.isEmpty()) {
-			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, PATTERN, searchPattern));
-		}
-		throw new IncorrectOccurrencesException(String.format(MSG_EXPECTING_BUT_FOUND, count, PATTERN, searchPattern, foundPatternStartPositions.size()));
+		return scanInputStream(inputStream, TextFinder.forPattern(searchPattern), failPattern == null ? null : TextFinder.forPattern(failPattern), searchPattern, failPattern, count);
 	}
 
 	@Override
 	public ITextScanner scan(InputStream inputStream, String searchString, String failString, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
 
-		Pattern p = Pattern.compile("\\Q" + searchString + "\\E");
-		Pattern fp = null;
+		TextFinder failFinder = null;
 		if (failString != null) {
-			fp = Pattern.compile("\\Q" + failString + "\\E");
+			failFinder = TextFinder.forLiteral(failString);
 		}
 		ITextScanner textScanner;
 		try {
-			textScanner = scan(inputStream,p,fp,count);
+			textScanner = scanInputStream(inputStream, TextFinder.forLiteral(searchString), failFinder, searchString, failString, count);
 		} catch (FailTextFoundException e) {
 			throw new FailTextFoundException(String.format(MSG_FAIL_FOUND, STRING, failString), e);
 		} catch (MissingTextException e) {
@@ -262,75 +207,18 @@ public class TextScannerImpl implements ITextScanner {
 
 	@Override
 	public String scanForMatch(InputStream inputStream, Pattern searchPattern, Pattern failPattern, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
-
-		if (occurrence < 1) {
-			throw new TextScanException(MSG_INVALID_COUNT);
-		}
-
-		ArrayList<Integer> foundPatternStartPositions = new ArrayList<>();
-		LinkedList<String> buffer = new LinkedList<>();
-
-		int offset = 0;
-		String foundString = "";
-
-		try (BufferedReader  reader = new BufferedReader (new InputStreamReader(inputStream))) {
-			String line = "";
-			while ((line =reader.readLine()) != null) {
-				buffer.add(line);
-				if (buffer.size() > 10) {
-					offset = offset + buffer.remove(0).length() + 1;
-				}
-
-				// Build a String from the current buffer
-				StringBuilder sb = new StringBuilder();
-				for (String queueLine : buffer) {
-					sb.append(queueLine);
-					sb.append("\n");
-				}
-
-				String currentBuffer = sb.toString();
-
-				if (failPattern != null) {
-					Matcher fm = failPattern.matcher(currentBuffer);
-					if (fm.find()) {
-						return fm.group(); 
-					}
-				}
-				
-				Matcher m = searchPattern.matcher(currentBuffer);
-
-				while (m.find()) {
-
-					int stp = m.start() + offset;
-					if (!foundPatternStartPositions.contains(stp)) {
-						foundPatternStartPositions.add(stp);
-						foundString = m.group();
-					} 
-					if (foundPatternStartPositions.size() >= occurrence) {
-						return foundString;
-					}
-				}
-			}
-
-		} catch (IOException e) {
-			throw new TextScanException("Problem in InputStream scan", e);
-		}
-		if(foundPatternStartPositions.isEmpty()) {
-			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, PATTERN, searchPattern));
-		}
-		throw new IncorrectOccurrencesException(String.format(MSG_UNABLE_TO_FIND_OCCURRENCE, occurrence, searchPattern, foundPatternStartPositions.size()));
+		return scanForMatchInputStream(inputStream, TextFinder.forPattern(searchPattern), failPattern == null ? null : TextFinder.forPattern(failPattern), searchPattern, occurrence);
 	}
 
 	@Override
 	public String scanForMatch(InputStream inputStream, String searchString, String failString, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
-		Pattern p = Pattern.compile("\\Q" + searchString + "\\E");
-		Pattern fp = null;
+		TextFinder failFinder = null;
 		if (failString != null) {
-			fp = Pattern.compile("\\Q" + failString + "\\E");
+			failFinder = TextFinder.forLiteral(failString);
 		}
 		String match;
 		try {
-			match = scanForMatch(inputStream, p, fp, occurrence);
+			match = scanForMatchInputStream(inputStream, TextFinder.forLiteral(searchString), failFinder, searchString, occurrence);
 		} catch (MissingTextException e) {
 			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, STRING, searchString), e);
 		} catch (IncorrectOccurrencesException e) {
@@ -340,4 +228,55 @@ public class TextScannerImpl implements ITextScanner {
 		return match;
 	}
 
+	private ITextScanner scanInputStream(InputStream inputStream, TextFinder searchFinder, TextFinder failFinder, Object searchText, Object failText, int count) throws FailTextFoundException, MissingTextException, IncorrectOccurrencesException, TextScanException {
+
+		if (count < 1) {
+			throw new TextScanException(MSG_INVALID_COUNT);
+		}
+
+		// The whole stream is scanned so that fail text anywhere in it is found
+		InputStreamScanner scanner = scanInputStream(inputStream, searchFinder, failFinder, 0);
+
+		if (scanner.getFailMatch() != null) {
+			throw new FailTextFoundException(String.format(MSG_FAIL_FOUND, PATTERN, failText));
+		}
+		if (scanner.getFound() >= count) {
+			return this;
+		}
+		if (scanner.getFound() == 0) {
+			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, PATTERN, searchText));
+		}
+		throw new IncorrectOccurrencesException(String.format(MSG_EXPECTING_BUT_FOUND, count, PATTERN, searchText, scanner.getFound()));
+	}
+
+	private String scanForMatchInputStream(InputStream inputStream, TextFinder searchFinder, TextFinder failFinder, Object searchText, int occurrence) throws MissingTextException, IncorrectOccurrencesException, TextScanException {
+
+		if (occurrence < 1) {
+			throw new TextScanException(MSG_INVALID_COUNT);
+		}
+
+		InputStreamScanner scanner = scanInputStream(inputStream, searchFinder, failFinder, occurrence);
+
+		if (scanner.getFailMatch() != null) {
+			return scanner.getFailMatch();
+		}
+		if (scanner.getFound() >= occurrence) {
+			return scanner.getLastMatch();
+		}
+		if (scanner.getFound() == 0) {
+			throw new MissingTextException(String.format(MSG_SEARCH_NOT_FOUND, PATTERN, searchText));
+		}
+		throw new IncorrectOccurrencesException(String.format(MSG_UNABLE_TO_FIND_OCCURRENCE, occurrence, searchText, scanner.getFound()));
+	}
+
+	private InputStreamScanner scanInputStream(InputStream inputStream, TextFinder searchFinder, TextFinder failFinder, int occurrence) throws TextScanException {
+		InputStreamScanner scanner = new InputStreamScanner(searchFinder, failFinder);
+		try {
+			scanner.scan(inputStream, occurrence);
+		} catch (IOException e) {
+			throw new TextScanException("Problem in InputStream scan", e);
+		}
+		return scanner;
+	}
+
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.textscan.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import dev.galasa.textscan.internal.InputStreamScanner.TextFinder;
+
+public class TestInputStreamScanner {
+
+	private InputStreamScanner scan(String text, TextFinder searchFinder, TextFinder failFinder, int occurrence) throws IOException {
+		InputStreamScanner scanner = new InputStreamScanner(searchFinder, failFinder);
+		scanner.scan(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), occurrence);
+		return scanner;
+	}
+
+	@Test
+	public void testMultilineMatchesAcrossBlocksCountedOnce() throws IOException {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; text.length() < InputStreamScanner.BLOCK_SIZE * 4; i++) {
+			text.append("Line ").append(i).append('\n');
+		}
+		Pattern pattern = Pattern.compile("7\nLine \\d+\nLine");
+		int expected = 0;
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find()) {
+			expected++;
+		}
+
+		InputStreamScanner scanner = scan(text.toString(), TextFinder.forPattern(pattern), null, 0);
+		assertEquals("Every match should be found once, including those spanning blocks", expected, scanner.getFound());
+		assertNull(scanner.getFailMatch());
+	}
+
+	@Test
+	public void testLineTerminatorsNormalised() throws IOException {
+		InputStreamScanner scanner = scan("one\r\ntwo\rthree\nfour", TextFinder.forPattern(Pattern.compile("one\ntwo\nthree\nfour\n")), null, 0);
+		assertEquals(1, scanner.getFound());
+	}
+
+	@Test
+	public void testLiteralWithRegexCharacters() throws IOException {
+		InputStreamScanner scanner = scan("a.b(c) \\E axb(c)\na.b(c)\n", TextFinder.forLiteral("a.b(c)"), TextFinder.forLiteral("\\Ex"), 0);
+		assertEquals("Only the literal text should match", 2, scanner.getFound());
+		assertNull("The literal fail text should not be found", scanner.getFailMatch());
+	}
+
+	@Test
+	public void testOccurrenceFoundBeforeFailLine() throws IOException {
+		InputStreamScanner scanner = scan("match\nmatch\nfail\nmatch\n", TextFinder.forLiteral("match"), TextFinder.forLiteral("fail"), 2);
+		assertEquals("match", scanner.getLastMatch());
+		assertNull(scanner.getFailMatch());
+
+		scanner = scan("match\nfail match\nmatch\n", TextFinder.forLiteral("match"), TextFinder.forLiteral("fail"), 2);
+		assertEquals("Fail text should win over search text on the same line", "fail", scanner.getFailMatch());
+		assertEquals(1, scanner.getFound());
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.textscan.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import dev.galasa.textscan.ITextScannable;
+import dev.galasa.textscan.IncorrectOccurrencesException;
+import dev.galasa.textscan.MissingTextException;
+import dev.galasa.textscan.TextScanException;
+
+public class TestLogScannerImplCheckpoint {
+
+	@Test
+	public void testScanSinceCheckpointSeekable() throws TextScanException, MissingTextException, IncorrectOccurrencesException {
+		checkScanSinceCheckpoint(new GrowingLog(true));
+	}
+
+	@Test
+	public void testScanSinceCheckpointNotSeekable() throws TextScanException, MissingTextException, IncorrectOccurrencesException {
+		checkScanSinceCheckpoint(new GrowingLog(false));
+	}
+
+	private void checkScanSinceCheckpoint(GrowingLog log) throws TextScanException, MissingTextException, IncorrectOccurrencesException {
+		log.append("ERROR before checkpoint\n");
+		LogScannerImpl logScanner = new LogScannerImpl();
+		logScanner.setScannable(log);
+
+		logScanner.checkpoint();
+		assertEquals(log.text.length(), logScanner.getCheckpoint());
+
+		log.append("INFO after checkpoint\n");
+		assertEquals("INFO", logScanner.scanForMatchSinceCheckpoint("INFO", "ERROR", 1));
+		assertEquals(log.seekable ? 0 : 2, log.fullReads);
+	}
+
+	private static class GrowingLog implements ITextScannable {
+		private final boolean seekable;
+		private final StringBuilder text = new StringBuilder();
+		private int fullReads;
+
+		private GrowingLog(boolean seekable) {
+			this.seekable = seekable;
+		}
+
+		private void append(String line) {
+			this.text.append(line);
+		}
+
+		@Override
+		public boolean isScannableInputStream() {
+			return true;
+		}
+
+		@Override
+		public boolean isScannableString() {
+			return false;
+		}
+
+		@Override
+		public String getScannableName() {
+			return "GrowingLog";
+		}
+
+		@Override
+		public ITextScannable updateScannable() {
+			return this;
+		}
+
+		@Override
+		public InputStream getScannableInputStream() {
+			this.fullReads++;
+			return getScannableInputStream(0);
+		}
+
+		@Override
+		public boolean isScannableSeekable() {
+			return this.seekable;
+		}
+
+		@Override
+		public long getScannableLength() {
+			return this.text.length();
+		}
+
+		@Override
+		public InputStream getScannableInputStream(long offset) {
+			return new ByteArrayInputStream(this.text.substring((int) offset).getBytes(StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public String getScannableString() {
+			return null;
+		}
+	}
+}
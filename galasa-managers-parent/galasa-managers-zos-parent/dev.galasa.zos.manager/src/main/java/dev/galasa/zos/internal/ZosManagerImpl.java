@@ -79,6 +79,7 @@ import dev.galasa.zosbatch.internal.ZosBatchJobOutputSpoolFileImpl;
 import dev.galasa.zosbatch.internal.ZosBatchJobnameImpl;
 import dev.galasa.zosbatch.internal.properties.BatchRestrictToImage;
 import dev.galasa.zosbatch.internal.properties.JobWaitTimeout;
+import dev.galasa.zosbatch.internal.properties.SpoolRetrievalLimit;
 import dev.galasa.zosbatch.internal.properties.TruncateJCLRecords;
 import dev.galasa.zosbatch.internal.properties.UseSysaff;
 import dev.galasa.zosbatch.internal.properties.ZosBatchPropertiesSingleton;
@@ -582,6 +583,11 @@ public class ZosManagerImpl extends AbstractManager implements IZosManagerSpi {
         return JobWaitTimeout.get(imageId);
     }
 
+    @Override
+    public int getZosBatchPropertySpoolRetrievalLimit(String imageId) throws ZosBatchManagerException {
+        return SpoolRetrievalLimit.get(imageId);
+    }
+
     @Override
     public boolean getZosBatchPropertyTruncateJCLRecords(String imageId) throws ZosBatchManagerException {
         return TruncateJCLRecords.get(imageId);
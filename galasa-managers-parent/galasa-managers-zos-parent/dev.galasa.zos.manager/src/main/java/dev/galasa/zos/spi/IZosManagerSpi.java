@@ -104,6 +104,14 @@ public interface IZosManagerSpi extends IZosManager {
 	 */
 	int getZosBatchPropertyJobWaitTimeout(String imageId) throws ZosBatchManagerException;
 
+	/**
+	 * Provides other managers to the zOS Batch {@code zosbatch.batchjob.[imageid].spool.retrieval.limit} property
+	 * @param imageId
+	 * @return
+	 * @throws ZosBatchManagerException
+	 */
+	int getZosBatchPropertySpoolRetrievalLimit(String imageId) throws ZosBatchManagerException;
+
 	/**
 	 * Provides other managers to the zOS Batch {@code zosbatch.batchjob.[imageid].truncate.jcl.records} property
 	 * @param imageId
@@ -5,7 +5,9 @@
  */
 package dev.galasa.zosbatch;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -49,4 +51,27 @@ public interface IZosBatch {
      * @throws ZosBatchException 
      */
     public List<IZosBatchJob> getJobs(String jobname, String owner) throws ZosBatchException;
+
+    /**
+     * Wait for a number of jobs to complete. The method will wait for the default resource wait time before timing out. 
+     * The jobs are waited for together, so the overall wait is no longer than the timeout. 
+     * 
+     * @param jobs - the {@link IZosBatchJob}s submitted by this manager to wait for
+     * @return a {@link Map} of each job to its highest CC. The CC is {@link Integer#MIN_VALUE} if the job did not complete 
+     * in time or the return code is non numeric. Use {@link IZosBatchJob#getRetcode()} to get the {@link String} value
+     * @throws ZosBatchException
+     */
+    public Map<IZosBatchJob, Integer> waitForJobs(@NotNull Collection<IZosBatchJob> jobs) throws ZosBatchException;
+
+    /**
+     * Wait for a number of jobs to complete. The jobs are waited for together, so the overall wait is no longer than 
+     * the timeout. 
+     * 
+     * @param jobs - the {@link IZosBatchJob}s submitted by this manager to wait for
+     * @param timeout - in seconds
+     * @return a {@link Map} of each job to its highest CC. The CC is {@link Integer#MIN_VALUE} if the job did not complete 
+     * in time or the return code is non numeric. Use {@link IZosBatchJob#getRetcode()} to get the {@link String} value
+     * @throws ZosBatchException
+     */
+    public Map<IZosBatchJob, Integer> waitForJobs(@NotNull Collection<IZosBatchJob> jobs, long timeout) throws ZosBatchException;
 }
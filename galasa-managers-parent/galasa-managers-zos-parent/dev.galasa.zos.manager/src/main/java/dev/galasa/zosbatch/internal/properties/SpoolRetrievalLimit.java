@@ -0,0 +1,54 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.internal.properties;
+
+import dev.galasa.zosbatch.ZosBatchManagerException;
+import dev.galasa.framework.spi.ConfigurationPropertyStoreException;
+import dev.galasa.framework.spi.cps.CpsProperties;
+
+/**
+ * zOS Batch job spool retrieval limit
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zosbatch.batchjob.[imageid].spool.retrieval.limit
+ * 
+ * @galasa.description The maximum number of spool files retrieved at the same time from the zOS image, across all jobs in the test run
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 4
+ * 
+ * @galasa.valid_values 1 to {@link Integer#MAX_VALUE}
+ * 
+ * @galasa.examples 
+ * <code>zosbatch.batchjob.MVSA.spool.retrieval.limit=8</code><br>
+ * <code>zosbatch.batchjob.default.spool.retrieval.limit=1</code>
+ *
+ */
+public class SpoolRetrievalLimit extends CpsProperties {
+
+    private static final int DEFAULT_SPOOL_RETRIEVAL_LIMIT = 4;
+
+    public static int get(String imageId) throws ZosBatchManagerException {
+        try {
+            String limitString = getStringNulled(ZosBatchPropertiesSingleton.cps(), "batchjob", "spool.retrieval.limit", imageId);
+
+            if (limitString == null) {
+                return DEFAULT_SPOOL_RETRIEVAL_LIMIT;
+            } else {
+                int limit = Integer.parseInt(limitString);
+                if (limit < 1) {
+                    throw new ZosBatchManagerException("Batch job spool retrieval limit property must be a positive integer");
+                }
+                return limit;
+            }
+        } catch (ConfigurationPropertyStoreException | NumberFormatException e) {
+            throw new ZosBatchManagerException("Problem asking the CPS for the batch job spool retrieval limit property for zOS image "  + imageId, e);
+        }
+    }
+
+}
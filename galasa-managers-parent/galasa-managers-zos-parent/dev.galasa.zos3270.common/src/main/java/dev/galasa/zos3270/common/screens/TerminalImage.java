@@ -32,6 +32,8 @@ public class TerminalImage {
     private final String              aid;
     private final List<TerminalField> fields = new ArrayList<>();
 
+    private List<Integer>             retainedFields;
+
     /**
      * Constructor
      * 
@@ -103,6 +105,30 @@ public class TerminalImage {
         return fields;
     }
 
+    /**
+     * Is this a delta image, holding only the fields that changed from the previous image of the terminal. Use
+     * {@link TerminalImageDeltas#decode(Terminal)} to reconstruct the full images.
+     * 
+     * @return delta
+     */
+    public boolean isDelta() {
+        return retainedFields != null;
+    }
+
+    /**
+     * Fetch the fields of a delta image, in screen order. Each entry is the index of the field in the previous
+     * image that is unchanged, or -1 for the next field from {@link #getFields()}.
+     * 
+     * @return the retained fields, null if this is a full image
+     */
+    public List<Integer> getRetainedFields() {
+        return retainedFields;
+    }
+
+    void setRetainedFields(List<Integer> retainedFields) {
+        this.retainedFields = retainedFields;
+    }
+
     /**
      * Fetch the AID if outbound
      * 
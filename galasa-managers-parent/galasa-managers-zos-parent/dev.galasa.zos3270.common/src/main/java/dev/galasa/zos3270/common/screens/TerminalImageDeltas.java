@@ -0,0 +1,178 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.common.screens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Converts the images of a terminal to and from the compact delta format.
+ *
+ * In the delta format the first image of each terminal pojo is a full image, a keyframe, and the following images
+ * only hold the fields that changed from the image before, so each pojo can still be read on its own. An image
+ * is kept in full if the size of the screen changes or none of its fields are unchanged.
+ *
+ *
+ *
+ */
+public class TerminalImageDeltas {
+
+    private TerminalImageDeltas() {
+    }
+
+    /**
+     * Create a copy of the terminal with the images delta encoded
+     *
+     * @param terminal terminal with full images
+     * @return the encoded terminal
+     */
+    public static @NotNull Terminal encode(@NotNull Terminal terminal) {
+        Terminal encoded = new Terminal(terminal.getId(), terminal.getRunId(), terminal.getSequence(),
+                terminal.getDefaultSize());
+
+        TerminalImage previous = null;
+        for (TerminalImage image : terminal.getImages()) {
+            encoded.addImage(encodeImage(previous, image));
+            previous = image;
+        }
+
+        return encoded;
+    }
+
+    /**
+     * Create a copy of the terminal with the delta images reconstructed as full images. Terminals without delta
+     * images are returned as is.
+     *
+     * @param terminal terminal that may contain delta images
+     * @return the terminal with full images
+     */
+    public static @NotNull Terminal decode(@NotNull Terminal terminal) {
+        boolean containsDelta = false;
+        for (TerminalImage image : terminal.getImages()) {
+            if (image.isDelta()) {
+                containsDelta = true;
+                break;
+            }
+        }
+        if (!containsDelta) {
+            return terminal;
+        }
+
+        Terminal decoded = new Terminal(terminal.getId(), terminal.getRunId(), terminal.getSequence(),
+                terminal.getDefaultSize());
+
+        TerminalImage previous = null;
+        for (TerminalImage image : terminal.getImages()) {
+            TerminalImage full = decodeImage(previous, image);
+            decoded.addImage(full);
+            previous = full;
+        }
+
+        return decoded;
+    }
+
+    private static TerminalImage encodeImage(TerminalImage previous, TerminalImage image) {
+        if (previous == null || !sameSize(previous.getImageSize(), image.getImageSize())) {
+            return image;
+        }
+
+        HashMap<Long, Integer> previousFields = new HashMap<>();
+        for (int i = 0; i < previous.getFields().size(); i++) {
+            TerminalField field = previous.getFields().get(i);
+            previousFields.put(position(field), i);
+        }
+
+        TerminalImage delta = copyImage(image);
+        List<Integer> retainedFields = new ArrayList<>(image.getFields().size());
+        boolean retainedAny = false;
+        for (TerminalField field : image.getFields()) {
+            Integer previousIndex = previousFields.get(position(field));
+            if (previousIndex != null && sameField(previous.getFields().get(previousIndex), field)) {
+                retainedFields.add(previousIndex);
+                retainedAny = true;
+            } else {
+                retainedFields.add(-1);
+                delta.getFields().add(field);
+            }
+        }
+
+        if (!retainedAny) {
+            return image;
+        }
+
+        delta.setRetainedFields(retainedFields);
+        return delta;
+    }
+
+    private static TerminalImage decodeImage(TerminalImage previous, TerminalImage image) {
+        if (!image.isDelta()) {
+            return image;
+        }
+        if (previous == null) {
+            throw new IllegalArgumentException("Delta image " + image.getId() + " does not follow a full image");
+        }
+
+        TerminalImage full = copyImage(image);
+        int nextChanged = 0;
+        for (Integer previousIndex : image.getRetainedFields()) {
+            if (previousIndex < 0) {
+                full.getFields().add(image.getFields().get(nextChanged++));
+            } else {
+                full.getFields().add(previous.getFields().get(previousIndex));
+            }
+        }
+
+        return full;
+    }
+
+    private static TerminalImage copyImage(TerminalImage image) {
+        return new TerminalImage(image.getSequence(), image.getId(), image.isInbound(), image.getType(),
+                image.getAid(), image.getImageSize(), image.getCursorColumn(), image.getCursorRow());
+    }
+
+    private static long position(TerminalField field) {
+        return ((long) field.getRow() << 32) | (field.getColumn() & 0xffffffffL);
+    }
+
+    private static boolean sameSize(TerminalSize size1, TerminalSize size2) {
+        if (size1 == null || size2 == null) {
+            return size1 == size2;
+        }
+        return size1.getColumns() == size2.getColumns() && size1.getRows() == size2.getRows();
+    }
+
+    private static boolean sameField(TerminalField field1, TerminalField field2) {
+        if (field1.getRow() != field2.getRow()
+                || field1.getColumn() != field2.getColumn()
+                || field1.isUnformatted() != field2.isUnformatted()
+                || field1.isFieldProtected() != field2.isFieldProtected()
+                || field1.isFieldNumeric() != field2.isFieldNumeric()
+                || field1.isFieldDisplay() != field2.isFieldDisplay()
+                || field1.isFieldIntenseDisplay() != field2.isFieldIntenseDisplay()
+                || field1.isFieldSelectorPen() != field2.isFieldSelectorPen()
+                || field1.isFieldModifed() != field2.isFieldModifed()
+                || !Objects.equals(field1.getForegroundColour(), field2.getForegroundColour())
+                || !Objects.equals(field1.getBackgroundColour(), field2.getBackgroundColour())
+                || !Objects.equals(field1.getHighlight(), field2.getHighlight())
+                || field1.getContents().size() != field2.getContents().size()) {
+            return false;
+        }
+
+        for (int i = 0; i < field1.getContents().size(); i++) {
+            if (!Arrays.equals(field1.getContents().get(i).getChars(), field2.getContents().get(i).getChars())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+}
@@ -11,6 +11,7 @@ import com.google.gson.JsonObject;
 
 import dev.galasa.framework.spi.utils.GalasaGsonBuilder;
 import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltas;
 
 /**
  * Handles the writing of a terminal into a json string or json object.
@@ -34,7 +35,24 @@ public class TerminalJsonTransform {
         return jsonString;
     }
 
+    /**
+     * Write the terminal with the images delta encoded, see {@link TerminalImageDeltas}
+     */
+    public String toDeltaJsonString(Terminal terminal) {
+        return toJsonString(TerminalImageDeltas.encode(terminal));
+    }
+
+    /**
+     * Read a terminal in either the full or the delta format, the images are always returned in full
+     */
     public Terminal toTerminal(String tempJson) {
+        return TerminalImageDeltas.decode(toStoredTerminal(tempJson));
+    }
+
+    /**
+     * Read a terminal without reconstructing any delta images
+     */
+    public Terminal toStoredTerminal(String tempJson) {
         return gson.fromJson(tempJson, Terminal.class);
     }
 }
@@ -106,4 +106,75 @@ public class TerminalJsonTransformTest {
         assertThat(testContents.getChars()).isEqualTo(data);
     }
 
+    /**
+     * Check that delta encoded images are written with only the changed fields and read back in full
+     */
+    @Test
+    public void testWriteAndReadDeltaJson() {
+        TerminalSize size = new TerminalSize(80, 24);
+        Terminal terminal = new Terminal("bob", "eeek", 1, size);
+
+        TerminalImage image1 = new TerminalImage(1, "bob-1", true, null, null, size, 0, 0);
+        image1.getFields().add(createField(0, 0, "Title"));
+        image1.getFields().add(createField(1, 0, "Line 1"));
+        image1.getFields().add(createField(2, 0, "Line 2"));
+        terminal.addImage(image1);
+
+        TerminalImage image2 = new TerminalImage(2, "bob-2", false, null, "ENTER", size, 5, 1);
+        image2.getFields().add(createField(0, 0, "Title"));
+        image2.getFields().add(createField(1, 0, "Changed"));
+        image2.getFields().add(createField(2, 0, "Line 2"));
+        image2.getFields().add(createField(3, 0, "New"));
+        terminal.addImage(image2);
+
+        TerminalImage image3 = new TerminalImage(3, "bob-3", true, null, null, new TerminalSize(132, 27), 0, 0);
+        image3.getFields().add(createField(0, 0, "Title"));
+        terminal.addImage(image3);
+
+        TerminalJsonTransform transform = new TerminalJsonTransform(false);
+
+        String deltaJson = transform.toDeltaJsonString(terminal);
+        assertThat(deltaJson.length()).isLessThan(transform.toJsonString(terminal).length());
+
+        Terminal storedTerminal = transform.toStoredTerminal(deltaJson);
+        assertThat(storedTerminal.getImages().get(0).isDelta()).as("the first image is a keyframe").isFalse();
+        assertThat(storedTerminal.getImages().get(1).isDelta()).isTrue();
+        assertThat(storedTerminal.getImages().get(1).getFields().size()).isEqualTo(2);
+        assertThat(storedTerminal.getImages().get(1).getRetainedFields()).containsExactly(0, -1, 2, -1);
+        assertThat(storedTerminal.getImages().get(2).isDelta()).as("the screen size changed").isFalse();
+
+        Terminal testTerminal = transform.toTerminal(deltaJson);
+        assertThat(testTerminal.getImages().size()).isEqualTo(3);
+        for (int i = 0; i < terminal.getImages().size(); i++) {
+            TerminalImage expected = terminal.getImages().get(i);
+            TerminalImage testImage = testTerminal.getImages().get(i);
+
+            assertThat(testImage.isDelta()).isFalse();
+            assertThat(testImage.getId()).isEqualTo(expected.getId());
+            assertThat(testImage.isInbound()).isEqualTo(expected.isInbound());
+            assertThat(testImage.getAid()).isEqualTo(expected.getAid());
+            assertThat(testImage.getCursorColumn()).isEqualTo(expected.getCursorColumn());
+            assertThat(testImage.getCursorRow()).isEqualTo(expected.getCursorRow());
+            assertThat(testImage.getFields().size()).isEqualTo(expected.getFields().size());
+            for (int f = 0; f < expected.getFields().size(); f++) {
+                assertThat(testImage.getFields().get(f).getRow()).isEqualTo(expected.getFields().get(f).getRow());
+                assertThat(testImage.getFields().get(f).getContents().get(0).getChars())
+                        .isEqualTo(expected.getFields().get(f).getContents().get(0).getChars());
+            }
+        }
+
+        // The full format is still read as before
+        assertThat(transform.toTerminal(transform.toJsonString(terminal)).getImages().get(1).getFields().size()).isEqualTo(4);
+    }
+
+    private TerminalField createField(int row, int column, String text) {
+        TerminalField field = new TerminalField(row, column, false, true, false, true, false, false, false, null, null, null);
+        Character[] chars = new Character[text.length()];
+        for (int i = 0; i < text.length(); i++) {
+            chars[i] = text.charAt(i);
+        }
+        field.getContents().add(new FieldContents(chars));
+        return field;
+    }
+
 }
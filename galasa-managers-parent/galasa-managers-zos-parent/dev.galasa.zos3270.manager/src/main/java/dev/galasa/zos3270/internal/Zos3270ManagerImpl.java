@@ -41,8 +41,10 @@ import dev.galasa.zos3270.TerminalInterruptedException;
 import dev.galasa.zos3270.Zos3270ManagerException;
 import dev.galasa.zos3270.Zos3270Terminal;
 import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
 import dev.galasa.zos3270.internal.gherkin.Gherkin3270Coordinator;
 import dev.galasa.zos3270.internal.properties.ExtraBundles;
+import dev.galasa.zos3270.internal.properties.NetworkSelectorThreads;
 import dev.galasa.zos3270.internal.properties.Zos3270PropertiesSingleton;
 import dev.galasa.zos3270.spi.IZos3270ManagerSpi;
 import dev.galasa.zos3270.spi.NetworkException;
@@ -65,6 +67,9 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
     
     private Gherkin3270Coordinator                      gherkinCoordinator;
 
+    private NetworkSelector                             networkSelector;
+    private boolean                                     networkSelectorChecked = false;
+
     /*
      * (non-Javadoc)
      * 
@@ -196,6 +201,7 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
 
             Zos3270TerminalImpl terminal = new Zos3270TerminalImpl(terminaId, host.getHostname(), host.getTelnetPort(),
                     host.isTelnetPortTls(), getFramework(), autoConnect, image, primarySize, alternateSize, textScannerManager);
+            terminal.setNetworkSelector(getNetworkSelector());
             
             this.terminals.add(terminal);
             logger.info("Generated a terminal for zOS Image tagged " + imageTag);
@@ -206,6 +212,23 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
         }
     }
     
+    /**
+     * The selector shared by all the terminals, created when the first terminal is generated if the CPS asks for one
+     * 
+     * @return the selector, or null if each terminal has its own network thread
+     */
+    private synchronized NetworkSelector getNetworkSelector() throws Zos3270ManagerException, NetworkException {
+        if (!this.networkSelectorChecked) {
+            this.networkSelectorChecked = true;
+            int threads = NetworkSelectorThreads.get();
+            if (threads > 0) {
+                this.networkSelector = new NetworkSelector(threads);
+                logger.info("zOS 3270 Terminals will share " + threads + " network selector thread(s)");
+            }
+        }
+        return this.networkSelector;
+    }
+
     @Override
     public void provisionStart() throws ManagerException, ResourceUnavailableException {
         if (terminals.isEmpty()) {
@@ -234,6 +257,11 @@ public class Zos3270ManagerImpl extends AbstractGherkinManager implements IZos32
         for (Zos3270TerminalImpl terminal : terminals) {
             disconnectTerminal(terminal);
         }
+
+        if (this.networkSelector != null) {
+            this.networkSelector.shutdown();
+            this.networkSelector = null;
+        }
     }
 
     private void disconnectTerminal(Zos3270TerminalImpl terminal) {
@@ -0,0 +1,26 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a {@link NetworkInputBuffer} that is fed by a {@link MultiplexedConnection} when a message has only
+ * partly arrived. The rest of the message will be processed when more bytes are read from the connection.
+ */
+public class IncompleteMessageException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public IncompleteMessageException() {
+        super("The rest of the message has not been received yet");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Thrown whenever a message is split across reads, so skip the cost of the stack trace
+        return this;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * A non-blocking connection to a TN3270 server that is serviced by a {@link NetworkSelector} thread instead of a
+ * dedicated {@link NetworkThread}.
+ * <p>
+ * Inbound bytes are decrypted if TLS is in use and appended to a {@link NetworkInputBuffer}, from which each complete
+ * record is passed to the protocol handling in {@link NetworkThread#processMessage(NetworkInputBuffer)}. Outbound
+ * bytes are written straight away as far as the socket allows, with the remainder written by the selector thread
+ * when the socket becomes writable.
+ */
+public class MultiplexedConnection {
+
+    private static final int     BUFFER_SIZE = 16 * 1024;
+    private static final ByteBuffer EMPTY    = ByteBuffer.allocate(0);
+
+    private final Log            logger      = LogFactory.getLog(getClass());
+
+    private final Network        network;
+    private final SocketChannel  channel;
+    private final NetworkInputBuffer inputBuffer = new NetworkInputBuffer();
+    private final OutputStream   outputStream = new ConnectionOutputStream();
+
+    private NetworkSelector      networkSelector;
+    private NetworkThread        networkThread;
+    private SelectionKey         key;
+
+    private SSLEngine            sslEngine;
+    private ByteBuffer           netIn       = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer           netOut      = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private ByteBuffer           appIn;
+    private ByteBuffer           appOut;
+
+    private boolean              endOfStream;
+    private boolean              writeInterest;
+    private boolean              closed;
+
+    /**
+     * @param network - the network that owns the connection
+     * @param channel - a connected channel in non-blocking mode
+     * @param sslEngine - the engine to handshake with once registered, or null for a plain connection
+     */
+    public MultiplexedConnection(Network network, SocketChannel channel, SSLEngine sslEngine) {
+        this.network   = network;
+        this.channel   = channel;
+        this.sslEngine = sslEngine;
+    }
+
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    /**
+     * Called by the {@link NetworkSelector} before the connection is queued for registration
+     */
+    void setHandlers(NetworkSelector networkSelector, NetworkThread networkThread) {
+        this.networkSelector = networkSelector;
+        this.networkThread   = networkThread;
+    }
+
+    /**
+     * Called on the selector thread to register the channel and start the TLS handshake if there is one
+     */
+    void register(Selector selector) {
+        try {
+            synchronized (this) {
+                if (this.closed) {
+                    return;
+                }
+                this.key = this.channel.register(selector, SelectionKey.OP_READ, this);
+                if (this.sslEngine != null) {
+                    beginHandshake();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("Problem registering the connection to " + this.network.getHostPort(), e);
+            close();
+        }
+    }
+
+    /**
+     * Called on the selector thread when the channel is readable or writable
+     */
+    void process() {
+        try {
+            if (this.key.isValid() && this.key.isWritable()) {
+                synchronized (this) {
+                    flush();
+                }
+            }
+            if (this.key.isValid() && this.key.isReadable()) {
+                read();
+            }
+        } catch (NetworkException e) {
+            logger.error("Problem with Network Thread", e);
+            close();
+        } catch (IOException | CancelledKeyException e) {
+            if (!isClosed()) {
+                logger.error("Problem with Network Thread", e);
+                close();
+            }
+        } catch (RuntimeException e) {
+            // Do not let one bad connection end the selector thread shared with the others
+            logger.error("Problem with Network Thread", e);
+            close();
+        }
+    }
+
+    /**
+     * Called on the selector thread periodically
+     */
+    void keepAlive() {
+        this.network.sendKeepAlive();
+    }
+
+    /**
+     * Switch to TLS, called by the protocol handling when the server agrees to START_TLS
+     */
+    synchronized void startTls(SSLEngine newSslEngine) throws IOException {
+        if (this.sslEngine != null) {
+            throw new IOException("TLS has already been started on the connection");
+        }
+        this.sslEngine = newSslEngine;
+        beginHandshake();
+    }
+
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Close the channel. The end of the session is reported to the {@link NetworkThread} on another thread, as it may
+     * reconnect the terminal.
+     */
+    public void close() {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+        }
+
+        if (this.key != null) {
+            this.key.cancel();
+        }
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            logger.error("Failed to close the socket", e);
+        }
+
+        if (this.networkSelector != null) {
+            this.networkSelector.endOfSession(this.networkThread);
+        }
+    }
+
+    private void read() throws IOException, NetworkException {
+        boolean endOfStreamReached;
+        synchronized (this) {
+            if (this.channel.read(this.netIn) < 0) {
+                this.endOfStream = true;
+            }
+
+            if (this.sslEngine == null) {
+                this.netIn.flip();
+                this.inputBuffer.write(this.netIn);
+                this.netIn.clear();
+            } else {
+                processTls();
+                this.appIn.flip();
+                this.inputBuffer.write(this.appIn);
+                this.appIn.clear();
+                flush();
+            }
+            endOfStreamReached = this.endOfStream;
+        }
+
+        // The protocol handling may send replies, so is run without holding the lock
+        if (endOfStreamReached) {
+            this.inputBuffer.endOfStream();
+        }
+        while (this.inputBuffer.hasBufferedBytes()) {
+            this.inputBuffer.mark();
+            try {
+                this.networkThread.processMessage(this.inputBuffer);
+            } catch (IncompleteMessageException e) {
+                this.inputBuffer.reset();
+                break;
+            }
+        }
+
+        if (endOfStreamReached) {
+            logger.trace("Terminal has been disconnected");
+            close();
+        }
+    }
+
+    private synchronized void write(byte[] bytes, int offset, int length) throws IOException {
+        if (this.closed) {
+            throw new IOException("Socket closed");
+        }
+
+        if (this.sslEngine == null) {
+            this.netOut = append(this.netOut, bytes, offset, length);
+        } else {
+            if (this.sslEngine.isOutboundDone()) {
+                throw new IOException("The TLS session has been closed");
+            }
+            this.appOut = append(this.appOut, bytes, offset, length);
+            processTls();
+        }
+        flush();
+    }
+
+    private void beginHandshake() throws IOException {
+        int packetBufferSize = this.sslEngine.getSession().getPacketBufferSize();
+        if (this.netIn.capacity() < packetBufferSize) {
+            this.netIn = enlarge(this.netIn, packetBufferSize - this.netIn.capacity());
+        }
+        this.appIn  = ByteBuffer.allocate(this.sslEngine.getSession().getApplicationBufferSize());
+        this.appOut = ByteBuffer.allocate(BUFFER_SIZE).flip();
+
+        this.sslEngine.beginHandshake();
+        processTls();
+        flush();
+    }
+
+    /**
+     * Run the engine as far as the buffered bytes allow, progressing the handshake, decrypting into appIn and
+     * encrypting any waiting application bytes into netOut once the handshake is complete
+     */
+    private void processTls() throws IOException {
+        boolean progress = true;
+        while (progress) {
+            switch (this.sslEngine.getHandshakeStatus()) {
+                case NEED_TASK:
+                    Runnable task;
+                    while ((task = this.sslEngine.getDelegatedTask()) != null) {
+                        task.run();
+                    }
+                    break;
+                case NEED_WRAP:
+                    progress = wrap(EMPTY);
+                    break;
+                default:
+                    progress = unwrap();
+                    if (this.appOut.hasRemaining() && this.sslEngine.getHandshakeStatus() == HandshakeStatus.NOT_HANDSHAKING) {
+                        progress |= wrap(this.appOut);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private boolean wrap(ByteBuffer source) throws IOException {
+        this.netOut.compact();
+        try {
+            SSLEngineResult result = this.sslEngine.wrap(source, this.netOut);
+            if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                this.netOut = enlarge(this.netOut, this.sslEngine.getSession().getPacketBufferSize());
+                return true;
+            }
+            return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+        } finally {
+            this.netOut.flip();
+        }
+    }
+
+    private boolean unwrap() throws IOException {
+        this.netIn.flip();
+        SSLEngineResult result = this.sslEngine.unwrap(this.netIn, this.appIn);
+        this.netIn.compact();
+
+        switch (result.getStatus()) {
+            case BUFFER_OVERFLOW:
+                this.appIn = enlarge(this.appIn, this.sslEngine.getSession().getApplicationBufferSize());
+                return true;
+            case BUFFER_UNDERFLOW:
+                if (!this.netIn.hasRemaining()) {
+                    this.netIn = enlarge(this.netIn, this.sslEngine.getSession().getPacketBufferSize());
+                }
+                return false;
+            case CLOSED:
+                this.endOfStream = true;
+                return false;
+            default:
+                return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+        }
+    }
+
+    /**
+     * Write as much of netOut as the socket will take, asking the selector to call back when the socket is writable
+     * if some is left
+     */
+    private void flush() throws IOException {
+        while (this.netOut.hasRemaining()) {
+            if (this.channel.write(this.netOut) == 0) {
+                break;
+            }
+        }
+
+        boolean moreToWrite = this.netOut.hasRemaining();
+        if (moreToWrite != this.writeInterest && this.key != null && this.key.isValid()) {
+            this.writeInterest = moreToWrite;
+            this.key.interestOps(moreToWrite ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+            this.key.selector().wakeup();
+        }
+    }
+
+    /**
+     * Append bytes to a buffer that is ready to be read from, growing it if needed
+     */
+    private static ByteBuffer append(ByteBuffer buffer, byte[] bytes, int offset, int length) {
+        buffer.compact();
+        if (buffer.remaining() < length) {
+            buffer = enlarge(buffer, length);
+        }
+        buffer.put(bytes, offset, length);
+        return buffer.flip();
+    }
+
+    /**
+     * Copy a buffer that is ready to be written to into a larger one
+     */
+    private static ByteBuffer enlarge(ByteBuffer buffer, int extra) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.capacity() + extra));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private class ConnectionOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            MultiplexedConnection.this.write(b, off, len);
+        }
+
+    }
+}
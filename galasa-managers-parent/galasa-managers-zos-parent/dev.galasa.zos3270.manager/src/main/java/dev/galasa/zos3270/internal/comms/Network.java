@@ -9,7 +9,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
@@ -17,6 +19,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -46,6 +49,9 @@ public class Network {
     private KeepAlive           keepAlive;
     private Instant             lastSend        = Instant.now();
 
+    private NetworkSelector       networkSelector;
+    private MultiplexedConnection multiplexedConnection;
+
     private Exception           errorException;
 
     private boolean             basicTelnet = false;
@@ -63,6 +69,18 @@ public class Network {
         this.terminalId = terminalId;
     }
 
+    /**
+     * Use a shared network selector rather than a network thread for this terminal. The selector must be set
+     * before connecting.
+     */
+    public void setNetworkSelector(NetworkSelector networkSelector) {
+        this.networkSelector = networkSelector;
+    }
+
+    public boolean isMultiplexed() {
+        return this.networkSelector != null;
+    }
+
     public boolean connectClient() throws NetworkException {
         if (socket != null) {
             if (socket.isConnected()) {
@@ -71,6 +89,17 @@ public class Network {
 
             close();
         }
+        if (multiplexedConnection != null) {
+            if (!multiplexedConnection.isClosed()) {
+                return true;
+            }
+
+            close();
+        }
+
+        if (isMultiplexed()) {
+            return connectMultiplexedClient();
+        }
 
         Socket newSocket = null;
         try {
@@ -100,6 +129,48 @@ public class Network {
         }
     }
     
+    private boolean connectMultiplexedClient() throws NetworkException {
+        SocketChannel newChannel = null;
+        try {
+            newChannel = SocketChannel.open();
+            newChannel.socket().setTcpNoDelay(true);
+            newChannel.socket().setKeepAlive(true);
+            newChannel.connect(new InetSocketAddress(this.host, this.port));
+            newChannel.configureBlocking(false);
+
+            SSLEngine sslEngine = null;
+            if (ssl) {
+                sslEngine = createSslEngine();
+            }
+
+            this.multiplexedConnection = new MultiplexedConnection(this, newChannel, sslEngine);
+            this.outputStream = this.multiplexedConnection.getOutputStream();
+            newChannel = null;
+
+            return true;
+        } catch (Exception e) {
+            throw new NetworkException("Unable to connect to Telnet server", e);
+        } finally {
+            if (newChannel != null) {
+                try {
+                    newChannel.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close the socket", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Pass the inbound records of a multiplexed connection to the network thread, which is not started
+     */
+    public void register(NetworkThread networkThread) throws NetworkException {
+        if (this.multiplexedConnection == null) {
+            throw new NetworkException("Attempt to register a disconnected terminal " + this.terminalId);
+        }
+        this.networkSelector.register(this.multiplexedConnection, networkThread);
+    }
+
     public void setDoStartTls(boolean doStartTls) {
         this.doStartTls = doStartTls;
     }
@@ -109,7 +180,7 @@ public class Network {
     }
 
     public boolean isConnected() {
-        return (this.socket != null);
+        return (this.socket != null || this.multiplexedConnection != null);
     }
 
     public Socket createSocket() throws IOException, NoSuchAlgorithmException, KeyManagementException {
@@ -117,10 +188,7 @@ public class Network {
         if (!ssl) {
             newSocket = new Socket(this.host, this.port);
         } else {
-            String contextName = nameSelector.getSelectedSSLContextName();
-            SSLContext sslContext = SSLContext.getInstance(contextName);
-            sslContext.init(null, new TrustManager[] { new TrustAllCerts() }, new java.security.SecureRandom());
-            newSocket = sslContext.getSocketFactory().createSocket(this.host, this.port);
+            newSocket = createSslContext().getSocketFactory().createSocket(this.host, this.port);
             ((SSLSocket) newSocket).startHandshake();
         }
         newSocket.setTcpNoDelay(true);
@@ -130,6 +198,12 @@ public class Network {
     }
 
     public void close() {
+        MultiplexedConnection connection = multiplexedConnection;
+        if (connection != null) {
+            multiplexedConnection = null;
+            outputStream = null;
+            connection.close();
+        }
         if (socket != null) {
             try {
                 socket.close();
@@ -152,10 +226,7 @@ public class Network {
 
     public Socket startTls() throws NetworkException {
         try {
-            String contextName = nameSelector.getSelectedSSLContextName();
-            SSLContext sslContext = SSLContext.getInstance(contextName);
-            sslContext.init(null, new TrustManager[] { new TrustAllCerts() }, new java.security.SecureRandom());
-            Socket tlsSocket = sslContext.getSocketFactory().createSocket(socket, this.host, this.port, false);
+            Socket tlsSocket = createSslContext().getSocketFactory().createSocket(socket, this.host, this.port, false);
             ((SSLSocket) tlsSocket).startHandshake();
             tlsSocket.setTcpNoDelay(true);
             tlsSocket.setKeepAlive(true);
@@ -170,6 +241,30 @@ public class Network {
 
     }
 
+    /**
+     * Switch a multiplexed connection to TLS, the handshake continuing on the selector thread
+     */
+    public void startMultiplexedTls() throws NetworkException {
+        try {
+            this.multiplexedConnection.startTls(createSslEngine());
+        } catch(Exception e) {
+            throw new NetworkException("Problem negotiating TLS on plain socket", e);
+        }
+    }
+
+    private SSLContext createSslContext() throws NoSuchAlgorithmException, KeyManagementException {
+        String contextName = nameSelector.getSelectedSSLContextName();
+        SSLContext sslContext = SSLContext.getInstance(contextName);
+        sslContext.init(null, new TrustManager[] { new TrustAllCerts() }, new java.security.SecureRandom());
+        return sslContext;
+    }
+
+    private SSLEngine createSslEngine() throws NoSuchAlgorithmException, KeyManagementException {
+        SSLEngine sslEngine = createSslContext().createSSLEngine(this.host, this.port);
+        sslEngine.setUseClientMode(true);
+        return sslEngine;
+    }
+
     public void sendDatastream(byte[] outboundDatastream) throws NetworkException {
         if (this.errorException != null) {
             throw new NetworkException("Terminal network connection has gone into error state",this.errorException);
@@ -205,6 +300,11 @@ public class Network {
     }
 
     public void sendIac(byte[] outboundIac) throws NetworkException {
+        OutputStream outputStream = this.outputStream;
+        if (outputStream == null) {
+            throw new NetworkException("Attempt to send data to a disconnected terminal " + this.terminalId);
+        }
+
         synchronized(outputStream) {
             try {
                 outputStream.write(outboundIac);
@@ -221,7 +321,7 @@ public class Network {
         return this.ssl;
     }
 
-    private void sendKeepAlive() {
+    void sendKeepAlive() {
         if (this.outputStream == null) {
             return;
         }
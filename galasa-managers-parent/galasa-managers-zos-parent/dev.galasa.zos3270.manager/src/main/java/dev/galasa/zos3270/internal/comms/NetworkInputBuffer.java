@@ -0,0 +1,218 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Buffers the inbound telnet stream so that it is read in bulk rather than a byte at a time.
+ * <p>
+ * Messages terminated by IAC and a terminator byte are located by scanning the buffered bytes, with IAC IAC
+ * unescaped in place, and are returned as slices of the buffer rather than copies. A slice is only valid until the
+ * next read from this buffer.
+ * <p>
+ * A buffer created without an InputStream is fed by {@link #write(ByteBuffer)} instead, as bytes arrive on a
+ * {@link MultiplexedConnection}. Running out of bytes part way through a message then throws
+ * {@link IncompleteMessageException}, and the caller can {@link #reset()} to the {@link #mark()} taken at the start
+ * of the message and try again once more bytes have been written.
+ */
+public class NetworkInputBuffer {
+
+    private static final int  INITIAL_SIZE = 16 * 1024;
+
+    private final InputStream inputStream;
+
+    private byte[]            buffer       = new byte[INITIAL_SIZE];
+    private int               position;
+    private int               limit;
+    private int               mark         = -1;
+    private boolean           endOfStream;
+
+    public NetworkInputBuffer(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    public NetworkInputBuffer() {
+        this(null);
+    }
+
+    public InputStream getInputStream() {
+        return this.inputStream;
+    }
+
+    /**
+     * @return true if bytes have been read from the stream that have not been consumed
+     */
+    public boolean hasBufferedBytes() {
+        return this.position < this.limit;
+    }
+
+    /**
+     * Append bytes to a buffer that is not reading from a stream
+     *
+     * @param bytes - the bytes between the position and limit are consumed
+     */
+    public void write(ByteBuffer bytes) {
+        compact();
+        int length = bytes.remaining();
+        if (this.buffer.length - this.limit < length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.limit + length));
+        }
+        bytes.get(this.buffer, this.limit, length);
+        this.limit += length;
+    }
+
+    /**
+     * Indicate that no more bytes will be written, so reads past the buffered bytes return the end of the stream
+     */
+    public void endOfStream() {
+        this.endOfStream = true;
+    }
+
+    /**
+     * Remember the current position, keeping the bytes from it buffered until {@link #reset()} or the next mark
+     */
+    public void mark() {
+        this.mark = this.position;
+    }
+
+    /**
+     * Return to the position of the last {@link #mark()}
+     */
+    public void reset() {
+        if (this.mark < 0) {
+            throw new IllegalStateException("The buffer has not been marked");
+        }
+        this.position = this.mark;
+    }
+
+    /**
+     * Read the next byte, reading more from the stream only if none are buffered
+     *
+     * @return the byte as 0 to 255, or -1 if the end of the stream has been reached
+     * @throws IOException
+     */
+    public int read() throws IOException {
+        if (this.position >= this.limit && !fill()) {
+            return -1;
+        }
+        return this.buffer[this.position++] & 0xff;
+    }
+
+    /**
+     * Push back a byte so that it is the next byte read
+     *
+     * @param b - the byte
+     */
+    public void unread(byte b) {
+        if (this.position == 0) {
+            if (this.limit == this.buffer.length) {
+                this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+            }
+            System.arraycopy(this.buffer, 0, this.buffer, 1, this.limit);
+            this.limit++;
+            this.position++;
+            if (this.mark >= 0) {
+                this.mark++;
+            }
+        }
+        this.buffer[--this.position] = b;
+    }
+
+    /**
+     * Read a message up to and including IAC followed by the terminator, unescaping IAC IAC
+     *
+     * @param terminator - the byte that follows IAC at the end of the message, EOR or SE
+     * @return the message without the terminating IAC, as a slice of the buffer, or null if the stream ended first
+     * @throws IOException
+     */
+    public ByteBuffer readTerminated(byte terminator) throws IOException {
+        // Find the end of the message before unescaping, so the buffer is unchanged if the message is incomplete
+        int scan = this.position;
+        boolean lastByteIac = false;
+        while (true) {
+            if (scan >= this.limit) {
+                int previousPosition = this.position;
+                if (!fill()) {
+                    this.position = this.limit;
+                    return null;
+                }
+                scan -= previousPosition - this.position;
+            }
+
+            byte b = this.buffer[scan++];
+            if (b == NetworkThread.IAC) {
+                lastByteIac = !lastByteIac;
+            } else if (b == terminator && lastByteIac) {
+                break;
+            }
+        }
+
+        int start = this.position;
+        int write = start;
+        lastByteIac = false;
+        for (int read = start; read < scan - 1; read++) {
+            byte b = this.buffer[read];
+            if (b == NetworkThread.IAC) {
+                if (lastByteIac) {
+                    this.buffer[write++] = b;
+                }
+                lastByteIac = !lastByteIac;
+            } else {
+                this.buffer[write++] = b;
+            }
+        }
+
+        this.position = scan;
+        return ByteBuffer.wrap(this.buffer, start, write - start).slice();
+    }
+
+    /**
+     * Read more from the stream, moving the unconsumed bytes to the start of the buffer and growing it if they fill it
+     *
+     * @return false if the end of the stream has been reached
+     * @throws IncompleteMessageException if there is no stream and no more bytes have been written yet
+     * @throws IOException
+     */
+    private boolean fill() throws IOException {
+        if (this.inputStream == null) {
+            if (this.endOfStream) {
+                return false;
+            }
+            throw new IncompleteMessageException();
+        }
+
+        compact();
+        if (this.limit == this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+        }
+
+        int length = this.inputStream.read(this.buffer, this.limit, this.buffer.length - this.limit);
+        if (length <= 0) {
+            return false;
+        }
+        this.limit += length;
+        return true;
+    }
+
+    /**
+     * Move the bytes that are still needed, from the mark if there is one, to the start of the buffer
+     */
+    private void compact() {
+        int keep = this.mark >= 0 ? Math.min(this.mark, this.position) : this.position;
+        if (keep > 0) {
+            System.arraycopy(this.buffer, keep, this.buffer, 0, this.limit - keep);
+            this.limit    -= keep;
+            this.position -= keep;
+            if (this.mark >= 0) {
+                this.mark -= keep;
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.comms;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zos3270.spi.NetworkException;
+
+/**
+ * Services the {@link MultiplexedConnection}s of many terminals from a small number of selector threads, rather
+ * than each terminal having a {@link NetworkThread} and a keep alive thread of its own.
+ * <p>
+ * Connections are shared across the selector threads in turn. The selector threads also run the protocol handling
+ * and screen updates for their connections, so a datastream listener that blocks will hold up the other terminals on
+ * the same selector thread.
+ */
+public class NetworkSelector {
+
+    private static final long      KEEP_ALIVE_CHECK_SECONDS = 5;
+
+    private final Log              logger                   = LogFactory.getLog(getClass());
+
+    private final SelectorThread[] selectorThreads;
+    private final AtomicInteger    nextSelectorThread       = new AtomicInteger();
+    private final ExecutorService  endOfSessionExecutor;
+
+    public NetworkSelector(int threads) throws NetworkException {
+        if (threads < 1) {
+            throw new NetworkException("The number of network selector threads must be at least 1, not " + threads);
+        }
+
+        this.endOfSessionExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "3270 network closed");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.selectorThreads = new SelectorThread[threads];
+        try {
+            for (int i = 0; i < threads; i++) {
+                this.selectorThreads[i] = new SelectorThread(i + 1, Selector.open());
+            }
+        } catch (IOException e) {
+            for (SelectorThread selectorThread : this.selectorThreads) {
+                if (selectorThread != null) {
+                    selectorThread.closeSelector();
+                }
+            }
+            this.endOfSessionExecutor.shutdown();
+            throw new NetworkException("Unable to open the network selector", e);
+        }
+        for (SelectorThread selectorThread : this.selectorThreads) {
+            selectorThread.start();
+        }
+    }
+
+    /**
+     * Start servicing a connection, passing its inbound records to the network thread, which is not started
+     */
+    public void register(MultiplexedConnection connection, NetworkThread networkThread) {
+        connection.setHandlers(this, networkThread);
+
+        int index = Math.floorMod(this.nextSelectorThread.getAndIncrement(), this.selectorThreads.length);
+        this.selectorThreads[index].register(connection);
+    }
+
+    /**
+     * Stop the selector threads, closing any connections that are still registered
+     */
+    public void shutdown() {
+        for (SelectorThread selectorThread : this.selectorThreads) {
+            if (selectorThread != null) {
+                selectorThread.shutdown();
+            }
+        }
+        this.endOfSessionExecutor.shutdown();
+    }
+
+    /**
+     * Report the end of a session away from the selector threads, as the terminal may reconnect and wait for the new
+     * session to start
+     */
+    void endOfSession(NetworkThread networkThread) {
+        if (networkThread == null) {
+            return;
+        }
+
+        try {
+            this.endOfSessionExecutor.execute(networkThread::endOfSession);
+        } catch (RuntimeException e) {
+            // The selector has been shutdown, so report it on this thread instead
+            networkThread.endOfSession();
+        }
+    }
+
+    private class SelectorThread extends Thread {
+
+        private final Selector                          selector;
+        private final Queue<MultiplexedConnection>      pendingRegistrations = new ConcurrentLinkedQueue<>();
+        private volatile boolean                        shutdown             = false;
+
+        private SelectorThread(int number, Selector selector) {
+            this.selector = selector;
+            setName("3270 network selector " + number);
+            setDaemon(true);
+        }
+
+        private void register(MultiplexedConnection connection) {
+            if (this.shutdown) {
+                connection.close();
+                return;
+            }
+            this.pendingRegistrations.add(connection);
+            this.selector.wakeup();
+        }
+
+        private void shutdown() {
+            this.shutdown = true;
+            this.selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            logger.trace("Starting " + getName());
+
+            Instant nextKeepAlive = Instant.now().plus(KEEP_ALIVE_CHECK_SECONDS, ChronoUnit.SECONDS);
+            while (!this.shutdown) {
+                try {
+                    this.selector.select(KEEP_ALIVE_CHECK_SECONDS * 1000);
+                } catch (IOException e) {
+                    logger.error("Problem with the network selector", e);
+                    break;
+                }
+
+                MultiplexedConnection connection;
+                while ((connection = this.pendingRegistrations.poll()) != null) {
+                    connection.register(this.selector);
+                }
+
+                Iterator<SelectionKey> selectedKeys = this.selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    ((MultiplexedConnection) key.attachment()).process();
+                }
+
+                if (Instant.now().isAfter(nextKeepAlive)) {
+                    for (SelectionKey key : this.selector.keys()) {
+                        if (key.isValid()) {
+                            ((MultiplexedConnection) key.attachment()).keepAlive();
+                        }
+                    }
+                    nextKeepAlive = Instant.now().plus(KEEP_ALIVE_CHECK_SECONDS, ChronoUnit.SECONDS);
+                }
+            }
+
+            for (SelectionKey key : this.selector.keys()) {
+                ((MultiplexedConnection) key.attachment()).close();
+            }
+            MultiplexedConnection connection;
+            while ((connection = this.pendingRegistrations.poll()) != null) {
+                connection.close();
+            }
+            closeSelector();
+
+            logger.trace("Ending " + getName());
+        }
+
+        private void closeSelector() {
+            try {
+                this.selector.close();
+            } catch (IOException e) {
+                logger.error("Failed to close the network selector", e);
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.logging.Log;
@@ -114,7 +115,11 @@ public class NetworkThread extends Thread {
     private final ArrayList<String>  possibleDeviceTypes = new ArrayList<>();
     private String                   selectedDeviceType;
 
-    private ByteArrayOutputStream    commandSoFar;
+    private final ByteArrayOutputStream commandSoFar = new ByteArrayOutputStream();
+
+    private NetworkInputBuffer       networkInputBuffer;
+
+    private final CountDownLatch     ended           = new CountDownLatch(1);
 
     public NetworkThread(Terminal terminal, Screen screen, Network network, InputStream inputStream) {
         this(terminal, screen, network, inputStream, null);
@@ -152,42 +157,82 @@ public class NetworkThread extends Thread {
                 break;
             }
         }
+
+        endOfSession();
+    }
+
+    /**
+     * Tell the screen and terminal that the session has ended. Called at the end of the thread, or by the
+     * {@link NetworkSelector} when the thread is not started because the connection is multiplexed.
+     */
+    public void endOfSession() {
         try {
-            screen.networkClosed();
-        } catch (TerminalInterruptedException e) {
-            logger.error("Problem locking keyboard on network close",e);
+            try {
+                screen.networkClosed();
+            } catch (TerminalInterruptedException e) {
+                logger.error("Problem locking keyboard on network close",e);
+            }
+
+            logger.trace("Ending network thread on terminal " + terminal.getId());
+            terminal.networkClosed();
+        } finally {
+            this.ended.countDown();
         }
+    }
 
-        logger.trace("Ending network thread on terminal " + terminal.getId());
-        terminal.networkClosed();
+    /**
+     * Wait for the session to end after the network has been closed
+     *
+     * @throws InterruptedException
+     */
+    public void waitForEnd() throws InterruptedException {
+        if (this.network.isMultiplexed()) {
+            this.ended.await();
+        } else {
+            join();
+        }
     }
 
     public void processMessage(InputStream messageStream) throws IOException, NetworkException {
-        this.commandSoFar = new ByteArrayOutputStream();
+        if (this.networkInputBuffer == null || this.networkInputBuffer.getInputStream() != messageStream) {
+            processMessage(new NetworkInputBuffer(messageStream));
+        } else {
+            processMessage(this.networkInputBuffer);
+        }
+    }
+
+    /**
+     * Process the next message in the buffer. If the buffer is fed by a {@link MultiplexedConnection}, nothing is
+     * sent or changed until the whole message has been buffered, so the message can be processed again after an
+     * {@link IncompleteMessageException}.
+     */
+    public void processMessage(NetworkInputBuffer messageStream) throws IOException, NetworkException {
+        this.commandSoFar.reset();
+        this.networkInputBuffer = messageStream;
 
-        Byte header = readByte(messageStream);
+        Byte header = readByte(this.networkInputBuffer);
         if (header == null) {
             return;
         }
 
         if (header == IAC) {
-            doIac(messageStream);
+            doIac(this.networkInputBuffer);
             return;
         }
 
         if (basicTelnetDatastream) {
-            this.telnetSessionStarted = true;  // must be started if receiving 3270
+            ByteBuffer buffer = readTerminatedMessage(header, this.networkInputBuffer);
 
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+            this.telnetSessionStarted = true;  // must be started if receiving 3270
 
 
             Inbound3270Message inbound3270Message = process3270Data(buffer);
             this.screen.processInboundMessage(inbound3270Message);
             return;
         } else {
-            this.telnetSessionStarted = true;  // must be started if receiving 3270
+            ByteBuffer buffer = readTerminatedMessage(header, this.networkInputBuffer);
 
-            ByteBuffer buffer = readTerminatedMessage(header, messageStream);
+            this.telnetSessionStarted = true;  // must be started if receiving 3270
 
             if (buffer.remaining() < 5) {
                 throw new NetworkException("Missing 5 bytes of the TN3270E datastream header");
@@ -221,7 +266,7 @@ public class NetworkThread extends Thread {
         }
     }
 
-    private void doIac(InputStream messageStream) throws NetworkException, IOException {
+    private void doIac(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC terminated early - " + reportCommandSoFar());
@@ -252,7 +297,7 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC Command - " + reportCommandSoFar());
     }
 
-    private void doIacSb(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacSb(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         // Read the whole SB SE command
         ByteBuffer remainingSb = readTerminatedSB(messageStream);
 
@@ -274,7 +319,7 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC SB Command - " + reportCommandSoFar());
     }
 
-    private void doIacWill(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacWill(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte will = readByte(messageStream);
         if (will == null) {
             throw new NetworkException("Unrecognised IAC WILL terminated early - " + reportCommandSoFar());
@@ -283,7 +328,7 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC WILL Command - " + reportCommandSoFar());
     }
 
-    private void doIacWont(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacWont(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte will = readByte(messageStream);
         if (will == null) {
             throw new NetworkException("Unrecognised IAC WONT terminated early - " + reportCommandSoFar());
@@ -330,8 +375,16 @@ public class NetworkThread extends Thread {
     private void doIacSbStartTlsFollows(ByteBuffer remainingSb) throws NetworkException, IOException {
         logger.trace("TN3270E switching to TLS");
 
-        Socket newSocket = this.network.startTls();
-        this.inputStream = newSocket.getInputStream();
+        if (this.networkInputBuffer != null && this.networkInputBuffer.hasBufferedBytes()) {
+            throw new NetworkException("Unexpected data received before the switch to TLS");
+        }
+
+        if (this.network.isMultiplexed()) {
+            this.network.startMultiplexedTls();
+        } else {
+            Socket newSocket = this.network.startTls();
+            this.inputStream = newSocket.getInputStream();
+        }
         this.network.switchedSSL(true);
 
 
@@ -618,7 +671,7 @@ public class NetworkThread extends Thread {
         }
     }
 
-    private void doIacDo(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDo(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO terminated early - " + reportCommandSoFar());
@@ -653,7 +706,7 @@ public class NetworkThread extends Thread {
 
     }
 
-    private void doIacDont(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDont(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte dont = readByte(messageStream);
         if (dont == null) {
             throw new NetworkException("Unrecognised IAC DO terminated early - " + reportCommandSoFar());
@@ -679,12 +732,12 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC DONT Command - " + reportCommandSoFar());
     }
 
-    private void doIacDoTimingMark(InputStream messageStream) throws NetworkException {
+    private void doIacDoTimingMark(NetworkInputBuffer messageStream) throws NetworkException {
         logger.trace("timing received");
         this.network.sendIac(new byte[] {IAC, WILL, TIMING_MARK});
     }
 
-    private void doIacDoTelnetEor(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetEor(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO EOR terminated early - " + reportCommandSoFar());
@@ -699,7 +752,7 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetEorIac(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetEorIac(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO EOR IAC terminated early - " + reportCommandSoFar());
@@ -714,7 +767,7 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetEorIacWill(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetEorIacWill(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO EOR IAC WILL terminated early - " + reportCommandSoFar());
@@ -728,7 +781,7 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC DO EOR WILL Command - " + reportCommandSoFar());
     }
 
-    private void doIacDoTelnetEorIacWillEor(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetEorIacWillEor(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         logger.trace("IAC DO EOR WILL EOR received from server");
         this.network.sendIac(new byte[] {IAC, WILL, TELNET_EOR, IAC, DO, TELNET_EOR});
         this.basicTelnetDatastream = true;
@@ -738,7 +791,7 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetBinary(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetBinary(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO BINARY terminated early - " + reportCommandSoFar());
@@ -753,7 +806,7 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetBinaryIac(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetBinaryIac(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO BINARY IAC terminated early - " + reportCommandSoFar());
@@ -768,7 +821,7 @@ public class NetworkThread extends Thread {
     }
 
 
-    private void doIacDoTelnetBinaryWill(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetBinaryWill(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         Byte iac = readByte(messageStream);
         if (iac == null) {
             throw new NetworkException("Unrecognised IAC DO BINARY IAC WILL terminated early - " + reportCommandSoFar());
@@ -782,18 +835,18 @@ public class NetworkThread extends Thread {
         throw new NetworkException("Unrecognised IAC DO BINARY WILL Command - " + reportCommandSoFar());
     }
 
-    private void doIacDoTelnetBinaryWillBinary(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoTelnetBinaryWillBinary(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         logger.trace("IAC DO BINARY WILL BINARY received from server");
         this.network.sendIac(new byte[] {IAC, WILL, TELNET_BINARY, IAC, DO, TELNET_BINARY});
     }
 
 
-    private void doIacDoTerminalType(InputStream messageStream) throws NetworkException {
+    private void doIacDoTerminalType(NetworkInputBuffer messageStream) throws NetworkException {
         logger.trace("IAC DO TERMINAL-TYPE received from server");
         this.network.sendIac(new byte[] {IAC, WILL, TERMINAL_TYPE});
     }
 
-    private void doIacDoTn3270e(InputStream messageStream) throws NetworkException {
+    private void doIacDoTn3270e(NetworkInputBuffer messageStream) throws NetworkException {
         logger.trace("IAC DO TN3270E received from server, responding with IAC WILL TN3270E");
 
         this.network.sendIac(new byte[] {IAC, WILL, TN3270E});
@@ -801,7 +854,7 @@ public class NetworkThread extends Thread {
         this.network.setBasicTelnet(false);
     }
 
-    private void doIacDoStartTls(InputStream messageStream) throws NetworkException, IOException {
+    private void doIacDoStartTls(NetworkInputBuffer messageStream) throws NetworkException, IOException {
         if (this.network.isDoStartTls()) {
             logger.trace("IAC DO START_TLS received from server, agreeing to switch to TLS");
             this.network.sendIac(new byte[] {IAC, WILL, START_TLS, IAC, SB, START_TLS, FOLLOWS, IAC, SE});
@@ -811,22 +864,18 @@ public class NetworkThread extends Thread {
         }
     }
 
-    private Byte readByte(InputStream messageStream) throws IOException {
-        byte[] b = new byte[1];
-        int length = messageStream.read(b);
+    private Byte readByte(NetworkInputBuffer messageStream) throws IOException {
+        int b = messageStream.read();
 
-        if (length == -1) {
+        if (b == -1) {
             endOfStream = true;
             logger.trace("Terminal has been disconnected");
             return null;
         }
-        if (length == 0) {
-            return null;
-        }
 
         this.commandSoFar.write(b);
 
-        return b[0];
+        return (byte) b;
     }
 
     private String reportCommandSoFar() {
@@ -836,7 +885,10 @@ public class NetworkThread extends Thread {
     public Inbound3270Message process3270Data(ByteBuffer buffer) throws NetworkException {
 
         if (logger.isTraceEnabled() || !this.screen.getDatastreamListeners().isEmpty()) {
-            String hex = new String(Hex.encodeHex(buffer.array()));
+            // The whole message, which may be a slice of a larger buffer
+            ByteBuffer message = buffer.duplicate();
+            message.rewind();
+            String hex = Hex.encodeHexString(message);
             if (logger.isTraceEnabled()) {
                 logger.trace("inbound=" + hex);
             }
@@ -958,72 +1010,39 @@ public class NetworkThread extends Thread {
         return new Inbound3270Message(commandCode, structuredFields);
     }
 
+    /**
+     * Read a 3270 message terminated by IAC EOR. The stream is read ahead, so should not be read elsewhere afterwards
+     */
     public static ByteBuffer readTerminatedMessage(byte header, InputStream messageStream) throws IOException, NetworkException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        byteArrayOutputStream.write(header);
-
-        byte[] b = new byte[1];
-        boolean lastByteFF = false;
-        boolean terminated = false;
-        while (messageStream.read(b) == 1) {
-            if (b[0] == IAC) {
-                if (lastByteFF) {
-                    byteArrayOutputStream.write(b);
-                    lastByteFF = false;
-                } else {
-                    lastByteFF = true;
-                }
-            } else {
-                if (b[0] == EOR && lastByteFF) {
-                    terminated = true;
-                    break;
-                }
+        return readTerminatedMessage(header, new NetworkInputBuffer(messageStream));
+    }
 
-                byteArrayOutputStream.write(b);
-            }
-        }
+    private static ByteBuffer readTerminatedMessage(byte header, NetworkInputBuffer messageStream) throws IOException, NetworkException {
+        messageStream.unread(header);
 
-        if (!terminated) {
+        ByteBuffer buffer = messageStream.readTerminated(EOR);
+        if (buffer == null) {
             throw new NetworkException("3270 message did not terminate with IAC EOR");
         }
 
-        byte[] bytes = byteArrayOutputStream.toByteArray();
-
-        return ByteBuffer.wrap(bytes);
+        return buffer;
     }
 
-    public ByteBuffer readTerminatedSB(InputStream messageStream) throws IOException, NetworkException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-        boolean lastByteFF = false;
-        boolean terminated = false;
-        Byte b;
-        while ((b = readByte(messageStream)) != null) {
-            if (b == IAC) {
-                if (lastByteFF) {
-                    byteArrayOutputStream.write(b);
-                    lastByteFF = false;
-                } else {
-                    lastByteFF = true;
-                }
-            } else {
-                if (b == SE && lastByteFF) {
-                    terminated = true;
-                    break;
-                }
-
-                byteArrayOutputStream.write(b);
-            }
-        }
-
-        if (!terminated) {
+    public ByteBuffer readTerminatedSB(NetworkInputBuffer messageStream) throws IOException, NetworkException {
+        ByteBuffer buffer = messageStream.readTerminated(SE);
+        if (buffer == null) {
+            endOfStream = true;
             throw new NetworkException("IAC SB message did not terminate with IAC SE");
         }
 
-        byte[] bytes = byteArrayOutputStream.toByteArray();
+        ByteBuffer command = buffer.duplicate();
+        while (command.hasRemaining()) {
+            this.commandSoFar.write(command.get());
+        }
+        this.commandSoFar.write(IAC);
+        this.commandSoFar.write(SE);
 
-        return ByteBuffer.wrap(bytes);
+        return buffer;
     }
 
     public boolean isStarted() {
@@ -0,0 +1,36 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * The number of selector threads shared by all the terminals in a run
+ * </p>
+ * <p>
+ * When set above zero, the terminal connections are serviced by this many shared network selector threads,
+ * rather than each terminal having a network thread of its own. Use this for runs with large numbers of terminals.
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.network.selector.threads=2
+ * </p>
+ * <p>
+ * default is 0, each terminal has its own network thread
+ * </p>
+ * 
+ *  
+ *
+ */
+public class NetworkSelectorThreads extends CpsProperties {
+
+    public static int get() throws Zos3270ManagerException {
+        return getIntWithDefault(Zos3270PropertiesSingleton.cps(), 0, "network.selector", "threads");
+    }
+
+}
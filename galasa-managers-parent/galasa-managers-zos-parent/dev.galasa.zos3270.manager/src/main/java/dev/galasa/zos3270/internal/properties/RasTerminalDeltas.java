@@ -0,0 +1,34 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.properties;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zos3270.Zos3270ManagerException;
+
+/**
+ * Are the terminal images stored in the RAS as deltas, only recording the fields that changed from the previous
+ * image
+ * </p>
+ * <p>
+ * The property is:-<br>
+ * <br>
+ * zos3270.ras.terminal.deltas=true|false
+ * </p>
+ * <p>
+ * default is FALSE
+ * </p>
+ * 
+ *  
+ *
+ */
+public class RasTerminalDeltas extends CpsProperties {
+
+    public static boolean get() throws Zos3270ManagerException {
+        return Boolean.parseBoolean(
+                getStringWithDefault(Zos3270PropertiesSingleton.cps(), "false", "ras.terminal", "deltas"));
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import dev.galasa.zos3270.ErrorTextFoundException;
+import dev.galasa.zos3270.TextNotFoundException;
+
+/**
+ * Searches the fields of a screen for any of a set of ok and error texts in a single pass over the screen.
+ * <p>
+ * An Aho-Corasick automaton is built once for all the texts, so it can be reused for each screen update while
+ * waiting. The screen is scanned as one buffer, with the automaton reset at each field attribute so that, as with
+ * {@link dev.galasa.zos3270.spi.Field#containsText(String)}, a text is only found if it is within a single field.
+ */
+public class FieldTextSearch {
+
+    private final String[] okText;
+    private final String[] errorText;
+
+    // The trie, with the children of each node held as sorted characters for a binary search
+    private final int[]    childStart;
+    private final int[]    childCount;
+    private final char[]   childChars;
+    private final int[]    childNodes;
+    private final int[]    failure;
+    // The texts that end at each node, including those of its failure nodes. Error texts are numbered after the ok texts
+    private final int[][]  matches;
+
+    private final boolean  emptyTextSearched;
+
+    public FieldTextSearch(String[] okText, String[] errorText) {
+        this.okText = okText;
+        this.errorText = (errorText == null) ? new String[0] : errorText;
+
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> nodeTexts = new ArrayList<>();
+        children.add(new TreeMap<>());
+        nodeTexts.add(new ArrayList<>());
+
+        boolean empty = false;
+        for (int t = 0; t < getTextCount(); t++) {
+            String text = getText(t);
+            if (text.isEmpty()) {
+                empty = true;
+                continue;
+            }
+
+            int node = 0;
+            for (int i = 0; i < text.length(); i++) {
+                Integer child = children.get(node).get(text.charAt(i));
+                if (child == null) {
+                    child = children.size();
+                    children.get(node).put(text.charAt(i), child);
+                    children.add(new TreeMap<>());
+                    nodeTexts.add(new ArrayList<>());
+                }
+                node = child;
+            }
+            nodeTexts.get(node).add(t);
+        }
+        this.emptyTextSearched = empty;
+
+        int nodes = children.size();
+        this.childStart = new int[nodes];
+        this.childCount = new int[nodes];
+        this.childChars = new char[nodes - 1];
+        this.childNodes = new int[nodes - 1];
+        int next = 0;
+        for (int node = 0; node < nodes; node++) {
+            this.childStart[node] = next;
+            this.childCount[node] = children.get(node).size();
+            for (Map.Entry<Character, Integer> entry : children.get(node).entrySet()) {
+                this.childChars[next] = entry.getKey();
+                this.childNodes[next] = entry.getValue();
+                next++;
+            }
+        }
+
+        // Breadth first, so the failure node of a parent is complete before its children are reached
+        this.failure = new int[nodes];
+        this.matches = new int[nodes][];
+        this.matches[0] = new int[0];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i < this.childCount[0]; i++) {
+            int child = this.childNodes[i];
+            this.failure[child] = 0;
+            this.matches[child] = toArray(nodeTexts.get(child), this.matches[0]);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+            for (int i = this.childStart[node]; i < this.childStart[node] + this.childCount[node]; i++) {
+                int child = this.childNodes[i];
+                this.failure[child] = step(this.failure[node], this.childChars[i]);
+                this.matches[child] = toArray(nodeTexts.get(child), this.matches[this.failure[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Search the screen buffer, checking the error texts before the ok texts
+     *
+     * @param buffer - the characters of the screen, with nulls as 0
+     * @param length - the size of the screen
+     * @param fieldStartPositions - the positions of the field attributes in ascending order
+     * @return the index of the first ok text that was found
+     * @throws ErrorTextFoundException if any error text was found, for the first one found
+     * @throws TextNotFoundException if none of the texts were found
+     */
+    public int search(char[] buffer, int length, int[] fieldStartPositions) throws TextNotFoundException, ErrorTextFoundException {
+        boolean[] found = new boolean[getTextCount()];
+        if (this.emptyTextSearched) {
+            for (int t = 0; t < found.length; t++) {
+                found[t] = getText(t).isEmpty();
+            }
+        }
+
+        int node = 0;
+        int nextFieldStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (nextFieldStart < fieldStartPositions.length && fieldStartPositions[nextFieldStart] == i) {
+                nextFieldStart++;
+                node = 0;
+                continue;
+            }
+
+            node = step(node, buffer[i]);
+            for (int t : this.matches[node]) {
+                found[t] = true;
+            }
+        }
+
+        for (int i = 0; i < this.errorText.length; i++) {
+            if (found[this.okText.length + i]) {
+                throw new ErrorTextFoundException("Found error text '" + this.errorText[i] + "' on screen", i);
+            }
+        }
+        for (int i = 0; i < this.okText.length; i++) {
+            if (found[i]) {
+                return i;
+            }
+        }
+
+        throw new TextNotFoundException("Unable to locate text on sreen");
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int child = findChild(node, c);
+            if (child >= 0) {
+                return child;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = this.failure[node];
+        }
+    }
+
+    private int findChild(int node, char c) {
+        int start = this.childStart[node];
+        int index = Arrays.binarySearch(this.childChars, start, start + this.childCount[node], c);
+        return (index >= 0) ? this.childNodes[index] : -1;
+    }
+
+    private int getTextCount() {
+        return this.okText.length + this.errorText.length;
+    }
+
+    private String getText(int t) {
+        return (t < this.okText.length) ? this.okText[t] : this.errorText[t - this.okText.length];
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        int[] all = Arrays.copyOf(inherited, inherited.length + own.size());
+        for (int i = 0; i < own.size(); i++) {
+            all[inherited.length + i] = own.get(i);
+        }
+        return all;
+    }
+}
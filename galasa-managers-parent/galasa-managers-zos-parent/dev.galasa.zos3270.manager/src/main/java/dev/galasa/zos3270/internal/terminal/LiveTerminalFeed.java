@@ -0,0 +1,224 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.framework.spi.utils.GalasaGson;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.spi.Zos3270TerminalImpl;
+
+/**
+ * Sends the terminal images to the live terminal URL on a background thread, so the terminal is not slowed down by
+ * the live view.
+ * <p>
+ * The images that arrive while a send is in progress are sent together in the next request. At most
+ * {@link #QUEUED_IMAGES} are kept waiting, the oldest being dropped when the viewer cannot keep up. A failed send
+ * is retried with a backoff, and the feed is only stopped after repeated failures or if the viewer rejects the
+ * images. The connections are read to the end and not disconnected, so that they can be kept alive and reused.
+ */
+public class LiveTerminalFeed {
+
+    private static final int  QUEUED_IMAGES    = 50;
+    private static final int  MAX_FAILURES     = 10;
+    private static final long MAX_BACKOFF      = 30_000;
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private final GalasaGson gson = new GalasaGson();
+
+    private final URL url;
+    private final String terminalId;
+    private final String runId;
+    private final UnaryOperator<TerminalImage> imageFilter;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ArrayDeque<TerminalImage> pendingImages = new ArrayDeque<>();
+    private boolean sendScheduled;
+    private boolean stopped;
+    private int droppedImages;
+
+    private int sequence;
+    private int failures;
+
+    /**
+     * @param url - the URL of the terminal, already registered with the viewer
+     * @param imageFilter - applied to each image before it is sent, to remove any confidential text
+     */
+    public LiveTerminalFeed(URL url, String terminalId, String runId, UnaryOperator<TerminalImage> imageFilter) {
+        this.url = url;
+        this.terminalId = terminalId;
+        this.runId = runId;
+        this.imageFilter = imageFilter;
+
+        // Only one send is scheduled at a time, and the thread ends when idle
+        this.executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "3270 live terminal " + terminalId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue an image to be sent, without waiting
+     *
+     * @param image - the image, which must not be changed once queued
+     */
+    public synchronized void send(TerminalImage image) {
+        if (this.stopped) {
+            return;
+        }
+
+        if (this.pendingImages.size() >= QUEUED_IMAGES) {
+            this.pendingImages.removeFirst();
+            this.droppedImages++;
+        }
+        this.pendingImages.addLast(image);
+
+        if (!this.sendScheduled) {
+            this.sendScheduled = true;
+            this.executor.execute(this::sendPending);
+        }
+    }
+
+    public synchronized boolean isStopped() {
+        return this.stopped;
+    }
+
+    private void sendPending() {
+        while (true) {
+            List<TerminalImage> images;
+            synchronized (this) {
+                if (this.stopped || this.pendingImages.isEmpty()) {
+                    this.sendScheduled = false;
+                    return;
+                }
+                if (this.droppedImages > 0) {
+                    logger.warn("Live terminal " + this.terminalId + " is not keeping up, " + this.droppedImages + " images were dropped");
+                    this.droppedImages = 0;
+                }
+                images = new ArrayList<>(this.pendingImages);
+                this.pendingImages.clear();
+            }
+
+            if (sendImages(images)) {
+                this.failures = 0;
+                continue;
+            }
+
+            this.failures++;
+            synchronized (this) {
+                if (this.failures >= MAX_FAILURES) {
+                    logger.error("Unable to write live terminal " + this.terminalId + " after " + this.failures + " attempts, live terminal stopped");
+                    this.stopped = true;
+                }
+                if (this.stopped) {
+                    this.pendingImages.clear();
+                    this.sendScheduled = false;
+                    return;
+                }
+
+                // Put the images back in front of any that have arrived since, to be sent with them
+                for (int i = images.size() - 1; i >= 0 && this.pendingImages.size() < QUEUED_IMAGES; i--) {
+                    this.pendingImages.addFirst(images.get(i));
+                }
+            }
+
+            try {
+                Thread.sleep(Math.min(MAX_BACKOFF, 500L << Math.min(this.failures, 10)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                synchronized (this) {
+                    this.sendScheduled = false;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if sent, false if the send can be retried
+     */
+    private boolean sendImages(List<TerminalImage> images) {
+        try {
+            this.sequence++;
+            Terminal liveTerminal = new Terminal(this.terminalId, this.runId, this.sequence, images.get(images.size() - 1).getImageSize());
+            for (TerminalImage image : images) {
+                liveTerminal.getImages().add(this.imageFilter.apply(image));
+            }
+
+            JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
+            Zos3270TerminalImpl.stripFalseBooleans(intermediateJson);
+            byte[] json = gson.toJson(intermediateJson).getBytes(StandardCharsets.UTF_8);
+
+            HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+            connection.setRequestMethod("PUT");
+            connection.addRequestProperty("Content-Type", "application/json");
+            connection.setDoInput(true);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(json.length);
+            try (OutputStream os = connection.getOutputStream()) {
+                os.write(json);
+            }
+
+            int responseCode = connection.getResponseCode();
+            drainResponse(connection, responseCode);
+            if (responseCode == HttpURLConnection.HTTP_OK) {
+                return true;
+            }
+
+            if (responseCode >= 400 && responseCode < 500) {
+                logger.warn("Unable to write live terminal due to " + responseCode + " - "
+                        + connection.getResponseMessage() + ", live terminal stopped");
+                synchronized (this) {
+                    this.stopped = true;
+                }
+            } else {
+                logger.warn("Unable to write live terminal due to " + responseCode + " - "
+                        + connection.getResponseMessage() + ", will retry");
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to write live terminal image, will retry", e);
+        }
+        this.sequence--;
+        return false;
+    }
+
+    /**
+     * Read the whole response so that the connection can be reused
+     */
+    private void drainResponse(HttpURLConnection connection, int responseCode) throws IOException {
+        try (InputStream is = (responseCode < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+            if (is != null) {
+                byte[] buffer = new byte[1024];
+                while (is.read(buffer) >= 0) {
+                    // Discard
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import dev.galasa.zos3270.AttentionIdentification;
+import dev.galasa.zos3270.IScreenUpdateListener;
+import dev.galasa.zos3270.spi.Screen;
+
+/**
+ * Waits for a condition on the screen to be met, checking it each time the screen is updated rather than polling
+ */
+public class ScreenUpdateConditionListener implements IScreenUpdateListener {
+
+    public interface ScreenCondition {
+        boolean isMet();
+    }
+
+    private final Screen          screen;
+    private final ScreenCondition condition;
+    private final Semaphore       conditionMet = new Semaphore(0);
+
+    public ScreenUpdateConditionListener(Screen screen, ScreenCondition condition) {
+        this.screen = screen;
+        this.condition = condition;
+
+        // The screen is not updated while locked, so an update cannot be missed between the check and registering
+        synchronized (this.screen) {
+            screenUpdated(Direction.RECEIVED, null);
+            if (this.conditionMet.availablePermits() > 0) {
+                return;
+            }
+            this.screen.registerScreenUpdateListener(this);
+        }
+    }
+
+    @Override
+    public void screenUpdated(Direction direction, AttentionIdentification aid) {
+        if (this.conditionMet.availablePermits() > 0) {
+            return;
+        }
+
+        if (this.condition.isMet()) {
+            this.conditionMet.release();
+        }
+    }
+
+    public boolean waitForCondition(long maxWait) throws InterruptedException {
+        try {
+            return this.conditionMet.tryAcquire(1, maxWait, TimeUnit.MILLISECONDS);
+        } finally {
+            screen.unregisterScreenUpdateListener(this);
+        }
+    }
+
+    public static boolean waitForCondition(Screen screen, ScreenCondition condition, long maxWait)
+            throws InterruptedException {
+        return new ScreenUpdateConditionListener(screen, condition).waitForCondition(maxWait);
+    }
+
+}
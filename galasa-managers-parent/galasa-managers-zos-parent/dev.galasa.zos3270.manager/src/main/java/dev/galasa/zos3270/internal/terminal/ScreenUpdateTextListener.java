@@ -18,16 +18,14 @@ import dev.galasa.zos3270.spi.Screen;
 public class ScreenUpdateTextListener implements IScreenUpdateListener {
 
     private final Screen screen;
-    private final String[] okText;
-    private final String[] errorText;
+    private final FieldTextSearch search;
     private int foundItem = -1;
     private ErrorTextFoundException errorFound = null;
     private Semaphore    textFound = new Semaphore(1, true);
 
     public ScreenUpdateTextListener(Screen screen, String ok[], String error[]) throws InterruptedException {
         this.screen = screen;
-        this.okText = ok;
-        this.errorText = error;
+        this.search = new FieldTextSearch(ok, error);
         this.textFound.acquire();
 
         synchronized (this.screen) {
@@ -42,7 +40,7 @@ public class ScreenUpdateTextListener implements IScreenUpdateListener {
     @Override
     public void screenUpdated(Direction direction, AttentionIdentification aid) {
         try {
-            this.foundItem = screen.searchFieldContaining(okText, errorText);
+            this.foundItem = screen.searchFieldContaining(this.search);
             this.textFound.release();
         } catch (TextNotFoundException e) {
             // IGNORE
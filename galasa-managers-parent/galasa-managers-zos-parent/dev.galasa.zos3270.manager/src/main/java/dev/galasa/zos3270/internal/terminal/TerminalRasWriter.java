@@ -0,0 +1,302 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+import dev.galasa.ResultArchiveStoreContentType;
+import dev.galasa.SetContentType;
+import dev.galasa.framework.spi.IConfidentialTextService;
+import dev.galasa.framework.spi.utils.GalasaGson;
+import dev.galasa.zos3270.common.screens.FieldContents;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalField;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalImageDeltas;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.spi.Zos3270TerminalImpl;
+
+/**
+ * Writes batches of terminal images to the RAS on a background thread, so that the confidential text filtering,
+ * JSON serialisation and compression are not done on the thread that is updating the screen.
+ * <p>
+ * The writer threads are shared by all the terminals, and the batches of each terminal are written one at a time in
+ * the order they were queued. The batches waiting for a terminal are bounded. When they are full,
+ * {@link #queue(int, TerminalSize, List)} returns false rather than waiting, and the caller is expected to keep the
+ * images and try again with a larger batch later.
+ * <p>
+ * A batch that fails to be written is kept, with the batches queued after it, and written again when the next batch
+ * is queued or when {@link #waitForQueued()} is called. The batches are only ever written on the writer threads, never
+ * on the thread queueing or waiting for them.
+ */
+public class TerminalRasWriter {
+
+    private static final int QUEUED_BATCHES = 4;
+    private static final int WRITER_THREADS = 2;
+    private static final int QUEUED_TERMINALS = 64;
+    private static final long RETRY_MILLIS = 100;
+
+    // The threads end when idle, so the writers do not need to be shutdown
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(WRITER_THREADS, WRITER_THREADS, 30,
+            TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUED_TERMINALS), runnable -> {
+                Thread thread = new Thread(runnable, "3270 RAS writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private final Log logger = LogFactory.getLog(getClass());
+
+    private final GalasaGson gson = new GalasaGson();
+
+    private final String terminalId;
+    private final String runId;
+    private final Path terminalRasDirectory;
+
+    private final IConfidentialTextService cts;
+    private final boolean applyCtf;
+    private final boolean deltas;
+
+    private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+    private long queued;
+    private long written;
+    private boolean writing;
+    private Exception failure;
+
+    public TerminalRasWriter(String terminalId, String runId, Path terminalRasDirectory, IConfidentialTextService cts, boolean applyCtf,
+            boolean deltas) {
+        this.terminalId = terminalId;
+        this.runId = runId;
+        this.terminalRasDirectory = terminalRasDirectory;
+        this.cts = cts;
+        this.applyCtf = applyCtf;
+        this.deltas = deltas;
+    }
+
+    /**
+     * Queue a batch of images to be written to the RAS
+     *
+     * @param sequence - the sequence number of the RAS file
+     * @param terminalSize - the size of the terminal
+     * @param images - the images, which must not be changed once queued
+     * @return false if the queue is full and the images were not queued
+     */
+    public synchronized boolean queue(int sequence, TerminalSize terminalSize, List<TerminalImage> images) {
+        if (this.pending.size() >= QUEUED_BATCHES) {
+            // Try again with any failed batch, so there is room next time
+            startWriting();
+            return false;
+        }
+
+        this.pending.add(new Batch(sequence, terminalSize, images));
+        this.queued++;
+        startWriting();
+        return true;
+    }
+
+    /**
+     * Wait for all the batches queued so far to be written, writing again any that failed
+     *
+     * @throws IOException if a batch could not be written, it is kept to be written again later
+     */
+    public synchronized void waitForQueued() throws InterruptedException, IOException {
+        long target = this.queued;
+        this.failure = null;
+        startWriting();
+
+        while (this.written < target && this.failure == null) {
+            if (this.writing) {
+                wait();
+            } else {
+                // The writer threads are too busy to take the batches, try again shortly
+                wait(RETRY_MILLIS);
+                startWriting();
+            }
+        }
+        if (this.failure != null) {
+            throw new IOException("Unable to write terminal cache to the RAS", this.failure);
+        }
+    }
+
+    private void startWriting() {
+        if (this.writing || this.pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            executor.execute(this::writePending);
+            this.writing = true;
+        } catch (RejectedExecutionException e) {
+            // The batches stay pending, writing is started again on the next queue or wait
+        }
+    }
+
+    /**
+     * Write the pending batches in order, stopping at the first that fails so it can be written again later
+     */
+    private void writePending() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                batch = this.pending.peek();
+                if (batch == null) {
+                    this.writing = false;
+                    notifyAll();
+                    return;
+                }
+            }
+
+            try {
+                writeTerminalGzJson(batch.sequence, batch.terminalSize, batch.images);
+            } catch (Exception e) {
+                logger.error("Unable to write terminal cache to the RAS, it will be written again with the next batch", e);
+                synchronized (this) {
+                    this.failure = e;
+                    this.writing = false;
+                    notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                this.pending.remove();
+                this.written++;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * This method creates JSON representations of the Terminal screens and writes them to the RAS
+     * @throws IOException
+     */
+    protected void writeTerminalGzJson(int sequence, TerminalSize terminalSize, List<TerminalImage> images) throws IOException {
+        Terminal rasTerminal = new Terminal(this.terminalId, this.runId, sequence, terminalSize);
+
+        for (TerminalImage terminalImage : images) {
+            rasTerminal.getImages().add(removeConfidentialTextFromTerminalImage(terminalImage));
+        }
+
+        if (this.deltas) {
+            rasTerminal = TerminalImageDeltas.encode(rasTerminal);
+        }
+
+        JsonObject intermediateJson = (JsonObject) gson.toJsonTree(rasTerminal);
+        Zos3270TerminalImpl.stripFalseBooleans(intermediateJson);
+
+        String terminalFilename = this.terminalId + "-" + String.format("%05d", sequence) + ".gz";
+        Path terminalPath = terminalRasDirectory.resolve(terminalFilename);
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(terminalPath,
+                new SetContentType(new ResultArchiveStoreContentType("application/zos3270terminal")),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)), StandardCharsets.UTF_8));
+                JsonWriter jsonWriter = new ConfidentialTextJsonWriter(writer)) {
+            jsonWriter.setIndent("  ");
+            gson.getGson().toJson(intermediateJson, jsonWriter);
+        }
+    }
+
+    /**
+     * Creates a copy of the original TerminalImage, iterates through it's TerminalFields and FieldContents,
+     * and creates a new TerminalImage with confidential text removed.
+     * @param terminalImage
+     * @return
+     */
+    public TerminalImage removeConfidentialTextFromTerminalImage(TerminalImage terminalImage){
+        // Create a new TerminalImage based on the one we are iterating on
+        TerminalImage newTerminalImage = new TerminalImage(terminalImage.getSequence(), terminalImage.getId(),
+        terminalImage.isInbound(), terminalImage.getType(), terminalImage.getAid(),terminalImage.getImageSize(),
+        terminalImage.getCursorColumn(), terminalImage.getCursorRow());
+
+        for (TerminalField terminalField : terminalImage.getFields()){
+
+            // Create a new TerminalField based on the one we are iterating on
+            TerminalField newTerminalField = new TerminalField(terminalField.getRow(), terminalField.getColumn(),
+            terminalField.isUnformatted(), terminalField.isFieldProtected(), terminalField.isFieldNumeric(),
+            terminalField.isFieldDisplay(), terminalField.isFieldIntenseDisplay(), terminalField.isFieldSelectorPen(),
+            terminalField.isFieldModifed(), terminalField.getForegroundColour(), terminalField.getBackgroundColour(), terminalField.getHighlight());
+
+            StringBuilder sb = new StringBuilder();
+            for (FieldContents contents : terminalField.getContents()) {
+
+                // Converting FieldContents to Strings and removing confidential text if required
+                for (Character c : contents.getChars()) {
+                    if (c == null) {
+                        sb.append(" ");
+                    } else {
+                        sb.append(c);
+                    }
+                }
+                String fieldText = applyCtf ? cts.removeConfidentialText(sb.toString()) : sb.toString();
+
+                char[] fieldTextCharArray = fieldText.toCharArray();
+                Character[] newArray = new Character[fieldTextCharArray.length];
+                for (int i = 0; i < fieldTextCharArray.length; i++){
+                    newArray[i] = Character.valueOf(fieldTextCharArray[i]);
+                }
+
+                // Create new FieldContents with the new Character[] with confidential text removed
+                FieldContents newFieldContents = new FieldContents(newArray);
+                newTerminalField.getContents().add(newFieldContents);
+            }
+            newTerminalImage.getFields().add(newTerminalField);
+        }
+        return newTerminalImage;
+    }
+
+    private static class Batch {
+        private final int sequence;
+        private final TerminalSize terminalSize;
+        private final List<TerminalImage> images;
+
+        private Batch(int sequence, TerminalSize terminalSize, List<TerminalImage> images) {
+            this.sequence = sequence;
+            this.terminalSize = terminalSize;
+            this.images = images;
+        }
+    }
+
+    /**
+     * Removes confidential text from each string as it is written, rather than from the whole JSON document
+     */
+    private class ConfidentialTextJsonWriter extends JsonWriter {
+
+        public ConfidentialTextJsonWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        public JsonWriter value(String value) throws IOException {
+            if (applyCtf && value != null) {
+                value = cts.removeConfidentialText(value);
+            }
+            return super.value(value);
+        }
+    }
+
+}
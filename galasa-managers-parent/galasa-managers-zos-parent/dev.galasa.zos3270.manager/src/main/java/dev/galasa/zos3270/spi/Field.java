@@ -15,6 +15,7 @@ public class Field {
     private final int            start;
 
     private char[]               text;
+    private String               textString;
 
     private final boolean        fieldProtected;
     private final boolean        fieldNumeric;
@@ -42,6 +43,16 @@ public class Field {
         this.highlight        = sf.getHighlight();
     }
 
+    protected Field(int start, BufferStartOfField sf, char[] text) {
+        this(start, sf);
+        this.text = text;
+    }
+
+    protected Field(char[] text) {
+        this();
+        this.text = text;
+    }
+
     public Field() {
         this.start = -1;
         this.fieldProtected = false;
@@ -60,6 +71,7 @@ public class Field {
         char[] newText = Arrays.copyOf(this.text, this.text.length + 1);
         newText[newText.length - 1] = newChar;
         this.text = newText;
+        this.textString = null;
     }
 
     @Override
@@ -90,7 +102,10 @@ public class Field {
     }
 
     public boolean containsText(String searchText) {
-        return new String(this.text).contains(searchText);
+        if (this.textString == null) {
+            this.textString = new String(this.text);
+        }
+        return this.textString.contains(searchText);
     }
 
     public int getStart() {
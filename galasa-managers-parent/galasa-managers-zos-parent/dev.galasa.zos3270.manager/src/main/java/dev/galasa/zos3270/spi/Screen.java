@@ -9,6 +9,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -74,6 +75,7 @@ import dev.galasa.zos3270.internal.datastream.StructuredField;
 import dev.galasa.zos3270.internal.datastream.StructuredField3270DS;
 import dev.galasa.zos3270.internal.datastream.StructuredFieldReadPartition;
 import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
+import dev.galasa.zos3270.internal.terminal.FieldTextSearch;
 import dev.galasa.zos3270.internal.terminal.ScreenUpdateTextListener;
 
 /**
@@ -85,6 +87,12 @@ import dev.galasa.zos3270.internal.terminal.ScreenUpdateTextListener;
 public class Screen {
 
     private static final String                     CANT_FIND_TEXT  = "Unable to find a field containing '";
+
+    private static final byte                       CELL_EMPTY           = 0;
+    private static final byte                       CELL_CHAR            = 1;
+    private static final byte                       CELL_FIELD_START     = 2;
+    private static final byte                       CELL_GRAPHICS_ESCAPE = 3;
+    private static final byte                       CELL_CONTROL         = 4;
     
     private final Charset                           codePage;
 
@@ -93,7 +101,18 @@ public class Screen {
     private final Network                           network;
 
     private boolean                                 usingAlternate;
-    private IBufferHolder[]                         buffer;
+
+    // The buffer is held as planes indexed by buffer position so that writing to it does not allocate.
+    // chars is the character displayed at each position, 0 if nothing has been written there
+    private char[]                                  chars;
+    private byte[]                                  cellTypes;
+    private byte[]                                  controlBytes;
+    private BufferStartOfField[]                    fieldStarts;
+
+    // Calculated from the buffer when next needed, null if the buffer has changed since
+    private int[]                                   fieldStartPositions;
+    private Field[]                                 fields;
+
     private int                                     screenSize;
     private int                                     columns;
     private int                                     rows;
@@ -242,13 +261,10 @@ public class Screen {
     }
 
     private void resetMdt() {
-        for(int i = 0; i < this.screenSize; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField sof = (BufferStartOfField) bh;
-                sof.clearFieldModified();
-            }
+        for (int position : getFieldStartPositions()) {
+            this.fieldStarts[position].clearFieldModified();
         }
+        this.fields = null;
     }
 
     private synchronized void processReadBuffer() throws DatastreamException {
@@ -260,22 +276,26 @@ public class Screen {
             BufferAddress cursor = new BufferAddress(this.screenCursor);
             outboundBuffer.write(cursor.getCharRepresentation());
 
-            for(IBufferHolder bh : this.buffer) {
-                if (bh == null) {
+            for(int i = 0; i < this.screenSize; i++) {
+                switch(this.cellTypes[i]) {
+                case CELL_EMPTY:
                     outboundBuffer.write(0);
-                } else if (bh instanceof BufferGraphicsEscape) {
-                    BufferGraphicsEscape bc = (BufferGraphicsEscape) bh;
+                    break;
+                case CELL_GRAPHICS_ESCAPE:
                     outboundBuffer.write(OrderGraphicsEscape.ID);
-                    outboundBuffer.write(bc.getFieldEbcdic(this.codePage));
-                } else if (bh instanceof BufferChar) {
-                    BufferChar bc = (BufferChar) bh;
-                    outboundBuffer.write(bc.getFieldEbcdic(this.codePage));
-                } else if (bh instanceof BufferStartOfField) {
-                    BufferStartOfField sf = (BufferStartOfField) bh;
+                    outboundBuffer.write(this.controlBytes[i]);
+                    break;
+                case CELL_CONTROL:
+                    outboundBuffer.write(this.controlBytes[i]);
+                    break;
+                case CELL_FIELD_START:
+                    BufferStartOfField sf = this.fieldStarts[i];
                     OrderStartField osf = new OrderStartField(sf.isProtected(), sf.isNumeric(), sf.isDisplay(), sf.isIntenseDisplay(), sf.isSelectorPen(), sf.isFieldModifed());
                     outboundBuffer.write(osf.getBytes());
-                } else {
-                    throw new DatastreamException("Unrecognised Buffer Holder - " + bh.getClass().getName());
+                    break;
+                default:
+                    outboundBuffer.write(toEbcdic(this.chars[i]));
+                    break;
                 }
             }
             writeTrace(outboundBuffer);
@@ -332,15 +352,16 @@ public class Screen {
 
         int start = 0;
         int end = 0;
-        for (; start < buffer.length; start++) {
-            if (buffer[start] instanceof BufferStartOfField) {
-                break;
-            }
+        int[] startPositions = getFieldStartPositions();
+        if (startPositions.length > 0) {
+            start = startPositions[0];
+        } else {
+            start = this.screenSize;
         }
 
-        if (start >= buffer.length) { // indicates unfromatted, send it all
+        if (start >= this.screenSize) { // indicates unfromatted, send it all
             start = 0;
-            end = buffer.length - 1;
+            end = this.screenSize - 1;
 
             // OrderSetBufferAddress sba = new OrderSetBufferAddress(new BufferAddress(0));
             // outboundBuffer.write(sba.getCharRepresentation());
@@ -348,32 +369,28 @@ public class Screen {
         } else { // formatted
             end = start - 1;
             if (end < 0) {
-                end = buffer.length - 1;
+                end = this.screenSize - 1;
             }
         }
 
         int pos = start;
         while (true) {
-            IBufferHolder bh = buffer[pos];
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField bsf = (BufferStartOfField) bh;
-                fieldModified = bsf.isFieldModifed();
+            byte cellType = this.cellTypes[pos];
+            if (cellType == CELL_FIELD_START) {
+                fieldModified = this.fieldStarts[pos].isFieldModifed();
 
                 if (fieldModified) { // Send whether unprotected or not
                     OrderSetBufferAddress sba = new OrderSetBufferAddress(new BufferAddress(pos + 1));
                     outboundBuffer.write(sba.getCharRepresentation());
                 }
-            } else if (bh instanceof BufferGraphicsEscape) {
-                BufferGraphicsEscape bc = (BufferGraphicsEscape) bh;
+            } else if (cellType == CELL_GRAPHICS_ESCAPE) {
                 if (fieldModified) {
                     outboundBuffer.write(OrderGraphicsEscape.ID);
-                    byte value = bc.getFieldEbcdic(this.codePage);
-                    outboundBuffer.write(value);
+                    outboundBuffer.write(this.controlBytes[pos]);
                 }
-            } else if (bh instanceof BufferChar) {
-                BufferChar bc = (BufferChar) bh;
+            } else if (cellType != CELL_EMPTY) {
                 if (fieldModified) {
-                    byte value = bc.getFieldEbcdic(this.codePage);
+                    byte value = cellType == CELL_CONTROL ? this.controlBytes[pos] : toEbcdic(this.chars[pos]);
                     if (value != 0) {
                         outboundBuffer.write(value);
                     }
@@ -385,7 +402,7 @@ public class Screen {
             }
 
             pos++;
-            if (pos >= buffer.length) {
+            if (pos >= this.screenSize) {
                 pos = 0;
             }
         }
@@ -548,7 +565,7 @@ public class Screen {
 
     public synchronized void erase() {
 
-        if (this.usingAlternate || this.buffer == null) {
+        if (this.usingAlternate || this.chars == null) {
             this.columns = primaryColumns;
             this.rows    = primaryRows;
             allocateBuffer();
@@ -556,9 +573,7 @@ public class Screen {
             this.usingAlternate = false;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        clearBuffer();
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
@@ -571,7 +586,7 @@ public class Screen {
         }
 
 
-        if (!this.usingAlternate || this.buffer == null) {
+        if (!this.usingAlternate || this.chars == null) {
             this.columns = alternateColumns;
             this.rows    = alternateRows;
             allocateBuffer();
@@ -579,17 +594,111 @@ public class Screen {
             this.usingAlternate = true;
         }
 
-        for (int i = 0; i < buffer.length; i++) {
-            buffer[i] = null;
-        }
+        clearBuffer();
 
         this.screenCursor  = 0;
         this.workingCursor = 0;
     }
 
     private void allocateBuffer() {
-        this.screenSize = this.columns * this.rows;
-        this.buffer = new IBufferHolder[this.screenSize];        
+        this.screenSize   = this.columns * this.rows;
+        this.chars        = new char[this.screenSize];
+        this.cellTypes    = new byte[this.screenSize];
+        this.controlBytes = new byte[this.screenSize];
+        this.fieldStarts  = new BufferStartOfField[this.screenSize];
+        bufferStructureChanged();
+    }
+
+    private void clearBuffer() {
+        Arrays.fill(this.chars, (char) 0);
+        Arrays.fill(this.cellTypes, CELL_EMPTY);
+        Arrays.fill(this.fieldStarts, null);
+        bufferStructureChanged();
+    }
+
+    private void setCell(int position, byte cellType, char character) {
+        if (cellType == CELL_FIELD_START || this.cellTypes[position] == CELL_FIELD_START) {
+            this.fieldStarts[position] = null;
+            this.fieldStartPositions = null;
+        }
+        this.cellTypes[position] = cellType;
+        this.chars[position]     = character;
+        this.fields              = null;
+    }
+
+    private void setChar(int position, char character) {
+        setCell(position, CELL_CHAR, character);
+    }
+
+    private void setControl(int position, byte cellType, byte value) {
+        setCell(position, cellType, ' ');
+        this.controlBytes[position] = value;
+    }
+
+    private void setFieldStart(int position, BufferStartOfField fieldStart) {
+        setCell(position, CELL_FIELD_START, ' ');
+        this.fieldStarts[position] = fieldStart;
+    }
+
+    private void clearCell(int position) {
+        setCell(position, CELL_EMPTY, (char) 0);
+    }
+
+    private void bufferStructureChanged() {
+        this.fieldStartPositions = null;
+        this.fields              = null;
+    }
+
+    /**
+     * @return the positions of the start of each field in buffer order, calculated only if the fields have changed
+     */
+    private int[] getFieldStartPositions() {
+        if (this.fieldStartPositions == null) {
+            int count = 0;
+            for (int i = 0; i < this.screenSize; i++) {
+                if (this.cellTypes[i] == CELL_FIELD_START) {
+                    count++;
+                }
+            }
+            int[] positions = new int[count];
+            count = 0;
+            for (int i = 0; i < this.screenSize; i++) {
+                if (this.cellTypes[i] == CELL_FIELD_START) {
+                    positions[count++] = i;
+                }
+            }
+            this.fieldStartPositions = positions;
+        }
+        return this.fieldStartPositions;
+    }
+
+    /**
+     * Find the nearest start of field before a position, wrapping round the end of the buffer
+     * 
+     * @param position - the buffer position
+     * @return the position of the start of field, or -1 if there is no other start of field
+     */
+    private int fieldStartBefore(int position) {
+        int[] positions = getFieldStartPositions();
+        if (positions.length == 0) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(positions, position);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index > 0) {
+            return positions[index - 1];
+        }
+        int last = positions[positions.length - 1];
+        return last == position ? -1 : last;
+    }
+
+    private byte toEbcdic(char character) {
+        if (character == 0) {
+            return 0;
+        }
+        return String.valueOf(character).getBytes(this.codePage)[0];
     }
 
     /**
@@ -620,7 +729,7 @@ public class Screen {
 
         boolean firstPosition = true;
         while (firstPosition || this.workingCursor != endOfRepeat) {
-            this.buffer[this.workingCursor] = new BufferChar(order.getChar());
+            setChar(this.workingCursor, order.getChar());
             if (endOfRepeat == this.screenSize && this.workingCursor == (this.screenSize - 1)) {
                 endOfRepeat = 0;
                 break;
@@ -640,9 +749,9 @@ public class Screen {
     }
 
     private void processSF(OrderStartField order) {
-        this.buffer[this.workingCursor] = new BufferStartOfField(this.workingCursor, order.isFieldProtected(),
+        setFieldStart(this.workingCursor, new BufferStartOfField(this.workingCursor, order.isFieldProtected(),
                 order.isFieldNumeric(), order.isFieldDisplay(), order.isFieldIntenseDisplay(),
-                order.isFieldSelectorPen(), order.isFieldModifed());
+                order.isFieldSelectorPen(), order.isFieldModifed()));
         incrementWorkingCursor();
     }
 
@@ -660,7 +769,7 @@ public class Screen {
             bsf = new BufferStartOfField(this.workingCursor, false, false, true, false, false, false);
         }
 
-        this.buffer[this.workingCursor] = bsf;
+        setFieldStart(this.workingCursor, bsf);
         incrementWorkingCursor();
     }
 
@@ -678,39 +787,21 @@ public class Screen {
             bsf = new BufferStartOfField(this.workingCursor, false, false, true, false, false, false);
         }
 
-        this.buffer[this.workingCursor] = bsf;
+        setFieldStart(this.workingCursor, bsf);
         incrementWorkingCursor();
     }
 
     private void processEUA(OrderEraseUnprotectedToAddress order) {
         boolean charProtected = true;
-        IBufferHolder bh = this.buffer[this.workingCursor];
         // are we on a SF, if so take the protected setting
-        if (bh instanceof BufferStartOfField) {
-            charProtected = ((BufferStartOfField)bh).isProtected();
+        if (this.cellTypes[this.workingCursor] == CELL_FIELD_START) {
+            charProtected = this.fieldStarts[this.workingCursor].isProtected();
         } else {
             // we have to go looking backwards for it
-            int searchCursor = this.workingCursor - 1;
-            if (searchCursor < 0) {
-                searchCursor = this.screenSize - 1;
-            }
-            boolean found = false;
-            while(searchCursor != this.workingCursor) {
-                bh = this.buffer[searchCursor];
-
-                if (bh instanceof BufferStartOfField) {
-                    charProtected = ((BufferStartOfField)bh).isProtected();
-                    found = true;
-                    break;
-                }
-
-                searchCursor--;
-                if (searchCursor < 0) {
-                    searchCursor = this.screenSize - 1;
-                }
-            }
-
-            if (!found) {
+            int sfPos = fieldStartBefore(this.workingCursor);
+            if (sfPos >= 0) {
+                charProtected = this.fieldStarts[sfPos].isProtected();
+            } else {
                 // assume no fields, so unprotected;
                 charProtected = false;
             }
@@ -727,12 +818,11 @@ public class Screen {
 
         int eraseCursor = this.workingCursor;
         while(true) {
-            bh = this.buffer[eraseCursor];
-            if (bh instanceof BufferStartOfField) {
-                charProtected = ((BufferStartOfField)bh).isProtected();
+            if (this.cellTypes[eraseCursor] == CELL_FIELD_START) {
+                charProtected = this.fieldStarts[eraseCursor].isProtected();
             } else {
                 if (!charProtected) {
-                    this.buffer[eraseCursor] = null;
+                    clearCell(eraseCursor);
                 }
             }
 
@@ -759,53 +849,43 @@ public class Screen {
     }
 
     private void processNewLine() {
-        this.buffer[this.workingCursor] = new BufferNewLine();
+        setControl(this.workingCursor, CELL_CONTROL, (byte) 0x15);
         incrementWorkingCursor();
     }
 
     private void processFormFeed() {
-        this.buffer[this.workingCursor] = new BufferFormFeed();
+        setControl(this.workingCursor, CELL_CONTROL, (byte) 0x0c);
         incrementWorkingCursor();
     }
 
     private void processCarrageReturn() {
-        this.buffer[this.workingCursor] = new BufferCarrageReturn();
+        setControl(this.workingCursor, CELL_CONTROL, (byte) 0x0d);
         incrementWorkingCursor();
     }
 
     private void processEndOfMedium() {
-        this.buffer[this.workingCursor] = new BufferEndOfMedium();
+        setControl(this.workingCursor, CELL_CONTROL, (byte) 0x19);
         incrementWorkingCursor();
     }
 
     private void processGraphicsEscape(OrderGraphicsEscape order) {
-        this.buffer[this.workingCursor] = new BufferGraphicsEscape(order.getByte());
+        setControl(this.workingCursor, CELL_GRAPHICS_ESCAPE, order.getByte());
         incrementWorkingCursor();
     }
 
     private void processText(OrderText order) {
         String text = order.getText();
         for (int i = 0; i < text.length(); i++) {
-            this.buffer[this.workingCursor] = new BufferChar(text.charAt(i));
+            setChar(this.workingCursor, text.charAt(i));
             incrementWorkingCursor();
         }
 
     }
 
     public String printScreen() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
-        }
-
-        StringBuilder screenSB = new StringBuilder();
-        String screenString = sb.toString();
+        StringBuilder screenSB = new StringBuilder(this.screenSize + this.rows);
         for (int i = 0; i < this.screenSize; i += this.columns) {
-            screenSB.append(screenString.substring(i, i + this.columns));
+            appendWithoutNulls(screenSB, i, i + this.columns);
             screenSB.append('\n');
         }
         return screenSB.toString();
@@ -815,21 +895,11 @@ public class Screen {
         int cursorRow = screenCursor / columns;
         int cursorCol = screenCursor % columns;
 
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
-        }
-
         StringBuilder screenSB = new StringBuilder();
-        String screenString = sb.toString();
         int row = 0;
         for (int i = 0; i < this.screenSize; i += this.columns) {
             screenSB.append("=|");
-            screenSB.append(screenString.substring(i, i + this.columns));
+            appendWithoutNulls(screenSB, i, i + this.columns);
             screenSB.append("|");
             screenSB.append('\n');
             if (row == cursorRow) {
@@ -871,17 +941,12 @@ public class Screen {
 
         // *** Check to see if the screen is wrapped or unformatted
         BufferStartOfField currentBufferStartOfField = new BufferStartOfField(0, false, false, true, false, false, false);
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    currentBufferStartOfField = (BufferStartOfField) bh;
-                    break;
-                }
-            }
+        int[] startPositions = getFieldStartPositions();
+        if (startPositions.length > 0 && startPositions[0] != 0) {
+            currentBufferStartOfField = this.fieldStarts[startPositions[startPositions.length - 1]];
         }  // no need for else as it will be picked up in the loop
 
-        for (int i = 0; i < this.buffer.length; i++) {
+        for (int i = 0; i < this.screenSize; i++) {
             // print row header
             if (col == 0) {
                 screenBuffer.append("=");
@@ -890,19 +955,15 @@ public class Screen {
             }
 
             // Print actual text
-            IBufferHolder bufferHolder = this.buffer[i];
-            if (bufferHolder == null) {
-                screenBuffer.append(" ");
-            } else {
-                screenBuffer.append(bufferHolder.getStringWithoutNulls());
-
-                if (bufferHolder instanceof BufferStartOfField) {
-                    currentBufferStartOfField = (BufferStartOfField)bufferHolder;
-                }
+            byte cellType = this.cellTypes[i];
+            char c = this.chars[i];
+            screenBuffer.append(c == 0 ? ' ' : c);
+            if (cellType == CELL_FIELD_START) {
+                currentBufferStartOfField = this.fieldStarts[i];
             }
 
 
-            if (bufferHolder == null || bufferHolder == currentBufferStartOfField) {
+            if (cellType == CELL_EMPTY || cellType == CELL_FIELD_START) {
                 foregroundLine.append(" ");
                 backgroundLine.append(" ");
                 highlightLine.append(" ");
@@ -1096,70 +1157,50 @@ public class Screen {
     }
 
     public String retrieveFlatScreen() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < this.buffer.length; i++) {
-            if (this.buffer[i] == null) {
-                sb.append(" ");
-            } else {
-                sb.append(this.buffer[i].getStringWithoutNulls());
-            }
-        }
+        StringBuilder sb = new StringBuilder(this.screenSize);
+        appendWithoutNulls(sb, 0, this.screenSize);
         return sb.toString();
     }
 
+    private void appendWithoutNulls(StringBuilder sb, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = this.chars[i];
+            sb.append(c == 0 ? ' ' : c);
+        }
+    }
 
 
-    public synchronized @NotNull Field[] calculateFields() {
-        ArrayList<Field> fields = new ArrayList<>();
 
-        Field currentField = null;
+    public synchronized @NotNull Field[] calculateFields() {
+        if (this.fields == null) {
+            this.fields = buildFields();
+        }
+        return this.fields.clone();
+    }
 
-        // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
-            BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
-                    break;
-                }
-            }
+    private Field[] buildFields() {
+        int[] startPositions = getFieldStartPositions();
 
-            if (wrapSoField == null) {
-                currentField = new Field();
-            } else {
-                currentField = new Field(-1, wrapSoField);
-            }
+        // *** Unformatted screen
+        if (startPositions.length == 0) {
+            return new Field[] { new Field(Arrays.copyOf(this.chars, this.screenSize)) };
         }
 
-        for (int i = 0; i < this.buffer.length; i++) {
-            IBufferHolder bh = this.buffer[i];
-            if (bh == null) {
-                currentField.appendChar((char) 0x00); // NOSONAR, can't be null
-            } else if (bh instanceof BufferStartOfField) {
-                if (currentField != null) {
-                    fields.add(currentField);
-                }
-                currentField = new Field(i, (BufferStartOfField) bh);
-            } else if (bh instanceof BufferChar) {
-                currentField.appendChar(((BufferChar) bh).getChar());// NOSONAR, can't be null
-            } else {
-                throw new UnsupportedOperationException("Unrecognised buffer type " + bh.getClass().getName());
-            }
-        }
-        if (currentField != null) {
-            fields.add(currentField);
+        ArrayList<Field> newFields = new ArrayList<>(startPositions.length + 1);
+
+        // *** Check to see if the screen is wrapped, the text before the first field belongs to the last field
+        if (startPositions[0] != 0) {
+            BufferStartOfField wrapSoField = this.fieldStarts[startPositions[startPositions.length - 1]];
+            newFields.add(new Field(-1, wrapSoField, Arrays.copyOf(this.chars, startPositions[0])));
         }
 
-        // *** If the SBA were not in order, possibility that the safeguard first field
-        // was left there
-        if (fields.size() >= 2) {
-            if (fields.get(0).getStart() == 0 && fields.get(1).getStart() == 0) {
-                fields.remove(0);
-            }
+        for (int i = 0; i < startPositions.length; i++) {
+            int start = startPositions[i];
+            int end = (i + 1 < startPositions.length) ? startPositions[i + 1] : this.screenSize;
+            newFields.add(new Field(start, this.fieldStarts[start], Arrays.copyOfRange(this.chars, start + 1, end)));
         }
 
-        return fields.toArray(new Field[fields.size()]);
+        return newFields.toArray(new Field[newFields.size()]);
     }
 
     public void searchFieldContaining(String text) throws TextNotFoundException {
@@ -1173,25 +1214,19 @@ public class Screen {
     }
 
     public int searchFieldContaining(@NotNull String[] okText, String[] errorText) throws TextNotFoundException, ErrorTextFoundException {
-        if (errorText != null) {
-            for(int i = 0; i < errorText.length; i++) {
-                for (Field field : calculateFields()) {
-                    if (field.containsText(errorText[i])) {
-                        throw new ErrorTextFoundException("Found error text '" + errorText[i] + "' on screen", i);
-                    }
-                }
-            }
-        }
-
-        for(int i = 0; i < okText.length; i++) {
-            for (Field field : calculateFields()) {
-                if (field.containsText(okText[i])) {
-                    return i;
-                }
-            }
-        }
+        return searchFieldContaining(new FieldTextSearch(okText, errorText));
+    }
 
-        throw new TextNotFoundException("Unable to locate text on sreen");
+    /**
+     * Search the fields for any of the texts of a search in one pass over the screen
+     * 
+     * @param search - the search, which can be reused for each screen update
+     * @return the index of the first ok text that was found
+     * @throws TextNotFoundException if none of the texts were found
+     * @throws ErrorTextFoundException if an error text was found
+     */
+    public synchronized int searchFieldContaining(@NotNull FieldTextSearch search) throws TextNotFoundException, ErrorTextFoundException {
+        return search.search(this.chars, this.screenSize, getFieldStartPositions());
     }
 
     public boolean isTextInField(String text) {
@@ -1265,25 +1300,14 @@ public class Screen {
             throw new KeyboardLockedException("Unable to move cursor as keyboard is locked");
         }
 
-        if (buffer[screenCursor] != null && !(buffer[screenCursor] instanceof BufferChar)) {
+        if (this.cellTypes[screenCursor] == CELL_FIELD_START) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + this.screenCursor);
         }
 
         BufferStartOfField sf = null;
-        int sfPos = screenCursor - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != screenCursor) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
+        int sfPos = fieldStartBefore(screenCursor);
+        if (sfPos >= 0) {
+            sf = this.fieldStarts[sfPos];
         }
 
         // *** if no field found, assume unprotected
@@ -1294,11 +1318,12 @@ public class Screen {
         //*** Set this and following characters to null
         int pos = this.screenCursor;
         while(true) {
-            if (!(buffer[pos] instanceof BufferChar)) {
+            byte cellType = this.cellTypes[pos];
+            if (cellType == CELL_EMPTY || cellType == CELL_FIELD_START) {
                 break;
             }
 
-            buffer[pos] = new BufferChar((char) 0);
+            setChar(pos, (char) 0);
             pos++;
             if (pos >= this.screenSize) {
                 pos = 0;
@@ -1311,6 +1336,7 @@ public class Screen {
 
         if (sf != null) {
             sf.setFieldModified();
+            this.fields = null;
         }
     }
 
@@ -1324,14 +1350,11 @@ public class Screen {
         BufferStartOfField startOfFieldUnprotected = null;
 
         // *** Check to see if the screen is wrapped or unformatted
-        if (!(this.buffer[0] instanceof BufferStartOfField)) {
+        if (this.cellTypes[0] != CELL_FIELD_START) {
             BufferStartOfField wrapSoField = null;
-            for (int i = this.buffer.length - 1; i >= 0; i--) {
-                IBufferHolder bh = this.buffer[i];
-                if (bh instanceof BufferStartOfField) {
-                    wrapSoField = (BufferStartOfField) bh;
-                    break;
-                }
+            int[] startPositions = getFieldStartPositions();
+            if (startPositions.length > 0) {
+                wrapSoField = this.fieldStarts[startPositions[startPositions.length - 1]];
             }
 
             if (wrapSoField == null) {
@@ -1345,10 +1368,8 @@ public class Screen {
 
 
         for(int i = 0; i < this.screenSize; i++) {
-            IBufferHolder bh = this.buffer[i];
-
-            if (bh instanceof BufferStartOfField) {
-                BufferStartOfField sof = (BufferStartOfField) bh;
+            if (this.cellTypes[i] == CELL_FIELD_START) {
+                BufferStartOfField sof = this.fieldStarts[i];
                 unprotected = !sof.isProtected();
                 if (unprotected) {
                     startOfFieldUnprotected = sof;
@@ -1357,7 +1378,7 @@ public class Screen {
                 }
             } else {
                 if (unprotected) {
-                    this.buffer[i] = null;
+                    clearCell(i);
                     if (startOfFieldUnprotected != null) {
                         startOfFieldUnprotected.setFieldModified();
                     }
@@ -1376,9 +1397,8 @@ public class Screen {
         int startPosition = this.screenCursor;
         boolean foundUnprotectedField = false;
 
-        IBufferHolder sfCheck = this.buffer[this.screenCursor];    
-        if (sfCheck instanceof BufferStartOfField) {
-            foundUnprotectedField = !((BufferStartOfField)sfCheck).isProtected();
+        if (this.cellTypes[this.screenCursor] == CELL_FIELD_START) {
+            foundUnprotectedField = !this.fieldStarts[this.screenCursor].isProtected();
         }
         while(true) {
             // advance the cursor
@@ -1388,19 +1408,16 @@ public class Screen {
             }
 
             // Get the entry at this position
-            IBufferHolder previousBuffer = this.buffer[this.screenCursor];
-            if (previousBuffer == null || previousBuffer instanceof BufferChar) {
+            if (this.cellTypes[this.screenCursor] != CELL_FIELD_START) {
                 // if this is a character and we are in an unprotected field, use it
                 if (foundUnprotectedField) {
                     return;
                 }
-            } else  if (previousBuffer instanceof BufferStartOfField) {
+            } else {
                 // we have a start of field
-                BufferStartOfField sof = (BufferStartOfField) previousBuffer;
+                BufferStartOfField sof = this.fieldStarts[this.screenCursor];
                 // record if it is unprotected or not
                 foundUnprotectedField = !sof.isProtected();
-            } else {
-                throw new FieldNotFoundException("Unrecognised buffer type at pos " + this.screenCursor);
             }
 
             if (this.screenCursor == startPosition) {
@@ -1428,13 +1445,12 @@ public class Screen {
             }
 
             // Get the entry in the previous position
-            IBufferHolder previousBuffer = this.buffer[previousPositionInBuffer];
-            if (previousBuffer == null || previousBuffer instanceof BufferChar) {
+            if (this.cellTypes[previousPositionInBuffer] != CELL_FIELD_START) {
                 // if it is null or a character, mark position as the last valid position whether unprotected or not
                 lastCharField = previousPositionInBuffer;
-            } else  if (previousBuffer instanceof BufferStartOfField) {
+            } else {
                 // we have a start of field
-                BufferStartOfField sof = (BufferStartOfField) previousBuffer;
+                BufferStartOfField sof = this.fieldStarts[previousPositionInBuffer];
                 //if it is protected, invalidate the last valid char position
                 if (sof.isProtected()) {
                     lastCharField = -1;
@@ -1447,8 +1463,6 @@ public class Screen {
                         return;
                     }
                 }
-            } else {
-                throw new FieldNotFoundException("Unrecognised buffer type at pos " + previousPositionInBuffer);
             }
 
             this.screenCursor = previousPositionInBuffer;
@@ -1608,25 +1622,14 @@ public class Screen {
 
         int position = this.screenCursor;
 
-        if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+        if (this.cellTypes[position] == CELL_FIELD_START) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + this.screenCursor);
         }
 
         BufferStartOfField sf = null;
-        int sfPos = position - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != position) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
+        int sfPos = fieldStartBefore(position);
+        if (sfPos >= 0) {
+            sf = this.fieldStarts[sfPos];
         }
 
         // *** if no field found, assume unprotected
@@ -1643,15 +1646,16 @@ public class Screen {
         }
 
         while(true) {
-            this.buffer[position - 1] = this.buffer[position];
-            this.buffer[position] = null;
+            this.controlBytes[position - 1] = this.controlBytes[position];
+            setCell(position - 1, this.cellTypes[position], this.chars[position]);
+            clearCell(position);
 
             position++;
             if (position >= this.screenSize) {
                 break;
             }
 
-            if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+            if (this.cellTypes[position] == CELL_FIELD_START) {
                 break;
             }
         }
@@ -1731,25 +1735,14 @@ public class Screen {
             throw new KeyboardLockedException("Unable to type as keyboard is locked");
         }
 
-        if (buffer[position] != null && !(buffer[position] instanceof BufferChar)) {
+        if (this.cellTypes[position] == CELL_FIELD_START) {
             throw new FieldNotFoundException("Unable to type where the cursor is pointing to - " + position);
         }
 
         BufferStartOfField sf = null;
-        int sfPos = position - 1;
-        if (sfPos < 0) {
-            sfPos = buffer.length - 1;
-        }
-        while(sfPos != position) {
-            if (buffer[sfPos] instanceof BufferStartOfField) {
-                sf = (BufferStartOfField) buffer[sfPos];
-                break;
-            }
-
-            sfPos--;
-            if (sfPos < 0) {
-                sfPos = buffer.length - 1;
-            }
+        int sfPos = fieldStartBefore(position);
+        if (sfPos >= 0) {
+            sf = this.fieldStarts[sfPos];
         }
 
         // *** if no field found, assume unprotected
@@ -1762,13 +1755,12 @@ public class Screen {
         }
 
         for (int i = 0; i < text.length(); i++) {
-            IBufferHolder bh = buffer[position];
-            if (bh != null && !(bh instanceof BufferChar)) {
+            if (this.cellTypes[position] == CELL_FIELD_START) {
                 throw new FieldNotFoundException(
                         "Unable to type where the cursor is pointing to - " + position);
             }
 
-            buffer[position] = new BufferChar(text.charAt(i));
+            setChar(position, text.charAt(i));
 
             if (sf != null) {
                 sf.setFieldModified();
@@ -1785,14 +1777,14 @@ public class Screen {
                 }
 
                 this.screenCursor = position;
-                bh = buffer[position];
+                boolean fieldStart = this.cellTypes[position] == CELL_FIELD_START;
 
-                if (unprotected && (bh == null || (bh instanceof BufferChar))) {
+                if (unprotected && !fieldStart) {
                     break;
                 }
 
-                if (bh != null && (bh instanceof BufferStartOfField)) {
-                    BufferStartOfField sof = (BufferStartOfField) bh;
+                if (fieldStart) {
+                    BufferStartOfField sof = this.fieldStarts[position];
                     unprotected = !sof.isProtected();
                     if (unprotected) {
                         sf = sof;
@@ -1854,15 +1846,27 @@ public class Screen {
     }
 
     public void setBuffer(IBufferHolder[] newBuffer) {
-        for (int i = 0; i < this.buffer.length && i < newBuffer.length; i++) {
-            this.buffer[i] = newBuffer[i];
+        for (int i = 0; i < this.screenSize && i < newBuffer.length; i++) {
+            IBufferHolder bh = newBuffer[i];
+            if (bh == null) {
+                clearCell(i);
+            } else if (bh instanceof BufferStartOfField) {
+                setFieldStart(i, (BufferStartOfField) bh);
+            } else if (bh instanceof BufferGraphicsEscape) {
+                setControl(i, CELL_GRAPHICS_ESCAPE, ((BufferGraphicsEscape) bh).getFieldEbcdic(this.codePage));
+            } else if (bh instanceof BufferNewLine || bh instanceof BufferFormFeed
+                    || bh instanceof BufferCarrageReturn || bh instanceof BufferEndOfMedium) {
+                setControl(i, CELL_CONTROL, ((BufferChar) bh).getFieldEbcdic(this.codePage));
+            } else {
+                setChar(i, bh.getChar());
+            }
         }
     }
 
     public void setBuffer(int col, int row, String text) {
         int pos = (row * columns) + col;
         for (int i = 0; i < text.length(); i++) {
-            buffer[pos] = new BufferChar(text.charAt(i));
+            setChar(pos, text.charAt(i));
             pos++;
         }
     }
@@ -1870,7 +1874,7 @@ public class Screen {
     public void nullify(int col, int row, int len) {
         int pos = (row * columns) + col;
         for (int i = 0; i < len; i++) {
-            buffer[pos] = null;
+            clearCell(pos);
             pos++;
         }
     }
@@ -1937,8 +1941,8 @@ public class Screen {
     }
 
     public synchronized boolean isClearScreen() {
-        for(IBufferHolder bh : buffer) {
-            if (bh != null) {
+        for(byte cellType : this.cellTypes) {
+            if (cellType != CELL_EMPTY) {
                 return false;
             }
         }
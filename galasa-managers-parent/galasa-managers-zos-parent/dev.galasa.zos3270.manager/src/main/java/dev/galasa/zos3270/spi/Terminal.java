@@ -29,7 +29,9 @@ import dev.galasa.zos3270.TimeoutException;
 import dev.galasa.zos3270.Zos3270Exception;
 import dev.galasa.zos3270.common.screens.TerminalSize;
 import dev.galasa.zos3270.internal.comms.Network;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
 import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.terminal.ScreenUpdateConditionListener;
 
 public class Terminal implements ITerminal {
 
@@ -94,11 +96,24 @@ public class Terminal implements ITerminal {
         this.deviceTypes = deviceTypes;
     }
 
+    /**
+     * Service this terminal's connection from a shared network selector rather than a network thread of its own
+     * 
+     * @param networkSelector - the selector, or null to use a network thread
+     */
+    public void setNetworkSelector(NetworkSelector networkSelector) {
+        this.network.setNetworkSelector(networkSelector);
+    }
+
     @Override
     public synchronized void connect() throws NetworkException {
         connected = network.connectClient();
         networkThread = new NetworkThread(this, screen, network, network.getInputStream(), this.deviceTypes);
-        networkThread.start();
+        if (network.isMultiplexed()) {
+            network.register(networkThread);
+        } else {
+            networkThread.start();
+        }
         
         Instant expire = Instant.now().plus(60, ChronoUnit.SECONDS);
         boolean started = false;
@@ -135,9 +150,10 @@ public class Terminal implements ITerminal {
         if (network != null) {
             network.close();
         }
-        if (networkThread != null) {
+        NetworkThread nThread = this.networkThread;
+        if (nThread != null) {
             try {
-                networkThread.join();
+                nThread.waitForEnd();
             } catch (InterruptedException e) {
                 throw new TerminalInterruptedException("Join of the network thread was interrupted",e);
             }
@@ -213,25 +229,12 @@ public class Terminal implements ITerminal {
     
     @Override
     public boolean isTextInField(String text, long timeoutInMilliseconds) throws TerminalInterruptedException {
-        if (isTextInField(text)) {
-            return true;
+        try {
+            return ScreenUpdateConditionListener.waitForCondition(screen, () -> screen.isTextInField(text), timeoutInMilliseconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TerminalInterruptedException("Wait for text was interrupted",e);
         }
-        
-        Instant expire = Instant.now().plus(timeoutInMilliseconds, ChronoUnit.MILLIS);
-        while(expire.isAfter(Instant.now())) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new TerminalInterruptedException("Wait for text was interrupted",e);
-            }
-            
-            if (isTextInField(text)) {
-                return true;
-            }
-        }
-        
-        return false;
     }
 
     @Override
@@ -251,35 +254,34 @@ public class Terminal implements ITerminal {
     
     @Override
     public boolean searchText(String text, int occurrences, long milliTimeout) {
-    	    	
-    	long startTime = System.currentTimeMillis();
     	
     	logger.info("Searching for " + occurrences + " counts of '" + text + "' on terminal screen over " + milliTimeout + "ms");
     	
-    	do {
-    		try {
-    			// Scan the terminal screen
-    			textScan.getTextScanner().scan(retrieveScreen(), text, null, occurrences);
-    			
-    		} catch (TextScanManagerException e) {
-    			    			
-    			try {
-        			Thread.sleep(2000);
-    			} catch (InterruptedException interEx) {}
-    			
-       			// Exception has occurred so text was not found    
-    			continue;
-    		}
-    		
-    		// At this point, the text must have been found as an exception wasn't thrown
-    		logger.info("Found " + occurrences + " counts of '" + text + "' on terminal screen");
-    		return true;
-    		
-		} while ((System.currentTimeMillis() - startTime) <= milliTimeout);
+    	boolean found = false;
+    	try {
+    		// Rescan the terminal screen each time it is updated
+    		found = ScreenUpdateConditionListener.waitForCondition(screen, () -> isTextOnScreen(text, occurrences), milliTimeout);
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    	}
     	
-    	logger.info("Did not find " + occurrences + " counts of '" + text + "' on terminal screen");
+    	if (found) {
+    		logger.info("Found " + occurrences + " counts of '" + text + "' on terminal screen");
+    	} else {
+    		logger.info("Did not find " + occurrences + " counts of '" + text + "' on terminal screen");
+    	}
     	
-    	return false;
+    	return found;
+    }
+    
+    private boolean isTextOnScreen(String text, int occurrences) {
+    	try {
+    		textScan.getTextScanner().scan(retrieveScreen(), text, null, occurrences);
+    		return true;
+    	} catch (TextScanManagerException e) {
+    		// Exception has occurred so text was not found
+    		return false;
+    	}
     }
     
     @Override
@@ -6,19 +6,13 @@
 package dev.galasa.zos3270.spi;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
-import java.util.zip.GZIPOutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -27,11 +21,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 
-import dev.galasa.ResultArchiveStoreContentType;
-import dev.galasa.SetContentType;
 import dev.galasa.framework.spi.IConfidentialTextService;
 import dev.galasa.framework.spi.IFramework;
-import dev.galasa.framework.spi.utils.GalasaGson;
 import dev.galasa.textscan.spi.ITextScannerManagerSpi;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
@@ -46,14 +37,15 @@ import dev.galasa.zos3270.common.screens.TerminalSize;
 import dev.galasa.zos3270.internal.properties.ApplyConfidentialTextFiltering;
 import dev.galasa.zos3270.internal.properties.LiveTerminalUrl;
 import dev.galasa.zos3270.internal.properties.LogConsoleTerminals;
+import dev.galasa.zos3270.internal.properties.RasTerminalDeltas;
 import dev.galasa.zos3270.internal.properties.TerminalDeviceTypes;
+import dev.galasa.zos3270.internal.terminal.LiveTerminalFeed;
+import dev.galasa.zos3270.internal.terminal.TerminalRasWriter;
 
 public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListener {
 
     private Log logger = LogFactory.getLog(getClass());
 
-    private final GalasaGson gson = new GalasaGson();
-
     private final String terminalId;
     private int updateId;
     private final String runId;
@@ -61,13 +53,17 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
     private final IConfidentialTextService cts;
     private final boolean applyCtf;
 
+    private static final int RAS_BATCH_SIZE = 10;
+    private static final int MAX_CACHED_IMAGES = 1000;
+
     private final ArrayList<TerminalImage> cachedImages = new ArrayList<>();
 
     private Path storedArtifactsRoot;
     private final Path terminalRasDirectory;
+    private final TerminalRasWriter rasWriter;
     private int rasTerminalSequence;
-    private URL liveTerminalUrl;
-    private int liveTerminalSequence;
+    private int discardedImages;
+    private LiveTerminalFeed liveTerminalFeed;
     private boolean logConsoleTerminals;
     private boolean autoConnect;
 
@@ -104,10 +100,10 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
 
         storedArtifactsRoot = framework.getResultArchiveStore().getStoredArtifactsRoot();
         terminalRasDirectory = storedArtifactsRoot.resolve("zos3270").resolve("terminals").resolve(this.terminalId);
+        rasWriter = new TerminalRasWriter(this.terminalId, this.runId, terminalRasDirectory, this.cts, this.applyCtf,
+                RasTerminalDeltas.get());
         URL propLiveTerminalUrl = LiveTerminalUrl.get();
-        if (propLiveTerminalUrl == null) {
-            liveTerminalUrl = null;
-        } else {
+        if (propLiveTerminalUrl != null) {
             try {
                 // *** Register the terminal to the UI which will own the terminal view
                 HttpURLConnection connection = (HttpURLConnection) propLiveTerminalUrl.openConnection();
@@ -121,8 +117,9 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
                     logger.warn("Unable to activate live terminal due to " + connection.getResponseCode() + " - "
                             + connection.getResponseMessage());
                 } else {
-                    this.liveTerminalUrl = new URL(
-                            propLiveTerminalUrl.toString() + "/" + this.runId + "/" + this.terminalId);
+                    this.liveTerminalFeed = new LiveTerminalFeed(new URL(
+                            propLiveTerminalUrl.toString() + "/" + this.runId + "/" + this.terminalId),
+                            this.terminalId, this.runId, this.rasWriter::removeConfidentialTextFromTerminalImage);
                 }
             } catch (Exception e) {
                 throw new Zos3270ManagerException("Unable to create the live terminal directory", e);
@@ -150,10 +147,10 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
 
         storedArtifactsRoot = framework.getResultArchiveStore().getStoredArtifactsRoot();
         terminalRasDirectory = storedArtifactsRoot.resolve("zos3270").resolve("terminals").resolve(this.terminalId);
+        rasWriter = new TerminalRasWriter(this.terminalId, this.runId, terminalRasDirectory, this.cts, this.applyCtf,
+                RasTerminalDeltas.get());
         URL propLiveTerminalUrl = LiveTerminalUrl.get();
-        if (propLiveTerminalUrl == null) {
-            liveTerminalUrl = null;
-        } else {
+        if (propLiveTerminalUrl != null) {
             try {
                 // *** Register the terminal to the UI which will own the terminal view
                 HttpURLConnection connection = (HttpURLConnection) propLiveTerminalUrl.openConnection();
@@ -167,8 +164,9 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
                     logger.warn("Unable to activate live terminal due to " + connection.getResponseCode() + " - "
                             + connection.getResponseMessage());
                 } else {
-                    this.liveTerminalUrl = new URL(
-                            propLiveTerminalUrl.toString() + "/" + this.runId + "/" + this.terminalId);
+                    this.liveTerminalFeed = new LiveTerminalFeed(new URL(
+                            propLiveTerminalUrl.toString() + "/" + this.runId + "/" + this.terminalId),
+                            this.terminalId, this.runId, this.rasWriter::removeConfidentialTextFromTerminalImage);
                 }
             } catch (Exception e) {
                 throw new Zos3270ManagerException("Unable to create the live terminal directory", e);
@@ -214,41 +212,12 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
                 aidText, terminalSize, cursorCol, cursorRow);
         terminalImage.getFields().addAll(buildTerminalFields(getScreen()));
         cachedImages.add(terminalImage);
-        if (cachedImages.size() >= 10) {
-            writeRasOutput();
-            flushTerminalCache();
+        if (cachedImages.size() >= RAS_BATCH_SIZE && !queueRasOutput() && cachedImages.size() >= MAX_CACHED_IMAGES) {
+            discardOldestImages();
         }
 
-        if (liveTerminalUrl != null) {
-            try {
-                liveTerminalSequence++;
-                dev.galasa.zos3270.common.screens.Terminal liveTerminal = new dev.galasa.zos3270.common.screens.Terminal(
-                        this.terminalId, this.runId, liveTerminalSequence, terminalSize);
-                TerminalImage newTerminalImage = removeConfidentialTextFromTerminalImage(terminalImage);
-                liveTerminal.getImages().add(newTerminalImage);
-
-                JsonObject intermediateJson = (JsonObject) gson.toJsonTree(liveTerminal);
-                stripFalseBooleans(intermediateJson);
-                String tempJson = gson.toJson(intermediateJson);
-
-                HttpURLConnection connection = (HttpURLConnection) this.liveTerminalUrl.openConnection();
-                connection.setRequestMethod("PUT");
-                connection.addRequestProperty("Content-Type", "application/json");
-                connection.setDoInput(true);
-                connection.setDoOutput(true);
-                connection.connect();
-                try (OutputStream os = connection.getOutputStream()) {
-                    IOUtils.write(tempJson, os, StandardCharsets.UTF_8);
-                }
-                if (connection.getResponseCode() != 200) {
-                    logger.warn("Unable to write live terminal due to " + connection.getResponseCode() + " - "
-                            + connection.getResponseMessage());
-                    this.liveTerminalUrl = null;
-                }
-            } catch (Exception e) {
-                logger.error("Failed to write live terminal image, image lost", e);
-                this.liveTerminalUrl = null;
-            }
+        if (liveTerminalFeed != null) {
+            liveTerminalFeed.send(terminalImage);
         }
 
         if (logConsoleTerminals) {
@@ -264,103 +233,52 @@ public class Zos3270TerminalImpl extends Terminal implements IScreenUpdateListen
         }
     }
 
-    public synchronized void writeRasOutput() {
-        rasTerminalSequence++;
-
-        try {
-            writeTerminalGzJson();
-        } catch (Exception e) {
-            logger.error("Unable to write terminal cache to the RAS", e);
-            rasTerminalSequence--;
-            return;
-        }
-    }
-
     /**
-     * This method creates JSON representations of the Terminal screens and writes them to the RAS
-     * @throws IOException
+     * Pass the cached images to the RAS writer. If the writer is busy the images stay cached, to be passed with the
+     * next batch, so that screen updates do not wait for the RAS.
      */
-    private synchronized void writeTerminalGzJson() throws IOException {
+    private synchronized boolean queueRasOutput() {
         if (this.cachedImages.isEmpty()) {
-            return;
+            return true;
         }
 
         TerminalSize terminalSize = new TerminalSize(getScreen().getNoOfColumns(), getScreen().getNoOfRows());
-        dev.galasa.zos3270.common.screens.Terminal rasTerminal = new dev.galasa.zos3270.common.screens.Terminal(
-                this.terminalId, this.runId, rasTerminalSequence, terminalSize);
-
-        for (TerminalImage terminalImage : this.cachedImages){
-
-            TerminalImage newTerminalImage = removeConfidentialTextFromTerminalImage(terminalImage);
-            rasTerminal.getImages().add(newTerminalImage);
-        }
-
-        JsonObject intermediateJson = (JsonObject) gson.toJsonTree(rasTerminal);
-        stripFalseBooleans(intermediateJson);
-        String tempJson = gson.toJson(intermediateJson);
-
-        if (applyCtf) {
-            tempJson = cts.removeConfidentialText(tempJson);
+        if (!this.rasWriter.queue(rasTerminalSequence + 1, terminalSize, new ArrayList<>(this.cachedImages))) {
+            return false;
         }
 
-        String terminalFilename = this.terminalId + "-" + String.format("%05d", rasTerminalSequence) + ".gz";
-        Path terminalPath = terminalRasDirectory.resolve(terminalFilename);
-
-        try (GZIPOutputStream gos = new GZIPOutputStream(Files.newOutputStream(terminalPath,
-                new SetContentType(new ResultArchiveStoreContentType("application/zos3270terminal")),
-                StandardOpenOption.CREATE))) {
-            IOUtils.write(tempJson, gos, "utf-8");
-            gos.flush();
-            gos.close();
-        }
+        rasTerminalSequence++;
+        this.cachedImages.clear();
+        return true;
     }
 
     /**
-     * Creates a copy of the original TerminalImage, iterates through it's TerminalFields and FieldContents,
-     * and creates a new TerminalImage with confidential text removed.
-     * @param terminalImage
-     * @return
+     * The RAS writer is not keeping up with the screen updates, or the RAS cannot be written to. Rather than wait for
+     * it, or cache ever more images, the oldest batch of cached images is discarded.
      */
-    private TerminalImage removeConfidentialTextFromTerminalImage(TerminalImage terminalImage){
-        // Create a new TerminalImage based on the one we are iterating on
-        TerminalImage newTerminalImage = new TerminalImage(terminalImage.getSequence(), terminalImage.getId(),
-        terminalImage.isInbound(), terminalImage.getType(), terminalImage.getAid(),terminalImage.getImageSize(),
-        terminalImage.getCursorColumn(), terminalImage.getCursorRow());
-
-        for (TerminalField terminalField : terminalImage.getFields()){
-
-            // Create a new TerminalField based on the one we are iterating on
-            TerminalField newTerminalField = new TerminalField(terminalField.getRow(), terminalField.getColumn(),
-            terminalField.isUnformatted(), terminalField.isFieldProtected(), terminalField.isFieldNumeric(),
-            terminalField.isFieldDisplay(), terminalField.isFieldIntenseDisplay(), terminalField.isFieldSelectorPen(),
-            terminalField.isFieldModifed(), terminalField.getForegroundColour(), terminalField.getBackgroundColour(), terminalField.getHighlight());
-
-            StringBuilder sb = new StringBuilder();
-            for (FieldContents contents : terminalField.getContents()) {
-
-                // Converting FieldContents to Strings and removing confidential text if required
-                for (Character c : contents.getChars()) {
-                    if (c == null) {
-                        sb.append(" ");
-                    } else {
-                        sb.append(c);
-                    }
-                }
-                String fieldText = applyCtf ? cts.removeConfidentialText(sb.toString()) : sb.toString();
-
-                char[] fieldTextCharArray = fieldText.toCharArray();
-                Character[] newArray = new Character[fieldTextCharArray.length];
-                for (int i = 0; i < fieldTextCharArray.length; i++){
-                    newArray[i] = Character.valueOf(fieldTextCharArray[i]);
-                }
+    private void discardOldestImages() {
+        this.cachedImages.subList(0, RAS_BATCH_SIZE).clear();
+        this.discardedImages += RAS_BATCH_SIZE;
+        logger.warn("The terminal cache is not being written to the RAS quickly enough, discarded the oldest " + RAS_BATCH_SIZE
+                + " terminal images, " + this.discardedImages + " discarded for terminal " + this.terminalId + " so far");
+    }
 
-                // Create new FieldContents with the new Character[] with confidential text removed
-                FieldContents newFieldContents = new FieldContents(newArray);
-                newTerminalField.getContents().add(newFieldContents);
+    /**
+     * Write the cached images to the RAS, waiting for them and any previous batches to be written. Batches that fail
+     * to be written are kept by the RAS writer and written again with the next batch.
+     */
+    public void writeRasOutput() {
+        try {
+            while (!queueRasOutput()) {
+                this.rasWriter.waitForQueued();
             }
-            newTerminalImage.getFields().add(newTerminalField);
+            this.rasWriter.waitForQueued();
+        } catch (IOException e) {
+            logger.error("Unable to write terminal cache to the RAS", e);
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted waiting for the terminal cache to be written to the RAS", e);
+            Thread.currentThread().interrupt();
         }
-        return newTerminalImage;
     }
 
     public synchronized void flushTerminalCache() {
@@ -0,0 +1,128 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.internal.terminal;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+
+public class TerminalRasWriterTest {
+
+    private static final TerminalSize SIZE = new TerminalSize(80, 24);
+
+    /**
+     * A writer that records the batches written rather than writing them to the RAS
+     */
+    private static class RecordingWriter extends TerminalRasWriter {
+
+        private final List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean failing;
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        private RecordingWriter() {
+            super("term1", "run", Paths.get("ras"), null, false, false);
+        }
+
+        @Override
+        protected void writeTerminalGzJson(int sequence, TerminalSize terminalSize, List<TerminalImage> images) throws IOException {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failing) {
+                throw new IOException("RAS is unavailable");
+            }
+            written.add(sequence);
+        }
+    }
+
+    private List<TerminalImage> images(int count) {
+        List<TerminalImage> images = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            images.add(new TerminalImage(i, "term1-" + i, true, null, null, SIZE, 0, 0));
+        }
+        return images;
+    }
+
+    @Test
+    public void testBatchesWrittenInOrder() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        writer.release = new CountDownLatch(1);
+
+        for (int sequence = 1; sequence <= 4; sequence++) {
+            Assert.assertTrue("The batch should have been queued", writer.queue(sequence, SIZE, images(10)));
+        }
+        Assert.assertFalse("The queue should be full", writer.queue(5, SIZE, images(10)));
+
+        writer.release.countDown();
+        writer.waitForQueued();
+
+        Assert.assertEquals("The batches should be written in the order they were queued", Arrays.asList(1, 2, 3, 4), writer.written);
+    }
+
+    @Test
+    public void testFailedBatchIsKeptAndWrittenAgain() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        writer.failing = true;
+
+        Assert.assertTrue("The batch should have been queued", writer.queue(1, SIZE, images(10)));
+        Assert.assertThrows("The failure should be reported", IOException.class, writer::waitForQueued);
+        Assert.assertTrue("Nothing should have been written", writer.written.isEmpty());
+        writer.failing = false;
+
+        // The failed batch is written again, before the next batch
+        Assert.assertTrue("The batch should have been queued", writer.queue(2, SIZE, images(10)));
+        writer.waitForQueued();
+
+        Assert.assertEquals("The failed batch should be written before the next", Arrays.asList(1, 2), writer.written);
+    }
+
+    @Test
+    public void testFailedBatchIsWrittenAgainWhenWaiting() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        writer.failing = true;
+
+        Assert.assertTrue("The batch should have been queued", writer.queue(1, SIZE, images(10)));
+        Assert.assertThrows("The failure should be reported", IOException.class, writer::waitForQueued);
+
+        writer.failing = false;
+        writer.waitForQueued();
+
+        Assert.assertEquals("The failed batch should have been written", Arrays.asList(1), writer.written);
+    }
+
+    @Test
+    public void testFailedBatchesCountTowardsTheQueue() throws Exception {
+        RecordingWriter writer = new RecordingWriter();
+        writer.failing = true;
+
+        for (int sequence = 1; sequence <= 4; sequence++) {
+            Assert.assertTrue("The batch should have been queued", writer.queue(sequence, SIZE, images(10)));
+        }
+        Assert.assertFalse("The failed batches should be kept, so the queue is full", writer.queue(5, SIZE, images(10)));
+        Assert.assertThrows("The failure should be reported", IOException.class, writer::waitForQueued);
+
+        writer.failing = false;
+        writer.waitForQueued();
+
+        Assert.assertEquals("All the batches should be written in order", Arrays.asList(1, 2, 3, 4), writer.written);
+        Assert.assertTrue("There should be room in the queue", writer.queue(5, SIZE, images(10)));
+        writer.waitForQueued();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.internal.comms.IncompleteMessageException;
+import dev.galasa.zos3270.internal.comms.NetworkInputBuffer;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+
+public class NetworkInputBufferTest {
+
+    @Test
+    public void testMessagesSplitAcrossReads() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(new byte[] { 1, NetworkThread.IAC, NetworkThread.IAC, 2, NetworkThread.IAC, NetworkThread.EOR });
+        baos.write(new byte[] { 3, NetworkThread.IAC, NetworkThread.EOR });
+
+        // Return a byte at a time, so the IAC IAC and IAC EOR pairs are split across reads
+        NetworkInputBuffer networkInputBuffer = new NetworkInputBuffer(new ByteArrayInputStream(baos.toByteArray()) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        });
+
+        Assert.assertArrayEquals("First message should be unescaped", new byte[] { 1, NetworkThread.IAC, 2 }, toBytes(networkInputBuffer.readTerminated(NetworkThread.EOR)));
+        Assert.assertArrayEquals("Second message is incorrect", new byte[] { 3 }, toBytes(networkInputBuffer.readTerminated(NetworkThread.EOR)));
+        Assert.assertNull("There should be no more messages", networkInputBuffer.readTerminated(NetworkThread.EOR));
+        Assert.assertEquals("Should be the end of the stream", -1, networkInputBuffer.read());
+    }
+
+    @Test
+    public void testMessageLargerThanBuffer() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(7);
+        byte[] message = new byte[100000];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+            baos.write(message[i]);
+            if (message[i] == NetworkThread.IAC) {
+                baos.write(NetworkThread.IAC);
+            }
+        }
+        baos.write(NetworkThread.IAC);
+        baos.write(NetworkThread.EOR);
+        InputStream inputStream = new ByteArrayInputStream(baos.toByteArray());
+
+        NetworkInputBuffer networkInputBuffer = new NetworkInputBuffer(inputStream);
+        Assert.assertEquals("Header byte is incorrect", 7, networkInputBuffer.read());
+        networkInputBuffer.unread((byte) 7);
+
+        byte[] expected = new byte[message.length + 1];
+        expected[0] = 7;
+        System.arraycopy(message, 0, expected, 1, message.length);
+        Assert.assertArrayEquals("Message is incorrect", expected, toBytes(networkInputBuffer.readTerminated(NetworkThread.EOR)));
+        Assert.assertFalse("All bytes should have been consumed", networkInputBuffer.hasBufferedBytes());
+    }
+
+    @Test
+    public void testIncompleteMessageCanBeReprocessed() throws Exception {
+        NetworkInputBuffer networkInputBuffer = new NetworkInputBuffer();
+        networkInputBuffer.write(ByteBuffer.wrap(new byte[] { 1, NetworkThread.IAC, NetworkThread.IAC, 2, NetworkThread.IAC }));
+
+        networkInputBuffer.mark();
+        try {
+            networkInputBuffer.readTerminated(NetworkThread.EOR);
+            Assert.fail("Should have thrown IncompleteMessageException");
+        } catch (IncompleteMessageException e) {
+            networkInputBuffer.reset();
+        }
+
+        // The IAC IAC must still be escaped when the message is read again
+        networkInputBuffer.write(ByteBuffer.wrap(new byte[] { NetworkThread.EOR, 3 }));
+        Assert.assertArrayEquals("Message is incorrect", new byte[] { 1, NetworkThread.IAC, 2 }, toBytes(networkInputBuffer.readTerminated(NetworkThread.EOR)));
+        Assert.assertEquals("Next byte is incorrect", 3, networkInputBuffer.read());
+
+        networkInputBuffer.endOfStream();
+        Assert.assertEquals("Should be the end of the stream", -1, networkInputBuffer.read());
+    }
+
+    private byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.comms.NetworkSelector;
+import dev.galasa.zos3270.internal.comms.NetworkThread;
+import dev.galasa.zos3270.internal.datastream.AbstractCommandCode;
+import dev.galasa.zos3270.spi.Terminal;
+import dev.galasa.zos3270.util.Zos3270TestBase;
+
+public class NetworkSelectorTest extends Zos3270TestBase {
+
+    private static final int TERMINALS = 3;
+
+    @Test
+    public void testTerminalsShareSelectorThread() throws Exception {
+        NetworkSelector networkSelector = new NetworkSelector(1);
+        ExecutorService servers = Executors.newFixedThreadPool(TERMINALS);
+        try (ServerSocket serverSocket = new ServerSocket(0, TERMINALS, InetAddress.getLoopbackAddress())) {
+            List<Terminal> terminals = new ArrayList<>();
+            List<Future<?>> sessions = new ArrayList<>();
+            for (int i = 0; i < TERMINALS; i++) {
+                Terminal terminal = new Terminal("term" + i, serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), false,
+                        new TerminalSize(80, 24), new TerminalSize(0, 0), null, ebcdic);
+                terminal.setNetworkSelector(networkSelector);
+                terminals.add(terminal);
+
+                sessions.add(servers.submit(() -> {
+                    try (Socket socket = serverSocket.accept()) {
+                        serveSession(socket);
+                    }
+                    return null;
+                }));
+            }
+
+            for (Terminal terminal : terminals) {
+                terminal.connect();
+            }
+            for (Terminal terminal : terminals) {
+                waitFor(() -> terminal.retrieveScreen().contains("HELLO"), "Screen was not updated for " + terminal.getId());
+            }
+
+            // Each server closes its socket once the screen has been sent
+            for (Future<?> session : sessions) {
+                session.get();
+            }
+            for (Terminal terminal : terminals) {
+                waitFor(() -> !terminal.isConnected(), "Terminal " + terminal.getId() + " did not notice the network close");
+            }
+        } finally {
+            servers.shutdownNow();
+            networkSelector.shutdown();
+        }
+    }
+
+    @Test
+    public void testTlsSessionOnSelectorThread() throws Exception {
+        SSLContext serverContext = createServerSslContext();
+        NetworkSelector networkSelector = new NetworkSelector(1);
+        ExecutorService servers = Executors.newSingleThreadExecutor();
+        try (ServerSocket serverSocket = serverContext.getServerSocketFactory().createServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Terminal terminal = new Terminal("tls", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), true,
+                    new TerminalSize(80, 24), new TerminalSize(0, 0), null, ebcdic);
+            terminal.setNetworkSelector(networkSelector);
+
+            Future<?> session = servers.submit(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    serveSession(socket);
+                }
+                return null;
+            });
+
+            terminal.connect();
+            waitFor(() -> terminal.retrieveScreen().contains("HELLO"), "Screen was not updated over TLS");
+
+            session.get();
+            waitFor(() -> !terminal.isConnected(), "Terminal did not notice the network close");
+        } finally {
+            servers.shutdownNow();
+            networkSelector.shutdown();
+        }
+    }
+
+    @Test
+    public void testStartTlsOnSelectorThread() throws Exception {
+        SSLContext serverContext = createServerSslContext();
+        NetworkSelector networkSelector = new NetworkSelector(1);
+        ExecutorService servers = Executors.newSingleThreadExecutor();
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Terminal terminal = new Terminal("starttls", serverSocket.getInetAddress().getHostAddress(), serverSocket.getLocalPort(), false,
+                    new TerminalSize(80, 24), new TerminalSize(0, 0), null, ebcdic);
+            terminal.setNetworkSelector(networkSelector);
+
+            Future<?> session = servers.submit(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    DataInputStream fromClient = new DataInputStream(socket.getInputStream());
+                    OutputStream toClient = socket.getOutputStream();
+
+                    toClient.write(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.START_TLS });
+                    expect(fromClient, NetworkThread.IAC, NetworkThread.WILL, NetworkThread.START_TLS, 
+                            NetworkThread.IAC, NetworkThread.SB, NetworkThread.START_TLS, NetworkThread.FOLLOWS, NetworkThread.IAC, NetworkThread.SE);
+                    toClient.write(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.START_TLS, NetworkThread.FOLLOWS, NetworkThread.IAC, NetworkThread.SE });
+                    toClient.flush();
+
+                    // The rest of the session is over TLS on the same socket
+                    SSLSocket tlsSocket = (SSLSocket) serverContext.getSocketFactory().createSocket(socket, 
+                            socket.getInetAddress().getHostAddress(), socket.getPort(), true);
+                    tlsSocket.setUseClientMode(false);
+                    tlsSocket.startHandshake();
+                    try (Socket closeTls = tlsSocket) {
+                        serveSession(tlsSocket);
+                    }
+                }
+                return null;
+            });
+
+            terminal.connect();
+            waitFor(() -> terminal.retrieveScreen().contains("HELLO"), "Screen was not updated after START_TLS");
+            Assert.assertTrue("The terminal should have switched to TLS", terminal.isSwitchedSSL());
+
+            session.get();
+            waitFor(() -> !terminal.isConnected(), "Terminal did not notice the network close");
+        } finally {
+            servers.shutdownNow();
+            networkSelector.shutdown();
+        }
+    }
+
+    /**
+     * Create a server SSL context with a self-signed certificate, the terminal trusts all certificates
+     */
+    private SSLContext createServerSslContext() throws Exception {
+        Path directory = Files.createTempDirectory("zos3270tls");
+        Path keyStoreFile = directory.resolve("server.p12");
+        char[] password = "password".toCharArray();
+        try {
+            Process keytool = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "keytool").toString(), 
+                    "-genkeypair", "-alias", "server", "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+                    "-dname", "CN=localhost", "-storetype", "PKCS12", "-keystore", keyStoreFile.toString(),
+                    "-storepass", "password", "-keypass", "password")
+                .redirectErrorStream(true)
+                .start();
+            String output = new String(keytool.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            Assert.assertEquals("Unable to create the test key store: " + output, 0, keytool.waitFor());
+
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            try (InputStream keyStoreStream = Files.newInputStream(keyStoreFile)) {
+                keyStore.load(keyStoreStream, password);
+            }
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, password);
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            return sslContext;
+        } finally {
+            Files.deleteIfExists(keyStoreFile);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private void serveSession(Socket socket) throws Exception {
+        DataInputStream fromClient = new DataInputStream(socket.getInputStream());
+        OutputStream toClient = socket.getOutputStream();
+
+        toClient.write(new byte[] { NetworkThread.IAC, NetworkThread.DO, NetworkThread.TN3270E });
+        expect(fromClient, NetworkThread.IAC, NetworkThread.WILL, NetworkThread.TN3270E);
+
+        toClient.write(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.TN3270E, NetworkThread.SEND, NetworkThread.DEVICE_TYPE, NetworkThread.IAC, NetworkThread.SE });
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        request.write(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.TN3270E, NetworkThread.DEVICE_TYPE, NetworkThread.REQUEST });
+        request.write("IBM-DYNAMIC".getBytes(StandardCharsets.US_ASCII));
+        request.write(new byte[] { NetworkThread.IAC, NetworkThread.SE });
+        expect(fromClient, request.toByteArray());
+
+        ByteArrayOutputStream deviceType = new ByteArrayOutputStream();
+        deviceType.write(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.TN3270E, NetworkThread.DEVICE_TYPE, NetworkThread.IS });
+        deviceType.write("IBM-DYNAMIC".getBytes(StandardCharsets.US_ASCII));
+        deviceType.write(NetworkThread.CONNECT);
+        deviceType.write("LU1".getBytes(StandardCharsets.US_ASCII));
+        deviceType.write(new byte[] { NetworkThread.IAC, NetworkThread.SE });
+        toClient.write(deviceType.toByteArray());
+        expect(fromClient, NetworkThread.IAC, NetworkThread.SB, NetworkThread.TN3270E, NetworkThread.FUNCTIONS, NetworkThread.REQUEST,
+                NetworkThread.FUNC_BIND_IMAGE, NetworkThread.FUNC_SYSREQ, NetworkThread.IAC, NetworkThread.SE);
+
+        toClient.write(new byte[] { NetworkThread.IAC, NetworkThread.SB, NetworkThread.TN3270E, NetworkThread.FUNCTIONS, NetworkThread.IS, NetworkThread.IAC, NetworkThread.SE });
+
+        // Send the screen in two parts, so the record is split across reads on the selector thread
+        toClient.write(new byte[] { NetworkThread.DT_3270_DATA, 0, 0, 0, 0, AbstractCommandCode.ERASE_WRITE, 0x00 });
+        toClient.flush();
+        Thread.sleep(200);
+        toClient.write("HELLO".getBytes(ebcdic));
+        toClient.write(new byte[] { NetworkThread.IAC, NetworkThread.EOR });
+        toClient.flush();
+
+        Thread.sleep(200);
+    }
+
+    private void expect(DataInputStream fromClient, byte... expected) throws Exception {
+        byte[] actual = new byte[expected.length];
+        fromClient.readFully(actual);
+        Assert.assertArrayEquals("Unexpected bytes from the client", expected, actual);
+    }
+
+    private void waitFor(Condition condition, String message) throws Exception {
+        Instant expire = Instant.now().plusSeconds(10);
+        while (!condition.isMet()) {
+            if (Instant.now().isAfter(expire)) {
+                Assert.fail(message);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet() throws Exception;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.spi;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import dev.galasa.framework.spi.IConfidentialTextService;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
+import dev.galasa.framework.spi.IFramework;
+import dev.galasa.framework.spi.IResultArchiveStore;
+import dev.galasa.textscan.spi.ITextScannerManagerSpi;
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zos3270.IScreenUpdateListener.Direction;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.properties.Zos3270PropertiesSingleton;
+import dev.galasa.zos3270.internal.terminal.TerminalRasWriter;
+
+public class Zos3270TerminalImplTest {
+
+    private Zos3270TerminalImpl terminal;
+
+    @Before
+    public void setUp() throws Exception {
+        new Zos3270PropertiesSingleton().activate();
+        Zos3270PropertiesSingleton.setCps(Mockito.mock(IConfigurationPropertyStoreService.class));
+
+        IResultArchiveStore ras = Mockito.mock(IResultArchiveStore.class);
+        Mockito.when(ras.getStoredArtifactsRoot()).thenReturn(Paths.get("ras"));
+        IFramework framework = Mockito.mock(IFramework.class);
+        Mockito.when(framework.getTestRunName()).thenReturn("RUN1");
+        Mockito.when(framework.getResultArchiveStore()).thenReturn(ras);
+        Mockito.when(framework.getConfidentialTextService()).thenReturn(Mockito.mock(IConfidentialTextService.class));
+        IZosImage image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE");
+        Mockito.when(image.getCodePage()).thenReturn(Charset.forName("Cp037"));
+
+        terminal = new Zos3270TerminalImpl("term1", "localhost", 23, false, framework, false, image,
+                new TerminalSize(80, 24), new TerminalSize(0, 0), Mockito.mock(ITextScannerManagerSpi.class));
+    }
+
+    /**
+     * Replace the RAS writer with one that records the batches, slowly, rather than writing them to the RAS
+     */
+    private List<String> recordRasOutput() throws Exception {
+        return recordRasOutput(new CountDownLatch(0), Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    /**
+     * Replace the RAS writer with one that records the batches once released, and the threads that write them
+     */
+    private List<String> recordRasOutput(CountDownLatch released, List<Thread> writerThreads) throws Exception {
+        List<String> batches = Collections.synchronizedList(new ArrayList<>());
+        TerminalRasWriter writer = new TerminalRasWriter("term1", "RUN1", Paths.get("ras"), null, false, false) {
+            @Override
+            protected void writeTerminalGzJson(int sequence, TerminalSize terminalSize, List<TerminalImage> images) throws IOException {
+                writerThreads.add(Thread.currentThread());
+                try {
+                    released.await(10, TimeUnit.SECONDS);
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                batches.add(sequence + ":" + images.size() + ":" + images.get(0).getSequence());
+            }
+        };
+        Field field = Zos3270TerminalImpl.class.getDeclaredField("rasWriter");
+        field.setAccessible(true);
+        field.set(terminal, writer);
+        return batches;
+    }
+
+    @Test
+    public void testWriteRasOutputWaitsForAllTheImages() throws Exception {
+        List<String> batches = recordRasOutput();
+        for (int i = 0; i < 25; i++) {
+            terminal.screenUpdated(Direction.RECEIVED, null);
+        }
+
+        terminal.writeRasOutput();
+
+        Assert.assertEquals("All the images should have been written when writeRasOutput returns", Arrays.asList("1:10:1", "2:10:11", "3:5:21"), batches);
+    }
+
+    @Test
+    public void testScreenUpdatesDiscardTheOldestImagesWhenTheRasIsStuck() throws Exception {
+        CountDownLatch released = new CountDownLatch(1);
+        List<Thread> writerThreads = Collections.synchronizedList(new ArrayList<>());
+        List<String> batches = recordRasOutput(released, writerThreads);
+
+        // The first four batches are queued, the rest are cached until the cache is full
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 1100; i++) {
+            terminal.screenUpdated(Direction.RECEIVED, null);
+        }
+        Assert.assertTrue("The screen updates should not wait for the RAS", System.currentTimeMillis() - start < 5000);
+        Assert.assertTrue("Nothing should have been written yet", batches.isEmpty());
+
+        released.countDown();
+        terminal.writeRasOutput();
+
+        Assert.assertEquals("The oldest cached images should have been discarded",
+                Arrays.asList("1:10:1", "2:10:11", "3:10:21", "4:10:31", "5:990:111"), batches);
+        Assert.assertFalse("The batches should not be written on the thread updating the screen", writerThreads.contains(Thread.currentThread()));
+    }
+
+}
@@ -6,6 +6,9 @@
 package dev.galasa.zos3270.terminal;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -21,6 +24,7 @@ import dev.galasa.zos3270.internal.datastream.OrderStartField;
 import dev.galasa.zos3270.internal.datastream.OrderText;
 import dev.galasa.zos3270.internal.datastream.WriteControlCharacter;
 import dev.galasa.zos3270.spi.Screen;
+import dev.galasa.zos3270.spi.Terminal;
 import dev.galasa.zos3270.util.Zos3270TestBase;
 
 public class FindTextTest extends Zos3270TestBase {
@@ -149,4 +153,95 @@ public class FindTextTest extends Zos3270TestBase {
         }
     }
 
+    @Test
+    public void testManyTextsInOnePass() throws Exception {
+        Screen screen = CreateTestScreen(20, 2, null);
+        screen.erase();
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("ushers", ebcdic));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("DFHAC2001", ebcdic));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        // Overlapping texts are all found, and the lowest index found is returned
+        Assert.assertEquals("Wrong ok text index", 2, screen.searchFieldContaining(new String[] {"hersx", "DFHAC2002", "she", "hers"}, null));
+        Assert.assertEquals("Wrong ok text index", 1, screen.searchFieldContaining(new String[] {"shersx", "hers", "he"}, new String[] {"her s"}));
+
+        // Text is not found across a field attribute
+        try {
+            screen.searchFieldContaining(new String[] {"ersDFH", "sDFH"}, null);
+            Assert.fail("Should have thrown TextNotFoundException");
+        } catch (TextNotFoundException e) {
+        }
+
+        try {
+            screen.searchFieldContaining(new String[] {"ushers"}, new String[] {"DFHAC2002", "AC2001"});
+            Assert.fail("Should have thrown ErrorTextFoundException");
+        } catch (ErrorTextFoundException e) {
+            Assert.assertEquals("Wrong error text index", 1, e.getErrorId());
+        }
+    }
+
+    @Test
+    public void testWrappedField() throws Exception {
+        Screen screen = CreateTestScreen(10, 2, null);
+        screen.erase();
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(15)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText("abcdefghij", ebcdic));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        // The field wraps, but is searched as two fields in the same way as calculateFields() returns it
+        Assert.assertEquals("Wrong ok text index", 1, screen.searchFieldContaining(new String[] {"defg", "abcd", "fghij"}, null));
+        Assert.assertFalse("Text across the wrap should not be found", screen.isTextInField("defg"));
+    }
+
+    @Test
+    public void testWaitIsWokenByScreenUpdate() throws Exception {
+        Terminal terminal = CreateTestTerminal();
+        Screen screen = terminal.getScreen();
+        screen.erase();
+
+        Assert.assertFalse("Text should not be found before the screen is updated", terminal.isTextInField("abc", 0));
+        Assert.assertFalse("Text should not be found before the screen is updated", terminal.searchText("abc", 0L));
+
+        ExecutorService updater = Executors.newSingleThreadExecutor();
+        try {
+            updater.submit(() -> updateScreenLater(screen, "abc"));
+            long start = System.currentTimeMillis();
+            Assert.assertTrue("Text should have been found in field", terminal.isTextInField("abc", 30_000));
+            Assert.assertTrue("Wait was not woken by the screen update", System.currentTimeMillis() - start < 10_000);
+
+            updater.submit(() -> updateScreenLater(screen, "xyz xyz"));
+            start = System.currentTimeMillis();
+            Assert.assertTrue("Text should have been found on screen", terminal.searchText("xyz", 2, 30_000));
+            Assert.assertTrue("Wait was not woken by the screen update", System.currentTimeMillis() - start < 10_000);
+        } finally {
+            updater.shutdownNow();
+            updater.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Void updateScreenLater(Screen screen, String text) throws Exception {
+        Thread.sleep(200);
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderText(text, ebcdic));
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+        return null;
+    }
+
 }
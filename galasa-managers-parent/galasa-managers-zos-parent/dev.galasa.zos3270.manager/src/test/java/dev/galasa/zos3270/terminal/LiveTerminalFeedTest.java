@@ -0,0 +1,84 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zos3270.terminal;
+
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import dev.galasa.framework.spi.utils.GalasaGson;
+import dev.galasa.zos3270.common.screens.Terminal;
+import dev.galasa.zos3270.common.screens.TerminalImage;
+import dev.galasa.zos3270.common.screens.TerminalSize;
+import dev.galasa.zos3270.internal.terminal.LiveTerminalFeed;
+
+public class LiveTerminalFeedTest {
+
+    @Test
+    public void testImagesAreCoalescedAndRetried() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        AtomicInteger receivedImages = new AtomicInteger();
+        AtomicInteger responseCode = new AtomicInteger(500);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            Terminal terminal = new GalasaGson().fromJson(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), Terminal.class);
+            requests.incrementAndGet();
+
+            // Fail the first request, which should be retried with the images that arrive in the meantime
+            int code = responseCode.getAndSet(200);
+            if (code == 200) {
+                receivedImages.addAndGet(terminal.getImages().size());
+            }
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            URL url = new URL("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/run/term1");
+            LiveTerminalFeed feed = new LiveTerminalFeed(url, "term1", "run", image -> image);
+
+            for (int i = 1; i <= 20; i++) {
+                feed.send(new TerminalImage(i, "term1-" + i, true, null, null, new TerminalSize(80, 24), 0, 0));
+            }
+
+            waitFor(() -> receivedImages.get() == 20, "Not all the images were received");
+            Assert.assertTrue("The images were not sent together, " + requests.get() + " requests", requests.get() < 20);
+            Assert.assertFalse("The feed should have recovered from the failure", feed.isStopped());
+
+            // The viewer no longer wants the terminal
+            responseCode.set(404);
+            feed.send(new TerminalImage(21, "term1-21", true, null, null, new TerminalSize(80, 24), 0, 0));
+            waitFor(feed::isStopped, "The feed was not stopped");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private void waitFor(Condition condition, String message) throws Exception {
+        Instant expire = Instant.now().plusSeconds(10);
+        while (!condition.isMet()) {
+            if (Instant.now().isAfter(expire)) {
+                Assert.fail(message);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet() throws Exception;
+    }
+
+}
@@ -186,6 +186,45 @@ public class ScreenTest extends Zos3270TestBase {
                 "Field(pos=-1,p=false,n=false,d=true,i=false,s=false,m=false,XXXXXZZZZZYYYYYYYYYY)\n", fields);
     }
 
+    @Test
+    public void testFieldsRecalculatedAfterChange() throws Exception {
+        Screen screen = CreateTestScreen(10, 2, null);
+
+        ArrayList<AbstractOrder> orders = new ArrayList<>();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(0)));
+        orders.add(new OrderStartField(true, false, true, false, false, false));
+        orders.add(new OrderText("Name", ebcdic));
+        orders.add(new OrderStartField(false, false, true, false, false, false));
+        orders.add(new OrderInsertCursor());
+
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        Assert.assertEquals("Screen layout is incorrect",
+                "Field(pos=0,p=true,n=false,d=true,i=false,s=false,m=false,Name)\n"
+                        + "Field(pos=5,p=false,n=false,d=true,i=false,s=false,m=false,              )\n",
+                screen.printFields());
+        Assert.assertFalse("Text should not be found before it is typed", screen.isTextInField("galasa"));
+
+        screen.type("galasa");
+
+        Assert.assertEquals("Typed text should be in the recalculated fields",
+                "Field(pos=0,p=true,n=false,d=true,i=false,s=false,m=false,Name)\n"
+                        + "Field(pos=5,p=false,n=false,d=true,i=false,s=false,m=true,galasa        )\n",
+                screen.printFields());
+        Assert.assertTrue("Typed text should be found", screen.isTextInField("galasa"));
+
+        orders.clear();
+        orders.add(new OrderSetBufferAddress(new BufferAddress(5)));
+        orders.add(new OrderText("!", ebcdic));
+        screen.processInboundMessage(new Inbound3270Message(new CommandEraseWrite(),
+                new WriteControlCharacter(false, false, false, false, false, false, true, true), orders));
+
+        Assert.assertEquals("Fields should be recalculated after the screen is erased",
+                "Field(pos=-1,p=false,n=false,d=true,i=false,s=false,m=false,     !              )\n",
+                screen.printFields());
+    }
+
   //  @Test
     public void testProcessReadPartitionQueryListEquivalent() throws TerminalInterruptedException, NetworkException {
         Network network = mock(Network.class);
@@ -6,9 +6,13 @@
 package dev.galasa.zosbatch.rseapi.manager.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -93,6 +97,29 @@ public class RseapiZosBatchImpl implements IZosBatch {
         return getBatchJobs(jobname, owner);
     }
 
+    @Override
+    public Map<IZosBatchJob, Integer> waitForJobs(@NotNull Collection<IZosBatchJob> jobs) throws ZosBatchException {
+        int timeout;
+        try {
+            timeout = this.zosBatchManager.getZosManager().getZosBatchPropertyJobWaitTimeout(this.image.getImageID());
+        } catch (ZosBatchManagerException e) {
+            throw new ZosBatchException("Unable to get job timeout property value", e);
+        }
+        return waitForJobs(jobs, timeout);
+    }
+
+    @Override
+    public Map<IZosBatchJob, Integer> waitForJobs(@NotNull Collection<IZosBatchJob> jobs, long timeout) throws ZosBatchException {
+        // RSE API has no batched job status, so wait for each job in turn within the overall timeout
+        Map<IZosBatchJob, Integer> highestCCs = new LinkedHashMap<>();
+        long timeoutTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeout);
+        for (IZosBatchJob job : jobs) {
+            long remainingSeconds = Math.max(0, TimeUnit.MILLISECONDS.toSeconds(timeoutTime - System.currentTimeMillis()));
+            highestCCs.put(job, job.waitForJob(remainingSeconds));
+        }
+        return highestCCs;
+    }
+
     /**
      * Clean up any existing batch jobs
      * @throws ZosBatchException
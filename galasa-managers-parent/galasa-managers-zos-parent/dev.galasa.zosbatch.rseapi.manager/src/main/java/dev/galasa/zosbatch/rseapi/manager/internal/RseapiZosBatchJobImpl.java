@@ -12,6 +12,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -435,15 +438,23 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
             logger.trace(responseBodyObject);
             // Get the spool files
             JsonArray jsonArray = ((JsonObject) responseBodyObject).getAsJsonArray("items");
+            List<JsonObject> spoolFiles = new ArrayList<>();
             for (JsonElement jsonElement : jsonArray) {
-                JsonObject responseBody = jsonElement.getAsJsonObject();
+                spoolFiles.add(jsonElement.getAsJsonObject());
+            }
+            List<String> spoolFilesRecords = null;
+            if (retrieveRecords) {
+                spoolFilesRecords = getOutputFilesContent(spoolFiles);
+            }
+            for (int i = 0; i < spoolFiles.size(); i++) {
+                JsonObject responseBody = spoolFiles.get(i);
                 String id = jsonNull(responseBody, PROP_ID);
                 String stepname = jsonNull(responseBody, "step name");
                 String procstep = jsonNull(responseBody, "proc step");
                 String ddname = responseBody.get("ddName").getAsString();
                 String records = null;
                 if (retrieveRecords) {
-                	records = getOutputFileContent(this.jobFilesPath + "/" + id + "/content");
+                	records = spoolFilesRecords.get(i);
                 }
                 if(this.jobOutput == null) {
                 	this.jobOutput = this.zosBatchManager.getZosManager().newZosBatchJobOutput(this, this.jobname.getName(), this.jobid);
@@ -617,6 +628,42 @@ public class RseapiZosBatchJobImpl implements IZosBatchJob {
         }            
     }
 
+    /**
+     * Retrieve the content of the spool files concurrently on the spool retrieval executor for the image
+     * @param spoolFiles the spool files from the list files response
+     * @return the records of each spool file, in the same order as the spool files
+     * @throws ZosBatchException
+     */
+    protected List<String> getOutputFilesContent(List<JsonObject> spoolFiles) throws ZosBatchException {
+        ExecutorService executor = this.zosBatchManager.getSpoolRetrievalExecutor(this.jobImage);
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (JsonObject spoolFile : spoolFiles) {
+                String path = this.jobFilesPath + "/" + jsonNull(spoolFile, PROP_ID) + "/content";
+                futures.add(executor.submit(() -> getOutputFileContent(path)));
+            }
+            
+            List<String> spoolFilesRecords = new ArrayList<>();
+            for (Future<String> future : futures) {
+                spoolFilesRecords.add(future.get());
+            }
+            return spoolFilesRecords;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosBatchException) {
+                throw (ZosBatchException) e.getCause();
+            }
+            throw new ZosBatchException("Problem retrieving spool files for job " + this.toString(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException("Interrupted retrieving spool files for job " + this.toString(), e);
+        } finally {
+            // Stop retrieving the remaining spool files if one has failed
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
     protected String getOutputFileContent(String path) throws ZosBatchException {    
         HashMap<String, String> headers = new HashMap<>();
         IRseapiResponse response;
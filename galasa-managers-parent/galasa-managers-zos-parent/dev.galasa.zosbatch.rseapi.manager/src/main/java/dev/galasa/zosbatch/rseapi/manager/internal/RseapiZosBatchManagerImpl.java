@@ -11,6 +11,10 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -67,6 +71,8 @@ public class RseapiZosBatchManagerImpl extends AbstractManager implements IZosBa
     private final HashMap<String, RseapiZosBatchImpl> taggedZosBatches = new HashMap<>();
     private final HashMap<String, RseapiZosBatchImpl> zosBatches = new HashMap<>();
 
+    private final HashMap<String, ExecutorService> spoolRetrievalExecutors = new HashMap<>();
+
     private Path artifactsRoot;
     public Path getArtifactsRoot() {
     	return artifactsRoot;
@@ -202,6 +208,20 @@ public class RseapiZosBatchManagerImpl extends AbstractManager implements IZosBa
             logger.error("Problem in endOfTestRun()", e);
         }
     }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see dev.galasa.framework.spi.IManager#shutdown()
+     */
+    @Override
+    public synchronized void shutdown() {
+        for (ExecutorService executor : this.spoolRetrievalExecutors.values()) {
+            executor.shutdownNow();
+        }
+        this.spoolRetrievalExecutors.clear();
+        super.shutdown();
+    }
     
     protected void cleanup(boolean endOfTest) throws ZosBatchException {
         for (Entry<String, RseapiZosBatchImpl> entry : this.taggedZosBatches.entrySet()) {
@@ -254,6 +274,34 @@ public class RseapiZosBatchManagerImpl extends AbstractManager implements IZosBa
         return zosManager.newZosBatchJobname(name);
     }
 
+    /**
+     * Get the executor that retrieves spool files from an image, shared by all the jobs on the image so that no more
+     * than the {@code zosbatch.batchjob.[imageid].spool.retrieval.limit} spool files are retrieved from it at once
+     * @param image the zOS image
+     * @return the executor
+     * @throws ZosBatchException
+     */
+    public synchronized ExecutorService getSpoolRetrievalExecutor(IZosImage image) throws ZosBatchException {
+        ExecutorService executor = this.spoolRetrievalExecutors.get(image.getImageID());
+        if (executor == null) {
+            int limit;
+            try {
+                limit = this.zosManager.getZosBatchPropertySpoolRetrievalLimit(image.getImageID());
+            } catch (ZosBatchManagerException e) {
+                throw new ZosBatchException(e);
+            }
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(limit, limit, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "zOS Batch spool retrieval " + image.getImageID());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPool.allowCoreThreadTimeOut(true);
+            executor = threadPool;
+            this.spoolRetrievalExecutors.put(image.getImageID(), executor);
+        }
+        return executor;
+    }
+
     @Override
     public @NotNull IZosBatch getZosBatch(IZosImage image) {
         if (zosBatches.containsKey(image.getImageID())) {
@@ -7,9 +7,15 @@ package dev.galasa.zosbatch.zosmf.manager.internal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -94,6 +100,40 @@ public class ZosmfZosBatchImpl implements IZosBatch {
         return getBatchJobs(jobname, owner);
     }
 
+    @Override
+    public Map<IZosBatchJob, Integer> waitForJobs(@NotNull Collection<IZosBatchJob> jobs) throws ZosBatchException {
+        int timeout;
+        try {
+            timeout = this.zosBatchManager.getZosManager().getZosBatchPropertyJobWaitTimeout(this.image.getImageID());
+        } catch (ZosBatchManagerException e) {
+            throw new ZosBatchException("Unable to get job timeout property value", e);
+        }
+        return waitForJobs(jobs, timeout);
+    }
+
+    @Override
+    public Map<IZosBatchJob, Integer> waitForJobs(@NotNull Collection<IZosBatchJob> jobs, long timeout) throws ZosBatchException {
+        for (IZosBatchJob job : jobs) {
+            if (!(job instanceof ZosmfZosBatchJobImpl) || !((ZosmfZosBatchJobImpl) job).submitted()) {
+                throw new ZosBatchException("Job " + job + " has not been submitted by manager");
+            }
+        }
+        // Watch all the jobs before waiting so that their statuses are retrieved together
+        Map<ZosmfZosBatchJobImpl, CompletableFuture<Void>> watchedJobs = new LinkedHashMap<>();
+        for (IZosBatchJob job : jobs) {
+            watchedJobs.put((ZosmfZosBatchJobImpl) job, ((ZosmfZosBatchJobImpl) job).watchJob());
+        }
+        logger.info("Waiting up to " + timeout + " second(s) for " + watchedJobs.size() + " job(s) to complete");
+        
+        Map<IZosBatchJob, Integer> highestCCs = new LinkedHashMap<>();
+        long timeoutTime = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        for (Entry<ZosmfZosBatchJobImpl, CompletableFuture<Void>> entry : watchedJobs.entrySet()) {
+            long remaining = Math.max(0, timeoutTime - System.nanoTime());
+            highestCCs.put(entry.getKey(), entry.getKey().waitForJobEnd(entry.getValue(), remaining));
+        }
+        return highestCCs;
+    }
+
     /**
      * Clean up any existing batch jobs
      * @throws ZosBatchException
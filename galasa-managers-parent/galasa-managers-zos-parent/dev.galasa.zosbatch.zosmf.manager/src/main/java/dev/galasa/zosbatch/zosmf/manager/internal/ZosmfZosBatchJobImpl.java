@@ -6,13 +6,19 @@
 package dev.galasa.zosbatch.zosmf.manager.internal;
 
 import java.nio.file.Path;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
@@ -252,36 +258,54 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
     }
 
     @Override
-    public int waitForJob(long milliSecondTimeout) throws ZosBatchException {
+    public int waitForJob(long timeout) throws ZosBatchException {
         if (!submitted()) {
             throw new ZosBatchException(LOG_JOB_NOT_SUBMITTED);
         }
-        logger.info("Waiting up to " + milliSecondTimeout + " second(s) for "+ this.jobid + " " + this.jobname.getName() + " to complete");
+        logger.info("Waiting up to " + timeout + " second(s) for "+ this.jobid + " " + this.jobname.getName() + " to complete");
         
-        LocalDateTime timeoutTime = LocalDateTime.now().plusSeconds(milliSecondTimeout);
-        while (LocalDateTime.now().isBefore(timeoutTime)) {
-            updateJobStatus();
-            if (this.jobNotFound) {
-                return Integer.MIN_VALUE;
-            }
-            try {
-                if (isComplete()) {
-                    String[] rc = this.retcode.split(" ");
-                    if (rc.length == 2) {
-                        return StringUtils.isNumeric(rc[1]) ? Integer.parseInt(rc[1]) : Integer.MIN_VALUE;
-                    }
-                    return Integer.MIN_VALUE;
-                }
-                
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                logger.error("waitForJob Interrupted", e);
-                Thread.currentThread().interrupt();
-                throw new ZosBatchException(e);
-            }
+        return waitForJobEnd(watchJob(), TimeUnit.SECONDS.toNanos(timeout));
+    }
+
+    /**
+     * Ask the image's job monitor to watch this job
+     * @return a future completed when the job has ended
+     */
+    protected CompletableFuture<Void> watchJob() {
+        return this.zosBatchManager.getJobMonitor(this.jobImage).watch(this);
+    }
+
+    /**
+     * Wait for a watched job to end
+     * @param jobEnded the future returned by {@link #watchJob()}
+     * @param nanoSecondTimeout how long to wait
+     * @return the highest CC, or {@link Integer#MIN_VALUE} if the job did not end in time, was not found or the CC is non numeric
+     * @throws ZosBatchException
+     */
+    protected int waitForJobEnd(CompletableFuture<Void> jobEnded, long nanoSecondTimeout) throws ZosBatchException {
+        try {
+            jobEnded.get(nanoSecondTimeout, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            this.zosBatchManager.getJobMonitor(this.jobImage).unwatch(this);
+            return Integer.MIN_VALUE;
+        } catch (ExecutionException e) {
+            throw new ZosBatchException(e.getCause());
+        } catch (InterruptedException e) {
+            logger.error("waitForJob Interrupted", e);
+            this.zosBatchManager.getJobMonitor(this.jobImage).unwatch(this);
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException(e);
+        }
+        
+        if (this.jobNotFound || this.retcode == null) {
+            return Integer.MIN_VALUE;
+        }
+        String[] rc = this.retcode.split(" ");
+        if (rc.length == 2) {
+            return StringUtils.isNumeric(rc[1]) ? Integer.parseInt(rc[1]) : Integer.MIN_VALUE;
         }
         return Integer.MIN_VALUE;
-    }    
+    }
     
     @Override
 	public IZosBatchJobOutput listSpoolFiles() throws ZosBatchException {
@@ -440,15 +464,23 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             } catch (ZosmfException e) {
                 throw new ZosBatchException(e);
             }
+            List<JsonObject> spoolFiles = new ArrayList<>();
             for (JsonElement jsonElement : jsonArray) {
-                JsonObject responseBody = jsonElement.getAsJsonObject();
+                spoolFiles.add(jsonElement.getAsJsonObject());
+            }
+            List<String> spoolFilesRecords = null;
+            if (retrieveRecords) {
+                spoolFilesRecords = getSpoolFilesContent(spoolFiles);
+            }
+            for (int i = 0; i < spoolFiles.size(); i++) {
+                JsonObject responseBody = spoolFiles.get(i);
                 String id = jsonNull(responseBody, PROP_ID);
                 String stepname = jsonNull(responseBody, "stepname");
                 String procstep = jsonNull(responseBody, "procstep");
                 String ddname = responseBody.get("ddname").getAsString();
                 String records = null;
                 if (retrieveRecords) {
-                	records = getSpoolFileContent(id, stepname, procstep, ddname);
+                	records = spoolFilesRecords.get(i);
                 }
                 if(this.jobOutput == null) {
                 	this.jobOutput = this.zosBatchManager.getZosManager().newZosBatchJobOutput(this, this.jobname.getName(), this.jobid);
@@ -465,11 +497,6 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             throw new ZosBatchException(displayMessage);
         }
         
-        // Get the JCLIN
-        if (retrieveRecords) {
-        	getSpoolFileContent("JCL", null, null, null);
-        }
-        
         if (this.jobComplete  && retrieveRecords) {
             this.outputComplete = true;
         }
@@ -551,6 +578,24 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         return this.jobComplete;
     }
 
+    protected boolean isNotFound() {
+        return this.jobNotFound;
+    }
+
+    /**
+     * @return the owner without asking zOS/MF, null if not yet known
+     */
+    protected String owner() {
+        return this.owner;
+    }
+
+    /**
+     * @return the status and return code without asking zOS/MF
+     */
+    protected synchronized String lastKnownStatus() {
+        return this.statusString + " " + this.retcode;
+    }
+
     protected boolean isArchived() {
         return this.jobArchived;
     }
@@ -601,28 +646,16 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
             
         logger.trace(responseBody);
         if (response.getStatusCode() == HttpStatus.SC_OK) {
-            this.jobNotFound = false;
-            this.owner = jsonNull(responseBody, PROP_OWNER);
-            this.type = jsonNull(responseBody, PROP_TYPE);
-            this.statusString = jsonNull(responseBody, PROP_STATUS);
-            if (this.statusString != null && "OUTPUT".equals(this.statusString)) {
-                this.jobComplete = true;
-            }
-            this.status = JobStatus.valueOfLabel(statusString);
-            String retcodeProperty = jsonNull(responseBody, PROP_RETCODE);
-            if (retcodeProperty != null) {
-                this.retcode = retcodeProperty;
-            } else {
-                this.retcode = StringUtils.repeat(QUERY, 4);
-            }
-            logger.trace(jobStatus());
+            setJobStatus(responseBody);
         } else {
             if (response.getStatusCode() == HttpStatus.SC_BAD_REQUEST &&
                     jsonZero(responseBody, PROP_RC) == 4 &&
                     jsonZero(responseBody, PROP_REASON) == 10) {
                 logger.trace("JOBID=" + this.jobid + " JOBNAME=" + this.jobname.getName() + " NOT FOUND");
-                this.jobNotFound = true;
-                this.status = JobStatus.NOTFOUND;
+                synchronized (this) {
+                    this.jobNotFound = true;
+                    this.status = JobStatus.NOTFOUND;
+                }
             } else {
                 // Error case - BAD_REQUEST or INTERNAL_SERVER_ERROR
                 String displayMessage = buildErrorString("Update job status", responseBody); 
@@ -632,6 +665,75 @@ public class ZosmfZosBatchJobImpl implements IZosBatchJob {
         }            
     }
 
+    /**
+     * Set the job status from a zOS/MF job status JSON object, as returned by the job status and list jobs requests
+     * @param responseBody the job status
+     */
+    protected synchronized void setJobStatus(JsonObject responseBody) {
+        this.jobNotFound = false;
+        this.owner = jsonNull(responseBody, PROP_OWNER);
+        this.type = jsonNull(responseBody, PROP_TYPE);
+        this.statusString = jsonNull(responseBody, PROP_STATUS);
+        if (this.statusString != null && "OUTPUT".equals(this.statusString)) {
+            this.jobComplete = true;
+        }
+        this.status = JobStatus.valueOfLabel(statusString);
+        String retcodeProperty = jsonNull(responseBody, PROP_RETCODE);
+        if (retcodeProperty != null) {
+            this.retcode = retcodeProperty;
+        } else {
+            this.retcode = StringUtils.repeat(QUERY, 4);
+        }
+        logger.trace(jobStatus());
+    }
+
+    /**
+     * Retrieve the content of the spool files, and the JCLIN, concurrently on the spool retrieval executor for the image
+     * @param spoolFiles the spool files from the list files response
+     * @return the records of each spool file, in the same order as the spool files
+     * @throws ZosBatchException
+     */
+    protected List<String> getSpoolFilesContent(List<JsonObject> spoolFiles) throws ZosBatchException {
+        CompletionService<String> completionService = new ExecutorCompletionService<>(this.zosBatchManager.getSpoolRetrievalExecutor(this.jobImage));
+        List<Future<String>> futures = new ArrayList<>();
+        try {
+            for (JsonObject spoolFile : spoolFiles) {
+                String id = jsonNull(spoolFile, PROP_ID);
+                String stepname = jsonNull(spoolFile, "stepname");
+                String procstep = jsonNull(spoolFile, "procstep");
+                String ddname = spoolFile.get("ddname").getAsString();
+                futures.add(completionService.submit(() -> getSpoolFileContent(id, stepname, procstep, ddname)));
+            }
+            // Get the JCLIN
+            futures.add(completionService.submit(() -> getSpoolFileContent("JCL", null, null, null)));
+            
+            // Check the retrievals as they finish, so the first to fail is seen without waiting for those before it
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+            
+            // The JCLIN is not part of the job output
+            List<String> spoolFilesRecords = new ArrayList<>();
+            for (int i = 0; i < spoolFiles.size(); i++) {
+                spoolFilesRecords.add(futures.get(i).get());
+            }
+            return spoolFilesRecords;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ZosBatchException) {
+                throw (ZosBatchException) e.getCause();
+            }
+            throw new ZosBatchException("Problem retrieving spool files for job " + this.toString(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ZosBatchException("Interrupted retrieving spool files for job " + this.toString(), e);
+        } finally {
+            // Stop retrieving the remaining spool files if one has failed
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
     protected String getSpoolFileContent(String id, String stepname, String procstep, String ddname) throws ZosBatchException {
 
     	String path = this.jobFilesPath + "/" + id + "/records";
@@ -0,0 +1,251 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.zosmf.manager.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpStatus;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zosbatch.ZosBatchException;
+import dev.galasa.zosbatch.ZosBatchManagerException;
+import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
+import dev.galasa.zosmf.IZosmfResponse;
+import dev.galasa.zosmf.IZosmfRestApiProcessor;
+import dev.galasa.zosmf.ZosmfException;
+import dev.galasa.zosmf.ZosmfManagerException;
+
+/**
+ * Watches the status of the zOS Batch jobs being waited for on a zOS image.
+ * <p>
+ * Rather than each waiting job polling its own status, the statuses of all watched jobs are retrieved together with
+ * one zOS/MF list jobs request per job owner. Polling starts at {@value #MIN_POLL_INTERVAL} milliseconds and backs off
+ * to {@value #MAX_POLL_INTERVAL} milliseconds while no watched job changes status. The future returned by
+ * {@link #watch(ZosmfZosBatchJobImpl)} is completed when the job has ended or can no longer be found.
+ */
+public class ZosmfZosBatchJobMonitor {
+
+    protected static final long MIN_POLL_INTERVAL = 1000;
+    protected static final long MAX_POLL_INTERVAL = 8000;
+
+    private final ZosmfZosBatchManagerImpl zosBatchManager;
+    private final IZosImage image;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<ZosmfZosBatchJobImpl, Watch> watchedJobs = new LinkedHashMap<>();
+    private boolean pollScheduled;
+    private long pollInterval = MIN_POLL_INTERVAL;
+
+    private IZosmfRestApiProcessor zosmfApiProcessor;
+
+    private static final Log logger = LogFactory.getLog(ZosmfZosBatchJobMonitor.class);
+
+    public ZosmfZosBatchJobMonitor(ZosmfZosBatchManagerImpl zosBatchManager, IZosImage image, ScheduledExecutorService scheduler) {
+        this.zosBatchManager = zosBatchManager;
+        this.image = image;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Start watching a job. Each call must be matched by the future completing or a call to {@link #unwatch(ZosmfZosBatchJobImpl)}
+     * @param job the submitted job
+     * @return a future that completes when the job has ended, or completes exceptionally if its status cannot be retrieved
+     */
+    public synchronized CompletableFuture<Void> watch(ZosmfZosBatchJobImpl job) {
+        Watch watch = this.watchedJobs.computeIfAbsent(job, j -> new Watch());
+        watch.waiters++;
+        // A newly watched job is likely to change status soon
+        this.pollInterval = MIN_POLL_INTERVAL;
+        if (!this.pollScheduled) {
+            schedulePoll(0);
+        }
+        return watch.jobEnded;
+    }
+
+    /**
+     * Stop watching a job, for example when the wait for it has timed out. The job is still watched while others are waiting for it
+     * @param job the job
+     */
+    public synchronized void unwatch(ZosmfZosBatchJobImpl job) {
+        Watch watch = this.watchedJobs.get(job);
+        if (watch != null && --watch.waiters <= 0) {
+            this.watchedJobs.remove(job);
+        }
+    }
+
+    protected void schedulePoll(long delay) {
+        try {
+            this.scheduler.schedule(this::poll, delay, TimeUnit.MILLISECONDS);
+            this.pollScheduled = true;
+        } catch (RejectedExecutionException e) {
+            // The manager is shutting down, release anyone still waiting
+            this.pollScheduled = false;
+            for (Watch watch : this.watchedJobs.values()) {
+                watch.jobEnded.completeExceptionally(new ZosBatchException("zOS Batch job monitor has been shut down", e));
+            }
+            this.watchedJobs.clear();
+        }
+    }
+
+    protected void poll() {
+        List<ZosmfZosBatchJobImpl> jobs;
+        synchronized (this) {
+            jobs = new ArrayList<>(this.watchedJobs.keySet());
+        }
+
+        boolean statusChanged = false;
+        Map<ZosmfZosBatchJobImpl, Throwable> endedJobs = new HashMap<>();
+        try {
+            Map<String, JsonObject> jobStatuses = listJobStatuses(jobs);
+
+            for (ZosmfZosBatchJobImpl job : jobs) {
+                String previousStatus = job.lastKnownStatus();
+                try {
+                    JsonObject jobStatus = jobStatuses.get(job.getJobId());
+                    if (jobStatus != null) {
+                        job.setJobStatus(jobStatus);
+                    } else {
+                        // Not in the job list, so the job may have been purged. Ask for it directly
+                        job.updateJobStatus();
+                    }
+                    if (job.isComplete() || job.isNotFound()) {
+                        endedJobs.put(job, null);
+                    }
+                } catch (ZosBatchException | RuntimeException e) {
+                    endedJobs.put(job, e);
+                }
+                statusChanged |= !previousStatus.equals(job.lastKnownStatus());
+            }
+        } catch (RuntimeException e) {
+            // Release the waiters rather than leave them waiting for a status that may never be retrieved
+            logger.error("Unexpected error retrieving the status of zOS Batch jobs", e);
+            ZosBatchException failure = new ZosBatchException("Unable to retrieve the status of zOS Batch jobs", e);
+            for (ZosmfZosBatchJobImpl job : jobs) {
+                endedJobs.putIfAbsent(job, failure);
+            }
+        } finally {
+            // Always reschedule, or polling would stop for all the jobs on the image
+            synchronized (this) {
+                for (Entry<ZosmfZosBatchJobImpl, Throwable> entry : endedJobs.entrySet()) {
+                    Watch watch = this.watchedJobs.remove(entry.getKey());
+                    if (watch != null) {
+                        if (entry.getValue() == null) {
+                            watch.jobEnded.complete(null);
+                        } else {
+                            watch.jobEnded.completeExceptionally(entry.getValue());
+                        }
+                    }
+                }
+                if (statusChanged) {
+                    this.pollInterval = MIN_POLL_INTERVAL;
+                } else {
+                    this.pollInterval = Math.min(this.pollInterval * 2, MAX_POLL_INTERVAL);
+                }
+                this.pollScheduled = false;
+                if (!this.watchedJobs.isEmpty()) {
+                    schedulePoll(this.pollInterval);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieve the status of the jobs with one list jobs request for each job owner, filtered by the longest jobname prefix
+     * the jobs share
+     * @param jobs the jobs
+     * @return the job status JSON keyed by jobid. Jobs that could not be listed are not included
+     */
+    protected Map<String, JsonObject> listJobStatuses(List<ZosmfZosBatchJobImpl> jobs) {
+        Map<String, List<String>> jobnamesByOwner = new HashMap<>();
+        for (ZosmfZosBatchJobImpl job : jobs) {
+            if (job.owner() != null) {
+                jobnamesByOwner.computeIfAbsent(job.owner(), o -> new ArrayList<>()).add(job.getJobname().getName());
+            }
+        }
+
+        Map<String, JsonObject> jobStatuses = new HashMap<>();
+        for (Entry<String, List<String>> entry : jobnamesByOwner.entrySet()) {
+            String listJobsPath = ZosmfZosBatchJobImpl.RESTJOBS_PATH + "?owner=" + entry.getKey() + "&prefix=" + jobnamePrefix(entry.getValue());
+            try {
+                JsonArray jsonArray = listJobs(listJobsPath);
+                for (JsonElement jsonElement : jsonArray) {
+                    JsonObject jobStatus = jsonElement.getAsJsonObject();
+                    JsonElement jobid = jobStatus.get("jobid");
+                    if (jobid != null && !jobid.isJsonNull()) {
+                        jobStatuses.put(jobid.getAsString(), jobStatus);
+                    }
+                }
+            } catch (ZosBatchException e) {
+                // The jobs will be asked for individually instead
+                logger.debug("Unable to list jobs for owner " + entry.getKey(), e);
+            }
+        }
+        return jobStatuses;
+    }
+
+    protected JsonArray listJobs(String listJobsPath) throws ZosBatchException {
+        HashMap<String, String> headers = new HashMap<>();
+        IZosmfResponse response;
+        try {
+            response = getZosmfApiProcessor().sendRequest(ZosmfRequestType.GET, listJobsPath, headers, null, new ArrayList<>(Arrays.asList(HttpStatus.SC_OK, HttpStatus.SC_BAD_REQUEST, HttpStatus.SC_INTERNAL_SERVER_ERROR)), true);
+            if (response.getStatusCode() != HttpStatus.SC_OK) {
+                throw new ZosBatchException(ZosmfZosBatchJobImpl.buildErrorString("List jobs", response.getJsonContent()));
+            }
+            return response.getJsonArrayContent();
+        } catch (ZosmfException e) {
+            throw new ZosBatchException(e);
+        }
+    }
+
+    protected synchronized IZosmfRestApiProcessor getZosmfApiProcessor() throws ZosBatchException {
+        if (this.zosmfApiProcessor == null) {
+            try {
+                this.zosmfApiProcessor = this.zosBatchManager.getZosmfManager().newZosmfRestApiProcessor(this.image, this.zosBatchManager.getZosManager().getZosBatchPropertyBatchRestrictToImage(this.image.getImageID()));
+            } catch (ZosmfManagerException | ZosBatchManagerException e) {
+                throw new ZosBatchException(e);
+            }
+        }
+        return this.zosmfApiProcessor;
+    }
+
+    /**
+     * Build the list jobs prefix that matches all the jobnames, a full jobname or the longest shared prefix followed by *
+     * @param jobnames the jobnames
+     * @return the prefix
+     */
+    protected static String jobnamePrefix(List<String> jobnames) {
+        String prefix = jobnames.get(0);
+        for (String jobname : jobnames) {
+            int length = 0;
+            while (length < prefix.length() && length < jobname.length() && prefix.charAt(length) == jobname.charAt(length)) {
+                length++;
+            }
+            prefix = prefix.substring(0, length);
+        }
+        return prefix.length() == 8 ? prefix : prefix + "*";
+    }
+
+    private static class Watch {
+        private final CompletableFuture<Void> jobEnded = new CompletableFuture<>();
+        private int waiters;
+    }
+}
@@ -11,6 +11,12 @@ import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.validation.constraints.NotNull;
 
@@ -67,6 +73,11 @@ public class ZosmfZosBatchManagerImpl extends AbstractManager implements IZosBat
     private final HashMap<String, ZosmfZosBatchImpl> taggedZosBatches = new HashMap<>();
     private final HashMap<String, ZosmfZosBatchImpl> zosBatches = new HashMap<>();
 
+    private final HashMap<String, ZosmfZosBatchJobMonitor> jobMonitors = new HashMap<>();
+    private ScheduledExecutorService jobMonitorScheduler;
+
+    private final HashMap<String, ExecutorService> spoolRetrievalExecutors = new HashMap<>();
+
     private Path artifactsRoot;
     public Path getArtifactsRoot() {
     	return artifactsRoot;
@@ -202,6 +213,25 @@ public class ZosmfZosBatchManagerImpl extends AbstractManager implements IZosBat
             logger.error("Problem in endOfTestRun()", e);
         }
     }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see dev.galasa.framework.spi.IManager#shutdown()
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (this.jobMonitorScheduler != null) {
+            this.jobMonitorScheduler.shutdownNow();
+            this.jobMonitorScheduler = null;
+        }
+        this.jobMonitors.clear();
+        for (ExecutorService executor : this.spoolRetrievalExecutors.values()) {
+            executor.shutdownNow();
+        }
+        this.spoolRetrievalExecutors.clear();
+        super.shutdown();
+    }
     
     protected void cleanup(boolean endOfTest) throws ZosBatchException {
         for (Entry<String, ZosmfZosBatchImpl> entry : this.taggedZosBatches.entrySet()) {
@@ -254,6 +284,50 @@ public class ZosmfZosBatchManagerImpl extends AbstractManager implements IZosBat
         return zosManager.newZosBatchJobname(name);
     }
 
+    /**
+     * Get the monitor that watches the status of jobs on an image, shared by all the jobs on the image
+     * @param image the zOS image
+     * @return the job monitor
+     */
+    public synchronized ZosmfZosBatchJobMonitor getJobMonitor(IZosImage image) {
+        if (this.jobMonitorScheduler == null) {
+            this.jobMonitorScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zOS Batch job monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.jobMonitors.computeIfAbsent(image.getImageID(), imageId -> new ZosmfZosBatchJobMonitor(this, image, this.jobMonitorScheduler));
+    }
+
+    /**
+     * Get the executor that retrieves spool files from an image, shared by all the jobs on the image so that no more
+     * than the {@code zosbatch.batchjob.[imageid].spool.retrieval.limit} spool files are retrieved from it at once
+     * @param image the zOS image
+     * @return the executor
+     * @throws ZosBatchException
+     */
+    public synchronized ExecutorService getSpoolRetrievalExecutor(IZosImage image) throws ZosBatchException {
+        ExecutorService executor = this.spoolRetrievalExecutors.get(image.getImageID());
+        if (executor == null) {
+            int limit;
+            try {
+                limit = this.zosManager.getZosBatchPropertySpoolRetrievalLimit(image.getImageID());
+            } catch (ZosBatchManagerException e) {
+                throw new ZosBatchException(e);
+            }
+            ThreadPoolExecutor threadPool = new ThreadPoolExecutor(limit, limit, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "zOS Batch spool retrieval " + image.getImageID());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPool.allowCoreThreadTimeOut(true);
+            executor = threadPool;
+            this.spoolRetrievalExecutors.put(image.getImageID(), executor);
+        }
+        return executor;
+    }
+
     @Override
     public @NotNull IZosBatch getZosBatch(IZosImage image) {
         if (zosBatches.containsKey(image.getImageID())) {
@@ -0,0 +1,126 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.zosmf.manager.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zosbatch.IZosBatchJobname;
+import dev.galasa.zosbatch.ZosBatchException;
+
+public class TestZosmfZosBatchJobMonitor {
+
+    @Test
+    public void testJobnamePrefix() {
+        Assert.assertEquals("A single jobname should be used in full", "GAL00001", ZosmfZosBatchJobMonitor.jobnamePrefix(Arrays.asList("GAL00001")));
+        Assert.assertEquals("The shared prefix should be used", "GAL000*", ZosmfZosBatchJobMonitor.jobnamePrefix(Arrays.asList("GAL00001", "GAL00002", "GAL00010")));
+        Assert.assertEquals("No shared prefix should match all jobs", "*", ZosmfZosBatchJobMonitor.jobnamePrefix(Arrays.asList("GAL00001", "JOB00001")));
+    }
+
+    @Test
+    public void testJobsListedTogetherAndCompleted() throws ZosBatchException {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        List<String> listJobsPaths = new ArrayList<>();
+        JsonArray jobList = new JsonArray();
+        jobList.add(jobStatus("JOB00001", "OUTPUT", "CC 0000"));
+        jobList.add(jobStatus("JOB00002", "ACTIVE", null));
+        ZosmfZosBatchJobMonitor monitor = new ZosmfZosBatchJobMonitor(null, Mockito.mock(IZosImage.class), scheduler) {
+            @Override
+            protected JsonArray listJobs(String listJobsPath) {
+                listJobsPaths.add(listJobsPath);
+                return jobList;
+            }
+        };
+        ZosmfZosBatchJobImpl job1 = mockJob("GAL00001", "JOB00001", true);
+        ZosmfZosBatchJobImpl job2 = mockJob("GAL00002", "JOB00002", false);
+
+        CompletableFuture<Void> job1Ended = monitor.watch(job1);
+        CompletableFuture<Void> job2Ended = monitor.watch(job2);
+        Mockito.verify(scheduler, Mockito.times(1)).schedule(Mockito.any(Runnable.class), Mockito.eq(0L), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        monitor.poll();
+
+        Assert.assertEquals("Both jobs should be listed in one request", Arrays.asList(ZosmfZosBatchJobImpl.RESTJOBS_PATH + "?owner=USER&prefix=GAL0000*"), listJobsPaths);
+        Mockito.verify(job1).setJobStatus(jobList.get(0).getAsJsonObject());
+        Mockito.verify(job2).setJobStatus(jobList.get(1).getAsJsonObject());
+        Mockito.verify(job2, Mockito.never()).updateJobStatus();
+        Assert.assertTrue("The complete job should have ended", job1Ended.isDone());
+        Assert.assertFalse("The active job should not have ended", job2Ended.isDone());
+        Mockito.verify(scheduler).schedule(Mockito.any(Runnable.class), Mockito.eq(ZosmfZosBatchJobMonitor.MIN_POLL_INTERVAL), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        monitor.unwatch(job2);
+        monitor.poll();
+        Assert.assertEquals("No jobs should be listed once none are watched", 1, listJobsPaths.size());
+    }
+
+    @Test
+    public void testUnexpectedErrorFailsWaitersAndPollingContinues() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        List<String> listJobsPaths = new ArrayList<>();
+        ZosmfZosBatchJobMonitor monitor = new ZosmfZosBatchJobMonitor(null, Mockito.mock(IZosImage.class), scheduler) {
+            @Override
+            protected JsonArray listJobs(String listJobsPath) {
+                listJobsPaths.add(listJobsPath);
+                if (listJobsPaths.size() == 1) {
+                    throw new IllegalStateException("Unexpected response");
+                }
+                return new JsonArray();
+            }
+        };
+        ZosmfZosBatchJobImpl job1 = mockJob("GAL00001", "JOB00001", false);
+
+        CompletableFuture<Void> job1Ended = monitor.watch(job1);
+        monitor.poll();
+
+        Assert.assertTrue("The waiter should be released", job1Ended.isCompletedExceptionally());
+        ExecutionException e = Assert.assertThrows(ExecutionException.class, () -> job1Ended.get());
+        Assert.assertTrue("The waiter should receive a ZosBatchException", e.getCause() instanceof ZosBatchException);
+
+        // The monitor is still running, a new watch schedules another poll which succeeds
+        ZosmfZosBatchJobImpl job2 = mockJob("GAL00002", "JOB00002", true);
+        CompletableFuture<Void> job2Ended = monitor.watch(job2);
+        Mockito.verify(scheduler, Mockito.times(2)).schedule(Mockito.any(Runnable.class), Mockito.eq(0L), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        monitor.poll();
+        Assert.assertEquals("The jobs should be listed again", 2, listJobsPaths.size());
+        Assert.assertTrue("The job should have ended", job2Ended.isDone());
+        Assert.assertFalse("The job should have ended normally", job2Ended.isCompletedExceptionally());
+    }
+
+    private ZosmfZosBatchJobImpl mockJob(String jobname, String jobid, boolean complete) {
+        IZosBatchJobname zosBatchJobname = Mockito.mock(IZosBatchJobname.class);
+        Mockito.when(zosBatchJobname.getName()).thenReturn(jobname);
+        ZosmfZosBatchJobImpl job = Mockito.mock(ZosmfZosBatchJobImpl.class);
+        Mockito.when(job.getJobname()).thenReturn(zosBatchJobname);
+        Mockito.when(job.getJobId()).thenReturn(jobid);
+        Mockito.when(job.owner()).thenReturn("USER");
+        Mockito.when(job.lastKnownStatus()).thenReturn("INPUT ????", complete ? "OUTPUT CC 0000" : "ACTIVE ????");
+        Mockito.when(job.isComplete()).thenReturn(complete);
+        return job;
+    }
+
+    private JsonObject jobStatus(String jobid, String status, String retcode) {
+        JsonObject jobStatus = new JsonObject();
+        jobStatus.addProperty("jobid", jobid);
+        jobStatus.addProperty("owner", "USER");
+        jobStatus.addProperty("status", status);
+        jobStatus.addProperty("retcode", retcode);
+        return jobStatus;
+    }
+}
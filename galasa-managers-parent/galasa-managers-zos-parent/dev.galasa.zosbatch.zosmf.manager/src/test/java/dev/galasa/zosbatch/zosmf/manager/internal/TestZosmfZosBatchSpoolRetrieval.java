@@ -0,0 +1,158 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosbatch.zosmf.manager.internal;
+
+import java.lang.reflect.Field;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.zos.IZosImage;
+import dev.galasa.zos.spi.IZosManagerSpi;
+import dev.galasa.zosbatch.IZosBatchJobname;
+import dev.galasa.zosbatch.ZosBatchException;
+import dev.galasa.zosmf.IZosmfRestApiProcessor;
+import dev.galasa.zosmf.spi.IZosmfManagerSpi;
+
+public class TestZosmfZosBatchSpoolRetrieval {
+
+    private ZosmfZosBatchManagerImpl zosBatchManager;
+
+    private IZosImage image;
+
+    @Before
+    public void setUp() throws Exception {
+        IZosManagerSpi zosManager = Mockito.mock(IZosManagerSpi.class);
+        Mockito.when(zosManager.getZosBatchPropertySpoolRetrievalLimit(Mockito.anyString())).thenReturn(3);
+        IZosmfManagerSpi zosmfManager = Mockito.mock(IZosmfManagerSpi.class);
+        Mockito.when(zosmfManager.newZosmfRestApiProcessor(Mockito.any(), Mockito.anyBoolean())).thenReturn(Mockito.mock(IZosmfRestApiProcessor.class));
+
+        zosBatchManager = new ZosmfZosBatchManagerImpl();
+        setField(zosBatchManager, "zosManager", zosManager);
+        setField(zosBatchManager, "zosmfManager", zosmfManager);
+        setField(zosBatchManager, "archivePath", Paths.get("archive"));
+        setField(zosBatchManager, "currentTestMethodArchiveFolderName", "testMethod");
+
+        image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE");
+    }
+
+    @After
+    public void tearDown() {
+        zosBatchManager.shutdown();
+    }
+
+    private void setField(Object object, String name, Object value) throws Exception {
+        Field field = ZosmfZosBatchManagerImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+
+    private List<JsonObject> spoolFiles(String... ddnames) {
+        List<JsonObject> spoolFiles = new ArrayList<>();
+        for (int i = 0; i < ddnames.length; i++) {
+            JsonObject spoolFile = new JsonObject();
+            spoolFile.addProperty("id", String.valueOf(i + 1));
+            spoolFile.addProperty("stepname", "STEP");
+            spoolFile.addProperty("ddname", ddnames[i]);
+            spoolFiles.add(spoolFile);
+        }
+        return spoolFiles;
+    }
+
+    /**
+     * A job with the spool file retrieval replaced
+     */
+    private abstract class TestJob extends ZosmfZosBatchJobImpl {
+        private TestJob() throws ZosBatchException {
+            super(zosBatchManager, image, Mockito.mock(IZosBatchJobname.class), null, null);
+        }
+
+        @Override
+        protected abstract String getSpoolFileContent(String id, String stepname, String procstep, String ddname) throws ZosBatchException;
+    }
+
+    @Test
+    public void testSpoolFilesReturnedInListedOrder() throws Exception {
+        ZosmfZosBatchJobImpl job = new TestJob() {
+            @Override
+            protected String getSpoolFileContent(String id, String stepname, String procstep, String ddname) throws ZosBatchException {
+                // The first spool files take the longest, so finish last
+                try {
+                    Thread.sleep(id.equals("JCL") ? 0 : 100 / Integer.parseInt(id));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ddname + " records";
+            }
+        };
+
+        List<String> records = job.getSpoolFilesContent(spoolFiles("JESMSGLG", "JESJCL", "JESYSMSG", "SYSOUT", "SYSPRINT"));
+
+        Assert.assertEquals("The spool files should be in the listed order, without the JCLIN",
+                Arrays.asList("JESMSGLG records", "JESJCL records", "JESYSMSG records", "SYSOUT records", "SYSPRINT records"), records);
+    }
+
+    @Test
+    public void testFirstFailureCancelsOutstandingRetrievals() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+        ZosmfZosBatchJobImpl job = new TestJob() {
+            @Override
+            protected String getSpoolFileContent(String id, String stepname, String procstep, String ddname) throws ZosBatchException {
+                if ("1".equals(id)) {
+                    slowStarted.countDown();
+                    try {
+                        Thread.sleep(60000);
+                    } catch (InterruptedException e) {
+                        slowInterrupted.countDown();
+                        Thread.currentThread().interrupt();
+                    }
+                    return ddname + " records";
+                }
+                if ("2".equals(id)) {
+                    try {
+                        slowStarted.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new ZosBatchException("Unable to retrieve " + ddname);
+                }
+                return ddname + " records";
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        ZosBatchException e = Assert.assertThrows(ZosBatchException.class, () -> job.getSpoolFilesContent(spoolFiles("JESMSGLG", "JESJCL", "SYSOUT")));
+
+        Assert.assertEquals("The failure should be reported", "Unable to retrieve JESJCL", e.getMessage());
+        Assert.assertTrue("The failure should be reported without waiting for the slow retrieval", System.currentTimeMillis() - start < 30000);
+        Assert.assertTrue("The slow retrieval should be cancelled", slowInterrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExecutorSharedForImageAndShutdownWithManager() throws Exception {
+        ExecutorService executor = zosBatchManager.getSpoolRetrievalExecutor(image);
+        Assert.assertSame("The executor should be shared by the jobs on the image", executor, zosBatchManager.getSpoolRetrievalExecutor(image));
+
+        zosBatchManager.shutdown();
+
+        Assert.assertTrue("The executor should be shut down with the manager", executor.isShutdown());
+    }
+
+}
@@ -6,6 +6,7 @@
 package dev.galasa.zosmf;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -117,7 +118,8 @@ public interface IZosmf {
     }
     
     /**
-     * Set an HTTP Header for the pending zOSMF request
+     * Set an HTTP Header for subsequent zOSMF requests to this server.
+     * Where requests may be issued concurrently, supply the headers on each request instead
      * 
      * @param name header name
      * @param value header value 
@@ -141,6 +143,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
 
+    /**
+     * Issue an HTTP GET request to the zOSMF server with no request body and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @param convert is a data conversion required. If true, data will be converted betwen EBCDIC to ISO8859-1. If false, no data conversion will take place.
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse get(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws ZosmfException;
+
     /**
      * Issue an HTTP POST request to the zOSMF server with a request body of content type of {@code application/json}
      * 
@@ -152,6 +166,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP POST request to the zOSMF server with a request body of content type of {@code application/json} and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param requestBody the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse postJson(String path, Map<String, String> headers, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException;
+
     /**
      * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code text/plain}
      * 
@@ -163,6 +189,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code text/plain} and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param requestBody the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse putText(String path, Map<String, String> headers, String requestBody, List<Integer> validStatusCodes) throws ZosmfException;
+
     /**
      * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code application/json}
      * 
@@ -174,6 +212,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse putJson(String path, JsonObject body, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code application/json} and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param body the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse putJson(String path, Map<String, String> headers, JsonObject body, List<Integer> validStatusCodes) throws ZosmfException;
+
      /**
      * Issue an HTTP PUT request to the zOSMF server with a request body of content type of {@code text/plain}
      * 
@@ -185,6 +235,18 @@ public interface IZosmf {
      */
     public @NotNull IZosmfResponse putBinary(String path, byte[] body, List<Integer> validStatusCodes) throws ZosmfException;
 
+    /**
+     * Issue an HTTP PUT request to the zOSMF server with a binary request body and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param body the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse putBinary(String path, Map<String, String> headers, byte[] body, List<Integer> validStatusCodes) throws ZosmfException;
+
     /**
      * Issue an HTTP DELETE request to the zOSMF server with no request body
      * 
@@ -194,6 +256,17 @@ public interface IZosmf {
      * @throws ZosmfException
      */
     public @NotNull IZosmfResponse delete(String path, List<Integer> validStatusCodes) throws ZosmfException;
+
+    /**
+     * Issue an HTTP DELETE request to the zOSMF server with no request body and the supplied HTTP headers
+     * 
+     * @param path identifies the zOSMF REST API
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the zOSMF server response
+     * @throws ZosmfException
+     */
+    public @NotNull IZosmfResponse delete(String path, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException;
     
     /**
      * Return the JSON response from the zOSMF Server Information request
@@ -13,7 +13,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.constraints.NotNull;
 
@@ -34,6 +36,8 @@ import dev.galasa.zosmf.IZosmf;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.ZosmfException;
 import dev.galasa.zosmf.ZosmfManagerException;
+import dev.galasa.zosmf.internal.properties.CircuitFailureThreshold;
+import dev.galasa.zosmf.internal.properties.CircuitProbeInterval;
 import dev.galasa.zosmf.internal.properties.Https;
 import dev.galasa.zosmf.internal.properties.RequestRetry;
 import dev.galasa.zosmf.internal.properties.ServerCreds;
@@ -56,8 +60,9 @@ public class ZosmfImpl implements IZosmf {
     private IHttpClient httpClient;
     private String zosmfUrl;
     protected int requestRetry;
+    private ZosmfServerHealth health;
 
-    private HashMap<String, String> commonHeaders = new HashMap<>();
+    private final Map<String, String> commonHeaders = new ConcurrentHashMap<>();
 
 	private static final String PATH_SERVERDETAILS = "/zosmf/info";
 
@@ -87,25 +92,28 @@ public class ZosmfImpl implements IZosmf {
     @Override
     public void clearHeaders() {
         this.commonHeaders.clear();
-        this.httpClient.clearCommonHeaders();
     }
 
     @Override
     public @NotNull IZosmfResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
+        return get(path, null, validStatusCodes, convert);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse get(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws ZosmfException {
         String method = ZosmfRequestType.GET.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers, method);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             if (convert) {
-                zosmfResponse.setHttpClientresponse(this.httpClient.getText(validPath(path)));
+                zosmfResponse.setHttpClientresponse(this.httpClient.getText(validPath(path), requestHeaders));
             } else {
-                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path)));
+                zosmfResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path), requestHeaders));
             }
             
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
@@ -122,18 +130,22 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return postJson(path, null, requestBody, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse postJson(String path, Map<String, String> headers, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.POST.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers, method);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
                 throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
@@ -148,18 +160,22 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return putText(path, null, requestBody, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse putText(String path, Map<String, String> headers, String requestBody, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.PUT.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers, method);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
                 throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
@@ -174,18 +190,22 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse putJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return putJson(path, null, requestBody, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse putJson(String path, Map<String, String> headers, JsonObject requestBody, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.PUT.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers, method);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
                 throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
@@ -199,7 +219,12 @@ public class ZosmfImpl implements IZosmf {
     }
 
     @Override
-    public @NotNull IZosmfResponse putBinary(String path, byte[] requestBody, List<Integer> validStatusCodes) throws ZosmfException  {
+    public @NotNull IZosmfResponse putBinary(String path, byte[] requestBody, List<Integer> validStatusCodes) throws ZosmfException {
+        return putBinary(path, null, requestBody, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse putBinary(String path, Map<String, String> headers, byte[] requestBody, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.PUT.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
@@ -207,12 +232,11 @@ public class ZosmfImpl implements IZosmf {
         ZosmfResponseImpl zosmfResponse;
 
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers, method);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            zosmfResponse.setHttpClientresponse(this.httpClient.putBinary(path, requestBody));
+            zosmfResponse.setHttpClientresponse(this.httpClient.putBinary(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
                 throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
@@ -227,17 +251,21 @@ public class ZosmfImpl implements IZosmf {
 
     @Override
     public @NotNull IZosmfResponse delete(String path, List<Integer> validStatusCodes) throws ZosmfException {
+        return delete(path, null, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IZosmfResponse delete(String path, Map<String, String> headers, List<Integer> validStatusCodes) throws ZosmfException {
         String method = ZosmfRequestType.DELETE.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         ZosmfResponseImpl zosmfResponse;
         try {
-            setHeader(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers, method);
             zosmfResponse = new ZosmfResponseImpl(this.zosmfUrl, validPath(path));
             logger.trace(logRequest(method, zosmfResponse.getRequestUrl()));
-            zosmfResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path)));
+            zosmfResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path), requestHeaders));
             logger.trace(logResponse(zosmfResponse.getStatusLine(), method, zosmfResponse.getRequestUrl()));
             if (!validStatusCodes.contains(zosmfResponse.getStatusCode())) {
                 throw new ZosmfException(logBadStatusCode(zosmfResponse.getStatusCode()));
@@ -324,17 +352,27 @@ public class ZosmfImpl implements IZosmf {
         
         try {
             this.requestRetry = RequestRetry.get(this.serverId);
+            this.health = new ZosmfServerHealth(this, this.zosmfManager.getHealthProbeScheduler(), 
+                    CircuitFailureThreshold.get(this.serverId), CircuitProbeInterval.get(this.serverId));
         } catch (ZosManagerException e) {
             throw new ZosmfException(e);
         }
     }
 
-    protected void addCommonHeaders() {
-        for (Entry<String, String> entry : this.commonHeaders.entrySet()) {
+    /**
+     * Build the headers for a single request from the server headers, the request headers and the request method.
+     * Nothing is written back to the server or the shared HTTP client, so requests may be issued concurrently
+     */
+    protected Map<String, String> requestHeaders(Map<String, String> headers, String method) {
+        Map<String, String> requestHeaders = new HashMap<>(this.commonHeaders);
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        requestHeaders.put(ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString(), method);
+        for (Entry<String, String> entry : requestHeaders.entrySet()) {
             logger.trace("Adding HTTP header: " + entry.getKey() + ": " + entry.getValue());
-            this.httpClient.addCommonHeader(entry.getKey(), entry.getValue());
         }
-        
+        return requestHeaders;
     }
 
     protected String logRequest(String method, URL requestUrl) {
@@ -355,5 +393,9 @@ public class ZosmfImpl implements IZosmf {
 
     protected int getRequestRetry() {
         return this.requestRetry;
+    }
+
+    protected ZosmfServerHealth getHealth() {
+        return this.health;
     }    
 }
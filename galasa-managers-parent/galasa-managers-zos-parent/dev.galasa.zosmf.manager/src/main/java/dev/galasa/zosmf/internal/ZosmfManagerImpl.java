@@ -11,6 +11,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.validation.constraints.NotNull;
 
@@ -54,6 +56,8 @@ public class ZosmfManagerImpl extends AbstractManager implements IZosmfManagerSp
     private final HashMap<String, IZosmf> taggedZosmfs = new HashMap<>();
     private final HashMap<String, IZosmf> zosmfs = new HashMap<>();
 
+    private ScheduledExecutorService healthProbeScheduler;
+
     /* (non-Javadoc)
      * @see dev.galasa.framework.spi.AbstractManager#initialise(dev.galasa.framework.spi.IFramework, java.util.List, java.util.List, java.lang.Class)
      */
@@ -219,4 +223,33 @@ public class ZosmfManagerImpl extends AbstractManager implements IZosmfManagerSp
     }
 
 
+    /**
+     * The scheduler used to probe zOSMF servers that have been taken out of use, created on first use
+     * @return the health probe scheduler
+     */
+    public synchronized ScheduledExecutorService getHealthProbeScheduler() {
+        if (this.healthProbeScheduler == null) {
+            this.healthProbeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "zOSMF health probe");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.healthProbeScheduler;
+    }
+
+
+    /* (non-Javadoc)
+     * @see dev.galasa.framework.spi.AbstractManager#shutdown()
+     */
+    @Override
+    public synchronized void shutdown() {
+        if (this.healthProbeScheduler != null) {
+            this.healthProbeScheduler.shutdownNow();
+            this.healthProbeScheduler = null;
+        }
+        super.shutdown();
+    }
+
+
 }
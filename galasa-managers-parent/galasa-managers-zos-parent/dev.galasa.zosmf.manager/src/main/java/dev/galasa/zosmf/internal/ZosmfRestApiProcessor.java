@@ -5,14 +5,17 @@
  */
 package dev.galasa.zosmf.internal;
 
+import java.io.IOException;
+import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.validation.constraints.NotNull;
 
@@ -33,17 +36,18 @@ import dev.galasa.zosmf.ZosmfManagerException;
 
 public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
     
-    private IZosmf currentZosmf;
-    private String currentZosmfImageId;
+    private final List<IZosmf> zosmfs = new ArrayList<>();
     
-    private final HashMap<String, IZosmf> zosmfs = new LinkedHashMap<>();
+    private final AtomicInteger nextStartIndex = new AtomicInteger();
+    
+    /** How much slower than the fastest server a server can be and still be treated as equally fast */
+    private static final double LATENCY_TOLERANCE = 0.5;
+    private static final double MIN_LATENCY_TOLERANCE_MILLIS = 10;
     
     private static final Log logger = LogFactory.getLog(ZosmfRestApiProcessor.class);
     
     public ZosmfRestApiProcessor(Map<String, IZosmf> zosmfs) {
-        this.zosmfs.putAll(zosmfs);
-        this.currentZosmfImageId = this.zosmfs.entrySet().iterator().next().getKey();
-        this.currentZosmf = this.zosmfs.get(this.currentZosmfImageId);
+        this.zosmfs.addAll(zosmfs.values());
     }
     
     
@@ -61,78 +65,156 @@ public class ZosmfRestApiProcessor implements IZosmfRestApiProcessor {
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
+        // Headers are built per request and passed through to the server, never set on it, so
+        // concurrent requests through this processor or the same zOSMF server cannot see each other's headers
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        requestHeaders.put(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
+        
         IZosmfResponse response = null;
-        for (int i = 0; i <= ((ZosmfImpl) currentZosmf).getRequestRetry(); i++) {
+        Set<IZosmf> failedZosmfs = new HashSet<>();
+        IZosmf zosmfServer = selectZosmf(failedZosmfs);
+        int requestRetry = ((ZosmfImpl) zosmfServer).getRequestRetry();
+        for (int i = 0; i <= requestRetry; i++) {
+            ZosmfServerHealth health = ((ZosmfImpl) zosmfServer).getHealth();
+            long startTime = health.requestStarted();
             try {
-                IZosmf zosmfServer = getCurrentZosmfServer();
-                if (headers != null) {
-                    for (Entry<String, String> entry : headers.entrySet()) {
-                        zosmfServer.setHeader(entry.getKey(), entry.getValue());
-                    }
-                }
-                zosmfServer.setHeader(ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString(), "");
                 switch (requestType) {
                 case GET:
-                    response = zosmfServer.get(path, validStatusCodes, convert);
+                    response = zosmfServer.get(path, requestHeaders, validStatusCodes, convert);
                     break;
                 case POST_JSON:
-                    response = zosmfServer.postJson(path, (JsonObject) body, validStatusCodes);
+                    response = zosmfServer.postJson(path, requestHeaders, (JsonObject) body, validStatusCodes);
                     break;
                 case PUT_TEXT:
-                    response = zosmfServer.putText(path, (String) body, validStatusCodes);
+                    response = zosmfServer.putText(path, requestHeaders, (String) body, validStatusCodes);
                     break;
                 case PUT_JSON:
-                    response = zosmfServer.putJson(path, (JsonObject) body, validStatusCodes);
+                    response = zosmfServer.putJson(path, requestHeaders, (JsonObject) body, validStatusCodes);
                     break;
                 case PUT_BINARY:
-                    response = zosmfServer.putBinary(path, (byte[]) body, validStatusCodes);
+                    response = zosmfServer.putBinary(path, requestHeaders, (byte[]) body, validStatusCodes);
                     break;
                 case DELETE:
-                    response = zosmfServer.delete(path, validStatusCodes);
+                    response = zosmfServer.delete(path, requestHeaders, validStatusCodes);
                     break;
                 default:
                     throw new ZosmfException("Invalid request type");
                 }
+                if (isServerUnavailable(response.getStatusCode())) {
+                    health.requestFailed();
+                } else {
+                    health.requestSucceeded(startTime);
+                }
     
                 if (validStatusCodes.contains(response.getStatusCode())) {
                     return response;
                 } else {
                     logger.error("Expected HTTP status codes: " + validStatusCodes);
-                    getNextZosmf();
                 }
             } catch (ZosmfManagerException e) {
                 logger.error("Problem with zOSMF request", e);
-                getNextZosmf();
+                // Only a failure to reach the server counts against its health, an unexpected status code
+                // or a response that cannot be processed shows the server is still responding
+                if (isConnectionFailure(e)) {
+                    health.requestFailed();
+                } else {
+                    health.requestSucceeded(startTime);
+                }
             }
+            failedZosmfs.add(zosmfServer);
+            zosmfServer = selectZosmf(failedZosmfs);
         }
         throw new ZosmfException("Unable to get valid response from zOS/MF server");
     }
     
-    protected IZosmf getCurrentZosmfServer() {
-        logger.trace("Using zOSMF on " + this.currentZosmf);
-        this.currentZosmf.clearHeaders();
-        return this.currentZosmf;
+    /**
+     * Check if the failure of a request was caused by a failure to connect to or communicate with the server
+     * @param e the exception from the request
+     * @return true if there was a connection or I/O failure
+     */
+    protected static boolean isConnectionFailure(Throwable e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException && !(cause instanceof MalformedURLException)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    protected void getNextZosmf() {
+    /**
+     * Check if a status code shows the server is not able to process requests
+     * @param statusCode the status code of the response
+     * @return true if the server is unavailable
+     */
+    protected static boolean isServerUnavailable(int statusCode) {
+        return statusCode == HttpStatus.SC_BAD_GATEWAY
+                || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
+                || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Select the zOSMF server for the next request. Servers whose circuit is open are skipped, as are servers
+     * that have already failed this request while there are others to try. Of the remaining servers the one with the 
+     * fewest outstanding requests is chosen, then one with an average latency close to the lowest. The search starts at 
+     * a different server each time so that requests are spread across equally loaded servers with similar latencies
+     * @param failedZosmfs servers that have already failed this request
+     * @return the zOSMF server to use
+     */
+    protected IZosmf selectZosmf(Set<IZosmf> failedZosmfs) {
         if (this.zosmfs.size() == 1) {
-            logger.debug("Only one zOSMF server available");
-            return;
+            return this.zosmfs.get(0);
         }
-        Iterator<Entry<String, IZosmf>> zosmfsIterator = this.zosmfs.entrySet().iterator();
-        while (zosmfsIterator.hasNext()) {
-            if (zosmfsIterator.next().getKey().equals(this.currentZosmfImageId)) {
-                Entry<String, IZosmf> entry;
-                if (zosmfsIterator.hasNext()) {
-                    entry = zosmfsIterator.next();
-                } else {
-                    entry = this.zosmfs.entrySet().iterator().next();
-                }
-                this.currentZosmfImageId = entry.getKey();
-                this.currentZosmf = this.zosmfs.get(this.currentZosmfImageId);
-                return;
+        IZosmf selected = selectZosmf(failedZosmfs, true);
+        if (selected == null) {
+            // Every healthy server has failed this request, so try them again
+            selected = selectZosmf(Collections.emptySet(), true);
+        }
+        if (selected == null) {
+            // Every server has an open circuit, keep trying in case one has recovered before its probe
+            logger.debug("No healthy zOSMF server available");
+            selected = selectZosmf(failedZosmfs.size() < this.zosmfs.size() ? failedZosmfs : Collections.emptySet(), false);
+        }
+        logger.trace("Using zOSMF on " + selected);
+        return selected;
+    }
+
+    private IZosmf selectZosmf(Set<IZosmf> excludedZosmfs, boolean availableOnly) {
+        int size = this.zosmfs.size();
+        int start = Math.floorMod(this.nextStartIndex.getAndIncrement(), size);
+        List<IZosmf> candidates = new ArrayList<>();
+        int fewestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            IZosmf zosmf = this.zosmfs.get((start + i) % size);
+            ZosmfServerHealth health = ((ZosmfImpl) zosmf).getHealth();
+            if (excludedZosmfs.contains(zosmf) || (availableOnly && !health.isAvailable())) {
+                continue;
+            }
+            candidates.add(zosmf);
+            fewestOutstanding = Math.min(fewestOutstanding, health.getOutstandingRequests());
+        }
+        
+        double lowestLatency = Double.MAX_VALUE;
+        for (IZosmf zosmf : candidates) {
+            ZosmfServerHealth health = ((ZosmfImpl) zosmf).getHealth();
+            if (health.getOutstandingRequests() == fewestOutstanding) {
+                lowestLatency = Math.min(lowestLatency, health.getAverageLatencyMillis());
+            }
+        }
+        
+        // The average latency of a server only changes when it is used, so servers with similar latencies are
+        // treated as equal and taken in turn, otherwise the fastest would take every request and the others 
+        // would never show they had become as fast
+        double latencyLimit = lowestLatency + Math.max(lowestLatency * LATENCY_TOLERANCE, MIN_LATENCY_TOLERANCE_MILLIS);
+        for (IZosmf zosmf : candidates) {
+            ZosmfServerHealth health = ((ZosmfImpl) zosmf).getHealth();
+            if (health.getOutstandingRequests() == fewestOutstanding && health.getAverageLatencyMillis() <= latencyLimit) {
+                return zosmf;
             }
         }
-        logger.debug("No alternate zOSMF server available");
+        // The load changed while selecting, any of the candidates will do
+        return candidates.isEmpty() ? null : candidates.get(0);
     }
 }
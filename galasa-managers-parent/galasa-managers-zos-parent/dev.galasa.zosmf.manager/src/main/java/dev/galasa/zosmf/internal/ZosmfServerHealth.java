@@ -0,0 +1,127 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import dev.galasa.zosmf.IZosmf;
+import dev.galasa.zosmf.ZosmfException;
+
+/**
+ * Tracks the load and health of a single zOSMF server so that requests can be spread across the servers of a sysplex.
+ * <p>
+ * After a number of consecutive failed requests the circuit is opened and the server is not selected. It is then probed
+ * in the background with {@link IZosmf#serverInfo()} until it responds, when the circuit is closed again.
+ */
+public class ZosmfServerHealth {
+
+    private static final Log logger = LogFactory.getLog(ZosmfServerHealth.class);
+
+    /** Weight given to the latest request when updating the average latency */
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final IZosmf zosmf;
+    private final ScheduledExecutorService probeScheduler;
+    private final int failureThreshold;
+    private final long probeIntervalSeconds;
+
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+
+    private double averageLatencyMillis;
+    private int consecutiveFailures;
+    private boolean circuitOpen;
+
+    public ZosmfServerHealth(IZosmf zosmf, ScheduledExecutorService probeScheduler, int failureThreshold, long probeIntervalSeconds) {
+        this.zosmf = zosmf;
+        this.probeScheduler = probeScheduler;
+        this.failureThreshold = failureThreshold;
+        this.probeIntervalSeconds = probeIntervalSeconds;
+    }
+
+    /**
+     * Record the start of a request to the server
+     * @return the start time to pass to {@link #requestSucceeded(long)} or {@link #requestFailed()}
+     */
+    public long requestStarted() {
+        this.outstandingRequests.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Record that the server responded to a request
+     * @param startTime the value returned by {@link #requestStarted()}
+     */
+    public void requestSucceeded(long startTime) {
+        this.outstandingRequests.decrementAndGet();
+        double latencyMillis = (System.nanoTime() - startTime) / 1_000_000.0;
+        synchronized (this) {
+            if (this.averageLatencyMillis == 0) {
+                this.averageLatencyMillis = latencyMillis;
+            } else {
+                this.averageLatencyMillis += LATENCY_WEIGHT * (latencyMillis - this.averageLatencyMillis);
+            }
+            this.consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * Record that the server could not be reached or failed to respond to a request. Opens the circuit when the
+     * failure threshold is reached
+     */
+    public void requestFailed() {
+        this.outstandingRequests.decrementAndGet();
+        synchronized (this) {
+            this.consecutiveFailures++;
+            if (this.circuitOpen || this.consecutiveFailures < this.failureThreshold) {
+                return;
+            }
+            this.circuitOpen = true;
+        }
+        logger.warn("zOSMF server " + this.zosmf + " has failed " + this.failureThreshold + " consecutive requests, it will not be used until a health probe succeeds");
+        scheduleProbe();
+    }
+
+    public synchronized boolean isAvailable() {
+        return !this.circuitOpen;
+    }
+
+    public int getOutstandingRequests() {
+        return this.outstandingRequests.get();
+    }
+
+    public synchronized double getAverageLatencyMillis() {
+        return this.averageLatencyMillis;
+    }
+
+    protected void scheduleProbe() {
+        try {
+            this.probeScheduler.schedule(this::probe, this.probeIntervalSeconds, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            // The scheduler has been shut down at the end of the run, nothing more to probe
+            logger.trace("Unable to schedule health probe for zOSMF server " + this.zosmf, e);
+        }
+    }
+
+    protected void probe() {
+        try {
+            this.zosmf.serverInfo();
+        } catch (ZosmfException e) {
+            logger.debug("Health probe of zOSMF server " + this.zosmf + " failed", e);
+            scheduleProbe();
+            return;
+        }
+        synchronized (this) {
+            this.consecutiveFailures = 0;
+            this.circuitOpen = false;
+        }
+        logger.info("Health probe of zOSMF server " + this.zosmf + " succeeded, it is back in use");
+    }
+}
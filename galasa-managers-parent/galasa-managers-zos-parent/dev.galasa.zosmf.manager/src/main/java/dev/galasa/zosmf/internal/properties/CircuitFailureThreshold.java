@@ -0,0 +1,51 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal.properties;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosmf.ZosmfManagerException;
+
+/**
+ * zOSMF Server circuit breaker failure threshold
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zosmf.server.[SERVERID].circuit.failure.threshold
+ * 
+ * @galasa.description The number of consecutive failed requests after which the zOSMF server is taken out of 
+ * use until a health probe succeeds
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 3
+ * 
+ * @galasa.valid_values numerical value > 0 
+ * 
+ * @galasa.examples 
+ * <code>zosmf.server.circuit.failure.threshold=5</code><br>
+ * <code>zosmf.server.MFSYSA.circuit.failure.threshold=5</code>
+ *
+ */
+public class CircuitFailureThreshold extends CpsProperties {
+
+    private static final String DEFAULT_FAILURE_THRESHOLD = "3";
+
+    public static int get(@NotNull String serverId) throws ZosmfManagerException {
+        String thresholdString = getStringWithDefault(ZosmfPropertiesSingleton.cps(), DEFAULT_FAILURE_THRESHOLD, "server", "circuit.failure.threshold", serverId);
+        try {
+            int threshold = Integer.parseInt(thresholdString);
+            if (threshold < 1) {
+                throw new ZosmfManagerException("Invalid value given for zosmf.*.circuit.failure.threshold '" + thresholdString + "'");
+            }
+            return threshold;
+        } catch(NumberFormatException e) {
+            throw new ZosmfManagerException("Invalid value given for zosmf.*.circuit.failure.threshold '" + thresholdString + "'", e);
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal.properties;
+
+import javax.validation.constraints.NotNull;
+
+import dev.galasa.framework.spi.cps.CpsProperties;
+import dev.galasa.zosmf.ZosmfManagerException;
+
+/**
+ * zOSMF Server health probe interval
+ * 
+ * @galasa.cps.property
+ * 
+ * @galasa.name zosmf.server.[SERVERID].circuit.probe.interval
+ * 
+ * @galasa.description The number of seconds between health probes of a zOSMF server that has been taken out of use
+ * 
+ * @galasa.required No
+ * 
+ * @galasa.default 30
+ * 
+ * @galasa.valid_values numerical value > 0 
+ * 
+ * @galasa.examples 
+ * <code>zosmf.server.circuit.probe.interval=60</code><br>
+ * <code>zosmf.server.MFSYSA.circuit.probe.interval=60</code>
+ *
+ */
+public class CircuitProbeInterval extends CpsProperties {
+
+    private static final String DEFAULT_PROBE_INTERVAL = "30";
+
+    public static int get(@NotNull String serverId) throws ZosmfManagerException {
+        String intervalString = getStringWithDefault(ZosmfPropertiesSingleton.cps(), DEFAULT_PROBE_INTERVAL, "server", "circuit.probe.interval", serverId);
+        try {
+            int interval = Integer.parseInt(intervalString);
+            if (interval < 1) {
+                throw new ZosmfManagerException("Invalid value given for zosmf.*.circuit.probe.interval '" + intervalString + "'");
+            }
+            return interval;
+        } catch(NumberFormatException e) {
+            throw new ZosmfManagerException("Invalid value given for zosmf.*.circuit.probe.interval '" + intervalString + "'", e);
+        }
+    }
+
+}
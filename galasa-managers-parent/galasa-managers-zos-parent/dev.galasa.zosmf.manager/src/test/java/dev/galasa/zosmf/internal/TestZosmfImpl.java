@@ -10,6 +10,15 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
@@ -32,6 +41,7 @@ import com.google.gson.JsonObject;
 import dev.galasa.ICredentials;
 import dev.galasa.ICredentialsToken;
 import dev.galasa.ICredentialsUsernamePassword;
+import dev.galasa.framework.spi.IConfigurationPropertyStoreService;
 import dev.galasa.framework.spi.IFramework;
 import dev.galasa.framework.spi.creds.CredentialsException;
 import dev.galasa.framework.spi.creds.ICredentialsService;
@@ -42,6 +52,8 @@ import dev.galasa.http.spi.IHttpManagerSpi;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zos.ZosManagerException;
 import dev.galasa.zos.internal.ZosManagerImpl;
+import dev.galasa.zos.spi.IZosManagerSpi;
+import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.IZosmfRestApiProcessor;
 import dev.galasa.zosmf.ZosmfException;
@@ -52,6 +64,7 @@ import dev.galasa.zosmf.internal.properties.ServerCreds;
 import dev.galasa.zosmf.internal.properties.ServerImage;
 import dev.galasa.zosmf.internal.properties.ServerPort;
 import dev.galasa.zosmf.internal.properties.SysplexServers;
+import dev.galasa.zosmf.internal.properties.ZosmfPropertiesSingleton;
 
 //@RunWith(PowerMockRunner.class)
 //@PrepareForTest({SysplexServers.class, ServerImage.class, ServerCreds.class, ServerPort.class, Https.class, RequestRetry.class})
@@ -592,4 +605,88 @@ public class TestZosmfImpl {
 //        });
 //    	Assert.assertEquals("exception should contain expected message", expectedMessage, expectedException.getCause().getMessage());
 //    }
+
+    private static final String SERVER_ID = "SERVER1";
+
+    private static final String PATH = "/zosmf/restjobs/jobs";
+
+    private ZosmfImpl newZosmf(IHttpClient httpClient) throws Exception {
+        new ZosmfPropertiesSingleton().activate();
+        ZosmfPropertiesSingleton.setCps(Mockito.mock(IConfigurationPropertyStoreService.class));
+
+        IZosImage image = Mockito.mock(IZosImage.class);
+        Mockito.when(image.getImageID()).thenReturn("IMAGE1");
+        Mockito.when(image.getDefaultHostname()).thenReturn("zosmf.example.com");
+        IZosManagerSpi zosManager = Mockito.mock(IZosManagerSpi.class);
+        Mockito.when(zosManager.getUnmanagedImage(SERVER_ID)).thenReturn(image);
+        IHttpManagerSpi httpManager = Mockito.mock(IHttpManagerSpi.class);
+        Mockito.when(httpManager.newHttpClient()).thenReturn(httpClient);
+        ZosmfManagerImpl zosmfManager = Mockito.mock(ZosmfManagerImpl.class);
+        Mockito.when(zosmfManager.getZosManager()).thenReturn(zosManager);
+        Mockito.when(zosmfManager.getHttpManager()).thenReturn(httpManager);
+
+        return new ZosmfImpl(zosmfManager, SERVER_ID);
+    }
+
+    /**
+     * Send requests with the same headers in step with another thread, so the requests of the two threads interleave
+     */
+    private Thread sendInStep(ZosmfImpl zosmf, Map<String, String> headers, CyclicBarrier inStep) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            inStep.await(10, TimeUnit.SECONDS);
+            zosmf.get(PATH, headers, null, true);
+        }
+        return Thread.currentThread();
+    }
+
+    private void assertHeadersSent(String message, Map<String, String> expected, List<Map<String, String>> sent) {
+        Assert.assertEquals(message + ", unexpected number of requests", 50, sent.size());
+        for (Map<String, String> headers : sent) {
+            Assert.assertEquals(message, expected, headers);
+        }
+    }
+
+    @Test
+    public void testInterleavedRequestsOnlySendTheirOwnHeaders() throws Exception {
+        Map<Thread, List<Map<String, String>>> sent = new ConcurrentHashMap<>();
+        @SuppressWarnings("unchecked")
+        HttpClientResponse<String> response = Mockito.mock(HttpClientResponse.class);
+        Mockito.when(response.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        IHttpClient httpClient = Mockito.mock(IHttpClient.class);
+        Mockito.when(httpClient.getText(Mockito.anyString(), Mockito.anyMap())).thenAnswer(invocation -> {
+            sent.computeIfAbsent(Thread.currentThread(), key -> new CopyOnWriteArrayList<>()).add(new HashMap<>(invocation.getArgument(1)));
+            return response;
+        });
+
+        ZosmfImpl zosmf = newZosmf(httpClient);
+        zosmf.setHeader("X-Server", "server");
+
+        Map<String, String> headersA = new HashMap<>();
+        headersA.put("X-Request", "a");
+        headersA.put("X-Only-A", "yes");
+        Map<String, String> headersB = new HashMap<>();
+        headersB.put("X-Request", "b");
+
+        String method = ZosmfCustomHeaders.X_IBM_REQUESTED_METHOD.toString();
+        CyclicBarrier inStep = new CyclicBarrier(2);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<Thread> threadA = threads.submit(() -> sendInStep(zosmf, headersA, inStep));
+            Future<Thread> threadB = threads.submit(() -> sendInStep(zosmf, headersB, inStep));
+
+            assertHeadersSent("The first thread should only send its own headers",
+                    Map.of("X-Server", "server", "X-Request", "a", "X-Only-A", "yes", method, "GET"), sent.get(threadA.get(10, TimeUnit.SECONDS)));
+            assertHeadersSent("The second thread should only send its own headers",
+                    Map.of("X-Server", "server", "X-Request", "b", method, "GET"), sent.get(threadB.get(10, TimeUnit.SECONDS)));
+        } finally {
+            threads.shutdown();
+        }
+
+        Assert.assertEquals("The caller's headers should not be changed", Map.of("X-Request", "a", "X-Only-A", "yes"), headersA);
+        zosmf.get(PATH, null, true);
+        Assert.assertEquals("The request headers should not be kept by the server",
+                Map.of("X-Server", "server", method, "GET"), sent.get(Thread.currentThread()).get(0));
+        Mockito.verify(httpClient, Mockito.never()).addCommonHeader(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(httpClient, Mockito.never()).clearCommonHeaders();
+    }
 }
@@ -5,15 +5,28 @@
  */
 package dev.galasa.zosmf.internal;
 
+import java.net.ConnectException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.http.HttpStatus;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 //import org.powermock.api.mockito.PowerMockito;
@@ -21,8 +34,12 @@ import org.mockito.Mockito;
 //import org.powermock.modules.junit4.PowerMockRunner;
 //import org.powermock.reflect.Whitebox;
 
+import com.google.gson.JsonObject;
+
+import dev.galasa.http.HttpClientException;
 import dev.galasa.zos.IZosImage;
 import dev.galasa.zosmf.IZosmf;
+import dev.galasa.zosmf.IZosmf.ZosmfCustomHeaders;
 import dev.galasa.zosmf.IZosmf.ZosmfRequestType;
 import dev.galasa.zosmf.IZosmfResponse;
 import dev.galasa.zosmf.ZosmfException;
@@ -149,4 +166,200 @@ public class TestZosmfRestApiProcessor {
 //        zosmfRestApiProcessorSpy.getNextZosmf();
 //        Assert.assertEquals("getNextZosmf() should set the expected value", zosmfMock1, Whitebox.getInternalState(zosmfRestApiProcessorSpy, "currentZosmf"));
 //    }
+
+    private static final String REQUEST_PATH = "request-path";
+
+    private ZosmfImpl mockZosmf(ScheduledExecutorService scheduler) {
+        ZosmfImpl zosmf = Mockito.mock(ZosmfImpl.class);
+        ZosmfServerHealth health = new ZosmfServerHealth(zosmf, scheduler, 1, 30);
+        Mockito.when(zosmf.getHealth()).thenReturn(health);
+        Mockito.when(zosmf.getRequestRetry()).thenReturn(1);
+        return zosmf;
+    }
+
+    private IZosmfResponse okResponse() {
+        IZosmfResponse response = Mockito.mock(IZosmfResponse.class);
+        Mockito.when(response.getStatusCode()).thenReturn(HttpStatus.SC_OK);
+        return response;
+    }
+
+    private ZosmfRestApiProcessor newProcessor(IZosmf... servers) {
+        HashMap<String, IZosmf> zosmfMap = new LinkedHashMap<>();
+        for (int i = 0; i < servers.length; i++) {
+            zosmfMap.put("server" + i, servers[i]);
+        }
+        return new ZosmfRestApiProcessor(zosmfMap);
+    }
+
+    @Test
+    public void testSelectsLeastLoadedServer() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfImpl busy = mockZosmf(scheduler);
+        ZosmfImpl idle = mockZosmf(scheduler);
+        ZosmfImpl loaded = mockZosmf(scheduler);
+        busy.getHealth().requestStarted();
+        busy.getHealth().requestStarted();
+        loaded.getHealth().requestStarted();
+
+        ZosmfRestApiProcessor processor = newProcessor(busy, idle, loaded);
+        for (int i = 0; i < 6; i++) {
+            Assert.assertSame("The server with the fewest outstanding requests should be selected", idle, processor.selectZosmf(new HashSet<>()));
+        }
+    }
+
+    @Test
+    public void testConnectionFailureSkipsServerUntilProbeSucceeds() throws Exception {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfImpl failing = mockZosmf(scheduler);
+        ZosmfImpl working = mockZosmf(scheduler);
+        IZosmfResponse response = okResponse();
+        Mockito.when(failing.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean()))
+            .thenThrow(new ZosmfException("Request failed", new HttpClientException("Error executing http request", new ConnectException("Connection refused"))));
+        Mockito.when(working.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenReturn(response);
+
+        ZosmfRestApiProcessor processor = newProcessor(failing, working);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertSame("The request should be retried on the working server", response, processor.sendRequest(ZosmfRequestType.GET, REQUEST_PATH, null, null, null, true));
+        }
+        Mockito.verify(failing, Mockito.times(1)).get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        Assert.assertFalse("The failing server should be marked unhealthy", failing.getHealth().isAvailable());
+
+        // The back-off probe finds the server has recovered
+        ArgumentCaptor<Runnable> probe = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(probe.capture(), Mockito.eq(30L), Mockito.eq(TimeUnit.SECONDS));
+        Mockito.when(failing.serverInfo()).thenReturn(new JsonObject());
+        probe.getValue().run();
+        Assert.assertTrue("The server should be available after the probe", failing.getHealth().isAvailable());
+
+        // Make the other server busier so the recovered server is chosen
+        working.getHealth().requestStarted();
+        Assert.assertSame("The recovered server should be selected again", failing, processor.selectZosmf(new HashSet<>()));
+    }
+
+    @Test
+    public void testUnexpectedResponseDoesNotMarkServerUnhealthy() throws Exception {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfImpl zosmf1 = mockZosmf(scheduler);
+        ZosmfImpl zosmf2 = mockZosmf(scheduler);
+        Mockito.when(zosmf1.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean()))
+            .thenThrow(new ZosmfException("Unexpected HTTP status code: 404"));
+        Mockito.when(zosmf2.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean()))
+            .thenThrow(new ZosmfException("Request failed", new HttpClientException("Unable to parse response body", new IllegalStateException("Not JSON"))));
+
+        ZosmfRestApiProcessor processor = newProcessor(zosmf1, zosmf2);
+        Assert.assertThrows(ZosmfException.class, () -> processor.sendRequest(ZosmfRequestType.GET, REQUEST_PATH, null, null, null, true));
+
+        Assert.assertTrue("A bad status code should not mark the server unhealthy", zosmf1.getHealth().isAvailable());
+        Assert.assertTrue("A response that cannot be processed should not mark the server unhealthy", zosmf2.getHealth().isAvailable());
+        Mockito.verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    public void testServiceUnavailableMarksServerUnhealthy() throws Exception {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfImpl zosmf = mockZosmf(scheduler);
+        IZosmfResponse unavailable = Mockito.mock(IZosmfResponse.class);
+        Mockito.when(unavailable.getStatusCode()).thenReturn(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        Mockito.when(zosmf.delete(Mockito.anyString(), Mockito.any(), Mockito.any())).thenReturn(unavailable);
+
+        ZosmfRestApiProcessor processor = newProcessor(zosmf);
+        Assert.assertThrows(ZosmfException.class, () -> processor.sendRequest(ZosmfRequestType.DELETE, REQUEST_PATH, null, null, null, true));
+
+        Assert.assertFalse("The server should be marked unhealthy", zosmf.getHealth().isAvailable());
+    }
+
+    @Test
+    public void testServersWithSimilarLatenciesShareTheRequests() throws Exception {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfImpl faster = mockZosmf(scheduler);
+        ZosmfImpl zosmf2 = mockZosmf(scheduler);
+        ZosmfImpl zosmf3 = mockZosmf(scheduler);
+        IZosmfResponse response = okResponse();
+        for (ZosmfImpl zosmf : Arrays.asList(faster, zosmf2, zosmf3)) {
+            long latencyMillis = zosmf == faster ? 2 : 4;
+            Mockito.when(zosmf.get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean())).thenAnswer(invocation -> {
+                Thread.sleep(latencyMillis);
+                return response;
+            });
+        }
+        // One server starts out slightly faster than the others
+        faster.getHealth().requestSucceeded(faster.getHealth().requestStarted() - TimeUnit.MILLISECONDS.toNanos(2));
+        zosmf2.getHealth().requestSucceeded(zosmf2.getHealth().requestStarted() - TimeUnit.MILLISECONDS.toNanos(4));
+        zosmf3.getHealth().requestSucceeded(zosmf3.getHealth().requestStarted() - TimeUnit.MILLISECONDS.toNanos(4));
+
+        ZosmfRestApiProcessor processor = newProcessor(faster, zosmf2, zosmf3);
+        for (int i = 0; i < 30; i++) {
+            processor.sendRequest(ZosmfRequestType.GET, REQUEST_PATH, null, null, null, true);
+        }
+
+        for (ZosmfImpl zosmf : Arrays.asList(faster, zosmf2, zosmf3)) {
+            Mockito.verify(zosmf, Mockito.times(10)).get(Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyBoolean());
+        }
+    }
+
+    @Test
+    public void testMuchSlowerServerIsNotSelected() {
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfImpl fast = mockZosmf(scheduler);
+        ZosmfImpl slow = mockZosmf(scheduler);
+        fast.getHealth().requestSucceeded(fast.getHealth().requestStarted() - TimeUnit.MILLISECONDS.toNanos(100));
+        slow.getHealth().requestSucceeded(slow.getHealth().requestStarted() - TimeUnit.MILLISECONDS.toNanos(500));
+
+        ZosmfRestApiProcessor processor = newProcessor(slow, fast);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertSame("The much faster server should be selected", fast, processor.selectZosmf(new HashSet<>()));
+        }
+    }
+
+    /**
+     * Send requests with the same headers in step with another thread, so the requests of the two threads interleave
+     */
+    private Thread sendInStep(ZosmfRestApiProcessor processor, Map<String, String> headers, CyclicBarrier inStep) throws Exception {
+        for (int i = 0; i < 50; i++) {
+            inStep.await(10, TimeUnit.SECONDS);
+            processor.sendRequest(ZosmfRequestType.GET, REQUEST_PATH, headers, null, null, true);
+        }
+        return Thread.currentThread();
+    }
+
+    @Test
+    public void testInterleavedRequestsOnlySendTheirOwnHeaders() throws Exception {
+        Map<Thread, List<Map<String, String>>> sent = new ConcurrentHashMap<>();
+        ZosmfImpl zosmf = mockZosmf(Mockito.mock(ScheduledExecutorService.class));
+        IZosmfResponse response = okResponse();
+        Mockito.when(zosmf.get(Mockito.anyString(), Mockito.anyMap(), Mockito.any(), Mockito.anyBoolean())).thenAnswer(invocation -> {
+            sent.computeIfAbsent(Thread.currentThread(), key -> new CopyOnWriteArrayList<>()).add(new HashMap<>(invocation.getArgument(1)));
+            return response;
+        });
+        ZosmfRestApiProcessor processor = newProcessor(zosmf);
+
+        Map<String, String> headersA = new HashMap<>();
+        headersA.put("X-Request", "a");
+        headersA.put("X-Only-A", "yes");
+        Map<String, String> headersB = new HashMap<>();
+        headersB.put("X-Request", "b");
+
+        String csrf = ZosmfCustomHeaders.X_CSRF_ZOSMF_HEADER.toString();
+        CyclicBarrier inStep = new CyclicBarrier(2);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<Thread> threadA = threads.submit(() -> sendInStep(processor, headersA, inStep));
+            Future<Thread> threadB = threads.submit(() -> sendInStep(processor, headersB, inStep));
+
+            List<Map<String, String>> sentA = sent.get(threadA.get(10, TimeUnit.SECONDS));
+            List<Map<String, String>> sentB = sent.get(threadB.get(10, TimeUnit.SECONDS));
+            Assert.assertEquals("Unexpected number of requests from the first thread", 50, sentA.size());
+            Assert.assertEquals("Unexpected number of requests from the second thread", 50, sentB.size());
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals("The first thread should only send its own headers", Map.of("X-Request", "a", "X-Only-A", "yes", csrf, ""), sentA.get(i));
+                Assert.assertEquals("The second thread should only send its own headers", Map.of("X-Request", "b", csrf, ""), sentB.get(i));
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        Assert.assertEquals("The caller's headers should not be changed", Map.of("X-Request", "a", "X-Only-A", "yes"), headersA);
+        Mockito.verify(zosmf, Mockito.never()).setHeader(Mockito.anyString(), Mockito.anyString());
+        Mockito.verify(zosmf, Mockito.never()).clearHeaders();
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright contributors to the Galasa project
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package dev.galasa.zosmf.internal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.google.gson.JsonObject;
+
+import dev.galasa.zosmf.IZosmf;
+import dev.galasa.zosmf.ZosmfException;
+
+public class TestZosmfServerHealth {
+
+    @Test
+    public void testOutstandingRequestsAndLatency() {
+        ZosmfServerHealth health = new ZosmfServerHealth(Mockito.mock(IZosmf.class), Mockito.mock(ScheduledExecutorService.class), 3, 30);
+
+        long start1 = health.requestStarted();
+        long start2 = health.requestStarted();
+        Assert.assertEquals("Both requests should be outstanding", 2, health.getOutstandingRequests());
+
+        health.requestSucceeded(start1 - TimeUnit.MILLISECONDS.toNanos(5));
+        health.requestSucceeded(start2);
+        Assert.assertEquals("No requests should be outstanding", 0, health.getOutstandingRequests());
+        Assert.assertTrue("Average latency should have been recorded", health.getAverageLatencyMillis() >= 1);
+        Assert.assertTrue("Server should be available", health.isAvailable());
+    }
+
+    @Test
+    public void testCircuitOpensAtThresholdAndClosesAfterProbe() throws ZosmfException {
+        IZosmf zosmf = Mockito.mock(IZosmf.class);
+        ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+        ZosmfServerHealth health = new ZosmfServerHealth(zosmf, scheduler, 2, 30);
+
+        health.requestStarted();
+        health.requestFailed();
+        Assert.assertTrue("Server should be available below the failure threshold", health.isAvailable());
+
+        health.requestStarted();
+        health.requestFailed();
+        Assert.assertFalse("Server should not be available at the failure threshold", health.isAvailable());
+
+        ArgumentCaptor<Runnable> probe = ArgumentCaptor.forClass(Runnable.class);
+        Mockito.verify(scheduler).schedule(probe.capture(), Mockito.eq(30L), Mockito.eq(TimeUnit.SECONDS));
+
+        Mockito.when(zosmf.serverInfo()).thenThrow(new ZosmfException("down")).thenReturn(new JsonObject());
+        probe.getValue().run();
+        Assert.assertFalse("Server should not be available after a failed probe", health.isAvailable());
+        Mockito.verify(scheduler, Mockito.times(2)).schedule(Mockito.any(Runnable.class), Mockito.eq(30L), Mockito.eq(TimeUnit.SECONDS));
+
+        probe.getValue().run();
+        Assert.assertTrue("Server should be available after a successful probe", health.isAvailable());
+    }
+}
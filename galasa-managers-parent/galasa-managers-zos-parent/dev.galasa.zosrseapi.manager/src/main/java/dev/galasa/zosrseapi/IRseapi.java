@@ -6,6 +6,7 @@
 package dev.galasa.zosrseapi;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -66,7 +67,8 @@ public interface IRseapi {
     }
     
     /**
-     * Set an HTTP Header for the pending RSE API request
+     * Set an HTTP Header for subsequent RSE API requests to this server.
+     * Where requests may be issued concurrently, supply the headers on each request instead
      * 
      * @param name header name
      * @param value header value 
@@ -90,6 +92,18 @@ public interface IRseapi {
      */
     public @NotNull IRseapiResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws RseapiException;
 
+    /**
+     * Issue an HTTP GET request to the RSE API server with no request body and the supplied HTTP headers
+     * 
+     * @param path identifies the RSE API REST API server
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @param convert is a data conversion required. If true, data will be converted betwen EBCDIC to ISO8859-1. If false, no data conversion will take place.
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse get(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws RseapiException;
+
     /**
 	 * Issue an HTTP PUT request to the RSE API server with text request body {@code text/plain}
 	 * 
@@ -101,6 +115,18 @@ public interface IRseapi {
 	 */
 	public @NotNull IRseapiResponse putText(String path, String body, List<Integer> validStatusCodes) throws RseapiException;
 
+    /**
+     * Issue an HTTP PUT request to the RSE API server with a request body of content type of {@code text/plain} and the supplied HTTP headers
+     * 
+     * @param path identifies the RSE API REST API server
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param body the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse putText(String path, Map<String, String> headers, String body, List<Integer> validStatusCodes) throws RseapiException;
+
 	/**
 	 * Issue an HTTP PUT request to the RSE API server with a request body of content type of {@code application/json}
 	 * 
@@ -112,6 +138,18 @@ public interface IRseapi {
 	 */
 	public @NotNull IRseapiResponse putJson(String path, JsonObject body, List<Integer> validStatusCodes) throws RseapiException;
 
+    /**
+     * Issue an HTTP PUT request to the RSE API server with a request body of content type of {@code application/json} and the supplied HTTP headers
+     * 
+     * @param path identifies the RSE API REST API server
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param body the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse putJson(String path, Map<String, String> headers, JsonObject body, List<Integer> validStatusCodes) throws RseapiException;
+
     /**
     * Issue an HTTP PUT request to the RSE API server with a request body of content type of {@code text/plain}
     * 
@@ -123,6 +161,18 @@ public interface IRseapi {
     */
    public @NotNull IRseapiResponse putBinary(String path, byte[] body, List<Integer> validStatusCodes) throws RseapiException;
 
+    /**
+     * Issue an HTTP PUT request to the RSE API server with a request body of content type of {@code application/octet-stream} and the supplied HTTP headers
+     * 
+     * @param path identifies the RSE API REST API server
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param body the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse putBinary(String path, Map<String, String> headers, byte[] body, List<Integer> validStatusCodes) throws RseapiException;
+
 	/**
      * Issue an HTTP POST request to the RSE API server with no request body
      * 
@@ -144,6 +194,18 @@ public interface IRseapi {
      */
     public @NotNull IRseapiResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException;
 
+    /**
+     * Issue an HTTP POST request to the RSE API server with a request body of content type of {@code application/json} and the supplied HTTP headers
+     * 
+     * @param path identifies the RSE API REST API server
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param requestBody the request body
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse postJson(String path, Map<String, String> headers, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException;
+
     /**
      * Issue an HTTP DELETE request to the RSE API server with no request body
      * 
@@ -153,6 +215,17 @@ public interface IRseapi {
      * @throws RseapiException
      */
     public @NotNull IRseapiResponse delete(String path, List<Integer> validStatusCodes) throws RseapiException;
+
+    /**
+     * Issue an HTTP DELETE request to the RSE API server with no request body and the supplied HTTP headers
+     * 
+     * @param path identifies the RSE API REST API server
+     * @param headers HTTP headers sent with this request only. These are used in addition to, and override, any set by {@link #setHeader(String, String)}
+     * @param validStatusCodes a {@link List} of acceptable HTTP Status codes. Default to {@link HttpStatus#SC_OK} when null
+     * @return the RSE API server response
+     * @throws RseapiException
+     */
+    public @NotNull IRseapiResponse delete(String path, Map<String, String> headers, List<Integer> validStatusCodes) throws RseapiException;
     
     /**
      * Return the JSON response from the RSE API server Server Information request
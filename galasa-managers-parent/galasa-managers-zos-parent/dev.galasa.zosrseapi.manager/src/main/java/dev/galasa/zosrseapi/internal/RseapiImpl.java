@@ -13,7 +13,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.constraints.NotNull;
 
@@ -57,7 +59,7 @@ public class RseapiImpl implements IRseapi {
     private String rseapiUrl;
     protected int requestRetry;
 
-    private HashMap<String, String> commonHeaders = new HashMap<>();
+    private final Map<String, String> commonHeaders = new ConcurrentHashMap<>();
 
 	private static final String PATH_SERVERDETAILS = "/rseapi/api/v1/info/serverdetails";
 
@@ -87,24 +89,28 @@ public class RseapiImpl implements IRseapi {
     @Override
     public void clearHeaders() {
         this.commonHeaders.clear();
-        this.httpClient.clearCommonHeaders();
     }
 
     @Override
     public @NotNull IRseapiResponse get(String path, List<Integer> validStatusCodes, boolean convert) throws RseapiException {
+        return get(path, null, validStatusCodes, convert);
+    }
+
+    @Override
+    public @NotNull IRseapiResponse get(String path, Map<String, String> headers, List<Integer> validStatusCodes, boolean convert) throws RseapiException {
         String method = RseapiRequestType.GET.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         RseapiResponseImpl rseapiResponse;
         try {
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers);
             rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
             logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
             if (convert) {
-                rseapiResponse.setHttpClientresponse(this.httpClient.getJson(validPath(path)));
+                rseapiResponse.setHttpClientresponse(this.httpClient.getJson(validPath(path), requestHeaders));
             } else {
-                rseapiResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path)));
+                rseapiResponse.setHttpClientresponse(this.httpClient.getFile(validPath(path), requestHeaders));
             }
             
             logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
@@ -121,17 +127,22 @@ public class RseapiImpl implements IRseapi {
 
 	@Override
 	public @NotNull IRseapiResponse putJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException {
+		return putJson(path, null, requestBody, validStatusCodes);
+	}
+
+	@Override
+	public @NotNull IRseapiResponse putJson(String path, Map<String, String> headers, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException {
 	    String method = RseapiRequestType.PUT_JSON.getRequestType();
 	    if (validStatusCodes == null) {
 	        validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
 	    }
 	    RseapiResponseImpl rseapiResponse;
 	    try {
-	        addCommonHeaders();
+	        Map<String, String> requestHeaders = requestHeaders(headers);
 	        rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
 	        logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
 	        logger.trace(LOG_BODY + requestBody);
-	        rseapiResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody));
+	        rseapiResponse.setHttpClientresponse(this.httpClient.putJson(validPath(path), requestBody, requestHeaders));
 	        logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
 	        if (!validStatusCodes.contains(rseapiResponse.getStatusCode())) {
 	            throw new RseapiException(logBadStatusCode(rseapiResponse.getStatusCode()));
@@ -145,18 +156,23 @@ public class RseapiImpl implements IRseapi {
 	}
 
     @Override
-	public @NotNull IRseapiResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws RseapiException {
+    public @NotNull IRseapiResponse putText(String path, String requestBody, List<Integer> validStatusCodes) throws RseapiException {
+        return putText(path, null, requestBody, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IRseapiResponse putText(String path, Map<String, String> headers, String requestBody, List<Integer> validStatusCodes) throws RseapiException {
 	    String method = RseapiRequestType.PUT_TEXT.getRequestType();
 	    if (validStatusCodes == null) {
 	        validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
 	    }
 	    RseapiResponseImpl rseapiResponse;
 	    try {
-	        addCommonHeaders();
+	        Map<String, String> requestHeaders = requestHeaders(headers);
 	        rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
 	        logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
 	        logger.trace(LOG_BODY + requestBody);
-	        rseapiResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody));
+	        rseapiResponse.setHttpClientresponse(this.httpClient.putText(validPath(path), requestBody, requestHeaders));
 	        logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
 	        if (!validStatusCodes.contains(rseapiResponse.getStatusCode())) {
 	            throw new RseapiException(logBadStatusCode(rseapiResponse.getStatusCode()));
@@ -170,17 +186,22 @@ public class RseapiImpl implements IRseapi {
 	}
 
     @Override
-	public @NotNull IRseapiResponse putBinary(String path, byte[] requestBody, List<Integer> validStatusCodes) throws RseapiException {
+    public @NotNull IRseapiResponse putBinary(String path, byte[] requestBody, List<Integer> validStatusCodes) throws RseapiException {
+        return putBinary(path, null, requestBody, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IRseapiResponse putBinary(String path, Map<String, String> headers, byte[] requestBody, List<Integer> validStatusCodes) throws RseapiException {
 	    String method = RseapiRequestType.PUT_BINARY.getRequestType();
 	    if (validStatusCodes == null) {
 	        validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
 	    }
 	    RseapiResponseImpl rseapiResponse;
 	    try {
-	        addCommonHeaders();
+	        Map<String, String> requestHeaders = requestHeaders(headers);
 	        rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
 	        logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
-	        rseapiResponse.setHttpClientresponse(this.httpClient.putBinary(validPath(path), requestBody));
+	        rseapiResponse.setHttpClientresponse(this.httpClient.putBinary(validPath(path), requestBody, requestHeaders));
 	        logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
 	        if (!validStatusCodes.contains(rseapiResponse.getStatusCode())) {
 	            throw new RseapiException(logBadStatusCode(rseapiResponse.getStatusCode()));
@@ -194,18 +215,23 @@ public class RseapiImpl implements IRseapi {
 	}
 
 	@Override
-    public @NotNull IRseapiResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException {
+	public @NotNull IRseapiResponse postJson(String path, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException {
+		return postJson(path, null, requestBody, validStatusCodes);
+	}
+
+	@Override
+	public @NotNull IRseapiResponse postJson(String path, Map<String, String> headers, JsonObject requestBody, List<Integer> validStatusCodes) throws RseapiException {
         String method = RseapiRequestType.POST_JSON.getRequestType();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         RseapiResponseImpl rseapiResponse;
         try {
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers);
             rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
             logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
             logger.trace(LOG_BODY + requestBody);
-            rseapiResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody));
+            rseapiResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), requestBody, requestHeaders));
             logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
             if (!validStatusCodes.contains(rseapiResponse.getStatusCode())) {
                 throw new RseapiException(logBadStatusCode(rseapiResponse.getStatusCode()));
@@ -226,10 +252,10 @@ public class RseapiImpl implements IRseapi {
         }
         RseapiResponseImpl rseapiResponse;
         try {
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(null);
             rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
             logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
-            rseapiResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), null));
+            rseapiResponse.setHttpClientresponse(this.httpClient.postJson(validPath(path), null, requestHeaders));
             logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
             if (!validStatusCodes.contains(rseapiResponse.getStatusCode())) {
                 throw new RseapiException(logBadStatusCode(rseapiResponse.getStatusCode()));
@@ -244,16 +270,21 @@ public class RseapiImpl implements IRseapi {
 
     @Override
     public @NotNull IRseapiResponse delete(String path, List<Integer> validStatusCodes) throws RseapiException {
+        return delete(path, null, validStatusCodes);
+    }
+
+    @Override
+    public @NotNull IRseapiResponse delete(String path, Map<String, String> headers, List<Integer> validStatusCodes) throws RseapiException {
         String method = RseapiRequestType.DELETE.name();
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
         RseapiResponseImpl rseapiResponse;
         try {
-            addCommonHeaders();
+            Map<String, String> requestHeaders = requestHeaders(headers);
             rseapiResponse = new RseapiResponseImpl(this.rseapiUrl, validPath(path));
             logger.trace(logRequest(method, rseapiResponse.getRequestUrl()));
-            rseapiResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path)));
+            rseapiResponse.setHttpClientresponse(this.httpClient.deleteJson(validPath(path), requestHeaders));
             logger.trace(logResponse(rseapiResponse.getStatusLine(), method, rseapiResponse.getRequestUrl()));
             if (!validStatusCodes.contains(rseapiResponse.getStatusCode())) {
                 throw new RseapiException(logBadStatusCode(rseapiResponse.getStatusCode()));
@@ -341,12 +372,19 @@ public class RseapiImpl implements IRseapi {
         }
     }
 
-    protected void addCommonHeaders() {
-        for (Entry<String, String> entry : this.commonHeaders.entrySet()) {
+    /**
+     * Build the headers for a single request from the server headers and the request headers.
+     * Nothing is written back to the server or the shared HTTP client, so requests may be issued concurrently
+     */
+    protected Map<String, String> requestHeaders(Map<String, String> headers) {
+        Map<String, String> requestHeaders = new HashMap<>(this.commonHeaders);
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        for (Entry<String, String> entry : requestHeaders.entrySet()) {
             logger.trace("Adding HTTP header: " + entry.getKey() + ": " + entry.getValue());
-            this.httpClient.addCommonHeader(entry.getKey(), entry.getValue());
         }
-        
+        return requestHeaders;
     }
 
     protected String logRequest(String method, URL requestUrl) {
@@ -32,8 +32,8 @@ import dev.galasa.zosrseapi.IRseapi.RseapiRequestType;
 
 public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
     
-    private IRseapi currentRseapi;
-    private String currentRseapiImageId;
+    private volatile IRseapi currentRseapi;
+    private volatile String currentRseapiImageId;
     
     private final HashMap<String, IRseapi> rseapis = new LinkedHashMap<>();
     
@@ -64,34 +64,37 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
         if (validStatusCodes == null) {
             validStatusCodes = new ArrayList<>(Arrays.asList(HttpStatus.SC_OK));
         }
+        // Headers are built per request and passed through to the server, never set on it, so
+        // concurrent requests through this processor or the same RSE API server cannot see each other's headers
+        Map<String, String> requestHeaders = new HashMap<>();
+        if (headers != null) {
+            requestHeaders.putAll(headers);
+        }
+        requestHeaders.put("accept", "*/*");
+
         IRseapiResponse response = null;
-        for (int i = 0; i <= ((RseapiImpl) currentRseapi).getRequestRetry(); i++) {
+        IRseapi rseapiServer = getCurrentRseapiServer();
+        int requestRetry = ((RseapiImpl) rseapiServer).getRequestRetry();
+        for (int i = 0; i <= requestRetry; i++) {
             try {
-                IRseapi rseapiServer = getCurrentRseapiServer();
-                if (headers != null) {
-                    for (Entry<String, String> entry : headers.entrySet()) {
-                        rseapiServer.setHeader(entry.getKey(), entry.getValue());
-                    }
-                }
-            	rseapiServer.setHeader("accept", "*/*");
                 switch (requestType) {
 	                case GET:
-	                    response = rseapiServer.get(path, validStatusCodes, convert);
+	                    response = rseapiServer.get(path, requestHeaders, validStatusCodes, convert);
 	                    break;
 	                case PUT_JSON:
-	                    response = rseapiServer.putJson(path, (JsonObject) body, validStatusCodes);
+	                    response = rseapiServer.putJson(path, requestHeaders, (JsonObject) body, validStatusCodes);
 	                    break;
 	                case PUT_TEXT:
-	                    response = rseapiServer.putText(path, (String) body, validStatusCodes);
+	                    response = rseapiServer.putText(path, requestHeaders, (String) body, validStatusCodes);
 	                    break;
 	                case PUT_BINARY:
-	                    response = rseapiServer.putBinary(path, (byte[]) body, validStatusCodes);
+	                    response = rseapiServer.putBinary(path, requestHeaders, (byte[]) body, validStatusCodes);
 	                    break;
 	                case POST_JSON:
-	                    response = rseapiServer.postJson(path, (JsonObject) body, validStatusCodes);
+	                    response = rseapiServer.postJson(path, requestHeaders, (JsonObject) body, validStatusCodes);
 	                    break;
 	                case DELETE:
-	                    response = rseapiServer.delete(path, validStatusCodes);
+	                    response = rseapiServer.delete(path, requestHeaders, validStatusCodes);
 	                    break; 
 	                default:
 	                    throw new RseapiException("Invalid request type");
@@ -101,26 +104,40 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
                     return response;
                 } else {
                     logger.error("Expected HTTP status codes: " + validStatusCodes);
-                    getNextRseapi();
+                    rseapiServer = getNextRseapi(rseapiServer);
                 }
             } catch (RseapiManagerException e) {
                 logger.error("Problem with RSE API request", e);
-                getNextRseapi();
+                rseapiServer = getNextRseapi(rseapiServer);
             }
         }
         throw new RseapiException("Unable to get valid response from RSE API server");
     }
     
     protected IRseapi getCurrentRseapiServer() {
-        logger.debug("Using RSE API server on " + this.currentRseapi);
-        this.currentRseapi.clearHeaders();
-        return this.currentRseapi;
+        IRseapi rseapi = this.currentRseapi;
+        logger.debug("Using RSE API server on " + rseapi);
+        return rseapi;
     }
 
     protected void getNextRseapi() {
+        getNextRseapi(this.currentRseapi);
+    }
+
+    /**
+     * Move away from a RSE API server that has failed a request and return the server to use next.
+     * If another thread has already moved away from the failed server, its choice is kept so that
+     * concurrent failures do not skip past healthy servers
+     * @param failedRseapi the RSE API server that failed the request
+     * @return the RSE API server to retry the request on
+     */
+    protected synchronized IRseapi getNextRseapi(IRseapi failedRseapi) {
         if (this.rseapis.size() == 1) {
             logger.debug("Only one RSE API server available");
-            return;
+            return this.currentRseapi;
+        }
+        if (failedRseapi != this.currentRseapi) {
+            return this.currentRseapi;
         }
         Iterator<Entry<String, IRseapi>> rseapisIterator = this.rseapis.entrySet().iterator();
         while (rseapisIterator.hasNext()) {
@@ -133,9 +150,10 @@ public class RseapiRestApiProcessor implements IRseapiRestApiProcessor {
                 }
                 this.currentRseapiImageId = entry.getKey();
                 this.currentRseapi = this.rseapis.get(this.currentRseapiImageId);
-                return;
+                return this.currentRseapi;
             }
         }
         logger.debug("No alternate RSE API server available");
+        return this.currentRseapi;
     }
 }